@@ -1,5 +1,14 @@
 -- PostgreSQL Schema for Parche Lector
 
+-- Full-text search: accent-insensitive Spanish/English stemming and plain names
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE TEXT SEARCH CONFIGURATION parche_es (COPY = spanish);
+ALTER TEXT SEARCH CONFIGURATION parche_es ALTER MAPPING FOR hword, hword_part, word WITH unaccent, spanish_stem;
+CREATE TEXT SEARCH CONFIGURATION parche_en (COPY = english);
+ALTER TEXT SEARCH CONFIGURATION parche_en ALTER MAPPING FOR hword, hword_part, word WITH unaccent, english_stem;
+CREATE TEXT SEARCH CONFIGURATION parche_simple (COPY = simple);
+ALTER TEXT SEARCH CONFIGURATION parche_simple ALTER MAPPING FOR hword, hword_part, word WITH unaccent, simple;
+
 CREATE TABLE users (
   id SERIAL PRIMARY KEY,
   username VARCHAR(32) UNIQUE NOT NULL,
@@ -8,7 +17,9 @@ CREATE TABLE users (
   avatar_url VARCHAR(512),
   bio TEXT,
   created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-  is_active BOOLEAN NOT NULL DEFAULT true
+  is_active BOOLEAN NOT NULL DEFAULT true,
+  followers_count INTEGER NOT NULL DEFAULT 0,
+  following_count INTEGER NOT NULL DEFAULT 0
 );
 
 CREATE TABLE books (
@@ -21,8 +32,15 @@ CREATE TABLE books (
   cover_url VARCHAR(512),
   language VARCHAR(10),
   page_count INTEGER,
+  popularity INTEGER NOT NULL DEFAULT 0,
   created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('parche_es', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('parche_en', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('parche_es', coalesce(description, '')), 'C') ||
+    setweight(to_tsvector('parche_en', coalesce(description, '')), 'C')
+  ) STORED
 );
 
 CREATE TABLE authors (
@@ -30,7 +48,11 @@ CREATE TABLE authors (
   name VARCHAR(255) NOT NULL,
   sort_name VARCHAR(255),
   created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  follower_count INTEGER NOT NULL DEFAULT 0,
+  search_vector TSVECTOR GENERATED ALWAYS AS (
+    to_tsvector('parche_simple', coalesce(name, '') || ' ' || coalesce(sort_name, ''))
+  ) STORED
 );
 
 CREATE TABLE book_authors (
@@ -64,6 +86,9 @@ CREATE TABLE reading_status (
   updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Hibernate allocates reading_status ids 50 at a time (pooled sequence, enables insert batching)
+ALTER SEQUENCE reading_status_id_seq INCREMENT BY 50;
+
 CREATE TABLE reviews (
   id SERIAL PRIMARY KEY,
   user_id INTEGER NOT NULL,
@@ -71,9 +96,12 @@ CREATE TABLE reviews (
   rating DECIMAL(2,1) NOT NULL,
   title VARCHAR(140),
   body TEXT,
+  excerpt VARCHAR(280),
   created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
   updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-  is_deleted BOOLEAN NOT NULL DEFAULT false
+  is_deleted BOOLEAN NOT NULL DEFAULT false,
+  like_count INTEGER NOT NULL DEFAULT 0,
+  comment_count INTEGER NOT NULL DEFAULT 0
 );
 
 CREATE TABLE review_likes (
@@ -118,6 +146,15 @@ CREATE TABLE follows (
   PRIMARY KEY(follower_id, followed_id)
 );
 
+CREATE TABLE timeline_items (
+  user_id INTEGER NOT NULL,
+  created_at TIMESTAMP NOT NULL,
+  item_type VARCHAR(10) NOT NULL,
+  item_id INTEGER NOT NULL,
+  author_id INTEGER NOT NULL,
+  PRIMARY KEY(user_id, created_at, item_type, item_id)
+);
+
 CREATE TABLE activity_log (
   id SERIAL PRIMARY KEY,
   user_id INTEGER NOT NULL,
@@ -157,6 +194,18 @@ CREATE TABLE author_follows (
   PRIMARY KEY(user_id, author_id)
 );
 
+CREATE TABLE user_suggestions (
+  user_id INTEGER NOT NULL,
+  position INTEGER NOT NULL,
+  suggested_user_id INTEGER NOT NULL,
+  score DOUBLE PRECISION NOT NULL,
+  mutual_follows INTEGER NOT NULL,
+  shared_books INTEGER NOT NULL,
+  shared_authors INTEGER NOT NULL,
+  computed_at TIMESTAMP NOT NULL,
+  PRIMARY KEY(user_id, position)
+);
+
 CREATE TABLE favorite_books (
   user_id INTEGER NOT NULL,
   book_id INTEGER NOT NULL,
@@ -213,13 +262,29 @@ CREATE TABLE reading_events (
   created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
+CREATE TABLE book_rating_stats (
+  book_id INTEGER PRIMARY KEY,
+  rating_sum DECIMAL(12,1) NOT NULL DEFAULT 0,
+  rating_count INTEGER NOT NULL DEFAULT 0,
+  average_rating DOUBLE PRECISION NOT NULL DEFAULT 0,
+  one_star INTEGER NOT NULL DEFAULT 0,
+  two_star INTEGER NOT NULL DEFAULT 0,
+  three_star INTEGER NOT NULL DEFAULT 0,
+  four_star INTEGER NOT NULL DEFAULT 0,
+  five_star INTEGER NOT NULL DEFAULT 0,
+  last_review_at TIMESTAMP
+);
+
 -- Indexes
 CREATE INDEX books_title_idx ON books(title);
-CREATE INDEX books_published_year_idx ON books(published_year);
+CREATE INDEX books_published_year_id_idx ON books(published_year, id);
+CREATE INDEX books_popularity_id_idx ON books(popularity DESC, id DESC);
 CREATE UNIQUE INDEX books_isbn13_idx ON books(isbn13);
 CREATE INDEX books_created_at_idx ON books(created_at);
+CREATE INDEX books_search_vector_idx ON books USING GIN (search_vector);
 
 CREATE INDEX authors_name_idx ON authors(name);
+CREATE INDEX authors_search_vector_idx ON authors USING GIN (search_vector);
 
 CREATE INDEX book_authors_author_id_idx ON book_authors(author_id);
 
@@ -227,25 +292,42 @@ CREATE INDEX book_genres_genre_id_idx ON book_genres(genre_id);
 
 CREATE UNIQUE INDEX reading_status_user_book_idx ON reading_status(user_id, book_id);
 CREATE INDEX reading_status_status_idx ON reading_status(status);
+CREATE INDEX reading_status_updated_at_idx ON reading_status(updated_at);
+CREATE INDEX reading_status_book_id_idx ON reading_status(book_id);
 
 CREATE UNIQUE INDEX reviews_user_book_idx ON reviews(user_id, book_id);
-CREATE INDEX reviews_book_rating_idx ON reviews(book_id, rating);
+CREATE INDEX reviews_book_rating_idx ON reviews(book_id, rating, id);
+CREATE INDEX reviews_book_created_idx ON reviews(book_id, created_at, id);
+CREATE INDEX reviews_book_likes_idx ON reviews(book_id, like_count, id);
+CREATE INDEX reviews_user_created_idx ON reviews(user_id, created_at, id);
 CREATE INDEX reviews_created_at_idx ON reviews(created_at);
 
+CREATE INDEX book_rating_stats_average_idx ON book_rating_stats(average_rating);
+
 CREATE INDEX review_comments_review_created_idx ON review_comments(review_id, created_at);
 
 CREATE INDEX library_lists_user_name_idx ON library_lists(user_id, name);
+CREATE INDEX library_lists_user_created_idx ON library_lists(user_id, created_at, id);
 
 CREATE UNIQUE INDEX list_books_list_position_idx ON list_books(list_id, position);
+CREATE INDEX list_books_added_at_idx ON list_books(added_at);
+
+CREATE INDEX favorite_books_created_at_idx ON favorite_books(created_at);
 
-CREATE INDEX follows_followed_id_idx ON follows(followed_id);
+CREATE INDEX follows_followed_follower_idx ON follows(followed_id, follower_id);
+
+CREATE INDEX timeline_items_user_author_idx ON timeline_items(user_id, author_id);
+CREATE INDEX timeline_items_item_idx ON timeline_items(item_type, item_id);
 
 CREATE INDEX activity_log_user_created_idx ON activity_log(user_id, created_at);
 CREATE INDEX activity_log_type_idx ON activity_log(type);
 
 CREATE INDEX notifications_user_read_idx ON notifications(user_id, is_read);
+CREATE INDEX notifications_user_id_idx ON notifications(user_id, id);
 CREATE INDEX notifications_created_at_idx ON notifications(created_at);
 
+CREATE INDEX author_follows_author_user_idx ON author_follows(author_id, user_id);
+
 CREATE INDEX list_comments_list_created_idx ON list_comments(list_id, created_at);
 
 CREATE INDEX reading_events_user_created_idx ON reading_events(user_id, created_at);
@@ -264,6 +346,8 @@ ALTER TABLE reading_status ADD FOREIGN KEY (book_id) REFERENCES books(id) ON DEL
 ALTER TABLE reviews ADD FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
 ALTER TABLE reviews ADD FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE;
 
+ALTER TABLE book_rating_stats ADD FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE;
+
 ALTER TABLE review_likes ADD FOREIGN KEY (review_id) REFERENCES reviews(id) ON DELETE CASCADE;
 ALTER TABLE review_likes ADD FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
 
@@ -278,6 +362,9 @@ ALTER TABLE list_books ADD FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE
 ALTER TABLE follows ADD FOREIGN KEY (follower_id) REFERENCES users(id) ON DELETE CASCADE;
 ALTER TABLE follows ADD FOREIGN KEY (followed_id) REFERENCES users(id) ON DELETE CASCADE;
 
+ALTER TABLE timeline_items ADD FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE timeline_items ADD FOREIGN KEY (author_id) REFERENCES users(id) ON DELETE CASCADE;
+
 ALTER TABLE activity_log ADD FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
 ALTER TABLE activity_log ADD FOREIGN KEY (subject_book_id) REFERENCES books(id) ON DELETE SET NULL;
 ALTER TABLE activity_log ADD FOREIGN KEY (subject_review_id) REFERENCES reviews(id) ON DELETE SET NULL;
@@ -291,6 +378,9 @@ ALTER TABLE reports ADD FOREIGN KEY (resolved_by) REFERENCES users(id) ON DELETE
 ALTER TABLE author_follows ADD FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
 ALTER TABLE author_follows ADD FOREIGN KEY (author_id) REFERENCES authors(id) ON DELETE CASCADE;
 
+ALTER TABLE user_suggestions ADD FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE user_suggestions ADD FOREIGN KEY (suggested_user_id) REFERENCES users(id) ON DELETE CASCADE;
+
 ALTER TABLE favorite_books ADD FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
 ALTER TABLE favorite_books ADD FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE;
 
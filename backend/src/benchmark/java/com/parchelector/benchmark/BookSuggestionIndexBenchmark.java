@@ -0,0 +1,56 @@
+package com.parchelector.benchmark;
+
+import com.parchelector.service.BookSuggestionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of BookSuggestionIndex lookups over a synthetic catalog.
+ * Run with: mvn -Pbenchmark test-compile exec:exec
+ *
+ * @author Nicolas Arciniegas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class BookSuggestionIndexBenchmark {
+
+    @Param({"1000000"})
+    private int books;
+
+    /** Typed query; "random" cycles through generated prefixes of one to eight letters. */
+    @Param({"a", "ma", "mare", "mare lo", "9781", "random"})
+    private String query;
+
+    private BookSuggestionIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = SyntheticCatalog.build(books, 10);
+        queries = "random".equals(query) ? SyntheticCatalog.queries(4096) : new String[] {query};
+    }
+
+    @Benchmark
+    public List<BookSuggestionIndex.Suggestion> suggest() {
+        String q = queries[next++ & (queries.length - 1)];
+        return index.search(q, 10);
+    }
+}
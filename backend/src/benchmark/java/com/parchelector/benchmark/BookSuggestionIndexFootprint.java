@@ -0,0 +1,45 @@
+package com.parchelector.benchmark;
+
+import com.parchelector.service.BookSuggestionIndex;
+
+/**
+ * Prints the heap footprint and build time of a BookSuggestionIndex over a synthetic catalog.
+ * Run with:
+ * mvn -Pbenchmark test-compile exec:exec
+ *     -Dbenchmark.main=com.parchelector.benchmark.BookSuggestionIndexFootprint -Dbenchmark.args=1000000
+ *
+ * @author Nicolas Arciniegas
+ */
+public final class BookSuggestionIndexFootprint {
+
+    private BookSuggestionIndexFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long before = usedHeap();
+        long startedAt = System.nanoTime();
+        BookSuggestionIndex index = SyntheticCatalog.build(books, 10);
+        long buildMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        long retained = usedHeap() - before;
+
+        System.out.printf("books:              %,d%n", index.size());
+        System.out.printf("distinct tokens:    %,d%n", index.tokenCount());
+        System.out.printf("build time:         %,d ms%n", buildMillis);
+        System.out.printf("estimated size:     %,d KB%n", index.estimatedSizeBytes() / 1024);
+        System.out.printf("measured retained:  %,d KB%n", retained / 1024);
+        System.out.printf("bytes per book:     %,d%n", retained / Math.max(index.size(), 1));
+
+        // Keep the index reachable until after the measurement
+        System.out.println(index.search("a", 1).size() >= 0 ? "" : "-");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,172 @@
+package com.parchelector.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Compares the query plans and latency of the "popular" sort before and after the
+ * denormalized books.popularity counter, on an embedded PostgreSQL loaded with a
+ * synthetic catalog (skewed popularity and genre sizes).
+ * Run with:
+ * mvn -Pbenchmark test-compile exec:exec
+ *     -Dbenchmark.main=com.parchelector.benchmark.PopularSortPlanBenchmark -Dbenchmark.args=200000
+ *
+ * @author Nicolas Arciniegas
+ */
+public final class PopularSortPlanBenchmark {
+
+    private static final int GENRES = 30;
+    private static final int PAGE = 21;
+    private static final int RUNS = 10;
+
+    // Same shape as the SQL Hibernate generates for BookRepository's filters
+    private static final String FILTERS =
+            "(? IS NULL OR EXISTS (SELECT 1 FROM book_genres bg JOIN genres g ON g.id = bg.genre_id " +
+            "                      WHERE bg.book_id = b.id AND g.name = ?)) " +
+            "AND (? IS NULL OR b.published_year >= ?) " +
+            "AND (? IS NULL OR b.published_year <= ?) ";
+
+    private static final String COUNTED =
+            "((SELECT COUNT(*) FROM reviews r WHERE r.book_id = b.id AND r.is_deleted = false) + " +
+            " (SELECT COUNT(*) FROM reading_status rs WHERE rs.book_id = b.id))";
+
+    // Before: popularity counted per candidate book with correlated subqueries
+    private static final String CORRELATED_PLAN =
+            "SELECT b.id, b.title, b.cover_url, " + COUNTED + " FROM books b " +
+            "WHERE " + FILTERS +
+            "ORDER BY " + COUNTED + " DESC, b.id DESC LIMIT " + PAGE;
+
+    // After: the counter column, read in order from books_popularity_id_idx
+    private static final String COUNTER_PLAN =
+            "SELECT b.id, b.title, b.cover_url, b.popularity FROM books b " +
+            "WHERE " + FILTERS +
+            "ORDER BY b.popularity DESC, b.id DESC LIMIT " + PAGE;
+
+    // After, with a genre: joined so each index entry probes book_genres' primary key,
+    // instead of hashing every book of the genre up front as the EXISTS form does
+    private static final String COUNTER_GENRE_PLAN =
+            "SELECT b.id, b.title, b.cover_url, b.popularity FROM books b " +
+            "JOIN book_genres bg ON bg.book_id = b.id JOIN genres g ON g.id = bg.genre_id " +
+            "WHERE g.name = ? AND ? IS NOT NULL " +
+            "AND (? IS NULL OR b.published_year >= ?) " +
+            "AND (? IS NULL OR b.published_year <= ?) " +
+            "ORDER BY b.popularity DESC, b.id DESC LIMIT " + PAGE;
+
+    private PopularSortPlanBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            long startedAt = System.nanoTime();
+            load(connection, books);
+            System.out.printf("Loaded %,d books in %,d ms%n%n", books, (System.nanoTime() - startedAt) / 1_000_000);
+
+            Object[][] scenarios = {
+                {"no filter", null, null, null},
+                {"common genre", "Genre 1", null, null},
+                {"common genre + years", "Genre 1", 1990, 2010},
+                {"rare genre", "Genre " + GENRES, null, null},
+            };
+            for (Object[] scenario : scenarios) {
+                System.out.println("== " + scenario[0]);
+                for (String plan : new String[] {CORRELATED_PLAN, COUNTER_PLAN, COUNTER_GENRE_PLAN}) {
+                    if (plan == COUNTER_GENRE_PLAN && scenario[1] == null) {
+                        continue;
+                    }
+                    String name = plan == CORRELATED_PLAN ? "correlated" : plan == COUNTER_PLAN ? "counter" : "counter+join";
+                    long[] nanos = time(connection, plan, scenario);
+                    System.out.printf("%-13s median %,10.2f ms   max %,10.2f ms%n", name,
+                            nanos[nanos.length / 2] / 1e6, nanos[nanos.length - 1] / 1e6);
+                    explain(connection, plan, scenario);
+                }
+                System.out.println();
+            }
+        }
+    }
+
+    /**
+     * Create the schema and a catalog with Zipf-like popularity: a few books hold most
+     * reading statuses and reviews, and genre sizes range from ~18% to ~2% of the books.
+     */
+    private static void load(Connection connection, int books) throws Exception {
+        int users = Math.max(books / 10, 100);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(Files.readString(Path.of("ESQUEMA_PARCHE_LECTOR_POSTGRES.sql")));
+            statement.execute("SELECT setseed(0.42)");
+            statement.execute("INSERT INTO genres (name) SELECT 'Genre ' || g FROM generate_series(1, " + GENRES + ") g");
+            statement.execute("INSERT INTO users (username, email, password_hash) " +
+                    "SELECT 'user' || u, 'user' || u || '@example.com', 'x' FROM generate_series(1, " + users + ") u");
+            statement.execute("INSERT INTO books (title, published_year) " +
+                    "SELECT 'Book ' || i, 1900 + (i * 7919) % 125 FROM generate_series(1, " + books + ") i");
+            statement.execute("INSERT INTO book_genres (book_id, genre_id) " +
+                    "SELECT i, 1 + floor(" + GENRES + " * random() ^ 2) FROM generate_series(1, " + books + ") i");
+            statement.execute("INSERT INTO reading_status (user_id, book_id, status) " +
+                    "SELECT 1 + floor(" + users + " * random()), 1 + floor(" + books + " * random() ^ 3), 'READ' " +
+                    "FROM generate_series(1, " + books * 4 + ") ON CONFLICT DO NOTHING");
+            statement.execute("INSERT INTO reviews (user_id, book_id, rating, is_deleted) " +
+                    "SELECT 1 + floor(" + users + " * random()), 1 + floor(" + books + " * random() ^ 3), 4.0, random() < 0.05 " +
+                    "FROM generate_series(1, " + books + ") ON CONFLICT DO NOTHING");
+            // What BookPopularityService.rebuild() does through JPQL
+            statement.execute("UPDATE books b SET popularity = " + COUNTED);
+            statement.execute("VACUUM ANALYZE");
+        }
+    }
+
+    private static long[] time(Connection connection, String sql, Object[] scenario) throws SQLException {
+        long[] nanos = new long[RUNS];
+        try (PreparedStatement statement = prepare(connection, sql, scenario)) {
+            // Warm up, and let the driver switch to a server-side prepared statement like in production
+            for (int i = 0; i < 6; i++) {
+                drain(statement);
+            }
+            for (int i = 0; i < RUNS; i++) {
+                long startedAt = System.nanoTime();
+                drain(statement);
+                nanos[i] = System.nanoTime() - startedAt;
+            }
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void explain(Connection connection, String sql, Object[] scenario) throws SQLException {
+        try (PreparedStatement statement = prepare(connection, "EXPLAIN (ANALYZE, COSTS OFF, TIMING OFF) " + sql, scenario);
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                System.out.println("    " + rows.getString(1));
+            }
+        }
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, Object[] scenario) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        // Every plan takes the same parameters: genre twice, then each year bound twice
+        statement.setObject(1, scenario[1], Types.VARCHAR);
+        statement.setObject(2, scenario[1], Types.VARCHAR);
+        statement.setObject(3, scenario[2], Types.INTEGER);
+        statement.setObject(4, scenario[2], Types.INTEGER);
+        statement.setObject(5, scenario[3], Types.INTEGER);
+        statement.setObject(6, scenario[3], Types.INTEGER);
+        return statement;
+    }
+
+    private static void drain(PreparedStatement statement) throws SQLException {
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                rows.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.parchelector.benchmark;
+
+import com.parchelector.service.FollowGraph;
+import com.parchelector.service.SuggestionRanker;
+import com.parchelector.service.UserItemSets;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Prints the time the suggestion job spends ranking every user of a synthetic network, without
+ * the database: users follow and shelve popular accounts and books more often than others.
+ * Run with:
+ * mvn -Pbenchmark test-compile exec:exec
+ *     -Dbenchmark.main=com.parchelector.benchmark.SuggestionRankerThroughput -Dbenchmark.args="1000000 20000000"
+ *
+ * @author Nicolas Arciniegas
+ */
+public final class SuggestionRankerThroughput {
+
+    private SuggestionRankerThroughput() {
+    }
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long follows = args.length > 1 ? Long.parseLong(args[1]) : 20_000_000L;
+        int booksPerUser = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int authorsPerUser = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        SplittableRandom random = new SplittableRandom(42);
+
+        long startedAt = System.nanoTime();
+        FollowGraph.Builder graphBuilder = new FollowGraph.Builder();
+        for (long i = 0; i < follows; i++) {
+            int follower = 1 + random.nextInt(users);
+            int followed = skewed(random, users);
+            if (follower != followed) {
+                graphBuilder.add(follower, followed);
+            }
+        }
+        FollowGraph graph = graphBuilder.build();
+        graphBuilder = null;
+        UserItemSets books = items(random, users, booksPerUser, 500_000);
+        UserItemSets authors = items(random, users, authorsPerUser, 50_000);
+        long generatedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        SuggestionRanker.Settings settings = new SuggestionRanker.Settings(20, 200, 1000, 1.0, 0.2, 0.5);
+        ThreadLocal<SuggestionRanker> rankers = ThreadLocal.withInitial(() -> new SuggestionRanker(
+                graph, SuggestionRanker.SharedItems.of(books), SuggestionRanker.SharedItems.of(authors), settings));
+        AtomicLong suggestions = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        startedAt = System.nanoTime();
+        pool.submit(() -> IntStream.range(0, graph.userIdBound()).parallel().forEach(user -> {
+            if (graph.followingCount(user) > 0) {
+                suggestions.addAndGet(rankers.get().rank(user, graph.following(user)).size());
+            }
+        })).join();
+        long rankMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        pool.shutdown();
+
+        System.out.printf("users:              %,d%n", users);
+        System.out.printf("follows:            %,d%n", graph.edgeCount());
+        System.out.printf("shelved books:      %,d%n", books.entryCount());
+        System.out.printf("author follows:     %,d%n", authors.entryCount());
+        System.out.printf("generated in:       %,d ms%n", generatedMillis);
+        System.out.printf("threads:            %d%n", pool.getParallelism());
+        System.out.printf("ranked in:          %,d ms%n", rankMillis);
+        System.out.printf("users per second:   %,d%n", users * 1000L / Math.max(rankMillis, 1));
+        System.out.printf("suggestions:        %,d%n", suggestions.get());
+    }
+
+    // 1 to bound, low values far more often (a few accounts or books are popular)
+    private static int skewed(SplittableRandom random, int bound) {
+        double u = random.nextDouble();
+        return 1 + (int) (bound * u * u * u);
+    }
+
+    private static UserItemSets items(SplittableRandom random, int users, int perUser, int itemCount) {
+        UserItemSets.Builder builder = new UserItemSets.Builder();
+        for (int user = 1; user <= users; user++) {
+            for (int i = 0; i < perUser; i++) {
+                builder.add(user, skewed(random, itemCount));
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.parchelector.benchmark;
+
+import com.parchelector.service.BookSuggestionIndex;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic catalog for the suggestion index benchmarks.
+ * Words are built from Spanish-like syllables and drawn with a skewed distribution,
+ * so common prefixes match many titles, like in a real catalog.
+ *
+ * @author Nicolas Arciniegas
+ */
+final class SyntheticCatalog {
+
+    private static final String[] SYLLABLES = {
+            "a", "al", "an", "ar", "be", "bo", "ca", "ce", "ci", "co", "cu", "da", "de", "di", "do",
+            "el", "en", "es", "fa", "fe", "ga", "go", "gu", "ha", "ja", "la", "le", "li", "lo", "lu",
+            "ma", "me", "mi", "mo", "na", "ne", "ni", "no", "ña", "or", "pa", "pe", "pi", "po", "ra",
+            "re", "ri", "ro", "sa", "se", "si", "so", "ta", "te", "ti", "to", "tu", "va", "ve", "vi"
+    };
+
+    private static final int VOCABULARY_SIZE = 60_000;
+    private static final int AUTHOR_COUNT = 150_000;
+
+    private SyntheticCatalog() {
+    }
+
+    /**
+     * Build an index over {@code books} generated titles.
+     */
+    static BookSuggestionIndex build(int books, int maxResults) {
+        Random random = new Random(42);
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = word(random, 2 + random.nextInt(3));
+        }
+
+        String[] authors = new String[AUTHOR_COUNT];
+        String[] sortNames = new String[AUTHOR_COUNT];
+        for (int i = 0; i < authors.length; i++) {
+            String first = capitalize(word(random, 2 + random.nextInt(2)));
+            String last = capitalize(word(random, 2 + random.nextInt(3)));
+            authors[i] = first + " " + last;
+            sortNames[i] = last + ", " + first;
+        }
+
+        BookSuggestionIndex.Builder builder = new BookSuggestionIndex.Builder(maxResults);
+        StringBuilder title = new StringBuilder();
+        for (int book = 0; book < books; book++) {
+            title.setLength(0);
+            int words = 1 + random.nextInt(6);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    title.append(' ');
+                }
+                title.append(w == 0 ? capitalize(vocabulary[skewed(random, vocabulary.length)])
+                        : vocabulary[skewed(random, vocabulary.length)]);
+            }
+
+            int author = skewed(random, authors.length);
+            String isbn = "978" + (1_000_000_000L + random.nextInt(1_000_000_000));
+            builder.add(book + 1L, title.toString(), authors[author],
+                    List.of(authors[author], sortNames[author]), List.of(isbn), skewed(random, 5000));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Random words a user could type, as prefixes of catalog words.
+     */
+    static String[] queries(int count) {
+        Random random = new Random(7);
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            String word = word(random, 1 + random.nextInt(4));
+            queries[i] = word.substring(0, 1 + random.nextInt(word.length()));
+        }
+        return queries;
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * Index in [0, bound) biased towards small values.
+     */
+    private static int skewed(Random random, int bound) {
+        double u = random.nextDouble();
+        return (int) (bound * u * u * u);
+    }
+}
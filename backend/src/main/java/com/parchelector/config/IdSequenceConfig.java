@@ -0,0 +1,61 @@
+package com.parchelector.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Aligns the increment of PostgreSQL id sequences with the allocation size of the
+ * entities that use pooled sequence ids (needed for Hibernate insert batching).
+ * Tables created from the SQL script use SERIAL, whose sequences increment by 1; Hibernate
+ * refuses to start when a sequence and its mapping disagree, so this runs before the
+ * EntityManagerFactory is built. Sequences Hibernate creates itself already match.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Configuration
+@Profile("!test")
+public class IdSequenceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceConfig.class);
+
+    /** Sequence name to allocation size, as declared in each entity's @SequenceGenerator. */
+    private static final Map<String, Integer> POOLED_SEQUENCES = Map.of(
+            "reading_status_id_seq", 50
+    );
+
+    @Bean
+    public IdSequenceInitializer idSequenceInitializer(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        try {
+            POOLED_SEQUENCES.forEach((sequence, allocationSize) -> jdbcTemplate.execute(
+                    "ALTER SEQUENCE IF EXISTS " + sequence + " INCREMENT BY " + allocationSize));
+        } catch (DataAccessException e) {
+            logger.error("Failed to align id sequence increments", e);
+        }
+        return new IdSequenceInitializer();
+    }
+
+    /**
+     * Marker bean the EntityManagerFactory waits for.
+     */
+    public static class IdSequenceInitializer {
+    }
+
+    @Configuration
+    @Profile("!test")
+    static class EntityManagerFactoryDependsOnIdSequences extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnIdSequences() {
+            super(IdSequenceInitializer.class);
+        }
+    }
+}
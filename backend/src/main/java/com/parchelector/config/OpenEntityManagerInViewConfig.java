@@ -0,0 +1,34 @@
+package com.parchelector.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open entity manager in view, as Spring Boot registers it by default, except for the feed
+ * stream. The entity manager of an async request stays open, holding its pooled connection,
+ * until the request completes: every open feed stream would hold one.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Configuration
+public class OpenEntityManagerInViewConfig {
+
+    // Defining the interceptor turns off Spring Boot's own
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Bean
+    public WebMvcConfigurer openEntityManagerInViewConfigurer(OpenEntityManagerInViewInterceptor interceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addWebRequestInterceptor(interceptor).excludePathPatterns("/social/feed/stream");
+            }
+        };
+    }
+}
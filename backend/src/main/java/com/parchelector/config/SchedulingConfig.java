@@ -0,0 +1,39 @@
+package com.parchelector.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Enables scheduled background jobs, on two schedulers. Short periodic tasks (buffer flushes,
+ * stream heartbeats) run on the default one, sized by {@code spring.task.scheduling.pool.size}.
+ * Rebuilds and counter repairs, which can take minutes, name {@link #JOB_SCHEDULER} so they
+ * never hold the threads of the short tasks.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    public static final String JOB_SCHEDULER = "jobScheduler";
+
+    /**
+     * The default scheduler, declared here because a second scheduler bean turns off Boot's.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(JOB_SCHEDULER)
+    public ThreadPoolTaskScheduler jobScheduler(@Value("${app.jobs.threads:2}") int threads) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(threads);
+        scheduler.setThreadNamePrefix("jobs-");
+        return scheduler;
+    }
+}
@@ -0,0 +1,70 @@
+package com.parchelector.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the PostgreSQL full-text search objects that Hibernate cannot manage:
+ * unaccent text search configurations, generated tsvector columns and GIN indexes.
+ * Every statement is idempotent, so it is safe to run on each startup.
+ * 
+ * @author Nicolas Arciniegas
+ */
+@Component
+@Profile("!test")
+@DependsOn("entityManagerFactory")
+public class SearchSchemaInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchSchemaInitializer.class);
+
+    private static final List<String[]> TEXT_SEARCH_CONFIGURATIONS = List.of(
+            new String[] {"parche_es", "spanish", "spanish_stem"},
+            new String[] {"parche_en", "english", "english_stem"},
+            new String[] {"parche_simple", "simple", "simple"}
+    );
+
+    private static final List<String> SEARCH_COLUMNS = List.of(
+            "ALTER TABLE books ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (" +
+            "setweight(to_tsvector('parche_es', coalesce(title, '')), 'A') || " +
+            "setweight(to_tsvector('parche_en', coalesce(title, '')), 'A') || " +
+            "setweight(to_tsvector('parche_es', coalesce(description, '')), 'C') || " +
+            "setweight(to_tsvector('parche_en', coalesce(description, '')), 'C')) STORED",
+            "CREATE INDEX IF NOT EXISTS books_search_vector_idx ON books USING GIN (search_vector)",
+            "ALTER TABLE authors ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (" +
+            "to_tsvector('parche_simple', coalesce(name, '') || ' ' || coalesce(sort_name, ''))) STORED",
+            "CREATE INDEX IF NOT EXISTS authors_search_vector_idx ON authors USING GIN (search_vector)"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS unaccent");
+
+            for (String[] config : TEXT_SEARCH_CONFIGURATIONS) {
+                Integer existing = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM pg_ts_config WHERE cfgname = ?", Integer.class, config[0]);
+                if (existing != null && existing == 0) {
+                    jdbcTemplate.execute("CREATE TEXT SEARCH CONFIGURATION " + config[0] + " (COPY = " + config[1] + ")");
+                    jdbcTemplate.execute("ALTER TEXT SEARCH CONFIGURATION " + config[0] +
+                            " ALTER MAPPING FOR hword, hword_part, word WITH unaccent, " + config[2]);
+                }
+            }
+
+            SEARCH_COLUMNS.forEach(jdbcTemplate::execute);
+        } catch (DataAccessException e) {
+            logger.error("Failed to initialize full-text search schema", e);
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.parchelector.controller;
 
 import com.parchelector.dto.ApiResponse;
+import com.parchelector.dto.request.ReadingStatusBatchRequest;
 import com.parchelector.dto.request.ReadingStatusRequest;
+import com.parchelector.dto.response.BookPageResponse;
 import com.parchelector.dto.response.BookResponse;
+import com.parchelector.dto.response.BookSuggestionResponse;
+import com.parchelector.dto.response.ReadingStatusBatchResponse;
 import com.parchelector.model.entity.User;
 import com.parchelector.repository.UserRepository;
 import com.parchelector.service.BookService;
+import com.parchelector.service.BookSuggestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -32,6 +37,9 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookSuggestionService bookSuggestionService;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -64,26 +72,62 @@ public class BookController {
     }
 
     /**
-     * Search books by title or author.
+     * Search books by title or author, one page at a time.
      */
     @GetMapping("/search")
-    @Operation(summary = "Search books", description = "Search books by title or author name")
+    @Operation(summary = "Search books", description = "Search books by title or author name. Pass nextCursor as cursor to get the next page")
     @SecurityRequirement(name = "bearer-jwt")
-    public ResponseEntity<ApiResponse<List<BookResponse>>> searchBooks(
+    public ResponseEntity<ApiResponse<BookPageResponse>> searchBooks(
             @RequestParam String query,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int limit) {
         try {
             Long userId = getCurrentUserId();
-            List<BookResponse> books = bookService.searchBooks(query, userId, limit);
+            BookPageResponse books = bookService.searchBooks(query, userId, cursor, limit);
             
-            ApiResponse<List<BookResponse>> response = new ApiResponse<>(
+            ApiResponse<BookPageResponse> response = new ApiResponse<>(
                     "SUCCESS",
                     "Search completed successfully",
                     books
             );
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<BookPageResponse> response = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         } catch (Exception e) {
-            ApiResponse<List<BookResponse>> response = new ApiResponse<>(
+            ApiResponse<BookPageResponse> response = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Suggest books while the user types.
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest books", description = "Autocomplete books by title, author or ISBN prefix")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<ApiResponse<List<BookSuggestionResponse>>> suggestBooks(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<BookSuggestionResponse> suggestions = bookSuggestionService.suggest(q, limit);
+            
+            ApiResponse<List<BookSuggestionResponse>> response = new ApiResponse<>(
+                    "SUCCESS",
+                    "Suggestions retrieved successfully",
+                    suggestions
+            );
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            ApiResponse<List<BookSuggestionResponse>> response = new ApiResponse<>(
                     "ERROR",
                     e.getMessage(),
                     null
@@ -93,36 +137,37 @@ public class BookController {
     }
 
     /**
-     * Filter and sort books with advanced options.
+     * Filter and sort books with advanced options, one page at a time.
      */
     @GetMapping("/filter")
-    @Operation(summary = "Filter and sort books", description = "Get books with advanced filtering and sorting options")
+    @Operation(summary = "Filter and sort books", description = "Get books with advanced filtering and sorting options. Pass nextCursor as cursor to get the next page")
     @SecurityRequirement(name = "bearer-jwt")
-    public ResponseEntity<ApiResponse<List<BookResponse>>> filterBooks(
+    public ResponseEntity<ApiResponse<BookPageResponse>> filterBooks(
             @RequestParam(required = false) String genre,
             @RequestParam(required = false) Integer minYear,
             @RequestParam(required = false) Integer maxYear,
             @RequestParam(defaultValue = "popular") String sortBy,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int limit) {
         try {
             Long userId = getCurrentUserId();
-            List<BookResponse> books = bookService.filterAndSortBooks(userId, genre, minYear, maxYear, sortBy, limit);
+            BookPageResponse books = bookService.filterAndSortBooks(userId, genre, minYear, maxYear, sortBy, cursor, limit);
             
-            ApiResponse<List<BookResponse>> response = new ApiResponse<>(
+            ApiResponse<BookPageResponse> response = new ApiResponse<>(
                     "SUCCESS",
                     "Books retrieved successfully",
                     books
             );
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
-            ApiResponse<List<BookResponse>> response = new ApiResponse<>(
+            ApiResponse<BookPageResponse> response = new ApiResponse<>(
                     "ERROR",
                     e.getMessage(),
                     null
             );
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         } catch (Exception e) {
-            ApiResponse<List<BookResponse>> response = new ApiResponse<>(
+            ApiResponse<BookPageResponse> response = new ApiResponse<>(
                     "ERROR",
                     "Failed to retrieve books: " + e.getMessage(),
                     null
@@ -166,6 +211,41 @@ public class BookController {
         }
     }
 
+    /**
+     * Update reading status for many books at once (e.g. syncing a shelf after offline use).
+     */
+    @PostMapping("/reading-status/batch")
+    @Operation(summary = "Update reading statuses in batch", description = "Add or update the reading status of up to 500 books in one transaction")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<ApiResponse<ReadingStatusBatchResponse>> updateReadingStatuses(
+            @Valid @RequestBody ReadingStatusBatchRequest request) {
+        try {
+            Long userId = getCurrentUserId();
+            ReadingStatusBatchResponse result = bookService.updateReadingStatuses(userId, request.getItems());
+            
+            ApiResponse<ReadingStatusBatchResponse> response = new ApiResponse<>(
+                    "SUCCESS",
+                    "Reading statuses updated successfully",
+                    result
+            );
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<ReadingStatusBatchResponse> response = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            ApiResponse<ReadingStatusBatchResponse> response = new ApiResponse<>(
+                    "ERROR",
+                    "Failed to update reading statuses",
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     /**
      * Get all favorite books for current user.
      */
@@ -200,14 +280,14 @@ public class BookController {
     public ResponseEntity<ApiResponse<Void>> addFavorite(@Valid @RequestBody com.parchelector.dto.request.FavoriteBookRequest request) {
         try {
             Long userId = getCurrentUserId();
-            bookService.addFavorite(userId, request);
+            boolean added = bookService.addFavorite(userId, request);
             
             ApiResponse<Void> response = new ApiResponse<>(
                     "SUCCESS",
-                    "Book added to favorites successfully",
+                    added ? "Book added to favorites successfully" : "Book was already in favorites",
                     null
             );
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(added ? HttpStatus.CREATED : HttpStatus.OK).body(response);
         } catch (IllegalArgumentException e) {
             ApiResponse<Void> response = new ApiResponse<>(
                     "ERROR",
@@ -233,11 +313,11 @@ public class BookController {
     public ResponseEntity<ApiResponse<Void>> removeFavorite(@PathVariable Long bookId) {
         try {
             Long userId = getCurrentUserId();
-            bookService.removeFavorite(userId, bookId);
+            boolean removed = bookService.removeFavorite(userId, bookId);
             
             ApiResponse<Void> response = new ApiResponse<>(
                     "SUCCESS",
-                    "Book removed from favorites successfully",
+                    removed ? "Book removed from favorites successfully" : "Book was not in favorites",
                     null
             );
             return ResponseEntity.ok(response);
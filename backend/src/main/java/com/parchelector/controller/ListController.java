@@ -9,6 +9,7 @@ import com.parchelector.model.entity.User;
 import com.parchelector.repository.UserRepository;
 import com.parchelector.service.ListService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -62,14 +63,17 @@ public class ListController {
     }
 
     /**
-     * Get list details by ID.
+     * Get list details by ID, with a page of its books.
      */
     @GetMapping("/{id}")
-    @Operation(summary = "Get list details", security = @SecurityRequirement(name = "bearer-jwt"))
-    public ResponseEntity<ApiResponse<ListResponse>> getList(@PathVariable Long id) {
+    @Operation(summary = "Get list details", description = "Books in list order. Pass nextCursor as cursor to get the next page", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<ListResponse>> getList(
+            @PathVariable Long id,
+            @Parameter(description = "Number of books to return (max 100)") @RequestParam(defaultValue = "50") Integer limit,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor) {
         try {
             Long userId = getCurrentUserId();
-            ListResponse list = listService.getListById(id, userId);
+            ListResponse list = listService.getListById(id, userId, limit, cursor);
             
             ApiResponse<ListResponse> response = new ApiResponse<>(
                     "SUCCESS",
@@ -172,11 +176,11 @@ public class ListController {
             @Valid @RequestBody AddBookToListRequest request) {
         try {
             Long userId = getCurrentUserId();
-            listService.addBookToList(userId, id, request);
+            boolean added = listService.addBookToList(userId, id, request);
             
             ApiResponse<Void> response = new ApiResponse<>(
                     "SUCCESS",
-                    "Book added to list successfully",
+                    added ? "Book added to list successfully" : "Book was already in this list",
                     null
             );
             return ResponseEntity.ok(response);
@@ -207,11 +211,11 @@ public class ListController {
             @PathVariable Long bookId) {
         try {
             Long userId = getCurrentUserId();
-            listService.removeBookFromList(userId, id, bookId);
+            boolean removed = listService.removeBookFromList(userId, id, bookId);
             
             ApiResponse<Void> response = new ApiResponse<>(
                     "SUCCESS",
-                    "Book removed from list successfully",
+                    removed ? "Book removed from list successfully" : "Book was not in this list",
                     null
             );
             return ResponseEntity.ok(response);
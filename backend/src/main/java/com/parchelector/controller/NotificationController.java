@@ -0,0 +1,165 @@
+package com.parchelector.controller;
+
+import com.parchelector.dto.ApiResponse;
+import com.parchelector.dto.response.NotificationListResponse;
+import com.parchelector.model.entity.User;
+import com.parchelector.repository.UserRepository;
+import com.parchelector.service.NotificationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the current user's notifications.
+ *
+ * @author Nicolas Arciniegas
+ */
+@RestController
+@RequestMapping("/notifications")
+@Tag(name = "Notifications", description = "Endpoints for likes, comments and follows notifications")
+public class NotificationController {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Get a page of the current user's notifications.
+     */
+    @GetMapping
+    @Operation(summary = "Get my notifications", description = "Newest first. Pass nextCursor as cursor to get the next page", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<NotificationListResponse>> getNotifications(
+            @Parameter(description = "Number of notifications to return (max 50)") @RequestParam(defaultValue = "20") Integer limit,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor) {
+        try {
+            Long currentUserId = getCurrentUserId();
+            NotificationListResponse page = notificationService.getNotifications(currentUserId, limit, cursor);
+
+            ApiResponse<NotificationListResponse> response = new ApiResponse<>(
+                    "SUCCESS",
+                    "Notifications retrieved successfully",
+                    page
+            );
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<NotificationListResponse> response = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            ApiResponse<NotificationListResponse> response = new ApiResponse<>(
+                    "ERROR",
+                    "Failed to retrieve notifications: " + e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Get the number of unread notifications of the current user.
+     */
+    @GetMapping("/unread-count")
+    @Operation(summary = "Get my number of unread notifications", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<Long>> getUnreadCount() {
+        try {
+            Long currentUserId = getCurrentUserId();
+            long count = notificationService.getUnreadCount(currentUserId);
+
+            ApiResponse<Long> response = new ApiResponse<>(
+                    "SUCCESS",
+                    "Unread count retrieved successfully",
+                    count
+            );
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            ApiResponse<Long> response = new ApiResponse<>(
+                    "ERROR",
+                    "Failed to retrieve unread count: " + e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Mark a notification as read.
+     */
+    @PostMapping("/{notificationId}/read")
+    @Operation(summary = "Mark a notification as read", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<Void>> markRead(@PathVariable Long notificationId) {
+        try {
+            Long currentUserId = getCurrentUserId();
+            boolean marked = notificationService.markRead(currentUserId, notificationId);
+
+            ApiResponse<Void> response = new ApiResponse<>(
+                    "SUCCESS",
+                    marked ? "Notification marked as read" : "Notification was already read",
+                    null
+            );
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<Void> response = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (Exception e) {
+            ApiResponse<Void> response = new ApiResponse<>(
+                    "ERROR",
+                    "Failed to mark notification as read: " + e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Mark all notifications of the current user as read.
+     */
+    @PostMapping("/read-all")
+    @Operation(summary = "Mark all my notifications as read", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<Integer>> markAllRead() {
+        try {
+            Long currentUserId = getCurrentUserId();
+            int marked = notificationService.markAllRead(currentUserId);
+
+            ApiResponse<Integer> response = new ApiResponse<>(
+                    "SUCCESS",
+                    "Notifications marked as read",
+                    marked
+            );
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            ApiResponse<Integer> response = new ApiResponse<>(
+                    "ERROR",
+                    "Failed to mark notifications as read: " + e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Get current authenticated user ID.
+     */
+    private Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return user.getId();
+    }
+}
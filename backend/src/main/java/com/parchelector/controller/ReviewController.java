@@ -137,13 +137,52 @@ public class ReviewController {
     }
 
     /**
-     * Get all reviews for a specific book with aggregated rating data.
+     * Get one review with its full body.
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a review", description = "Lists return an excerpt of each review; this returns the full body", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<ReviewResponse>> getReview(@PathVariable Long id) {
+        try {
+            Long userId = getCurrentUserId();
+            ReviewResponse review = reviewService.getReview(id, userId);
+            
+            ApiResponse<ReviewResponse> response = new ApiResponse<>(
+                    "SUCCESS",
+                    "Review retrieved successfully",
+                    review
+            );
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<ReviewResponse> response = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (Exception e) {
+            ApiResponse<ReviewResponse> response = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Get reviews for a specific book, one page at a time, with aggregated rating data.
      */
     @GetMapping("/book/{bookId}")
-    @Operation(summary = "Get all reviews for a book", security = @SecurityRequirement(name = "bearer-jwt"))
-    public ResponseEntity<ApiResponse<BookReviewsResponse>> getBookReviews(@PathVariable Long bookId) {
+    @Operation(summary = "Get reviews for a book", description = "Sort by 'newest', 'highest' or 'most_liked', optionally only reviews with the given stars (1-5). Pass nextCursor as cursor to get the next page", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<BookReviewsResponse>> getBookReviews(
+            @PathVariable Long bookId,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(required = false) Integer stars,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         try {
-            BookReviewsResponse reviews = reviewService.getBookReviews(bookId);
+            Long userId = getCurrentUserId();
+            BookReviewsResponse reviews = reviewService.getBookReviews(bookId, sort, stars, cursor, limit, userId);
             
             ApiResponse<BookReviewsResponse> response = new ApiResponse<>(
                     "SUCCESS",
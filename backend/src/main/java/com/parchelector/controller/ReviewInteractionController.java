@@ -18,6 +18,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for review interactions (likes, comments).
@@ -43,11 +44,11 @@ public class ReviewInteractionController {
     public ResponseEntity<ApiResponse<Void>> likeReview(@PathVariable Long reviewId) {
         try {
             Long currentUserId = getCurrentUserId();
-            reviewInteractionService.likeReview(currentUserId, reviewId);
+            boolean liked = reviewInteractionService.likeReview(currentUserId, reviewId);
             
             ApiResponse<Void> response = new ApiResponse<>(
                     "SUCCESS",
-                    "Review liked successfully",
+                    liked ? "Review liked successfully" : "Review was already liked",
                     null
             );
             return ResponseEntity.ok(response);
@@ -76,11 +77,11 @@ public class ReviewInteractionController {
     public ResponseEntity<ApiResponse<Void>> unlikeReview(@PathVariable Long reviewId) {
         try {
             Long currentUserId = getCurrentUserId();
-            reviewInteractionService.unlikeReview(currentUserId, reviewId);
+            boolean unliked = reviewInteractionService.unlikeReview(currentUserId, reviewId);
             
             ApiResponse<Void> response = new ApiResponse<>(
                     "SUCCESS",
-                    "Review unliked successfully",
+                    unliked ? "Review unliked successfully" : "Review was not liked",
                     null
             );
             return ResponseEntity.ok(response);
@@ -127,6 +128,39 @@ public class ReviewInteractionController {
         }
     }
 
+    /**
+     * Check which of several reviews the current user has liked.
+     */
+    @GetMapping("/likes/status")
+    @Operation(summary = "Check which reviews the user has liked", description = "Pass up to 200 comma-separated review ids. Returns a map of review id to liked", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<Map<Long, Boolean>>> getLikeStatuses(@RequestParam List<Long> ids) {
+        try {
+            Long currentUserId = getCurrentUserId();
+            Map<Long, Boolean> statuses = reviewInteractionService.getLikeStatuses(currentUserId, ids);
+            
+            ApiResponse<Map<Long, Boolean>> response = new ApiResponse<>(
+                    "SUCCESS",
+                    "Like statuses retrieved successfully",
+                    statuses
+            );
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<Map<Long, Boolean>> response = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            ApiResponse<Map<Long, Boolean>> response = new ApiResponse<>(
+                    "ERROR",
+                    "Failed to check like statuses: " + e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     /**
      * Add a comment to a review.
      */
@@ -4,22 +4,31 @@ import com.parchelector.dto.ApiResponse;
 import com.parchelector.dto.request.FollowAuthorRequest;
 import com.parchelector.dto.request.FollowUserRequest;
 import com.parchelector.dto.response.FeedResponse;
+import com.parchelector.dto.response.FollowListResponse;
 import com.parchelector.dto.response.FollowResponse;
 import com.parchelector.dto.response.UserFollowStatsResponse;
+import com.parchelector.dto.response.UserSuggestionResponse;
 import com.parchelector.model.entity.User;
 import com.parchelector.repository.UserRepository;
+import com.parchelector.service.FeedStreamService;
 import com.parchelector.service.SocialService;
+import com.parchelector.service.UserSuggestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 /**
  * REST controller for social features (follows, etc.).
@@ -34,6 +43,12 @@ public class SocialController {
     @Autowired
     private SocialService socialService;
 
+    @Autowired
+    private FeedStreamService feedStreamService;
+
+    @Autowired
+    private UserSuggestionService userSuggestionService;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -78,11 +93,11 @@ public class SocialController {
     public ResponseEntity<ApiResponse<Void>> unfollowUser(@PathVariable Long userId) {
         try {
             Long currentUserId = getCurrentUserId();
-            socialService.unfollowUser(currentUserId, userId);
+            boolean unfollowed = socialService.unfollowUser(currentUserId, userId);
             
             ApiResponse<Void> apiResponse = new ApiResponse<>(
                     "SUCCESS",
-                    "User unfollowed successfully",
+                    unfollowed ? "User unfollowed successfully" : "User was not followed",
                     null
             );
             return ResponseEntity.ok(apiResponse);
@@ -111,11 +126,11 @@ public class SocialController {
     public ResponseEntity<ApiResponse<Void>> followAuthor(@Valid @RequestBody FollowAuthorRequest request) {
         try {
             Long currentUserId = getCurrentUserId();
-            socialService.followAuthor(currentUserId, request);
+            boolean followed = socialService.followAuthor(currentUserId, request);
             
             ApiResponse<Void> apiResponse = new ApiResponse<>(
                     "SUCCESS",
-                    "Author followed successfully",
+                    followed ? "Author followed successfully" : "Author was already followed",
                     null
             );
             return ResponseEntity.ok(apiResponse);
@@ -144,11 +159,11 @@ public class SocialController {
     public ResponseEntity<ApiResponse<Void>> unfollowAuthor(@PathVariable Long authorId) {
         try {
             Long currentUserId = getCurrentUserId();
-            socialService.unfollowAuthor(currentUserId, authorId);
+            boolean unfollowed = socialService.unfollowAuthor(currentUserId, authorId);
             
             ApiResponse<Void> apiResponse = new ApiResponse<>(
                     "SUCCESS",
-                    "Author unfollowed successfully",
+                    unfollowed ? "Author unfollowed successfully" : "Author was not followed",
                     null
             );
             return ResponseEntity.ok(apiResponse);
@@ -202,6 +217,112 @@ public class SocialController {
         }
     }
 
+    /**
+     * Get a page of a user's followers.
+     */
+    @GetMapping("/users/{userId}/followers")
+    @Operation(summary = "Get a user's followers", description = "In user ID order. Pass nextCursor as cursor to get the next page", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<FollowListResponse>> getFollowers(
+            @PathVariable Long userId,
+            @Parameter(description = "Number of users to return (max 100)") @RequestParam(defaultValue = "20") Integer limit,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor) {
+        try {
+            Long currentUserId = getCurrentUserId();
+            FollowListResponse page = socialService.getFollowers(userId, currentUserId, limit, cursor);
+
+            ApiResponse<FollowListResponse> apiResponse = new ApiResponse<>(
+                    "SUCCESS",
+                    "Followers retrieved successfully",
+                    page
+            );
+            return ResponseEntity.ok(apiResponse);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<FollowListResponse> apiResponse = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiResponse);
+        } catch (Exception e) {
+            ApiResponse<FollowListResponse> apiResponse = new ApiResponse<>(
+                    "ERROR",
+                    "Failed to retrieve followers: " + e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(apiResponse);
+        }
+    }
+
+    /**
+     * Get a page of a user's followed users.
+     */
+    @GetMapping("/users/{userId}/following")
+    @Operation(summary = "Get the users a user follows", description = "In user ID order. Pass nextCursor as cursor to get the next page", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<FollowListResponse>> getFollowing(
+            @PathVariable Long userId,
+            @Parameter(description = "Number of users to return (max 100)") @RequestParam(defaultValue = "20") Integer limit,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor) {
+        try {
+            Long currentUserId = getCurrentUserId();
+            FollowListResponse page = socialService.getFollowing(userId, currentUserId, limit, cursor);
+
+            ApiResponse<FollowListResponse> apiResponse = new ApiResponse<>(
+                    "SUCCESS",
+                    "Following retrieved successfully",
+                    page
+            );
+            return ResponseEntity.ok(apiResponse);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<FollowListResponse> apiResponse = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiResponse);
+        } catch (Exception e) {
+            ApiResponse<FollowListResponse> apiResponse = new ApiResponse<>(
+                    "ERROR",
+                    "Failed to retrieve followed users: " + e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(apiResponse);
+        }
+    }
+
+    /**
+     * Get "who to follow" suggestions for the current user.
+     */
+    @GetMapping("/suggestions")
+    @Operation(summary = "Get users to follow", description = "Friends of friends, ranked by mutual follows, shared books and shared followed authors. Updated shortly after following or unfollowing someone", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<List<UserSuggestionResponse>>> getSuggestions(
+            @Parameter(description = "Number of suggestions to return (max 20)") @RequestParam(defaultValue = "10") Integer limit) {
+        try {
+            Long currentUserId = getCurrentUserId();
+            List<UserSuggestionResponse> suggestions = userSuggestionService.getSuggestions(currentUserId, limit);
+
+            ApiResponse<List<UserSuggestionResponse>> apiResponse = new ApiResponse<>(
+                    "SUCCESS",
+                    "Suggestions retrieved successfully",
+                    suggestions
+            );
+            return ResponseEntity.ok(apiResponse);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<List<UserSuggestionResponse>> apiResponse = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiResponse);
+        } catch (Exception e) {
+            ApiResponse<List<UserSuggestionResponse>> apiResponse = new ApiResponse<>(
+                    "ERROR",
+                    "Failed to retrieve suggestions: " + e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(apiResponse);
+        }
+    }
+
     /**
      * Check if current user is following another user.
      */
@@ -258,13 +379,13 @@ public class SocialController {
      * Get social feed with activity from followed users.
      */
     @GetMapping("/feed")
-    @Operation(summary = "Get social feed from followed users", security = @SecurityRequirement(name = "bearer-jwt"))
+    @Operation(summary = "Get social feed from followed users", description = "Newest first. Pass nextCursor as cursor to get the next page", security = @SecurityRequirement(name = "bearer-jwt"))
     public ResponseEntity<ApiResponse<FeedResponse>> getFeed(
-            @Parameter(description = "Number of items to return") @RequestParam(defaultValue = "20") Integer limit,
-            @Parameter(description = "Number of items to skip") @RequestParam(defaultValue = "0") Integer offset) {
+            @Parameter(description = "Number of items to return (max 50)") @RequestParam(defaultValue = "20") Integer limit,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor) {
         try {
             Long currentUserId = getCurrentUserId();
-            FeedResponse feed = socialService.getFeed(currentUserId, limit, offset);
+            FeedResponse feed = socialService.getFeed(currentUserId, limit, cursor);
             
             ApiResponse<FeedResponse> apiResponse = new ApiResponse<>(
                     "SUCCESS",
@@ -272,6 +393,13 @@ public class SocialController {
                     feed
             );
             return ResponseEntity.ok(apiResponse);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<FeedResponse> apiResponse = new ApiResponse<>(
+                    "ERROR",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiResponse);
         } catch (Exception e) {
             ApiResponse<FeedResponse> apiResponse = new ApiResponse<>(
                     "ERROR",
@@ -282,6 +410,23 @@ public class SocialController {
         }
     }
 
+    /**
+     * Stream new feed items from followed users as server-sent events.
+     */
+    @GetMapping(value = "/feed/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream new feed items from followed users", description = "Server-sent events: an 'item' event with a FeedItem for every review or list posted by a followed user while connected. 503 when the server holds its maximum of open streams", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<SseEmitter> streamFeed() {
+        Long currentUserId = getCurrentUserId();
+        try {
+            return ResponseEntity.ok(feedStreamService.subscribe(currentUserId));
+        } catch (IllegalStateException e) {
+            // No body: the client only accepts an event stream
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+
     /**
      * Get current authenticated user ID.
      */
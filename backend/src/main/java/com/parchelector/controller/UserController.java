@@ -1,7 +1,7 @@
 package com.parchelector.controller;
 
 import com.parchelector.dto.ApiResponse;
-import com.parchelector.dto.response.ListResponse;
+import com.parchelector.dto.response.ListSummaryResponse;
 import com.parchelector.dto.response.ReviewResponse;
 import com.parchelector.dto.response.UserProfileResponse;
 import com.parchelector.model.entity.User;
@@ -79,20 +79,20 @@ public class UserController {
      * Get public lists of a user.
      */
     @GetMapping("/{userId}/lists")
-    @Operation(summary = "Get user's public lists", security = @SecurityRequirement(name = "bearer-jwt"))
-    public ResponseEntity<ApiResponse<List<ListResponse>>> getUserLists(@PathVariable Long userId) {
+    @Operation(summary = "Get user's public lists", description = "Summaries: counts and the first four covers of each list; GET /lists/{id} has the books", security = @SecurityRequirement(name = "bearer-jwt"))
+    public ResponseEntity<ApiResponse<List<ListSummaryResponse>>> getUserLists(@PathVariable Long userId) {
         try {
             Long currentUserId = getCurrentUserIdOrNull();
-            List<ListResponse> lists = listService.getUserPublicLists(userId, currentUserId);
+            List<ListSummaryResponse> lists = listService.getUserPublicLists(userId, currentUserId);
             
-            ApiResponse<List<ListResponse>> response = new ApiResponse<>(
+            ApiResponse<List<ListSummaryResponse>> response = new ApiResponse<>(
                     "SUCCESS",
                     "User lists retrieved successfully",
                     lists
             );
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            ApiResponse<List<ListResponse>> response = new ApiResponse<>(
+            ApiResponse<List<ListSummaryResponse>> response = new ApiResponse<>(
                     "ERROR",
                     "Failed to retrieve user lists: " + e.getMessage(),
                     null
@@ -108,7 +108,8 @@ public class UserController {
     @Operation(summary = "Get user's public reviews", security = @SecurityRequirement(name = "bearer-jwt"))
     public ResponseEntity<ApiResponse<List<ReviewResponse>>> getUserReviews(@PathVariable Long userId) {
         try {
-            List<ReviewResponse> reviews = reviewService.getUserReviews(userId);
+            Long currentUserId = getCurrentUserIdOrNull();
+            List<ReviewResponse> reviews = reviewService.getUserReviews(userId, currentUserId);
             
             ApiResponse<List<ReviewResponse>> response = new ApiResponse<>(
                     "SUCCESS",
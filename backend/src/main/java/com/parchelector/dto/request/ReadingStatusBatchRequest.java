@@ -0,0 +1,25 @@
+package com.parchelector.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for updating the reading status of many books at once.
+ * 
+ * @author Nicolas Arciniegas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadingStatusBatchRequest {
+
+    @NotEmpty(message = "At least one status is required")
+    @Size(max = 500, message = "At most 500 statuses per request")
+    private List<@Valid ReadingStatusRequest> items;
+}
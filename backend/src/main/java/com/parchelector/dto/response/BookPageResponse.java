@@ -0,0 +1,23 @@
+package com.parchelector.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a page of books with keyset pagination.
+ * Pass nextCursor back as the cursor parameter to get the following page.
+ * 
+ * @author Nicolas Arciniegas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookPageResponse {
+
+    private List<BookResponse> items;
+    private String nextCursor;
+    private Boolean hasMore;
+}
@@ -19,4 +19,6 @@ public class BookResponse {
     private Double rating;
     private String cover;
     private String status; // User's reading status: "leyendo", "leido", "por_leer", or null
+    private Integer reviewCount;
+    private Boolean favorite; // Whether the book is in the user's favorites, or null when anonymous
 }
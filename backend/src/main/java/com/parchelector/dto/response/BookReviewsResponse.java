@@ -7,7 +7,9 @@ import lombok.NoArgsConstructor;
 import java.util.List;
 
 /**
- * DTO for book reviews with aggregated data.
+ * DTO for one page of a book's reviews with aggregated data.
+ * The header (average, total and star histogram) covers every review of the book,
+ * whatever the star filter. Pass nextCursor back as the cursor parameter to get the following page.
  * 
  * @author Nicolas Arciniegas
  */
@@ -20,5 +22,12 @@ public class BookReviewsResponse {
     private String bookTitle;
     private Double averageRating;
     private int totalReviews;
+    private int fiveStarReviews;
+    private int fourStarReviews;
+    private int threeStarReviews;
+    private int twoStarReviews;
+    private int oneStarReviews;
     private List<ReviewResponse> reviews;
+    private String nextCursor;
+    private Boolean hasMore;
 }
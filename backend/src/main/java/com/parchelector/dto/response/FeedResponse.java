@@ -18,9 +18,9 @@ import java.util.List;
 public class FeedResponse {
     
     private List<FeedItem> items;
-    private Integer total;
+    private Integer total; // null when unknown without counting the feed
     private Integer limit;
-    private Integer offset;
+    private String nextCursor;
     private Boolean hasMore;
 
     @Data
@@ -46,7 +46,7 @@ public class FeedResponse {
         private String bookCover;
         private Double rating;
         private String title;
-        private String body;
+        private String excerpt;
         private Integer likes;
         private Integer comments;
     }
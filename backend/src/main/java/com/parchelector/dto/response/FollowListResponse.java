@@ -0,0 +1,33 @@
+package com.parchelector.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for one page of a user's followers or followed users.
+ * 
+ * @author Nicolas Arciniegas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowListResponse {
+
+    private List<FollowUser> users;
+    private Integer limit;
+    private String nextCursor;
+    private Boolean hasMore;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FollowUser {
+        private Long userId;
+        private String username;
+        private String avatarUrl;
+        private Boolean isFollowedByMe; // null for the current user and anonymous readers
+    }
+}
@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 import java.util.List;
 
 /**
- * DTO for list details response.
+ * DTO for list details response, with one page of its books.
  * 
  * @author Nicolas Arciniegas
  */
@@ -27,6 +27,8 @@ public class ListResponse {
     private int bookCount;
     private int likeCount;
     private List<BookInList> books;
+    private String nextCursor;
+    private Boolean hasMore;
 
     @Data
     @NoArgsConstructor
@@ -0,0 +1,30 @@
+package com.parchelector.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a list in a user's collection: counts and the first covers instead of its books.
+ * 
+ * @author Nicolas Arciniegas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListSummaryResponse {
+
+    private Long id;
+    private String name;
+    private String description;
+    private String visibility;
+    private Long userId;
+    private String username;
+    private String createdAt;
+    private String updatedAt;
+    private int bookCount;
+    private int likeCount;
+    private List<String> coverUrls; // covers of the first books with one, in list order
+}
@@ -0,0 +1,46 @@
+package com.parchelector.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO for one page of the current user's notifications.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationListResponse {
+
+    private List<NotificationItem> notifications;
+    private Integer limit;
+    private String nextCursor;
+    private Boolean hasMore;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NotificationItem {
+        private Long id;
+        private String type; // REVIEW_LIKED, REVIEW_COMMENTED or NEW_FOLLOWER
+        private Long reviewId; // null for NEW_FOLLOWER
+        private Integer count; // number of people, e.g. 12 in "12 people liked your review"
+        private List<Actor> actors; // most recent first, at most 3
+        private Boolean isRead;
+        private LocalDateTime createdAt;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Actor {
+        private Long userId;
+        private String username;
+        private String avatarUrl;
+    }
+}
@@ -23,9 +23,13 @@ public class ReviewResponse {
     private String userAvatar;
     private Double rating;
     private String title;
+    // Full text, only in single-review responses and book review pages
     private String body;
+    private String excerpt;
     private String createdAt;
     private String updatedAt;
     private int likes;
     private int comments;
+    // Whether the requesting user liked the review; null when not computed
+    private Boolean likedByMe;
 }
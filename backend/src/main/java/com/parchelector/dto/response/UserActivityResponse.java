@@ -42,7 +42,7 @@ public class UserActivityResponse {
         private String bookCover;
         private Double rating;
         private String title;
-        private String body;
+        private String excerpt;
         private String createdAt;
         private int likes;
         private int comments;
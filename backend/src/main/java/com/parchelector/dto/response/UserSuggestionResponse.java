@@ -0,0 +1,23 @@
+package com.parchelector.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a "who to follow" suggestion.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSuggestionResponse {
+
+    private Long userId;
+    private String username;
+    private String avatarUrl;
+    private Integer mutualFollows; // followed users of the current user who follow this user
+    private Integer sharedBooks;
+    private Integer sharedAuthors;
+}
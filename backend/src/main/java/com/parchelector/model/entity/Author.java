@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -38,4 +39,9 @@ public class Author {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
+
+    // Only changed by AuthorRepository.adjustFollowerCount
+    @ColumnDefault("0")
+    @Column(name = "follower_count", nullable = false, insertable = false, updatable = false)
+    private Integer followerCount = 0;
 }
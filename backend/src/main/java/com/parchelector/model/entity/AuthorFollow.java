@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
  * @author Nicolas Arciniegas
  */
 @Entity
-@Table(name = "author_follows")
+@Table(name = "author_follows", indexes = {
+    @Index(name = "author_follows_author_user_idx", columnList = "author_id, user_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -17,7 +19,11 @@ import java.util.Set;
  * @author Nicolas Arciniegas
  */
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+    @Index(name = "books_published_year_id_idx", columnList = "published_year, id"),
+    @Index(name = "books_popularity_id_idx", columnList = "popularity DESC, id DESC"),
+    @Index(name = "books_isbn13_idx", columnList = "isbn13", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -51,6 +57,11 @@ public class Book {
     @Column(name = "page_count")
     private Integer pageCount;
 
+    // Reviews + reading statuses; only changed through BookRepository.adjustPopularity
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer popularity;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -60,6 +71,7 @@ public class Book {
     private LocalDateTime updatedAt;
 
     @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(
         name = "book_authors",
         joinColumns = @JoinColumn(name = "book_id"),
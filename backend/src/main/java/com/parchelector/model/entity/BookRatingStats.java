@@ -0,0 +1,97 @@
+package com.parchelector.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Incrementally maintained rating aggregate for a book.
+ * Kept in sync with non-deleted reviews by ReviewService.
+ * 
+ * @author Nicolas Arciniegas
+ */
+@Entity
+@Table(name = "book_rating_stats", indexes = {
+    @Index(name = "book_rating_stats_average_idx", columnList = "average_rating")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookRatingStats {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "rating_sum", nullable = false, precision = 12, scale = 1)
+    private BigDecimal ratingSum = BigDecimal.ZERO;
+
+    @Column(name = "rating_count", nullable = false)
+    private Integer ratingCount = 0;
+
+    @Column(name = "average_rating", nullable = false)
+    private Double averageRating = 0.0;
+
+    @Column(name = "one_star", nullable = false)
+    private Integer oneStar = 0;
+
+    @Column(name = "two_star", nullable = false)
+    private Integer twoStar = 0;
+
+    @Column(name = "three_star", nullable = false)
+    private Integer threeStar = 0;
+
+    @Column(name = "four_star", nullable = false)
+    private Integer fourStar = 0;
+
+    @Column(name = "five_star", nullable = false)
+    private Integer fiveStar = 0;
+
+    @Column(name = "last_review_at")
+    private LocalDateTime lastReviewAt;
+
+    public BookRatingStats(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public void addRating(BigDecimal rating) {
+        ratingSum = ratingSum.add(rating);
+        ratingCount++;
+        adjustStars(rating, 1);
+        recalculateAverage();
+    }
+
+    public void removeRating(BigDecimal rating) {
+        ratingSum = ratingSum.subtract(rating);
+        ratingCount = Math.max(0, ratingCount - 1);
+        adjustStars(rating, -1);
+        recalculateAverage();
+    }
+
+    /**
+     * Star buckets use the same boundaries as the per-user rating statistics:
+     * 5 stars from 4.5, 4 stars from 3.5, and so on.
+     */
+    private void adjustStars(BigDecimal rating, int delta) {
+        double value = rating.doubleValue();
+        if (value >= 4.5) {
+            fiveStar = Math.max(0, fiveStar + delta);
+        } else if (value >= 3.5) {
+            fourStar = Math.max(0, fourStar + delta);
+        } else if (value >= 2.5) {
+            threeStar = Math.max(0, threeStar + delta);
+        } else if (value >= 1.5) {
+            twoStar = Math.max(0, twoStar + delta);
+        } else {
+            oneStar = Math.max(0, oneStar + delta);
+        }
+    }
+
+    private void recalculateAverage() {
+        averageRating = ratingCount > 0 ? ratingSum.doubleValue() / ratingCount : 0.0;
+    }
+}
@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
  * @author Nicolas Arciniegas
  */
 @Entity
-@Table(name = "favorite_books")
+@Table(name = "favorite_books", indexes = {
+    @Index(name = "favorite_books_created_at_idx", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
  * @author Nicolas Arciniegas
  */
 @Entity
-@Table(name = "follows")
+@Table(name = "follows", indexes = {
+    @Index(name = "follows_followed_follower_idx", columnList = "followed_id, follower_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,7 +13,9 @@ import java.time.LocalDateTime;
  * @author Nicolas Arciniegas
  */
 @Entity
-@Table(name = "library_lists")
+@Table(name = "library_lists", indexes = {
+    @Index(name = "library_lists_user_created_idx", columnList = "user_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
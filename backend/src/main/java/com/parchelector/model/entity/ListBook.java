@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
  * @author Nicolas Arciniegas
  */
 @Entity
-@Table(name = "list_books")
+@Table(name = "list_books", indexes = {
+    @Index(name = "list_books_added_at_idx", columnList = "added_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,52 @@
+package com.parchelector.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity for notifications. One row stands for every event of the same kind on the same
+ * subject since the user last read it ("12 people liked your review"): the payload holds
+ * the subject, the number of people and the most recent of them.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Entity
+@Table(name = "notifications", indexes = {
+    @Index(name = "notifications_user_read_idx", columnList = "user_id, is_read"),
+    @Index(name = "notifications_user_id_idx", columnList = "user_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Notification {
+
+    public static final String REVIEW_LIKED = "REVIEW_LIKED";
+    public static final String REVIEW_COMMENTED = "REVIEW_COMMENTED";
+    public static final String NEW_FOLLOWER = "NEW_FOLLOWER";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(length = 32, nullable = false)
+    private String type;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private String payload;
+
+    @Column(name = "is_read", nullable = false)
+    private Boolean isRead = false;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -18,14 +18,19 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "reading_status", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "book_id"})
+}, indexes = {
+    @Index(name = "reading_status_updated_at_idx", columnList = "updated_at"),
+    @Index(name = "reading_status_book_id_idx", columnList = "book_id")
 })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ReadingStatus {
 
+    // Pooled sequence ids (not IDENTITY) so Hibernate can batch inserts; see IdSequenceConfig
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reading_status_id_seq")
+    @SequenceGenerator(name = "reading_status_id_seq", sequenceName = "reading_status_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -18,12 +19,19 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "reviews", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "book_id"})
+}, indexes = {
+    @Index(name = "reviews_book_created_idx", columnList = "book_id, created_at, id"),
+    @Index(name = "reviews_book_rating_idx", columnList = "book_id, rating, id"),
+    @Index(name = "reviews_book_likes_idx", columnList = "book_id, like_count, id"),
+    @Index(name = "reviews_user_created_idx", columnList = "user_id, created_at, id")
 })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Review {
 
+    public static final int EXCERPT_LENGTH = 280;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -45,6 +53,10 @@ public class Review {
     @Column(columnDefinition = "TEXT")
     private String body;
 
+    // Preview of the body for list views, kept in sync by setBody
+    @Column(length = EXCERPT_LENGTH)
+    private String excerpt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -55,4 +67,39 @@ public class Review {
 
     @Column(name = "is_deleted", nullable = false)
     private Boolean isDeleted = false;
+
+    // Only changed by ReviewLikeBuffer (likes) and ReviewRepository.adjustCommentCount
+    @ColumnDefault("0")
+    @Column(name = "like_count", nullable = false, insertable = false, updatable = false)
+    private Integer likeCount = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false)
+    private Integer commentCount = 0;
+
+    public void setBody(String body) {
+        this.body = body;
+        this.excerpt = excerptOf(body);
+    }
+
+    /**
+     * The body cut to at most EXCERPT_LENGTH characters, at a word boundary when there is
+     * one near the end, with an ellipsis if anything was cut.
+     */
+    public static String excerptOf(String body) {
+        if (body == null || body.length() <= EXCERPT_LENGTH) {
+            return body;
+        }
+
+        // Leave room for the ellipsis and never split a surrogate pair
+        int end = EXCERPT_LENGTH - 1;
+        if (Character.isHighSurrogate(body.charAt(end - 1))) {
+            end--;
+        }
+        int space = body.lastIndexOf(' ', end);
+        if (space > EXCERPT_LENGTH * 3 / 4) {
+            end = space;
+        }
+        return body.substring(0, end).stripTrailing() + "\u2026";
+    }
 }
@@ -0,0 +1,72 @@
+package com.parchelector.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Entity for timeline_items: one entry of a user's home timeline, a review or public list
+ * posted by someone the user follows. Entries only point at their item; the feed loads the
+ * items themselves when it serves a page.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Entity
+@Table(name = "timeline_items", indexes = {
+    @Index(name = "timeline_items_user_author_idx", columnList = "user_id, author_id"),
+    @Index(name = "timeline_items_item_idx", columnList = "item_type, item_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineItem {
+
+    public static final String REVIEW = "REVIEW";
+    public static final String LIST = "LIST";
+
+    @EmbeddedId
+    private TimelineItemId id;
+
+    // Who posted the item, so unfollowing can remove their entries
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+
+    /**
+     * Timeline owner plus the item's position in the timeline: newest first, ties broken
+     * by item type and ID. The creation time is truncated to microseconds, the precision of
+     * the column, so entries and cursors built in memory order and compare like the rows
+     * read back from timeline_items.
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    public static class TimelineItemId implements Serializable {
+        @Column(name = "user_id")
+        private Long userId;
+
+        @Column(name = "created_at")
+        private LocalDateTime createdAt;
+
+        @Column(name = "item_type", length = 10)
+        private String itemType;
+
+        @Column(name = "item_id")
+        private Long itemId;
+
+        public TimelineItemId(Long userId, LocalDateTime createdAt, String itemType, Long itemId) {
+            this.userId = userId;
+            setCreatedAt(createdAt);
+            this.itemType = itemType;
+            this.itemId = itemId;
+        }
+
+        public void setCreatedAt(LocalDateTime createdAt) {
+            this.createdAt = createdAt != null ? createdAt.truncatedTo(ChronoUnit.MICROS) : null;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -48,4 +49,13 @@ public class User {
 
     @Column(length = 16)
     private String role = "USER"; // USER, ADMIN, MODERATOR
+
+    // Only changed by UserRepository.adjustFollowersCount / adjustFollowingCount
+    @ColumnDefault("0")
+    @Column(name = "followers_count", nullable = false, insertable = false, updatable = false)
+    private Integer followersCount = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "following_count", nullable = false, insertable = false, updatable = false)
+    private Integer followingCount = 0;
 }
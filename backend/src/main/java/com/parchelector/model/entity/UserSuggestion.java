@@ -0,0 +1,59 @@
+package com.parchelector.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Entity for user_suggestions: one of the "who to follow" suggestions precomputed for a
+ * user by the suggestion job, with the signals it was ranked on.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Entity
+@Table(name = "user_suggestions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSuggestion {
+
+    @EmbeddedId
+    private UserSuggestionId id;
+
+    @Column(name = "suggested_user_id", nullable = false)
+    private Long suggestedUserId;
+
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(name = "mutual_follows", nullable = false)
+    private Integer mutualFollows;
+
+    @Column(name = "shared_books", nullable = false)
+    private Integer sharedBooks;
+
+    @Column(name = "shared_authors", nullable = false)
+    private Integer sharedAuthors;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+
+    /**
+     * User the suggestion is for, and its rank (0 = best).
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UserSuggestionId implements Serializable {
+        @Column(name = "user_id")
+        private Long userId;
+
+        @Column(name = "position")
+        private Integer position;
+    }
+}
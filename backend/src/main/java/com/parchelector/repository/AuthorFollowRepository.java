@@ -2,11 +2,20 @@ package com.parchelector.repository;
 
 import com.parchelector.model.entity.AuthorFollow;
 import com.parchelector.model.entity.AuthorFollowId;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for AuthorFollow entity.
@@ -16,15 +25,40 @@ import java.util.Optional;
 @Repository
 public interface AuthorFollowRepository extends JpaRepository<AuthorFollow, AuthorFollowId> {
 
-    @Query("SELECT COUNT(af) FROM AuthorFollow af WHERE af.authorId = :authorId")
-    long countFollowersByAuthorId(Long authorId);
-
     @Query("SELECT COUNT(af) FROM AuthorFollow af WHERE af.userId = :userId")
     long countAuthorFollowsByUserId(Long userId);
 
     boolean existsByUserIdAndAuthorId(Long userId, Long authorId);
 
-    void deleteByUserIdAndAuthorId(Long userId, Long authorId);
+    /**
+     * Follow an author in one statement, unless already followed or the author does not exist.
+     * @return 1 if the follow was inserted, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "INSERT INTO author_follows (user_id, author_id, created_at) " +
+                   "SELECT :userId, :authorId, CURRENT_TIMESTAMP WHERE EXISTS (SELECT 1 FROM authors WHERE id = :authorId) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(Long userId, Long authorId);
+
+    @Modifying
+    @Query("DELETE FROM AuthorFollow af WHERE af.userId = :userId AND af.authorId = :authorId")
+    int deleteByUserIdAndAuthorId(Long userId, Long authorId);
 
     Optional<AuthorFollow> findByUserIdAndAuthorId(Long userId, Long authorId);
+
+    // Every author follow as (user ID, author ID), for the suggestion job
+    @Query("SELECT af.userId, af.authorId FROM AuthorFollow af")
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "10000"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamAll();
+
+    // Number of followed authors a user shares with each of the candidates that shares any: candidate ID, count
+    @Query(value = "SELECT other.user_id, COUNT(*) FROM author_follows mine " +
+                   "JOIN author_follows other ON other.author_id = mine.author_id AND other.user_id IN (:candidateIds) " +
+                   "WHERE mine.user_id = :userId GROUP BY other.user_id",
+           nativeQuery = true)
+    List<Object[]> countSharedAuthors(Long userId, Collection<Long> candidateIds);
 }
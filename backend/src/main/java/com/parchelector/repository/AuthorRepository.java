@@ -2,9 +2,12 @@ package com.parchelector.repository;
 
 import com.parchelector.model.entity.Author;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for Author entity.
@@ -14,5 +17,23 @@ import java.util.List;
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long> {
 
+    String FOLLOWER_COUNT = "(SELECT COUNT(af) FROM AuthorFollow af WHERE af.authorId = a.id)";
+
     List<Author> findByNameContainingIgnoreCase(String name);
+
+    // Atomic in-place change of the follower counter, safe under concurrent writers
+    @Modifying
+    @Query("UPDATE Author a SET a.followerCount = a.followerCount + :delta WHERE a.id = :authorId")
+    int adjustFollowerCount(Long authorId, int delta);
+
+    @Query("SELECT a.followerCount FROM Author a WHERE a.id = :authorId")
+    Optional<Integer> findFollowerCountById(Long authorId);
+
+    // Recompute the counter of every author that drifted from author_follows
+    @Modifying
+    @Query("UPDATE Author a SET a.followerCount = " + FOLLOWER_COUNT + " WHERE a.followerCount <> " + FOLLOWER_COUNT)
+    int rebuildFollowerCounts();
+
+    @Query("SELECT COALESCE(SUM(a.followerCount), 0) FROM Author a")
+    long sumFollowerCounts();
 }
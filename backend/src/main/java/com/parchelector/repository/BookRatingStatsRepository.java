@@ -0,0 +1,50 @@
+package com.parchelector.repository;
+
+import com.parchelector.model.entity.BookRatingStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for BookRatingStats entity.
+ * 
+ * @author Nicolas Arciniegas
+ */
+@Repository
+public interface BookRatingStatsRepository extends JpaRepository<BookRatingStats, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BookRatingStats s WHERE s.bookId = :bookId")
+    Optional<BookRatingStats> findByBookIdForUpdate(Long bookId);
+
+    @Query("SELECT s.bookId FROM BookRatingStats s WHERE s.ratingCount > 0 ORDER BY s.ratingCount DESC, s.averageRating DESC")
+    List<Long> findMostReviewedBookIds(Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO book_rating_stats (book_id, rating_sum, rating_count, average_rating, " +
+                   "one_star, two_star, three_star, four_star, five_star) " +
+                   "VALUES (:bookId, 0, 0, 0, 0, 0, 0, 0, 0) ON CONFLICT (book_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(Long bookId);
+
+    @Modifying
+    @Query(value = "INSERT INTO book_rating_stats (book_id, rating_sum, rating_count, average_rating, " +
+                   "one_star, two_star, three_star, four_star, five_star, last_review_at) " +
+                   "SELECT r.book_id, SUM(r.rating), COUNT(*), AVG(r.rating), " +
+                   "SUM(CASE WHEN r.rating < 1.5 THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN r.rating >= 1.5 AND r.rating < 2.5 THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN r.rating >= 2.5 AND r.rating < 3.5 THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN r.rating >= 3.5 AND r.rating < 4.5 THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN r.rating >= 4.5 THEN 1 ELSE 0 END), " +
+                   "MAX(r.created_at) " +
+                   "FROM reviews r WHERE r.is_deleted = false GROUP BY r.book_id",
+           nativeQuery = true)
+    int rebuildFromReviews();
+}
@@ -1,13 +1,23 @@
 package com.parchelector.repository;
 
 import com.parchelector.model.entity.Book;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository for Book entity.
@@ -17,56 +27,165 @@ import java.util.Optional;
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
 
+    String YEAR_FILTERS = "(:minYear IS NULL OR b.publishedYear >= :minYear) " +
+                          "AND (:maxYear IS NULL OR b.publishedYear <= :maxYear) ";
+
+    // Shared genre/year filters; EXISTS keeps one row per book
+    String FILTERS = "(:genre IS NULL OR EXISTS (SELECT g FROM b.genres g WHERE g.name = :genre)) " +
+                     "AND " + YEAR_FILTERS;
+
+    // Source of truth for the denormalized books.popularity counter
+    String POPULARITY = "(SELECT COUNT(r) FROM Review r WHERE r.book.id = b.id AND r.isDeleted = false) + " +
+                        "(SELECT COUNT(rs) FROM ReadingStatus rs WHERE rs.book.id = b.id)";
+
+    // Atomic in-place change of the popularity counter, safe under concurrent writers
+    @Modifying
+    @Query("UPDATE Book b SET b.popularity = b.popularity + :delta WHERE b.id = :bookId")
+    int adjustPopularity(Long bookId, int delta);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.popularity = b.popularity + :delta WHERE b.id IN :bookIds")
+    int adjustPopularity(Collection<Long> bookIds, int delta);
+
+    // Recompute the popularity counter of every book that drifted from the source tables
+    @Modifying
+    @Query("UPDATE Book b SET b.popularity = (" + POPULARITY + ") WHERE b.popularity <> (" + POPULARITY + ")")
+    int rebuildPopularity();
+
+    @Query("SELECT COALESCE(SUM(b.popularity), 0) FROM Book b")
+    long sumPopularity();
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
     List<Book> findByTitleContainingIgnoreCase(String title);
 
     Optional<Book> findByIsbn13(String isbn13);
 
     List<Book> findByPublishedYear(Integer year);
 
-    @Query("SELECT DISTINCT b FROM Book b " +
-           "LEFT JOIN FETCH b.authors a " +
-           "WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) " +
-           "OR LOWER(a.name) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Book> searchByTitleOrAuthor(String query, Pageable pageable);
-
-    // Filter and sort by popularity (number of reviews + reading statuses)
-    @Query("SELECT b FROM Book b " +
-           "LEFT JOIN b.genres g " +
-           "WHERE (:genre IS NULL OR g.name = :genre) " +
-           "AND (:minYear IS NULL OR b.publishedYear >= :minYear) " +
-           "AND (:maxYear IS NULL OR b.publishedYear <= :maxYear) " +
-           "ORDER BY (" +
-           "  (SELECT COUNT(r) FROM Review r WHERE r.book.id = b.id AND r.isDeleted = false) + " +
-           "  (SELECT COUNT(rs) FROM ReadingStatus rs WHERE rs.book.id = b.id)" +
-           ") DESC")
-    List<Book> findBooksFilteredAndSortedByPopularity(String genre, Integer minYear, Integer maxYear, Pageable pageable);
-
-    // Filter and sort by average rating
-    @Query("SELECT b FROM Book b " +
-           "LEFT JOIN b.genres g " +
-           "WHERE (:genre IS NULL OR g.name = :genre) " +
-           "AND (:minYear IS NULL OR b.publishedYear >= :minYear) " +
-           "AND (:maxYear IS NULL OR b.publishedYear <= :maxYear) " +
-           "ORDER BY (" +
-           "  SELECT COALESCE(AVG(r.rating), 0) FROM Review r WHERE r.book.id = b.id AND r.isDeleted = false" +
-           ") DESC")
-    List<Book> findBooksFilteredAndSortedByRating(String genre, Integer minYear, Integer maxYear, Pageable pageable);
-
-    // Filter and sort by newest (publication year descending)
-    @Query("SELECT b FROM Book b " +
-           "LEFT JOIN b.genres g " +
-           "WHERE (:genre IS NULL OR g.name = :genre) " +
-           "AND (:minYear IS NULL OR b.publishedYear >= :minYear) " +
-           "AND (:maxYear IS NULL OR b.publishedYear <= :maxYear) " +
-           "ORDER BY b.publishedYear DESC NULLS LAST")
-    List<Book> findBooksFilteredAndSortedByNewest(String genre, Integer minYear, Integer maxYear, Pageable pageable);
-
-    // Filter and sort by oldest (publication year ascending)
-    @Query("SELECT b FROM Book b " +
-           "LEFT JOIN b.genres g " +
-           "WHERE (:genre IS NULL OR g.name = :genre) " +
-           "AND (:minYear IS NULL OR b.publishedYear >= :minYear) " +
-           "AND (:maxYear IS NULL OR b.publishedYear <= :maxYear) " +
-           "ORDER BY b.publishedYear ASC NULLS LAST")
-    List<Book> findBooksFilteredAndSortedByOldest(String genre, Integer minYear, Integer maxYear, Pageable pageable);
+    // Time-decayed activity score per book: each event weighs half as much every halfLifeHours
+    @Query(value = "SELECT e.book_id, " +
+                   "SUM(e.weight * EXP(-0.6931471805599453 * EXTRACT(EPOCH FROM (CAST(:now AS TIMESTAMP) - e.occurred_at)) / (:halfLifeHours * 3600.0))) AS score " +
+                   "FROM (" +
+                   "  SELECT r.book_id, r.created_at AS occurred_at, CAST(:reviewWeight AS DOUBLE PRECISION) AS weight " +
+                   "  FROM reviews r WHERE r.is_deleted = false AND r.created_at >= :since " +
+                   "  UNION ALL " +
+                   "  SELECT rs.book_id, rs.updated_at, CAST(:statusWeight AS DOUBLE PRECISION) " +
+                   "  FROM reading_status rs WHERE rs.updated_at >= :since " +
+                   "  UNION ALL " +
+                   "  SELECT fb.book_id, fb.created_at, CAST(:favoriteWeight AS DOUBLE PRECISION) " +
+                   "  FROM favorite_books fb WHERE fb.created_at >= :since " +
+                   "  UNION ALL " +
+                   "  SELECT lb.book_id, lb.added_at, CAST(:listWeight AS DOUBLE PRECISION) " +
+                   "  FROM list_books lb WHERE lb.added_at >= :since" +
+                   ") e " +
+                   "GROUP BY e.book_id " +
+                   "ORDER BY score DESC " +
+                   "LIMIT :size",
+           nativeQuery = true)
+    List<Object[]> findTrendingScores(LocalDateTime now, LocalDateTime since, double halfLifeHours,
+                                      double reviewWeight, double statusWeight,
+                                      double favoriteWeight, double listWeight, int size);
+
+    // Full-text search over book title/description and author names, most relevant first.
+    // Returns [book_id, score]; pass the last row back to seek to the next page (a null score
+    // starts at the top). The score is rounded to 6 decimals: the float sum of the ranks can
+    // differ in its last bits between executions, and an exact seek on it could skip or repeat books.
+    @Query(value = "SELECT s.book_id, s.score FROM (" +
+                   "  SELECT m.book_id, ROUND(CAST(SUM(m.rank) AS NUMERIC), 6) AS score FROM (" +
+                   "    SELECT b.id AS book_id, ts_rank(b.search_vector, q.tq) AS rank " +
+                   "    FROM books b, (SELECT websearch_to_tsquery('parche_es', :query) || " +
+                   "                          websearch_to_tsquery('parche_en', :query) AS tq) q " +
+                   "    WHERE b.search_vector @@ q.tq " +
+                   "    UNION ALL " +
+                   "    SELECT ba.book_id, ts_rank(a.search_vector, q.nq) " +
+                   "    FROM authors a JOIN book_authors ba ON ba.author_id = a.id, " +
+                   "         (SELECT websearch_to_tsquery('parche_simple', :query) AS nq) q " +
+                   "    WHERE a.search_vector @@ q.nq" +
+                   "  ) m " +
+                   "  GROUP BY m.book_id" +
+                   ") s " +
+                   "WHERE CAST(:cursorScore AS NUMERIC) IS NULL " +
+                   "   OR s.score < CAST(:cursorScore AS NUMERIC) " +
+                   "   OR (s.score = CAST(:cursorScore AS NUMERIC) AND s.book_id > :cursorId) " +
+                   "ORDER BY s.score DESC, s.book_id " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> searchByFullText(String query, BigDecimal cursorScore, long cursorId, int limit);
+
+    // Portable fallback search (used with H2), ordered by title, seeking past the cursor
+    @Query("SELECT b.id, b.title FROM Book b " +
+           "WHERE (LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) " +
+           "       OR EXISTS (SELECT a FROM b.authors a WHERE LOWER(a.name) LIKE LOWER(CONCAT('%', :query, '%')))) " +
+           "AND (:cursorId IS NULL OR b.title > :cursorTitle OR (b.title = :cursorTitle AND b.id > :cursorId)) " +
+           "ORDER BY b.title, b.id")
+    List<Object[]> searchByTitleOrAuthor(String query, String cursorTitle, Long cursorId, Pageable pageable);
+
+    // Every book with its authors and review count for the suggestion index, one row per author
+    @Query("SELECT b.id, b.title, b.isbn10, b.isbn13, COALESCE(s.ratingCount, 0), a.name, a.sortName " +
+           "FROM Book b " +
+           "LEFT JOIN b.authors a " +
+           "LEFT JOIN BookRatingStats s ON s.bookId = b.id " +
+           "ORDER BY b.id, a.id")
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamSuggestionRows();
+
+    // Filter and sort by popularity (the denormalized counter, served by books_popularity_id_idx), seeking past the cursor
+    @Query("SELECT b, b.popularity FROM Book b " +
+           "WHERE " + FILTERS +
+           "AND (:cursorId IS NULL OR b.popularity < :cursorScore " +
+           "     OR (b.popularity = :cursorScore AND b.id < :cursorId)) " +
+           "ORDER BY b.popularity DESC, b.id DESC")
+    List<Object[]> findBooksFilteredAndSortedByPopularity(String genre, Integer minYear, Integer maxYear,
+                                                          Integer cursorScore, Long cursorId, Pageable pageable);
+
+    // Popularity sort within one genre. Joining (genre names are unique, so still one row per book)
+    // lets the index walk probe book_genres per book instead of hashing the whole genre first.
+    @Query("SELECT b, b.popularity FROM Book b JOIN b.genres g " +
+           "WHERE g.name = :genre AND " + YEAR_FILTERS +
+           "AND (:cursorId IS NULL OR b.popularity < :cursorScore " +
+           "     OR (b.popularity = :cursorScore AND b.id < :cursorId)) " +
+           "ORDER BY b.popularity DESC, b.id DESC")
+    List<Object[]> findBooksInGenreSortedByPopularity(String genre, Integer minYear, Integer maxYear,
+                                                      Integer cursorScore, Long cursorId, Pageable pageable);
+
+    // Filter and sort by average rating (read from the book_rating_stats aggregate), seeking past the cursor
+    @Query("SELECT b, COALESCE(s.averageRating, 0.0) FROM Book b " +
+           "LEFT JOIN BookRatingStats s ON s.bookId = b.id " +
+           "WHERE " + FILTERS +
+           "AND (:cursorId IS NULL OR COALESCE(s.averageRating, 0.0) < :cursorRating " +
+           "     OR (COALESCE(s.averageRating, 0.0) = :cursorRating AND b.id < :cursorId)) " +
+           "ORDER BY COALESCE(s.averageRating, 0.0) DESC, b.id DESC")
+    List<Object[]> findBooksFilteredAndSortedByRating(String genre, Integer minYear, Integer maxYear,
+                                                      Double cursorRating, Long cursorId, Pageable pageable);
+
+    // Filter and sort by newest (publication year descending, unknown years last), seeking past the cursor
+    @Query("SELECT b, b.publishedYear FROM Book b " +
+           "WHERE " + FILTERS +
+           "AND (:cursorId IS NULL " +
+           "     OR (:cursorYear IS NOT NULL AND (b.publishedYear < :cursorYear OR b.publishedYear IS NULL " +
+           "         OR (b.publishedYear = :cursorYear AND b.id < :cursorId))) " +
+           "     OR (:cursorYear IS NULL AND b.publishedYear IS NULL AND b.id < :cursorId)) " +
+           "ORDER BY b.publishedYear DESC NULLS LAST, b.id DESC")
+    List<Object[]> findBooksFilteredAndSortedByNewest(String genre, Integer minYear, Integer maxYear,
+                                                      Integer cursorYear, Long cursorId, Pageable pageable);
+
+    // Filter and sort by oldest (publication year ascending, unknown years last), seeking past the cursor
+    @Query("SELECT b, b.publishedYear FROM Book b " +
+           "WHERE " + FILTERS +
+           "AND (:cursorId IS NULL " +
+           "     OR (:cursorYear IS NOT NULL AND (b.publishedYear > :cursorYear OR b.publishedYear IS NULL " +
+           "         OR (b.publishedYear = :cursorYear AND b.id > :cursorId))) " +
+           "     OR (:cursorYear IS NULL AND b.publishedYear IS NULL AND b.id > :cursorId)) " +
+           "ORDER BY b.publishedYear ASC NULLS LAST, b.id ASC")
+    List<Object[]> findBooksFilteredAndSortedByOldest(String genre, Integer minYear, Integer maxYear,
+                                                      Integer cursorYear, Long cursorId, Pageable pageable);
+
+    // A book with its rating aggregate (null when it has no reviews), for the reviews header
+    @Query("SELECT b, s FROM Book b LEFT JOIN BookRatingStats s ON s.bookId = b.id WHERE b.id = :bookId")
+    List<Object[]> findWithRatingStats(Long bookId);
 }
@@ -2,6 +2,7 @@ package com.parchelector.repository;
 
 import com.parchelector.model.entity.FavoriteBook;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -20,5 +21,18 @@ public interface FavoriteBookRepository extends JpaRepository<FavoriteBook, Favo
     
     boolean existsByUserIdAndBookId(Long userId, Long bookId);
     
-    void deleteByUserIdAndBookId(Long userId, Long bookId);
+    /**
+     * Add a favorite in one statement, unless already a favorite or the book does not exist.
+     * @return 1 if the favorite was inserted, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "INSERT INTO favorite_books (user_id, book_id, created_at) " +
+                   "SELECT :userId, :bookId, CURRENT_TIMESTAMP WHERE EXISTS (SELECT 1 FROM books WHERE id = :bookId) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(Long userId, Long bookId);
+
+    @Modifying
+    @Query("DELETE FROM FavoriteBook fb WHERE fb.id.userId = :userId AND fb.id.bookId = :bookId")
+    int deleteByUserIdAndBookId(Long userId, Long bookId);
 }
@@ -2,12 +2,21 @@ package com.parchelector.repository;
 
 import com.parchelector.model.entity.Follow;
 import com.parchelector.model.entity.FollowId;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for Follow entity.
@@ -25,10 +34,59 @@ public interface FollowRepository extends JpaRepository<Follow, FollowId> {
 
     boolean existsByFollowerIdAndFollowedId(Long followerId, Long followedId);
 
-    void deleteByFollowerIdAndFollowedId(Long followerId, Long followedId);
+    /**
+     * Follow a user in one statement, unless already followed or the user does not exist.
+     * @return 1 if the follow was inserted, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "INSERT INTO follows (follower_id, followed_id, created_at) " +
+                   "SELECT :followerId, :followedId, :createdAt WHERE EXISTS (SELECT 1 FROM users WHERE id = :followedId) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(Long followerId, Long followedId, LocalDateTime createdAt);
+
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.followerId = :followerId AND f.followedId = :followedId")
+    int deleteByFollowerIdAndFollowedId(Long followerId, Long followedId);
 
     Optional<Follow> findByFollowerIdAndFollowedId(Long followerId, Long followedId);
 
     @Query("SELECT f.followedId FROM Follow f WHERE f.followerId = :userId")
     List<Long> findFollowedUserIds(Long userId);
+
+    @Query("SELECT f.followerId FROM Follow f WHERE f.followedId = :userId")
+    List<Long> findFollowerIds(Long userId);
+
+    /**
+     * Fields of a user shown in follower and following lists.
+     */
+    interface FollowUserSummary {
+        Long getId();
+        String getUsername();
+        String getAvatarUrl();
+    }
+
+    // A page of a user's followers in ID order, seeking past the cursor (follows_followed_follower_idx)
+    @Query("SELECT u.id AS id, u.username AS username, u.avatarUrl AS avatarUrl FROM Follow f JOIN f.follower u " +
+           "WHERE f.followedId = :userId AND f.followerId > :afterId ORDER BY f.followerId")
+    List<FollowUserSummary> findFollowersPage(Long userId, Long afterId, Pageable pageable);
+
+    // A page of the users someone follows in ID order, seeking past the cursor (primary key)
+    @Query("SELECT u.id AS id, u.username AS username, u.avatarUrl AS avatarUrl FROM Follow f JOIN f.followed u " +
+           "WHERE f.followerId = :userId AND f.followedId > :afterId ORDER BY f.followedId")
+    List<FollowUserSummary> findFollowingPage(Long userId, Long afterId, Pageable pageable);
+
+    // Every follow as (follower ID, followed ID), for the in-memory follow graph
+    @Query("SELECT f.followerId, f.followedId FROM Follow f")
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "10000"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamAll();
+
+    @Query("SELECT MAX(f.followerId) FROM Follow f")
+    Long findMaxFollowerId();
+
+    @Query("SELECT f.followerId FROM Follow f GROUP BY f.followerId HAVING COUNT(f) > :threshold")
+    List<Long> findFollowerIdsFollowingMoreThan(long threshold);
 }
@@ -5,6 +5,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,9 +22,47 @@ public interface LibraryListRepository extends JpaRepository<LibraryList, Long>
     @Query("SELECT COUNT(lb) FROM ListBook lb WHERE lb.list.id = :listId")
     int countBooksByListId(Long listId);
 
-    @Query("SELECT l FROM LibraryList l WHERE l.user.id IN :userIds ORDER BY l.createdAt DESC")
-    List<LibraryList> findByUserIdsOrderByCreatedAtDesc(List<Long> userIds);
+    // A user's lists visible to the reader with their owner and counts, newest first, for the profile
+    @Query("SELECT l.id AS id, l.name AS name, l.description AS description, l.visibility AS visibility, " +
+           "l.createdAt AS createdAt, l.updatedAt AS updatedAt, u.id AS userId, u.username AS username, u.avatarUrl AS userAvatar, " +
+           "(SELECT COUNT(lb) FROM ListBook lb WHERE lb.list.id = l.id) AS bookCount, " +
+           "(SELECT COUNT(ll) FROM ListLike ll WHERE ll.list.id = l.id) AS likeCount " +
+           "FROM LibraryList l JOIN l.user u WHERE u.id = :userId " +
+           "AND (l.visibility = 'PUBLIC' OR (l.visibility = 'FOLLOWERS_ONLY' AND :isFollower = true)) ORDER BY l.createdAt DESC")
+    List<ListSummary> findPublicSummariesByUserId(Long userId, boolean isFollower);
 
-    @Query("SELECT l FROM LibraryList l WHERE l.user.id = :userId AND (l.visibility = 'PUBLIC' OR (l.visibility = 'FOLLOWERS_ONLY' AND :isFollower = true)) ORDER BY l.createdAt DESC")
-    List<LibraryList> findPublicListsByUserId(Long userId, boolean isFollower);
+    // Visible lists with their owner and counts, for the feed
+    @Query("SELECT l.id AS id, l.name AS name, l.description AS description, l.visibility AS visibility, " +
+           "l.createdAt AS createdAt, l.updatedAt AS updatedAt, u.id AS userId, u.username AS username, u.avatarUrl AS userAvatar, " +
+           "(SELECT COUNT(lb) FROM ListBook lb WHERE lb.list.id = l.id) AS bookCount, " +
+           "(SELECT COUNT(ll) FROM ListLike ll WHERE ll.list.id = l.id) AS likeCount " +
+           "FROM LibraryList l JOIN l.user u WHERE l.id IN :ids AND l.visibility <> 'PRIVATE'")
+    List<ListSummary> findSummariesByIds(Collection<Long> ids);
+
+    // IDs and creation times of the newest visible lists of the users someone follows, seeking past
+    // the cursor, like ReviewRepository.findFollowedFeedPage (served by library_lists_user_created_idx)
+    @Query(value = "SELECT x.id, x.created_at FROM follows f CROSS JOIN LATERAL (" +
+                   "SELECT l.id, l.created_at FROM library_lists l WHERE l.user_id = f.followed_id AND l.visibility <> 'PRIVATE' " +
+                   "AND l.created_at <= :cursorCreatedAt AND (l.created_at < :cursorCreatedAt OR l.id < :cursorId) " +
+                   "ORDER BY l.created_at DESC, l.id DESC LIMIT :limit) x " +
+                   "WHERE f.follower_id = :userId ORDER BY x.created_at DESC, x.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findFollowedFeedPage(Long userId, LocalDateTime cursorCreatedAt, Long cursorId, int limit);
+
+    /**
+     * A list as shown in the feed and on profiles: no books, only how many there are.
+     */
+    interface ListSummary {
+        Long getId();
+        String getName();
+        String getDescription();
+        String getVisibility();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        Long getUserId();
+        String getUsername();
+        String getUserAvatar();
+        Long getBookCount();
+        Long getLikeCount();
+    }
 }
@@ -1,10 +1,13 @@
 package com.parchelector.repository;
 
 import com.parchelector.model.entity.ListBook;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,6 +18,38 @@ import java.util.List;
 @Repository
 public interface ListBookRepository extends JpaRepository<ListBook, ListBook.ListBookId> {
     
-    @Query("SELECT lb FROM ListBook lb JOIN FETCH lb.book b LEFT JOIN FETCH b.authors WHERE lb.list.id = :listId ORDER BY lb.position")
-    List<ListBook> findByListIdWithBooks(Long listId);
+    // One page of a list's books in position order, seeking past a position (list_books_list_position_idx);
+    // the authors of the whole page are loaded together (@BatchSize on Book.authors)
+    @Query("SELECT lb FROM ListBook lb JOIN FETCH lb.book WHERE lb.list.id = :listId AND lb.position > :afterPosition ORDER BY lb.position")
+    List<ListBook> findPage(Long listId, int afterPosition, Pageable pageable);
+
+    // Cover URLs of the first books with a cover of each list, in position order: list ID, cover URL
+    @Query(value = "SELECT x.list_id, x.cover_url FROM (" +
+                   "SELECT lb.list_id, b.cover_url, ROW_NUMBER() OVER (PARTITION BY lb.list_id ORDER BY lb.position) AS rn " +
+                   "FROM list_books lb JOIN books b ON b.id = lb.book_id " +
+                   "WHERE lb.list_id IN (:listIds) AND b.cover_url IS NOT NULL) x " +
+                   "WHERE x.rn <= :perList ORDER BY x.list_id, x.rn",
+           nativeQuery = true)
+    List<Object[]> findFirstCovers(Collection<Long> listIds, int perList);
+
+    /**
+     * Add a book to a list in one statement, unless it is already there, the list is not the
+     * user's or the book does not exist. Only the primary key is a conflict target: a position
+     * already taken by another book still fails on list_books_list_position_idx.
+     * @return 1 if the book was added, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "INSERT INTO list_books (list_id, book_id, position, note, added_at) " +
+                   "SELECT l.id, b.id, :position, CAST(:note AS VARCHAR), CURRENT_TIMESTAMP " +
+                   "FROM library_lists l JOIN books b ON b.id = :bookId " +
+                   "WHERE l.id = :listId AND l.user_id = :userId " +
+                   "ON CONFLICT (list_id, book_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(Long userId, Long listId, Long bookId, Integer position, String note);
+
+    // Only removes the book if the list is the user's
+    @Modifying
+    @Query("DELETE FROM ListBook lb WHERE lb.id.listId = :listId AND lb.id.bookId = :bookId " +
+           "AND EXISTS (SELECT 1 FROM LibraryList l WHERE l.id = :listId AND l.user.id = :userId)")
+    int deleteFromUserList(Long userId, Long listId, Long bookId);
 }
@@ -0,0 +1,44 @@
+package com.parchelector.repository;
+
+import com.parchelector.model.entity.Notification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for Notification entity.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    // A user's notifications, newest first, seeking past the cursor (served by notifications_user_id_idx)
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND n.id < :beforeId ORDER BY n.id DESC")
+    List<Notification> findPage(Long userId, Long beforeId, Pageable pageable);
+
+    // Unread notifications of the given kinds that new events of the same subject are merged into
+    @Query("SELECT n FROM Notification n WHERE n.userId IN :userIds AND n.type IN :types AND n.isRead = false")
+    List<Notification> findUnread(Collection<Long> userIds, Collection<String> types);
+
+    long countByUserIdAndIsReadFalse(Long userId);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    // Unread notifications per user: user ID, count
+    @Query("SELECT n.userId, COUNT(n) FROM Notification n WHERE n.isRead = false GROUP BY n.userId")
+    List<Object[]> countUnreadByUser();
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.userId = :userId AND n.isRead = false")
+    int markRead(Long id, Long userId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.userId = :userId AND n.isRead = false")
+    int markAllRead(Long userId);
+}
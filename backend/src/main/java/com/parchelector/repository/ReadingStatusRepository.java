@@ -1,12 +1,19 @@
 package com.parchelector.repository;
 
 import com.parchelector.model.entity.ReadingStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for ReadingStatus entity.
@@ -25,6 +32,19 @@ public interface ReadingStatusRepository extends JpaRepository<ReadingStatus, Lo
 
     @Query("SELECT rs FROM ReadingStatus rs WHERE rs.user.id = :userId AND rs.book.id = :bookId")
     Optional<ReadingStatus> findByUserIdAndBookId(Long userId, Long bookId);
+
+    @Query("SELECT rs FROM ReadingStatus rs WHERE rs.user.id = :userId AND rs.book.id IN :bookIds")
+    List<ReadingStatus> findByUserIdAndBookIdIn(Long userId, Collection<Long> bookIds);
+
+    /**
+     * Every shelved and favorite book of a user as [bookId, status] rows, in one round trip.
+     * Favorites come back with a null status.
+     */
+    @Query(value = "SELECT rs.book_id, CAST(rs.status AS VARCHAR(20)) FROM reading_status rs WHERE rs.user_id = :userId " +
+                   "UNION ALL " +
+                   "SELECT fb.book_id, NULL FROM favorite_books fb WHERE fb.user_id = :userId",
+           nativeQuery = true)
+    List<Object[]> findLibraryEntries(Long userId);
     
     @Query("SELECT COUNT(rs) FROM ReadingStatus rs WHERE rs.user.id = :userId AND rs.status = :status")
     int countByUserIdAndStatus(Long userId, ReadingStatus.ReadingStatusEnum status);
@@ -37,4 +57,19 @@ public interface ReadingStatusRepository extends JpaRepository<ReadingStatus, Lo
 
     @Query("SELECT COUNT(rs) FROM ReadingStatus rs WHERE rs.user.id = :userId AND rs.status = 'READ' AND EXTRACT(YEAR FROM rs.finishedAt) = EXTRACT(YEAR FROM CURRENT_DATE)")
     int countBooksReadThisYear(Long userId);
+
+    // Every shelved book as (user ID, book ID), for the suggestion job
+    @Query("SELECT rs.user.id, rs.book.id FROM ReadingStatus rs")
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "10000"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamUserBooks();
+
+    // Number of books a user shares with each of the candidates that shares any: candidate ID, count
+    @Query(value = "SELECT other.user_id, COUNT(*) FROM reading_status mine " +
+                   "JOIN reading_status other ON other.book_id = mine.book_id AND other.user_id IN (:candidateIds) " +
+                   "WHERE mine.user_id = :userId GROUP BY other.user_id",
+           nativeQuery = true)
+    List<Object[]> countSharedBooks(Long userId, Collection<Long> candidateIds);
 }
@@ -17,4 +17,7 @@ public interface ReviewCommentRepository extends JpaRepository<ReviewComment, Lo
 
     @Query("SELECT rc FROM ReviewComment rc JOIN FETCH rc.user WHERE rc.review.id = :reviewId AND rc.isDeleted = false ORDER BY rc.createdAt ASC")
     List<ReviewComment> findByReviewIdOrderByCreatedAtAsc(Long reviewId);
+
+    @Query("SELECT COUNT(rc) FROM ReviewComment rc WHERE rc.isDeleted = false")
+    long countNotDeleted();
 }
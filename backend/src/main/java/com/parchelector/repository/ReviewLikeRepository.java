@@ -2,8 +2,12 @@ package com.parchelector.repository;
 
 import com.parchelector.model.entity.ReviewLike;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repository interface for ReviewLike entity.
  * 
@@ -14,5 +18,9 @@ public interface ReviewLikeRepository extends JpaRepository<ReviewLike, ReviewLi
 
     boolean existsByReviewIdAndUserId(Long reviewId, Long userId);
 
-    void deleteByReviewIdAndUserId(Long reviewId, Long userId);
+    /**
+     * Ids of the given reviews that the user has liked, in one primary key lookup per id.
+     */
+    @Query("SELECT rl.id.reviewId FROM ReviewLike rl WHERE rl.id.userId = :userId AND rl.id.reviewId IN :reviewIds")
+    List<Long> findLikedReviewIds(Long userId, Collection<Long> reviewIds);
 }
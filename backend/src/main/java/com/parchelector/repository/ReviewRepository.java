@@ -1,10 +1,15 @@
 package com.parchelector.repository;
 
 import com.parchelector.model.entity.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,14 +21,28 @@ import java.util.Optional;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
 
+    // Sources of truth for the denormalized reviews.like_count and reviews.comment_count counters
+    String LIKE_COUNT = "(SELECT COUNT(rl) FROM ReviewLike rl WHERE rl.review.id = r.id)";
+    String COMMENT_COUNT = "(SELECT COUNT(rc) FROM ReviewComment rc WHERE rc.review.id = r.id AND rc.isDeleted = false)";
+
+    // Active reviews of one book with a rating in [minRating, maxRating); null bounds are open.
+    // The book review queries below seek past a cursor that is never null (the first page starts
+    // after a sentinel): "key <= :cursor" bounds the index scan, the rest of the seek is a cheap filter.
+    String BOOK_REVIEW_FILTERS = "r.book.id = :bookId AND r.isDeleted = false " +
+            "AND (:minRating IS NULL OR r.rating >= :minRating) AND (:maxRating IS NULL OR r.rating < :maxRating) ";
+
+    // Columns of ReviewSummary, for queries joining the review's book as b and user as u
+    String SUMMARY_COLUMNS = "r.id AS id, b.id AS bookId, b.title AS bookTitle, b.coverUrl AS bookCover, " +
+            "u.id AS userId, u.username AS username, u.avatarUrl AS userAvatar, r.rating AS rating, " +
+            "r.title AS title, r.excerpt AS excerpt, r.createdAt AS createdAt, r.updatedAt AS updatedAt, " +
+            "r.likeCount AS likeCount, r.commentCount AS commentCount";
+
     @Query("SELECT r FROM Review r WHERE r.user.id = :userId AND r.book.id = :bookId AND r.isDeleted = false")
     Optional<Review> findByUserIdAndBookId(Long userId, Long bookId);
-
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.book.id = :bookId AND r.isDeleted = false")
-    Double getAverageRatingByBookId(Long bookId);
     
-    @Query("SELECT r FROM Review r WHERE r.user.id = :userId AND r.isDeleted = false ORDER BY r.createdAt DESC")
-    List<Review> findByUserIdOrderByCreatedAtDesc(Long userId);
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM Review r JOIN r.book b JOIN r.user u " +
+           "WHERE r.user.id = :userId AND r.isDeleted = false ORDER BY r.createdAt DESC")
+    List<ReviewSummary> findSummariesByUserId(Long userId, Pageable pageable);
     
     @Query("SELECT COUNT(r) FROM Review r WHERE r.user.id = :userId AND r.isDeleted = false")
     int countByUserId(Long userId);
@@ -40,18 +59,101 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT COUNT(r) FROM Review r WHERE r.user.id = :userId AND r.isDeleted = false AND EXTRACT(YEAR FROM r.createdAt) = EXTRACT(YEAR FROM CURRENT_DATE)")
     int countReviewsThisYear(Long userId);
     
-    @Query("SELECT COUNT(rl) FROM ReviewLike rl WHERE rl.review.id = :reviewId")
-    int countLikesByReviewId(Long reviewId);
+    @Query("SELECT COUNT(r) FROM Review r WHERE r.isDeleted = false")
+    long countNotDeleted();
     
-    @Query("SELECT COUNT(rc) FROM ReviewComment rc WHERE rc.review.id = :reviewId AND rc.isDeleted = false")
-    int countCommentsByReviewId(Long reviewId);
-    
-    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.book WHERE r.book.id = :bookId AND r.isDeleted = false ORDER BY r.createdAt DESC")
-    List<Review> findByBookIdOrderByCreatedAtDesc(Long bookId);
+    // Whether the review is deleted and whether the user likes it
+    @Query("SELECT r.isDeleted, CASE WHEN EXISTS (SELECT 1 FROM ReviewLike rl " +
+           "WHERE rl.id.reviewId = r.id AND rl.id.userId = :userId) THEN true ELSE false END " +
+           "FROM Review r WHERE r.id = :reviewId")
+    List<Object[]> findLikeState(Long reviewId, Long userId);
+
+    // Author of each of the given reviews that is not deleted: review ID, user ID
+    @Query("SELECT r.id, r.user.id FROM Review r WHERE r.id IN :reviewIds AND r.isDeleted = false")
+    List<Object[]> findAuthorIds(Collection<Long> reviewIds);
+
+    // Atomic in-place change of the comment counter, safe under concurrent writers
+    @Modifying
+    @Query("UPDATE Review r SET r.commentCount = r.commentCount + :delta WHERE r.id = :reviewId")
+    int adjustCommentCount(Long reviewId, int delta);
+
+    // Recompute the counters of every review that drifted from review_likes / review_comments
+    @Modifying
+    @Query("UPDATE Review r SET r.likeCount = " + LIKE_COUNT + ", r.commentCount = " + COMMENT_COUNT + " " +
+           "WHERE r.likeCount <> " + LIKE_COUNT + " OR r.commentCount <> " + COMMENT_COUNT)
+    int rebuildInteractionCounts();
+
+    @Query("SELECT COALESCE(SUM(r.likeCount), 0) FROM Review r")
+    long sumLikeCounts();
+
+    @Query("SELECT COALESCE(SUM(r.commentCount), 0) FROM Review r")
+    long sumCommentCounts();
     
-    @Query("SELECT COUNT(r) FROM Review r WHERE r.book.id = :bookId AND r.isDeleted = false")
-    int countByBookId(Long bookId);
+    // Reviews of a book, newest first (served by reviews_book_created_idx), seeking past the cursor
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM Review r JOIN r.book b JOIN r.user u " +
+           "WHERE " + BOOK_REVIEW_FILTERS +
+           "AND r.createdAt <= :cursorCreatedAt AND (r.createdAt < :cursorCreatedAt OR r.id < :cursorId) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReviewSummary> findBookReviewsByNewest(Long bookId, BigDecimal minRating, BigDecimal maxRating,
+                                         LocalDateTime cursorCreatedAt, Long cursorId, Pageable pageable);
+
+    // Reviews of a book, highest rated first (served by reviews_book_rating_idx), seeking past the cursor
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM Review r JOIN r.book b JOIN r.user u " +
+           "WHERE " + BOOK_REVIEW_FILTERS +
+           "AND r.rating <= :cursorRating AND (r.rating < :cursorRating OR r.id < :cursorId) " +
+           "ORDER BY r.rating DESC, r.id DESC")
+    List<ReviewSummary> findBookReviewsByHighest(Long bookId, BigDecimal minRating, BigDecimal maxRating,
+                                          BigDecimal cursorRating, Long cursorId, Pageable pageable);
+
+    // Reviews of a book, most liked first (served by reviews_book_likes_idx), seeking past the cursor
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM Review r JOIN r.book b JOIN r.user u " +
+           "WHERE " + BOOK_REVIEW_FILTERS +
+           "AND r.likeCount <= :cursorLikes AND (r.likeCount < :cursorLikes OR r.id < :cursorId) " +
+           "ORDER BY r.likeCount DESC, r.id DESC")
+    List<ReviewSummary> findBookReviewsByMostLiked(Long bookId, BigDecimal minRating, BigDecimal maxRating,
+                                            Integer cursorLikes, Long cursorId, Pageable pageable);
+
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM Review r JOIN r.book b JOIN r.user u " +
+           "WHERE r.id IN :ids AND r.isDeleted = false")
+    List<ReviewSummary> findSummariesByIds(Collection<Long> ids);
+
+    // IDs and creation times of the newest active reviews of the users someone follows, seeking past
+    // the cursor: one index scan of reviews_user_created_idx per followed user, reading at most
+    // :limit rows each, merged by the database
+    @Query(value = "SELECT x.id, x.created_at FROM follows f CROSS JOIN LATERAL (" +
+                   "SELECT r.id, r.created_at FROM reviews r WHERE r.user_id = f.followed_id AND r.is_deleted = false " +
+                   "AND r.created_at <= :cursorCreatedAt AND (r.created_at < :cursorCreatedAt OR r.id < :cursorId) " +
+                   "ORDER BY r.created_at DESC, r.id DESC LIMIT :limit) x " +
+                   "WHERE f.follower_id = :userId ORDER BY x.created_at DESC, x.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findFollowedFeedPage(Long userId, LocalDateTime cursorCreatedAt, Long cursorId, int limit);
+
+    // Reviews written before excerpts were stored, by id
+    @Query("SELECT r.id, r.body FROM Review r WHERE r.excerpt IS NULL AND r.body IS NOT NULL AND r.id > :afterId ORDER BY r.id")
+    List<Object[]> findBodiesWithoutExcerpt(Long afterId, Pageable pageable);
+
+    // Leaves updated_at alone, unlike saving the entity
+    @Modifying
+    @Query("UPDATE Review r SET r.excerpt = :excerpt WHERE r.id = :reviewId")
+    int setExcerpt(Long reviewId, String excerpt);
 
-    @Query("SELECT r FROM Review r JOIN FETCH r.user JOIN FETCH r.book WHERE r.user.id IN :userIds AND r.isDeleted = false ORDER BY r.createdAt DESC")
-    List<Review> findByUserIdsOrderByCreatedAtDesc(List<Long> userIds);
+    /**
+     * A review as shown in lists: the excerpt instead of the body, which is never loaded.
+     */
+    interface ReviewSummary {
+        Long getId();
+        Long getBookId();
+        String getBookTitle();
+        String getBookCover();
+        Long getUserId();
+        String getUsername();
+        String getUserAvatar();
+        BigDecimal getRating();
+        String getTitle();
+        String getExcerpt();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        Integer getLikeCount();
+        Integer getCommentCount();
+    }
 }
@@ -0,0 +1,73 @@
+package com.parchelector.repository;
+
+import com.parchelector.model.entity.TimelineItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for TimelineItem entity.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Repository
+public interface TimelineItemRepository extends JpaRepository<TimelineItem, TimelineItem.TimelineItemId> {
+
+    // A user's timeline, newest first (served by the primary key), seeking past the cursor
+    @Query("SELECT t FROM TimelineItem t WHERE t.id.userId = :userId " +
+           "AND t.id.createdAt <= :cursorCreatedAt AND (t.id.createdAt < :cursorCreatedAt " +
+           "OR t.id.itemType < :cursorItemType OR (t.id.itemType = :cursorItemType AND t.id.itemId < :cursorItemId)) " +
+           "ORDER BY t.id.createdAt DESC, t.id.itemType DESC, t.id.itemId DESC")
+    List<TimelineItem> findPage(Long userId, LocalDateTime cursorCreatedAt, String cursorItemType,
+                                Long cursorItemId, Pageable pageable);
+
+    // Trim the entries of an unfollowed user
+    @Modifying
+    @Query("DELETE FROM TimelineItem t WHERE t.id.userId = :userId AND t.authorId = :authorId")
+    int deleteByUserIdAndAuthorId(Long userId, Long authorId);
+
+    @Modifying
+    @Query("DELETE FROM TimelineItem t WHERE t.id.userId = :userId")
+    int deleteByUserId(Long userId);
+
+    /**
+     * Copy the latest reviews and visible lists of a newly followed user into the follower's
+     * timeline, at most {@code limit} of each.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO timeline_items (user_id, created_at, item_type, item_id, author_id) " +
+                   "SELECT :userId, items.created_at, items.item_type, items.item_id, :authorId FROM (" +
+                   "(SELECT r.created_at, 'REVIEW' AS item_type, r.id AS item_id FROM reviews r " +
+                   "WHERE r.user_id = :authorId AND r.is_deleted = false ORDER BY r.created_at DESC LIMIT :limit) " +
+                   "UNION ALL " +
+                   "(SELECT l.created_at, 'LIST', l.id FROM library_lists l " +
+                   "WHERE l.user_id = :authorId AND l.visibility <> 'PRIVATE' ORDER BY l.created_at DESC LIMIT :limit)" +
+                   ") items ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int backfill(Long userId, Long authorId, int limit);
+
+    /**
+     * Build the timelines of the followers in (afterFollowerId, toFollowerId] from the full
+     * history of everyone they follow.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO timeline_items (user_id, created_at, item_type, item_id, author_id) " +
+                   "SELECT f.follower_id, r.created_at, 'REVIEW', r.id, r.user_id FROM follows f " +
+                   "JOIN reviews r ON r.user_id = f.followed_id AND r.is_deleted = false " +
+                   "WHERE f.follower_id > :afterFollowerId AND f.follower_id <= :toFollowerId " +
+                   "UNION ALL " +
+                   "SELECT f.follower_id, l.created_at, 'LIST', l.id, l.user_id FROM follows f " +
+                   "JOIN library_lists l ON l.user_id = f.followed_id AND l.visibility <> 'PRIVATE' " +
+                   "WHERE f.follower_id > :afterFollowerId AND f.follower_id <= :toFollowerId " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int buildForFollowers(Long afterFollowerId, Long toFollowerId);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM timeline_items)", nativeQuery = true)
+    boolean existsAny();
+}
@@ -2,6 +2,8 @@ package com.parchelector.repository;
 
 import com.parchelector.model.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,6 +16,9 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    String FOLLOWERS_COUNT = "(SELECT COUNT(f) FROM Follow f WHERE f.followedId = u.id)";
+    String FOLLOWING_COUNT = "(SELECT COUNT(f) FROM Follow f WHERE f.followerId = u.id)";
+
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
@@ -23,4 +28,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
+
+    // Atomic in-place changes of the follow counters, safe under concurrent writers
+    @Modifying
+    @Query("UPDATE User u SET u.followersCount = u.followersCount + :delta WHERE u.id = :userId")
+    int adjustFollowersCount(Long userId, int delta);
+
+    @Modifying
+    @Query("UPDATE User u SET u.followingCount = u.followingCount + :delta WHERE u.id = :userId")
+    int adjustFollowingCount(Long userId, int delta);
+
+    @Query("SELECT u.followingCount FROM User u WHERE u.id = :userId")
+    Optional<Integer> findFollowingCountById(Long userId);
+
+    // Recompute the counters of every user that drifted from follows
+    @Modifying
+    @Query("UPDATE User u SET u.followersCount = " + FOLLOWERS_COUNT + ", u.followingCount = " + FOLLOWING_COUNT + " " +
+           "WHERE u.followersCount <> " + FOLLOWERS_COUNT + " OR u.followingCount <> " + FOLLOWING_COUNT)
+    int rebuildFollowCounts();
+
+    @Query("SELECT COALESCE(SUM(u.followersCount), 0) FROM User u")
+    long sumFollowersCounts();
+
+    @Query("SELECT COALESCE(SUM(u.followingCount), 0) FROM User u")
+    long sumFollowingCounts();
 }
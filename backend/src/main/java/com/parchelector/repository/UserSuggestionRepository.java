@@ -0,0 +1,37 @@
+package com.parchelector.repository;
+
+import com.parchelector.model.entity.UserSuggestion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for UserSuggestion entity.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Repository
+public interface UserSuggestionRepository extends JpaRepository<UserSuggestion, UserSuggestion.UserSuggestionId> {
+
+    /**
+     * A suggestion with the suggested user's public fields.
+     */
+    interface SuggestionSummary {
+        Long getUserId();
+        String getUsername();
+        String getAvatarUrl();
+        Integer getMutualFollows();
+        Integer getSharedBooks();
+        Integer getSharedAuthors();
+    }
+
+    // A user's suggestions, best first (a primary key range read, one user row per suggestion)
+    @Query("SELECT u.id AS userId, u.username AS username, u.avatarUrl AS avatarUrl, " +
+           "s.mutualFollows AS mutualFollows, s.sharedBooks AS sharedBooks, s.sharedAuthors AS sharedAuthors " +
+           "FROM UserSuggestion s, User u WHERE u.id = s.suggestedUserId AND s.id.userId = :userId " +
+           "ORDER BY s.id.position")
+    List<SuggestionSummary> findByUserId(Long userId, Pageable pageable);
+}
@@ -6,9 +6,10 @@ import com.parchelector.dto.response.UserActivityResponse.ReadListActivity;
 import com.parchelector.dto.response.UserActivityResponse.ReviewActivity;
 import com.parchelector.model.entity.LibraryList;
 import com.parchelector.model.entity.ReadingStatus.ReadingStatusEnum;
-import com.parchelector.model.entity.Review;
 import com.parchelector.repository.*;
+import com.parchelector.repository.ReviewRepository.ReviewSummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -46,10 +47,9 @@ public class ActivityService {
         // Get stats
         ActivityStats stats = getActivityStats(userId);
 
-        // Get recent reviews
-        List<Review> reviews = reviewRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        // Get recent reviews (last 10)
+        List<ReviewSummary> reviews = reviewRepository.findSummariesByUserId(userId, PageRequest.of(0, 10));
         List<ReviewActivity> reviewActivities = reviews.stream()
-                .limit(10) // Last 10 reviews
                 .map(this::mapToReviewActivity)
                 .collect(Collectors.toList());
 
@@ -85,21 +85,18 @@ public class ActivityService {
         );
     }
 
-    private ReviewActivity mapToReviewActivity(Review review) {
-        int likes = reviewRepository.countLikesByReviewId(review.getId());
-        int comments = reviewRepository.countCommentsByReviewId(review.getId());
-
+    private ReviewActivity mapToReviewActivity(ReviewSummary review) {
         return new ReviewActivity(
                 review.getId(),
-                review.getBook().getId(),
-                review.getBook().getTitle(),
-                review.getBook().getCoverUrl(),
+                review.getBookId(),
+                review.getBookTitle(),
+                review.getBookCover(),
                 review.getRating() != null ? review.getRating().doubleValue() : 0.0,
                 review.getTitle(),
-                review.getBody(),
+                review.getExcerpt(),
                 review.getCreatedAt().format(DATE_FORMATTER),
-                likes,
-                comments
+                review.getLikeCount(),
+                review.getCommentCount()
         );
     }
 
@@ -0,0 +1,104 @@
+package com.parchelector.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor for book listings.
+ * Holds the sort mode plus the sort key and ID of the last book of a page, so the
+ * next page can seek past it instead of using OFFSET.
+ * 
+ * @author Nicolas Arciniegas
+ */
+public final class BookCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sort;
+    private final long id;
+    private final String key;
+
+    private BookCursor(String sort, long id, String key) {
+        this.sort = sort;
+        this.id = id;
+        this.key = key;
+    }
+
+    /**
+     * Cursor positioned after the given book.
+     * 
+     * @param sort sort mode the cursor belongs to
+     * @param key sort key of the book, may be null
+     * @param id book ID, the tie-breaker
+     */
+    public static BookCursor of(String sort, Object key, long id) {
+        return new BookCursor(sort, id, key != null ? key.toString() : null);
+    }
+
+    /**
+     * Decode a cursor token, or return null when there is none.
+     */
+    public static BookCursor decode(String token, String expectedSort) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split("\\|", 3);
+            if (parts.length < 2 || !parts[0].equals(expectedSort)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            BookCursor cursor = new BookCursor(parts[0], Long.parseLong(parts[1]), parts.length == 3 ? parts[2] : null);
+            // Reject keys that do not parse for the sort before they reach a query
+            if (cursor.key != null) {
+                switch (cursor.sort) {
+                    case "rating":
+                        if (!Double.isFinite(cursor.getKeyAsDouble())) {
+                            throw new IllegalArgumentException("Invalid cursor");
+                        }
+                        break;
+                    case "popular":
+                    case "newest":
+                    case "oldest":
+                        cursor.getKeyAsInteger();
+                        break;
+                    case "relevance":
+                        cursor.getKeyAsDecimal();
+                        break;
+                    default: // title, any text
+                }
+            }
+            return cursor;
+        } catch (RuntimeException e) {
+            // Also covers malformed Base64 and numbers
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String value = sort + SEPARATOR + id + (key != null ? SEPARATOR + key : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Integer getKeyAsInteger() {
+        return key != null ? Integer.valueOf(key) : null;
+    }
+
+    public Double getKeyAsDouble() {
+        return key != null ? Double.valueOf(key) : null;
+    }
+
+    public BigDecimal getKeyAsDecimal() {
+        return key != null ? new BigDecimal(key) : null;
+    }
+}
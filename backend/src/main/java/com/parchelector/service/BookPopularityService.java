@@ -0,0 +1,91 @@
+package com.parchelector.service;
+
+import com.parchelector.repository.BookRepository;
+import com.parchelector.repository.ReadingStatusRepository;
+import com.parchelector.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Service that maintains the denormalized popularity counter of each book
+ * (active reviews + reading statuses) used by the "popular" sort.
+ * Write methods must run inside the transaction that changes the review or reading status,
+ * so the counter commits or rolls back together with it.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Service
+public class BookPopularityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookPopularityService.class);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ReadingStatusRepository readingStatusRepository;
+
+    /**
+     * Account for a reading status added to a book.
+     */
+    @Transactional
+    public void recordReadingStatus(Long bookId) {
+        bookRepository.adjustPopularity(bookId, 1);
+    }
+
+    /**
+     * Account for reading statuses added to several books, one status per book.
+     */
+    @Transactional
+    public void recordReadingStatuses(Collection<Long> bookIds) {
+        bookRepository.adjustPopularity(bookIds, 1);
+    }
+
+    /**
+     * Account for a newly created review.
+     */
+    @Transactional
+    public void recordReview(Long bookId) {
+        bookRepository.adjustPopularity(bookId, 1);
+    }
+
+    /**
+     * Account for a removed (soft deleted) review.
+     */
+    @Transactional
+    public void removeReview(Long bookId) {
+        bookRepository.adjustPopularity(bookId, -1);
+    }
+
+    /**
+     * Recompute the counters that drifted from the reviews and reading_status tables.
+     */
+    @Transactional
+    public int rebuild() {
+        return bookRepository.rebuildPopularity();
+    }
+
+    /**
+     * Repair the counters on startup when their total no longer matches the source tables,
+     * e.g. on first start after the column was introduced or after manual data changes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcileIfDrifted() {
+        long expected = reviewRepository.countNotDeleted() + readingStatusRepository.count();
+        if (bookRepository.sumPopularity() != expected) {
+            int books = rebuild();
+            logger.info("Reconciled popularity counters for {} books", books);
+        }
+    }
+}
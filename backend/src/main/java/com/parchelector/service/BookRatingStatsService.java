@@ -0,0 +1,118 @@
+package com.parchelector.service;
+
+import com.parchelector.model.entity.BookRatingStats;
+import com.parchelector.repository.BookRatingStatsRepository;
+import com.parchelector.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service that maintains the per-book rating aggregates.
+ * Write methods must run inside the transaction that changes the review.
+ * 
+ * @author Nicolas Arciniegas
+ */
+@Service
+public class BookRatingStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookRatingStatsService.class);
+
+    @Autowired
+    private BookRatingStatsRepository bookRatingStatsRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    /**
+     * Account for a newly created review.
+     */
+    @Transactional
+    public void recordReview(Long bookId, BigDecimal rating, LocalDateTime createdAt) {
+        BookRatingStats stats = lockStats(bookId);
+        stats.addRating(rating);
+        stats.setLastReviewAt(createdAt != null ? createdAt : LocalDateTime.now());
+        bookRatingStatsRepository.save(stats);
+    }
+
+    /**
+     * Account for a rating change on an existing review.
+     */
+    @Transactional
+    public void replaceRating(Long bookId, BigDecimal oldRating, BigDecimal newRating) {
+        if (oldRating.compareTo(newRating) == 0) {
+            return;
+        }
+
+        BookRatingStats stats = lockStats(bookId);
+        stats.removeRating(oldRating);
+        stats.addRating(newRating);
+        bookRatingStatsRepository.save(stats);
+    }
+
+    /**
+     * Account for a removed (soft deleted) review.
+     */
+    @Transactional
+    public void removeReview(Long bookId, BigDecimal rating) {
+        BookRatingStats stats = lockStats(bookId);
+        stats.removeRating(rating);
+        bookRatingStatsRepository.save(stats);
+    }
+
+    /**
+     * Get the rating aggregate for a book, or an empty aggregate if it has no reviews.
+     */
+    @Transactional(readOnly = true)
+    public BookRatingStats getStats(Long bookId) {
+        return bookRatingStatsRepository.findById(bookId)
+                .orElseGet(() -> new BookRatingStats(bookId));
+    }
+
+    /**
+     * Get the rating aggregates for a set of books. Books without reviews are absent.
+     */
+    @Transactional(readOnly = true)
+    public List<BookRatingStats> getStats(Collection<Long> bookIds) {
+        return bookRatingStatsRepository.findAllById(bookIds);
+    }
+
+    /**
+     * Recompute every aggregate from the reviews table.
+     */
+    @Transactional
+    public int rebuild() {
+        bookRatingStatsRepository.deleteAllInBatch();
+        return bookRatingStatsRepository.rebuildFromReviews();
+    }
+
+    /**
+     * Populate the aggregates on first start after the table was introduced.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (bookRatingStatsRepository.count() == 0 && reviewRepository.count() > 0) {
+            int books = rebuild();
+            logger.info("Backfilled rating stats for {} books", books);
+        }
+    }
+
+    /**
+     * Lock the aggregate row of a book, creating it first if needed.
+     */
+    private BookRatingStats lockStats(Long bookId) {
+        bookRatingStatsRepository.insertIfAbsent(bookId);
+        return bookRatingStatsRepository.findByBookIdForUpdate(bookId)
+                .orElseThrow(() -> new IllegalStateException("Rating stats missing for book " + bookId));
+    }
+}
@@ -0,0 +1,241 @@
+package com.parchelector.service;
+
+import com.parchelector.dto.response.BookReviewsResponse;
+import com.parchelector.dto.response.ReviewResponse;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of the first page of each book's reviews, one entry per sort and star
+ * filter. Each entry holds the largest page a request can ask for; smaller pages are cut
+ * from it. Cached reviews carry their excerpt, never the full body. A book's pages are
+ * dropped when one of its reviews is created, updated or deleted; like and comment counts
+ * shown on a cached page may lag by up to the TTL. The cache is bounded by the estimated
+ * size of its pages: once full, expired books are swept and new pages are served uncached
+ * until room is made.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Component
+public class BookReviewPageCache {
+
+    @Value("${app.reviews.first-page-cache-max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${app.reviews.first-page-ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final Map<Long, BookPages> books = new ConcurrentHashMap<>();
+
+    // Estimated size of every page held by the books in the map
+    private final AtomicLong bytes = new AtomicLong();
+
+    private volatile long lastSweepAt = System.nanoTime();
+
+    /**
+     * Get the cache slot of a first page. Take the slot before querying the page and fill it
+     * afterwards: if the book is invalidated meanwhile, the page goes into a detached entry
+     * and is never served.
+     */
+    public Slot slot(Long bookId, String variant) {
+        sweepExpired();
+        return new Slot(books.computeIfAbsent(bookId, id -> new BookPages()), variant);
+    }
+
+    /**
+     * Drop a book's cached pages once the current transaction commits.
+     */
+    public void invalidateAfterCommit(Long bookId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(bookId);
+                }
+            });
+        } else {
+            invalidate(bookId);
+        }
+    }
+
+    /**
+     * Estimated size of the cached pages.
+     */
+    public long estimatedSizeBytes() {
+        return bytes.get();
+    }
+
+    private void invalidate(Long bookId) {
+        BookPages pages = books.remove(bookId);
+        if (pages != null) {
+            bytes.addAndGet(-pages.detach());
+        }
+    }
+
+    /**
+     * Remove the books whose pages have all expired, at most once per TTL.
+     */
+    private void sweepExpired() {
+        long now = System.nanoTime();
+        if (now - lastSweepAt < ttlNanos()) {
+            return;
+        }
+        lastSweepAt = now;
+        books.entrySet().removeIf(entry -> {
+            if (now - entry.getValue().lastPutAt <= ttlNanos()) {
+                return false;
+            }
+            bytes.addAndGet(-entry.getValue().detach());
+            return true;
+        });
+    }
+
+    private long ttlNanos() {
+        return ttlSeconds * 1_000_000_000L;
+    }
+
+    /**
+     * The first pages cached for one book, by variant. Detached once removed from the
+     * cache, after which it takes no more pages.
+     */
+    private final class BookPages {
+
+        // Guarded by this
+        private final Map<String, FirstPage> pages = new HashMap<>(4);
+        private boolean detached;
+
+        private volatile long lastPutAt = System.nanoTime();
+
+        synchronized FirstPage get(String variant) {
+            return pages.get(variant);
+        }
+
+        synchronized void put(String variant, FirstPage page) {
+            if (detached) {
+                return;
+            }
+            FirstPage previous = pages.get(variant);
+            long delta = page.estimatedBytes - (previous != null ? previous.estimatedBytes : 0);
+            if (delta > 0 && bytes.get() + delta > maxBytes) {
+                // Full: serve this page uncached rather than grow past the budget
+                return;
+            }
+            pages.put(variant, page);
+            bytes.addAndGet(delta);
+            lastPutAt = page.loadedAt;
+        }
+
+        /**
+         * Stop taking pages.
+         * @return the estimated size of the pages held until now
+         */
+        synchronized long detach() {
+            detached = true;
+            long size = 0;
+            for (FirstPage page : pages.values()) {
+                size += page.estimatedBytes;
+            }
+            pages.clear();
+            return size;
+        }
+    }
+
+    /**
+     * The largest first page of one variant, with the cursor that follows each of its reviews
+     * so any smaller page can be cut from it.
+     */
+    public static final class FirstPage {
+
+        // Object headers, boxed numbers and references of one review, roughly
+        private static final int REVIEW_OVERHEAD_BYTES = 200;
+
+        private final BookReviewsResponse page;
+        private final List<String> cursors;
+        private final long estimatedBytes;
+        private final long loadedAt = System.nanoTime();
+
+        /**
+         * @param page the page, with at most one page of the largest size and its own next cursor
+         * @param cursors the cursor positioned after each review of the page, in order
+         */
+        public FirstPage(BookReviewsResponse page, List<String> cursors) {
+            this.page = page;
+            this.cursors = cursors;
+            long size = REVIEW_OVERHEAD_BYTES + chars(page.getBookTitle());
+            for (ReviewResponse review : page.getReviews()) {
+                size += REVIEW_OVERHEAD_BYTES + chars(review.getBookTitle()) + chars(review.getBookCover())
+                        + chars(review.getUsername()) + chars(review.getUserAvatar()) + chars(review.getTitle())
+                        + chars(review.getBody()) + chars(review.getExcerpt()) + chars(review.getCreatedAt())
+                        + chars(review.getUpdatedAt());
+            }
+            for (String cursor : cursors) {
+                size += chars(cursor);
+            }
+            this.estimatedBytes = size;
+        }
+
+        /**
+         * The first limit reviews, with the cursor that follows the last of them.
+         * Reviews are shared with the cached page; callers copy them before changing them.
+         */
+        public BookReviewsResponse slice(int limit) {
+            List<ReviewResponse> reviews = page.getReviews();
+            if (limit >= reviews.size()) {
+                return page;
+            }
+            BookReviewsResponse copy = new BookReviewsResponse();
+            BeanUtils.copyProperties(page, copy);
+            copy.setReviews(reviews.subList(0, limit));
+            copy.setNextCursor(cursors.get(limit - 1));
+            copy.setHasMore(true);
+            return copy;
+        }
+
+        public long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+
+        // Strings may hold two bytes per character
+        private static long chars(String value) {
+            return value != null ? 40 + 2L * value.length() : 0;
+        }
+    }
+
+    /**
+     * Where one first page is cached.
+     */
+    public final class Slot {
+
+        private final BookPages pages;
+        private final String variant;
+
+        private Slot(BookPages pages, String variant) {
+            this.pages = pages;
+            this.variant = variant;
+        }
+
+        /**
+         * The cached page, or null if there is none or it has expired.
+         */
+        public FirstPage get() {
+            FirstPage cached = pages.get(variant);
+            if (cached == null || System.nanoTime() - cached.loadedAt > ttlNanos()) {
+                return null;
+            }
+            return cached;
+        }
+
+        public void put(FirstPage page) {
+            pages.put(variant, page);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.parchelector.service;
 
 import com.parchelector.dto.request.FavoriteBookRequest;
 import com.parchelector.dto.request.ReadingStatusRequest;
+import com.parchelector.dto.response.BookPageResponse;
 import com.parchelector.dto.response.BookResponse;
+import com.parchelector.dto.response.ReadingStatusBatchResponse;
 import com.parchelector.model.entity.*;
 import com.parchelector.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +14,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -30,7 +39,7 @@ public class BookService {
     private ReadingStatusRepository readingStatusRepository;
 
     @Autowired
-    private ReviewRepository reviewRepository;
+    private BookRatingStatsRepository bookRatingStatsRepository;
 
     @Autowired
     private UserRepository userRepository;
@@ -38,30 +47,61 @@ public class BookService {
     @Autowired
     private FavoriteBookRepository favoriteBookRepository;
 
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private BookPopularityService bookPopularityService;
+
+    @Autowired
+    private IBookSearchService bookSearchService;
+
+    @Autowired
+    private UserLibraryService userLibraryService;
+
     /**
-     * Get trending books (most reviewed/rated books).
+     * Get trending books, served from the in-memory trending snapshot.
      */
     @Transactional(readOnly = true)
     public List<BookResponse> getTrendingBooks(Long userId, int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Book> books = bookRepository.findAll(pageable).getContent();
-
-        return books.stream()
-                .map(book -> mapToBookResponse(book, userId))
-                .collect(Collectors.toList());
+        List<BookResponse> books = trendingService.getTrendingBooks(limit);
+        applyLibraryFlags(books, userId);
+        return books;
     }
 
     /**
-     * Search books by title or author.
+     * Search books by title, description or author, most relevant first.
      */
     @Transactional(readOnly = true)
-    public List<BookResponse> searchBooks(String query, Long userId, int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Book> books = bookRepository.searchByTitleOrAuthor(query, pageable);
+    public BookPageResponse searchBooks(String query, Long userId, String cursor, int limit) {
+        validateLimit(limit);
+        if (query == null || query.isBlank()) {
+            return new BookPageResponse(new ArrayList<>(), null, false);
+        }
 
-        return books.stream()
-                .map(book -> mapToBookResponse(book, userId))
+        BookCursor after = BookCursor.decode(cursor, bookSearchService.getCursorSort());
+        List<BookCursor> hits = bookSearchService.searchBooks(query.trim(), after, limit + 1);
+        boolean hasMore = hits.size() > limit;
+        if (hasMore) {
+            hits = hits.subList(0, limit);
+        }
+        if (hits.isEmpty()) {
+            return new BookPageResponse(new ArrayList<>(), null, false);
+        }
+
+        // Load the matches and restore relevance order
+        List<Long> bookIds = hits.stream()
+                .map(BookCursor::getId)
                 .collect(Collectors.toList());
+        Map<Long, Book> booksById = bookRepository.findAllById(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> books = bookIds.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        String nextCursor = hasMore ? hits.get(hits.size() - 1).encode() : null;
+        return new BookPageResponse(mapToBookResponses(books, userId), nextCursor, hasMore);
     }
 
     /**
@@ -83,43 +123,139 @@ public class BookService {
 
         if (existingStatus != null) {
             // Update existing status
-            existingStatus.setStatus(statusEnum);
-            
-            if (statusEnum == ReadingStatus.ReadingStatusEnum.READING && existingStatus.getStartedAt() == null) {
-                existingStatus.setStartedAt(LocalDate.now());
-            }
-            
-            if (statusEnum == ReadingStatus.ReadingStatusEnum.READ) {
-                existingStatus.setFinishedAt(LocalDate.now());
-                existingStatus.setProgressPercent(100);
-            }
-            
+            applyStatus(existingStatus, statusEnum);
             readingStatusRepository.save(existingStatus);
         } else {
             // Create new status
             ReadingStatus newStatus = new ReadingStatus();
             newStatus.setUser(user);
             newStatus.setBook(book);
-            newStatus.setStatus(statusEnum);
-            
-            if (statusEnum == ReadingStatus.ReadingStatusEnum.READING) {
-                newStatus.setStartedAt(LocalDate.now());
+            applyStatus(newStatus, statusEnum);
+            readingStatusRepository.save(newStatus);
+            bookPopularityService.recordReadingStatus(book.getId());
+        }
+        userLibraryService.recordStatus(userId, book.getId(), statusEnum);
+    }
+
+    /**
+     * Update or create the reading status of many books in one transaction.
+     * Books and existing statuses are resolved with one query each and the changes are
+     * written with JDBC batching. If a book appears more than once, its last entry wins.
+     * The whole batch is rejected if any entry is invalid.
+     */
+    @Transactional
+    public ReadingStatusBatchResponse updateReadingStatuses(Long userId, List<ReadingStatusRequest> requests) {
+        Map<Long, ReadingStatus.ReadingStatusEnum> changes = new LinkedHashMap<>();
+        for (ReadingStatusRequest request : requests) {
+            changes.put(request.getBookId(), convertToEnum(request.getStatus()));
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        Set<Long> existingBookIds = new HashSet<>(bookRepository.findExistingIds(changes.keySet()));
+        for (Long bookId : changes.keySet()) {
+            if (!existingBookIds.contains(bookId)) {
+                throw new IllegalArgumentException("Book not found: " + bookId);
             }
-            
-            if (statusEnum == ReadingStatus.ReadingStatusEnum.READ) {
-                newStatus.setStartedAt(LocalDate.now());
-                newStatus.setFinishedAt(LocalDate.now());
-                newStatus.setProgressPercent(100);
+        }
+
+        Map<Long, ReadingStatus> existingStatuses = readingStatusRepository
+                .findByUserIdAndBookIdIn(userId, changes.keySet())
+                .stream()
+                .collect(Collectors.toMap(rs -> rs.getBook().getId(), Function.identity()));
+
+        List<ReadingStatus> newStatuses = new ArrayList<>();
+        for (Map.Entry<Long, ReadingStatus.ReadingStatusEnum> change : changes.entrySet()) {
+            ReadingStatus status = existingStatuses.get(change.getKey());
+            if (status == null) {
+                status = new ReadingStatus();
+                status.setUser(user);
+                status.setBook(bookRepository.getReferenceById(change.getKey()));
+                newStatuses.add(status);
             }
-            
-            readingStatusRepository.save(newStatus);
+            // Existing statuses are managed, so their updates are flushed (batched) on commit
+            applyStatus(status, change.getValue());
+        }
+
+        readingStatusRepository.saveAll(newStatuses);
+        if (!newStatuses.isEmpty()) {
+            bookPopularityService.recordReadingStatuses(newStatuses.stream()
+                    .map(status -> status.getBook().getId())
+                    .collect(Collectors.toList()));
+        }
+        userLibraryService.recordStatuses(userId, changes);
+
+        return new ReadingStatusBatchResponse(newStatuses.size(), changes.size() - newStatuses.size());
+    }
+
+    /**
+     * Set the status and the reading dates and progress that go with it.
+     */
+    private void applyStatus(ReadingStatus readingStatus, ReadingStatus.ReadingStatusEnum statusEnum) {
+        boolean isNew = readingStatus.getId() == null;
+        readingStatus.setStatus(statusEnum);
+
+        if (statusEnum == ReadingStatus.ReadingStatusEnum.READING && readingStatus.getStartedAt() == null) {
+            readingStatus.setStartedAt(LocalDate.now());
+        }
+
+        if (statusEnum == ReadingStatus.ReadingStatusEnum.READ) {
+            if (isNew) {
+                readingStatus.setStartedAt(LocalDate.now());
+            }
+            readingStatus.setFinishedAt(LocalDate.now());
+            readingStatus.setProgressPercent(100);
+        }
+    }
+
+    /**
+     * Map a page of Book entities to BookResponse DTOs.
+     * Ratings and review counts are resolved for the whole page with one query, and the
+     * user's reading status and favorite flag come from the cached library index,
+     * so the cost does not grow with the page size.
+     */
+    private List<BookResponse> mapToBookResponses(List<Book> books, Long userId) {
+        if (books.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> bookIds = books.stream()
+                .map(Book::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, BookRatingStats> ratings = bookRatingStatsRepository.findAllById(bookIds).stream()
+                .collect(Collectors.toMap(BookRatingStats::getBookId, Function.identity()));
+
+        List<BookResponse> responses = books.stream()
+                .map(book -> mapToBookResponse(book, ratings.get(book.getId())))
+                .collect(Collectors.toList());
+        applyLibraryFlags(responses, userId);
+        return responses;
+    }
+
+    /**
+     * Fill in the user's reading status and favorite flag from their library index.
+     */
+    private void applyLibraryFlags(List<BookResponse> responses, Long userId) {
+        if (userId == null || responses.isEmpty()) {
+            return;
+        }
+
+        UserLibrary library = userLibraryService.getLibrary(userId);
+        for (BookResponse response : responses) {
+            ReadingStatus.ReadingStatusEnum status = library.getStatus(response.getId());
+            if (status != null) {
+                response.setStatus(convertStatusToFrontend(status));
+            }
+            response.setFavorite(library.isFavorite(response.getId()));
         }
     }
 
     /**
      * Map Book entity to BookResponse DTO.
      */
-    private BookResponse mapToBookResponse(Book book, Long userId) {
+    private BookResponse mapToBookResponse(Book book, BookRatingStats rating) {
         BookResponse response = new BookResponse();
         response.setId(book.getId());
         response.setTitle(book.getTitle());
@@ -131,21 +267,11 @@ public class BookService {
                 .orElse("Unknown Author");
         response.setAuthor(authorName);
 
-        // Calculate average rating from reviews
-        Double avgRating = reviewRepository.getAverageRatingByBookId(book.getId());
-        response.setRating(avgRating != null ? avgRating : 0.0);
+        response.setRating(rating != null ? rating.getAverageRating() : 0.0);
+        response.setReviewCount(rating != null ? rating.getRatingCount() : 0);
 
         response.setCover(book.getCoverUrl());
 
-        // Get user's reading status if exists
-        if (userId != null) {
-            readingStatusRepository.findByUserIdAndBookId(userId, book.getId())
-                    .ifPresent(status -> {
-                        String frontendStatus = convertStatusToFrontend(status.getStatus());
-                        response.setStatus(frontendStatus);
-                    });
-        }
-
         return response;
     }
 
@@ -182,39 +308,34 @@ public class BookService {
     }
 
     /**
-     * Add a book to user's favorites.
+     * Add a book to user's favorites. Idempotent: adding a favorite again changes nothing.
+     * @return true if the book was not a favorite yet
      */
     @Transactional
-    public void addFavorite(Long userId, FavoriteBookRequest request) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        Book book = bookRepository.findById(request.getBookId())
-                .orElseThrow(() -> new IllegalArgumentException("Book not found"));
-
-        if (favoriteBookRepository.existsByUserIdAndBookId(userId, request.getBookId())) {
-            throw new IllegalArgumentException("Book is already in favorites");
+    public boolean addFavorite(Long userId, FavoriteBookRequest request) {
+        Long bookId = request.getBookId();
+        if (favoriteBookRepository.insertIfAbsent(userId, bookId) > 0) {
+            userLibraryService.recordFavorite(userId, bookId, true);
+            return true;
         }
-
-        FavoriteBook favoriteBook = new FavoriteBook();
-        FavoriteBook.FavoriteBookId id = new FavoriteBook.FavoriteBookId(userId, request.getBookId());
-        favoriteBook.setId(id);
-        favoriteBook.setUser(user);
-        favoriteBook.setBook(book);
-
-        favoriteBookRepository.save(favoriteBook);
+        // Nothing inserted: either already a favorite or there is no such book
+        if (!bookRepository.existsById(bookId)) {
+            throw new IllegalArgumentException("Book not found");
+        }
+        return false;
     }
 
     /**
-     * Remove a book from user's favorites.
+     * Remove a book from user's favorites. Idempotent: removing a missing favorite changes nothing.
+     * @return true if the book was a favorite until now
      */
     @Transactional
-    public void removeFavorite(Long userId, Long bookId) {
-        if (!favoriteBookRepository.existsByUserIdAndBookId(userId, bookId)) {
-            throw new IllegalArgumentException("Book is not in favorites");
+    public boolean removeFavorite(Long userId, Long bookId) {
+        if (favoriteBookRepository.deleteByUserIdAndBookId(userId, bookId) == 0) {
+            return false;
         }
-
-        favoriteBookRepository.deleteByUserIdAndBookId(userId, bookId);
+        userLibraryService.recordFavorite(userId, bookId, false);
+        return true;
     }
 
     /**
@@ -224,22 +345,11 @@ public class BookService {
     public List<BookResponse> getUserFavorites(Long userId) {
         List<FavoriteBook> favorites = favoriteBookRepository.findByUserIdWithBooks(userId);
 
-        return favorites.stream()
-                .map(fb -> {
-                    Book book = fb.getBook();
-                    String author = book.getAuthors().isEmpty() ? "Unknown" 
-                            : book.getAuthors().iterator().next().getName();
-                    
-                    return new BookResponse(
-                            book.getId(),
-                            book.getTitle(),
-                            author,
-                            0.0,
-                            book.getCoverUrl(),
-                            null
-                    );
-                })
+        List<Book> books = favorites.stream()
+                .map(FavoriteBook::getBook)
                 .collect(Collectors.toList());
+
+        return mapToBookResponses(books, userId);
     }
 
     /**
@@ -247,39 +357,65 @@ public class BookService {
      * @param sortBy Options: "popular", "rating", "newest", "oldest"
      */
     @Transactional(readOnly = true)
-    public List<BookResponse> filterAndSortBooks(Long userId, String genre, 
-                                                   Integer minYear, Integer maxYear, 
-                                                   String sortBy, int limit) {
+    public BookPageResponse filterAndSortBooks(Long userId, String genre,
+                                               Integer minYear, Integer maxYear,
+                                               String sortBy, String cursor, int limit) {
         // Validate sortBy parameter
         if (!sortBy.equals("popular") && !sortBy.equals("rating") && 
             !sortBy.equals("newest") && !sortBy.equals("oldest")) {
             throw new IllegalArgumentException("Invalid sortBy parameter. Must be 'popular', 'rating', 'newest', or 'oldest'");
         }
+        validateLimit(limit);
 
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Book> books;
+        // Fetch one extra row to know whether another page exists
+        BookCursor after = BookCursor.decode(cursor, sortBy);
+        Long cursorId = after != null ? after.getId() : null;
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<Object[]> rows;
 
-        // Apply filters and sorting
+        // Apply filters and sorting, seeking past the cursor
         switch (sortBy) {
             case "rating":
-                books = bookRepository.findBooksFilteredAndSortedByRating(
-                    genre, minYear, maxYear, pageable);
+                rows = bookRepository.findBooksFilteredAndSortedByRating(
+                    genre, minYear, maxYear, after != null ? after.getKeyAsDouble() : null, cursorId, pageable);
                 break;
             case "newest":
-                books = bookRepository.findBooksFilteredAndSortedByNewest(
-                    genre, minYear, maxYear, pageable);
+                rows = bookRepository.findBooksFilteredAndSortedByNewest(
+                    genre, minYear, maxYear, after != null ? after.getKeyAsInteger() : null, cursorId, pageable);
                 break;
             case "oldest":
-                books = bookRepository.findBooksFilteredAndSortedByOldest(
-                    genre, minYear, maxYear, pageable);
+                rows = bookRepository.findBooksFilteredAndSortedByOldest(
+                    genre, minYear, maxYear, after != null ? after.getKeyAsInteger() : null, cursorId, pageable);
                 break;
             default: // popular
-                books = bookRepository.findBooksFilteredAndSortedByPopularity(
-                    genre, minYear, maxYear, pageable);
+                Integer cursorScore = after != null ? after.getKeyAsInteger() : null;
+                rows = genre != null
+                    ? bookRepository.findBooksInGenreSortedByPopularity(
+                        genre, minYear, maxYear, cursorScore, cursorId, pageable)
+                    : bookRepository.findBooksFilteredAndSortedByPopularity(
+                        null, minYear, maxYear, cursorScore, cursorId, pageable);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
         }
 
-        return books.stream()
-                .map(book -> mapToBookResponse(book, userId))
+        List<Book> books = rows.stream()
+                .map(row -> (Book) row[0])
                 .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            Object[] last = rows.get(rows.size() - 1);
+            nextCursor = BookCursor.of(sortBy, last[1], ((Book) last[0]).getId()).encode();
+        }
+
+        return new BookPageResponse(mapToBookResponses(books, userId), nextCursor, hasMore);
+    }
+
+    private void validateLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
     }
 }
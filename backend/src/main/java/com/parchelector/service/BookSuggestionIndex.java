@@ -0,0 +1,738 @@
+package com.parchelector.service;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory prefix index used for book autocomplete.
+ * Titles, author names and ISBNs are normalized (lowercase, no accents) and split into
+ * tokens. Tokens live in a sorted UTF-8 dictionary, so every prefix maps to a contiguous
+ * range of token ids. Books are numbered by popularity ("slots", 0 = most popular) and all
+ * posting lists are ascending slot arrays, which lets a search stop as soon as it has
+ * enough results. Everything is stored in flat primitive arrays.
+ *
+ * @author Nicolas Arciniegas
+ */
+public final class BookSuggestionIndex {
+
+    /** Prefixes matching at least this many tokens get precomputed results. */
+    private static final int WIDE_PREFIX_TOKENS = 256;
+
+    private static final Pattern ISBN_QUERY = Pattern.compile("[0-9]{4,}x?");
+
+    public static final BookSuggestionIndex EMPTY = new Builder(1).build();
+
+    // Books by slot
+    private final long[] bookIds;
+    private final int[] popularity;
+    private final byte[] displayBytes;
+    private final int[] displayOffsets;
+
+    // Sorted token dictionary
+    private final byte[] tokenBytes;
+    private final int[] tokenOffsets;
+
+    // Slots containing each token, ascending
+    private final int[] postingOffsets;
+    private final int[] postings;
+
+    // Token ids of each slot, ascending
+    private final int[] slotTokenOffsets;
+    private final int[] slotTokens;
+
+    // Best slots for wide prefixes, keyed by their token range
+    private final int precomputedResults;
+    private final long[] widePrefixRanges;
+    private final int[] widePrefixOffsets;
+    private final int[] widePrefixSlots;
+
+    private BookSuggestionIndex(long[] bookIds, int[] popularity, byte[] displayBytes, int[] displayOffsets,
+                                byte[] tokenBytes, int[] tokenOffsets, int[] postingOffsets, int[] postings,
+                                int[] slotTokenOffsets, int[] slotTokens, int precomputedResults) {
+        this.bookIds = bookIds;
+        this.popularity = popularity;
+        this.displayBytes = displayBytes;
+        this.displayOffsets = displayOffsets;
+        this.tokenBytes = tokenBytes;
+        this.tokenOffsets = tokenOffsets;
+        this.postingOffsets = postingOffsets;
+        this.postings = postings;
+        this.slotTokenOffsets = slotTokenOffsets;
+        this.slotTokens = slotTokens;
+        this.precomputedResults = precomputedResults;
+
+        // Short or common prefixes match many tokens; precompute their results
+        LongBuffer ranges = new LongBuffer(1024);
+        collectWideRanges(0, 0, tokenCount(), ranges);
+        this.widePrefixRanges = ranges.sortedUnique();
+        this.widePrefixOffsets = new int[widePrefixRanges.length + 1];
+
+        IntBuffer slots = new IntBuffer(widePrefixRanges.length * precomputedResults);
+        int[] heap = new int[precomputedResults];
+        for (int i = 0; i < widePrefixRanges.length; i++) {
+            int low = (int) (widePrefixRanges[i] >>> 32);
+            int high = (int) widePrefixRanges[i];
+            int count = collect(low, high, new int[0], new int[0], precomputedResults, heap);
+            for (int j = 0; j < count; j++) {
+                slots.add(heap[j]);
+            }
+            widePrefixOffsets[i + 1] = slots.size();
+        }
+        this.widePrefixSlots = slots.toArray();
+    }
+
+    /**
+     * Normalize text for indexing and matching: lowercase, no accents, words separated by single spaces.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean separator = false;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (codePoint < 0x80) {
+                // Fast path for ASCII
+                if ((codePoint >= 'a' && codePoint <= 'z') || (codePoint >= '0' && codePoint <= '9')) {
+                    separator = appendWordChar(normalized, codePoint, separator);
+                } else if (codePoint >= 'A' && codePoint <= 'Z') {
+                    separator = appendWordChar(normalized, codePoint + ('a' - 'A'), separator);
+                } else {
+                    separator = true;
+                }
+                continue;
+            }
+
+            String decomposed = Normalizer.normalize(new String(Character.toChars(codePoint)), Normalizer.Form.NFD);
+            for (int j = 0; j < decomposed.length(); ) {
+                int part = decomposed.codePointAt(j);
+                j += Character.charCount(part);
+                if (isMark(part)) {
+                    continue;
+                }
+                if (Character.isLetterOrDigit(part)) {
+                    separator = appendWordChar(normalized, Character.toLowerCase(part), separator);
+                } else {
+                    separator = true;
+                }
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean appendWordChar(StringBuilder normalized, int codePoint, boolean separator) {
+        if (separator && normalized.length() > 0) {
+            normalized.append(' ');
+        }
+        normalized.appendCodePoint(codePoint);
+        return false;
+    }
+
+    private static boolean isMark(int codePoint) {
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.ENCLOSING_MARK
+                || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    /**
+     * Number of indexed books.
+     */
+    public int size() {
+        return bookIds.length;
+    }
+
+    /**
+     * Find the most popular books having a word that starts with each word of the query.
+     */
+    public List<Suggestion> search(String query, int limit) {
+        if (limit <= 0 || size() == 0) {
+            return new ArrayList<>();
+        }
+
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Hyphenated or spaced ISBNs are indexed as a single code
+        String compact = normalized.replace(" ", "");
+        String[] words = ISBN_QUERY.matcher(compact).matches()
+                ? new String[] {compact}
+                : normalized.split(" ");
+
+        int[] lows = new int[words.length];
+        int[] highs = new int[words.length];
+        int driver = 0;
+        for (int i = 0; i < words.length; i++) {
+            byte[] prefix = words[i].getBytes(StandardCharsets.UTF_8);
+            lows[i] = lowerBound(prefix);
+            highs[i] = upperBound(prefix);
+            if (lows[i] == highs[i]) {
+                return new ArrayList<>();
+            }
+            if (postingCount(i, lows, highs) < postingCount(driver, lows, highs)) {
+                driver = i;
+            }
+        }
+
+        int[] slots;
+        int count;
+        int precomputed = words.length == 1 && limit <= precomputedResults
+                ? Arrays.binarySearch(widePrefixRanges, rangeKey(lows[0], highs[0]))
+                : -1;
+        if (precomputed >= 0) {
+            int from = widePrefixOffsets[precomputed];
+            count = Math.min(limit, widePrefixOffsets[precomputed + 1] - from);
+            slots = Arrays.copyOfRange(widePrefixSlots, from, from + count);
+        } else {
+            // Walk the most selective word, check the others against each book's tokens
+            int[] filterLows = new int[words.length - 1];
+            int[] filterHighs = new int[words.length - 1];
+            for (int i = 0, j = 0; i < words.length; i++) {
+                if (i != driver) {
+                    filterLows[j] = lows[i];
+                    filterHighs[j++] = highs[i];
+                }
+            }
+            slots = new int[limit];
+            count = collect(lows[driver], highs[driver], filterLows, filterHighs, limit, slots);
+        }
+
+        List<Suggestion> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int slot = slots[i];
+            result.add(new Suggestion(bookIds[slot], display(2 * slot), display(2 * slot + 1), popularity[slot]));
+        }
+        return result;
+    }
+
+    /**
+     * Approximate heap footprint of the index, in bytes.
+     */
+    public long estimatedSizeBytes() {
+        long arrays = 8L * bookIds.length
+                + 4L * (popularity.length + displayOffsets.length + tokenOffsets.length
+                        + postingOffsets.length + postings.length + slotTokenOffsets.length + slotTokens.length
+                        + widePrefixOffsets.length + widePrefixSlots.length)
+                + 8L * widePrefixRanges.length + displayBytes.length + tokenBytes.length;
+        // Object header and length field of each of the 14 arrays
+        return arrays + 14L * 16;
+    }
+
+    /**
+     * Number of distinct tokens in the dictionary.
+     */
+    public int tokenCount() {
+        return tokenOffsets.length - 1;
+    }
+
+    private long postingCount(int word, int[] lows, int[] highs) {
+        return postingOffsets[highs[word]] - postingOffsets[lows[word]];
+    }
+
+    private String display(int entry) {
+        int start = displayOffsets[entry];
+        return new String(displayBytes, start, displayOffsets[entry + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Collect the lowest (most popular) slots containing a token in [low, high) that also contain
+     * a token in every filter range. Results are written to {@code out} in ascending order.
+     */
+    private int collect(int low, int high, int[] filterLows, int[] filterHighs, int limit, int[] out) {
+        // Max-heap of the best slots found so far
+        int size = 0;
+        for (int token = low; token < high; token++) {
+            for (int p = postingOffsets[token]; p < postingOffsets[token + 1]; p++) {
+                int slot = postings[p];
+                if (size == limit && slot >= out[0]) {
+                    break;
+                }
+                if (!matchesAll(slot, filterLows, filterHighs) || heapContains(out, size, slot)) {
+                    continue;
+                }
+                if (size < limit) {
+                    out[size] = slot;
+                    siftUp(out, size++);
+                } else {
+                    out[0] = slot;
+                    siftDown(out, size);
+                }
+            }
+        }
+        Arrays.sort(out, 0, size);
+        return size;
+    }
+
+    private boolean matchesAll(int slot, int[] filterLows, int[] filterHighs) {
+        int from = slotTokenOffsets[slot];
+        int to = slotTokenOffsets[slot + 1];
+        for (int i = 0; i < filterLows.length; i++) {
+            int position = Arrays.binarySearch(slotTokens, from, to, filterLows[i]);
+            if (position < 0) {
+                position = -position - 1;
+            }
+            if (position == to || slotTokens[position] >= filterHighs[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean heapContains(int[] heap, int size, int slot) {
+        for (int i = 0; i < size; i++) {
+            if (heap[i] == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void siftUp(int[] heap, int index) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(int[] heap, int size) {
+        int value = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * First token that is greater than or equal to the prefix.
+     */
+    private int lowerBound(byte[] prefix) {
+        int low = 0;
+        int high = tokenCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(mid, prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First token that is greater than the prefix and does not start with it.
+     */
+    private int upperBound(byte[] prefix) {
+        int low = 0;
+        int high = tokenCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(mid, prefix) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compare a token with a prefix, treating tokens that start with the prefix as equal.
+     */
+    private int comparePrefix(int token, byte[] prefix) {
+        int start = tokenOffsets[token];
+        int length = tokenOffsets[token + 1] - start;
+        int common = Math.min(length, prefix.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (tokenBytes[start + i] & 0xff) - (prefix[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length >= prefix.length ? 0 : -1;
+    }
+
+    /**
+     * Record every prefix range of at least WIDE_PREFIX_TOKENS tokens below the given one.
+     * Tokens in [low, high) share their first {@code depth} bytes.
+     */
+    private void collectWideRanges(int depth, int low, int high, LongBuffer ranges) {
+        if (high - low < WIDE_PREFIX_TOKENS) {
+            return;
+        }
+        if (depth > 0) {
+            ranges.add(rangeKey(low, high));
+        }
+
+        // Tokens equal to the prefix sort first, then group by the next byte
+        int start = low;
+        while (start < high && tokenOffsets[start + 1] - tokenOffsets[start] == depth) {
+            start++;
+        }
+        while (start < high) {
+            byte next = tokenBytes[tokenOffsets[start] + depth];
+            int end = start + 1;
+            while (end < high && tokenBytes[tokenOffsets[end] + depth] == next) {
+                end++;
+            }
+            collectWideRanges(depth + 1, start, end, ranges);
+            start = end;
+        }
+    }
+
+    private static long rangeKey(int low, int high) {
+        return ((long) low << 32) | high;
+    }
+
+    /**
+     * A matched book with its display title and first author.
+     */
+    public static final class Suggestion {
+
+        private final long bookId;
+        private final String title;
+        private final String author;
+        private final int popularity;
+
+        Suggestion(long bookId, String title, String author, int popularity) {
+            this.bookId = bookId;
+            this.title = title;
+            this.author = author;
+            this.popularity = popularity;
+        }
+
+        public long getBookId() {
+            return bookId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+
+        public int getPopularity() {
+            return popularity;
+        }
+    }
+
+    /**
+     * Accumulates books in a single pass and builds the index.
+     */
+    public static final class Builder {
+
+        private final int maxResults;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        private long[] bookIds = new long[1024];
+        private int[] popularity = new int[1024];
+        private int count;
+
+        private final ByteBuffer displayBytes = new ByteBuffer(1 << 16);
+        private final IntBuffer displayOffsets = new IntBuffer(2048);
+        private final IntBuffer bookTokens = new IntBuffer(8192);
+        private final IntBuffer bookTokenOffsets = new IntBuffer(1024);
+
+        /**
+         * @param maxResults number of results precomputed for wide prefixes
+         */
+        public Builder(int maxResults) {
+            this.maxResults = maxResults;
+            displayOffsets.add(0);
+            bookTokenOffsets.add(0);
+        }
+
+        /**
+         * Add a book.
+         *
+         * @param bookId book ID
+         * @param title display title, also indexed
+         * @param author display author name
+         * @param names author names (and sort names) to index
+         * @param codes identifiers such as ISBNs, indexed without separators
+         * @param popularity ranking weight, higher first
+         */
+        public Builder add(long bookId, String title, String author, Collection<String> names,
+                           Collection<String> codes, int popularity) {
+            if (count == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, count * 2);
+                this.popularity = Arrays.copyOf(this.popularity, count * 2);
+            }
+            bookIds[count] = bookId;
+            this.popularity[count] = Math.max(popularity, 0);
+            count++;
+
+            displayBytes.add((title != null ? title : "").getBytes(StandardCharsets.UTF_8));
+            displayOffsets.add(displayBytes.size());
+            displayBytes.add((author != null ? author : "").getBytes(StandardCharsets.UTF_8));
+            displayOffsets.add(displayBytes.size());
+
+            int first = bookTokens.size();
+            addWords(title);
+            for (String name : names) {
+                addWords(name);
+            }
+            for (String code : codes) {
+                String compact = normalize(code).replace(" ", "");
+                if (!compact.isEmpty()) {
+                    bookTokens.add(tokenId(compact));
+                }
+            }
+            bookTokens.sortUniqueTail(first);
+            bookTokenOffsets.add(bookTokens.size());
+            return this;
+        }
+
+        public BookSuggestionIndex build() {
+            // Sort the dictionary by UTF-8 bytes so prefixes form contiguous ranges
+            TokenEntry[] entries = new TokenEntry[dictionary.size()];
+            for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+                entries[entry.getValue()] = new TokenEntry(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue());
+            }
+            dictionary.clear();
+            Arrays.sort(entries, (a, b) -> Arrays.compareUnsigned(a.bytes, b.bytes));
+
+            int tokenCount = entries.length;
+            int[] tokenIdMap = new int[tokenCount];
+            int[] tokenOffsets = new int[tokenCount + 1];
+            ByteBuffer tokenBytes = new ByteBuffer(tokenCount * 8 + 1);
+            for (int i = 0; i < tokenCount; i++) {
+                tokenIdMap[entries[i].id] = i;
+                tokenBytes.add(entries[i].bytes);
+                tokenOffsets[i + 1] = tokenBytes.size();
+            }
+            entries = null;
+
+            // Number books by popularity, most popular first, keeping insertion order on ties
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = ((long) (Integer.MAX_VALUE - popularity[i]) << 32) | i;
+            }
+            Arrays.sort(order);
+
+            long[] slotBookIds = new long[count];
+            int[] slotPopularity = new int[count];
+            int[] slotDisplayOffsets = new int[2 * count + 1];
+            ByteBuffer slotDisplayBytes = new ByteBuffer(displayBytes.size() + 1);
+            int[] slotTokenOffsets = new int[count + 1];
+            int[] slotTokens = new int[bookTokens.size()];
+            int[] postingOffsets = new int[tokenCount + 1];
+
+            int[] tokens = bookTokens.array();
+            int[] tokenStarts = bookTokenOffsets.array();
+            int[] displayStarts = displayOffsets.array();
+            for (int slot = 0; slot < count; slot++) {
+                int book = (int) order[slot];
+                slotBookIds[slot] = bookIds[book];
+                slotPopularity[slot] = popularity[book];
+
+                for (int field = 0; field < 2; field++) {
+                    int start = displayStarts[2 * book + field];
+                    slotDisplayBytes.add(displayBytes.array(), start, displayStarts[2 * book + field + 1] - start);
+                    slotDisplayOffsets[2 * slot + field + 1] = slotDisplayBytes.size();
+                }
+
+                int from = slotTokenOffsets[slot];
+                int length = tokenStarts[book + 1] - tokenStarts[book];
+                for (int i = 0; i < length; i++) {
+                    int token = tokenIdMap[tokens[tokenStarts[book] + i]];
+                    slotTokens[from + i] = token;
+                    postingOffsets[token + 1]++;
+                }
+                Arrays.sort(slotTokens, from, from + length);
+                slotTokenOffsets[slot + 1] = from + length;
+            }
+
+            // Slots are visited in ascending order, so every posting list comes out sorted
+            for (int token = 0; token < tokenCount; token++) {
+                postingOffsets[token + 1] += postingOffsets[token];
+            }
+            int[] postings = new int[slotTokens.length];
+            int[] next = Arrays.copyOf(postingOffsets, tokenCount);
+            for (int slot = 0; slot < count; slot++) {
+                for (int i = slotTokenOffsets[slot]; i < slotTokenOffsets[slot + 1]; i++) {
+                    postings[next[slotTokens[i]]++] = slot;
+                }
+            }
+
+            return new BookSuggestionIndex(slotBookIds, slotPopularity, slotDisplayBytes.toArray(),
+                    slotDisplayOffsets, tokenBytes.toArray(), tokenOffsets, postingOffsets, postings,
+                    slotTokenOffsets, slotTokens, maxResults);
+        }
+
+        private void addWords(String text) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            for (String word : normalized.split(" ")) {
+                bookTokens.add(tokenId(word));
+            }
+        }
+
+        private int tokenId(String token) {
+            Integer id = dictionary.get(token);
+            if (id == null) {
+                id = dictionary.size();
+                dictionary.put(token, id);
+            }
+            return id;
+        }
+    }
+
+    private static final class TokenEntry {
+
+        final byte[] bytes;
+        final int id;
+
+        TokenEntry(byte[] bytes, int id) {
+            this.bytes = bytes;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Growable int array.
+     */
+    private static final class IntBuffer {
+
+        private int[] values;
+        private int size;
+
+        IntBuffer(int capacity) {
+            values = new int[Math.max(capacity, 1)];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        /** Sort and deduplicate the values added since {@code from}. */
+        void sortUniqueTail(int from) {
+            Arrays.sort(values, from, size);
+            int end = from;
+            for (int i = from; i < size; i++) {
+                if (end == from || values[end - 1] != values[i]) {
+                    values[end++] = values[i];
+                }
+            }
+            size = end;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] array() {
+            return values;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Growable long array.
+     */
+    private static final class LongBuffer {
+
+        private long[] values;
+        private int size;
+
+        LongBuffer(int capacity) {
+            values = new long[Math.max(capacity, 1)];
+        }
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] sortedUnique() {
+            Arrays.sort(values, 0, size);
+            int end = 0;
+            for (int i = 0; i < size; i++) {
+                if (end == 0 || values[end - 1] != values[i]) {
+                    values[end++] = values[i];
+                }
+            }
+            return Arrays.copyOf(values, end);
+        }
+    }
+
+    /**
+     * Growable byte array.
+     */
+    private static final class ByteBuffer {
+
+        private byte[] values;
+        private int size;
+
+        ByteBuffer(int capacity) {
+            values = new byte[Math.max(capacity, 1)];
+        }
+
+        void add(byte[] bytes) {
+            add(bytes, 0, bytes.length);
+        }
+
+        void add(byte[] bytes, int offset, int length) {
+            if (size + length > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + length));
+            }
+            System.arraycopy(bytes, offset, values, size, length);
+            size += length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] array() {
+            return values;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
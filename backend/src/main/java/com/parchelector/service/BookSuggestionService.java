@@ -0,0 +1,134 @@
+package com.parchelector.service;
+
+import com.parchelector.config.SchedulingConfig;
+import com.parchelector.dto.response.BookSuggestionResponse;
+import com.parchelector.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service for book autocomplete.
+ * Suggestions are served from an in-memory BookSuggestionIndex and never touch the database.
+ * The index is built at startup in one streaming pass and rebuilt on an interval, so books
+ * written outside the application (catalog imports, SQL scripts) show up without a restart.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Service
+public class BookSuggestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSuggestionService.class);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Value("${app.suggest.max-results:10}")
+    private int maxResults;
+
+    private final AtomicReference<BookSuggestionIndex> index = new AtomicReference<>(BookSuggestionIndex.EMPTY);
+
+    /**
+     * Suggest books whose title, author or ISBN start with the words of the query.
+     */
+    public List<BookSuggestionResponse> suggest(String query, int limit) {
+        int size = Math.min(Math.max(limit, 1), maxResults);
+        return index.get().search(query, size).stream()
+                .map(match -> new BookSuggestionResponse(
+                        match.getBookId(),
+                        match.getTitle(),
+                        match.getAuthor().isEmpty() ? "Unknown Author" : match.getAuthor()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Rebuild the index from the database in a single streaming pass. Readers keep the
+     * previous index until the new one is swapped in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.suggest.rebuild-interval-ms:3600000}",
+               initialDelayString = "${app.suggest.rebuild-interval-ms:3600000}",
+               scheduler = SchedulingConfig.JOB_SCHEDULER)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            BookSuggestionIndex.Builder builder = new BookSuggestionIndex.Builder(maxResults);
+
+            try (Stream<Object[]> rows = bookRepository.streamSuggestionRows()) {
+                BookRows book = null;
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    Long bookId = (Long) row[0];
+                    if (book == null || !book.bookId.equals(bookId)) {
+                        if (book != null) {
+                            book.addTo(builder);
+                        }
+                        book = new BookRows(row);
+                    }
+                    book.addAuthor((String) row[5], (String) row[6]);
+                }
+                if (book != null) {
+                    book.addTo(builder);
+                }
+            }
+
+            BookSuggestionIndex built = builder.build();
+            index.set(built);
+
+            logger.info("Built book suggestion index: {} books, {} tokens, ~{} KB in {} ms",
+                    built.size(), built.tokenCount(), built.estimatedSizeBytes() / 1024,
+                    System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            // Keep serving the previous index
+            logger.warn("Failed to build book suggestion index", e);
+        }
+    }
+
+    /**
+     * The streamed rows of one book, one per author.
+     */
+    private static final class BookRows {
+
+        final Long bookId;
+        final String title;
+        final List<String> codes;
+        final int popularity;
+        final List<String> names = new ArrayList<>(2);
+        String author;
+
+        BookRows(Object[] row) {
+            this.bookId = (Long) row[0];
+            this.title = (String) row[1];
+            this.codes = Arrays.asList((String) row[2], (String) row[3]);
+            this.popularity = ((Number) row[4]).intValue();
+        }
+
+        void addAuthor(String name, String sortName) {
+            if (name == null) {
+                return;
+            }
+            if (author == null) {
+                author = name;
+            }
+            names.add(name);
+            names.add(sortName);
+        }
+
+        void addTo(BookSuggestionIndex.Builder builder) {
+            builder.add(bookId, title, author, names, codes, popularity);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.parchelector.service;
+
+import com.parchelector.model.entity.TimelineItem;
+import com.parchelector.model.entity.TimelineItem.TimelineItemId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor for the social feed.
+ * Holds the position of the last item of a page (creation time, item type and ID),
+ * so the next page can seek past it instead of using OFFSET.
+ *
+ * @author Nicolas Arciniegas
+ */
+public final class FeedCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private FeedCursor() {
+    }
+
+    /**
+     * Encode the position of a timeline entry.
+     */
+    public static String encode(TimelineItemId entry) {
+        String value = entry.getCreatedAt() + SEPARATOR + entry.getItemType() + SEPARATOR + entry.getItemId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor token into a position (without a timeline owner), or return null when there is none.
+     */
+    public static TimelineItemId decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split("\\|", 3);
+            if (parts.length < 3 || !(parts[1].equals(TimelineItem.REVIEW) || parts[1].equals(TimelineItem.LIST))) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new TimelineItemId(null, LocalDateTime.parse(parts[0]), parts[1], Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            // Also covers malformed Base64, numbers and dates
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
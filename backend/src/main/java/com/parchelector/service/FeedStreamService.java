@@ -0,0 +1,329 @@
+package com.parchelector.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parchelector.dto.response.FeedResponse.FeedItem;
+import com.parchelector.model.entity.TimelineItem.TimelineItemId;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service pushing new feed items to the open feed streams (server-sent events) of the
+ * author's followers. Streams are registered per follower in memory. Each stream queues its
+ * events in a small bounded buffer that a few workers write out, so an idle stream holds no
+ * thread and a slow client only delays itself.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Service
+public class FeedStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedStreamService.class);
+
+    private static final String ITEM_EVENT = "item";
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private SocialService socialService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.feed.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.feed.stream.buffer-size:50}")
+    private int bufferSize;
+
+    @Value("${app.feed.stream.max-streams-per-user:5}")
+    private int maxStreamsPerUser;
+
+    @Value("${app.feed.stream.max-streams:5000}")
+    private int maxStreams;
+
+    @Value("${app.feed.stream.threads:2}")
+    private int threads;
+
+    @Value("${app.feed.stream.queue-size:100000}")
+    private int queueSize;
+
+    // Open streams of each user, oldest first; the lists are replaced, never modified
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    // Streams registered in subscribers, across all users
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    private ThreadPoolExecutor streamExecutor;
+
+    @PostConstruct
+    public void startStreams() {
+        streamExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), new CustomizableThreadFactory("feed-stream-"));
+    }
+
+    @PreDestroy
+    public void stopStreams() throws InterruptedException {
+        streamExecutor.shutdown();
+        streamExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        for (List<Subscriber> streams : subscribers.values()) {
+            for (Subscriber subscriber : streams) {
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * Open a feed stream for a user. Opening more than {@code app.feed.stream.max-streams-per-user}
+     * streams closes the user's oldest one. Each stream holds a connection, so no more than
+     * {@code app.feed.stream.max-streams} are open at once.
+     * @throws IllegalStateException if the server already holds the maximum number of streams
+     */
+    public SseEmitter subscribe(Long userId) {
+        if (openStreams.incrementAndGet() > maxStreams) {
+            openStreams.decrementAndGet();
+            throw new IllegalStateException("Too many open feed streams");
+        }
+        Subscriber subscriber = new Subscriber(userId, createEmitter());
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(e -> subscriber.close());
+
+        List<Subscriber> evicted = new ArrayList<>(1);
+        subscribers.compute(userId, (id, streams) -> {
+            List<Subscriber> updated = streams == null ? new ArrayList<>(1) : new ArrayList<>(streams);
+            updated.add(subscriber);
+            while (updated.size() > maxStreamsPerUser) {
+                evicted.add(updated.remove(0));
+            }
+            return updated;
+        });
+        openStreams.addAndGet(-evicted.size());
+        for (Subscriber oldest : evicted) {
+            oldest.close();
+        }
+        return subscriber.emitter;
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    /**
+     * Push a new item to the streams of its author's followers, in the background once the
+     * current transaction commits.
+     */
+    public void publishAfterCommit(Long authorId, String itemType, Long itemId, LocalDateTime createdAt) {
+        afterCommit(() -> {
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            try {
+                streamExecutor.execute(() -> publish(authorId, itemType, itemId, createdAt));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Feed stream queue full, {} {} of user {} not pushed", itemType, itemId, authorId);
+            }
+        });
+    }
+
+    /**
+     * Keep idle streams open through proxies and find the ones whose client is gone. Runs on the
+     * default scheduler, away from the rebuilds (see SchedulingConfig), so they never delay it past
+     * proxy idle timeouts; it only queues the heartbeats, the stream workers write them.
+     */
+    @Scheduled(fixedDelayString = "${app.feed.stream.heartbeat-interval-ms:20000}",
+               initialDelayString = "${app.feed.stream.heartbeat-interval-ms:20000}")
+    public void sendHeartbeats() {
+        for (List<Subscriber> streams : subscribers.values()) {
+            for (Subscriber subscriber : streams) {
+                subscriber.offer(HEARTBEAT, true);
+            }
+        }
+    }
+
+    private void publish(Long authorId, String itemType, Long itemId, LocalDateTime createdAt) {
+        try {
+            List<Long> recipients = connectedFollowers(authorId);
+            if (recipients.isEmpty()) {
+                return;
+            }
+            // Loaded and serialized once for every recipient: feed items are the same for all readers
+            List<FeedItem> items = socialService.loadFeedItems(
+                    List.of(new TimelineItemId(authorId, createdAt, itemType, itemId)));
+            if (items.isEmpty()) {
+                return;
+            }
+            Set<DataWithMediaType> event = SseEmitter.event()
+                    .name(ITEM_EVENT)
+                    .data(objectMapper.writeValueAsString(items.get(0)), MediaType.APPLICATION_JSON)
+                    .build();
+            for (Long recipient : recipients) {
+                for (Subscriber subscriber : subscribers.getOrDefault(recipient, List.of())) {
+                    subscriber.offer(event, false);
+                }
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.error("Failed to push {} {} of user {} to the feed streams", itemType, itemId, authorId, e);
+        }
+    }
+
+    /**
+     * Followers of a user with an open stream, walking whichever side is smaller: the
+     * followers, or the users with a stream.
+     */
+    private List<Long> connectedFollowers(Long authorId) {
+        List<Long> recipients = new ArrayList<>();
+        if (followGraphService.countFollowers(authorId) <= subscribers.size()) {
+            for (Long followerId : followGraphService.getFollowerIds(authorId)) {
+                if (subscribers.containsKey(followerId)) {
+                    recipients.add(followerId);
+                }
+            }
+        } else {
+            for (Long userId : subscribers.keySet()) {
+                if (followGraphService.isFollowing(userId, authorId)) {
+                    recipients.add(userId);
+                }
+            }
+        }
+        return recipients;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, streams) -> {
+            List<Subscriber> updated = new ArrayList<>(streams);
+            if (updated.remove(subscriber)) {
+                openStreams.decrementAndGet();
+            }
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * One open stream. Events wait in a bounded buffer until a worker writes them; only one
+     * worker drains a stream at a time, so events go out in order.
+     */
+    private final class Subscriber {
+
+        final Long userId;
+        final SseEmitter emitter;
+
+        // Guarded by this; allocated only while events are waiting
+        private ArrayDeque<Set<DataWithMediaType>> buffer;
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> event, boolean heartbeat) {
+            boolean full = false;
+            synchronized (this) {
+                if (closed || (heartbeat && draining)) {
+                    // A stream being written to needs no heartbeat
+                    return;
+                }
+                if (buffer == null) {
+                    buffer = new ArrayDeque<>(4);
+                }
+                if (buffer.size() >= bufferSize) {
+                    full = true;
+                } else {
+                    buffer.add(event);
+                    if (draining) {
+                        return;
+                    }
+                    draining = true;
+                }
+            }
+            if (full) {
+                // Client too slow: close the stream rather than silently skip items. The client
+                // reconnects and reloads the top of its feed.
+                close();
+                return;
+            }
+            try {
+                streamExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Set<DataWithMediaType> event;
+                synchronized (this) {
+                    event = buffer == null ? null : buffer.poll();
+                    if (event == null) {
+                        buffer = null;
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client gone or stream already completed
+                    close();
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer = null;
+            }
+            unsubscribe(this);
+            emitter.complete();
+        }
+    }
+}
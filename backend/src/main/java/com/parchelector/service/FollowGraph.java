@@ -0,0 +1,167 @@
+package com.parchelector.service;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable in-memory follow graph. Both directions are stored as compressed adjacency
+ * arrays indexed by user ID: the users followed by user {@code u} are
+ * {@code following[followingOffsets[u] .. followingOffsets[u + 1])}, ascending, and the
+ * followers likewise. Counts are O(1), membership is a binary search over one user's
+ * range, and every edge costs 4 bytes per direction.
+ *
+ * @author Nicolas Arciniegas
+ */
+public final class FollowGraph {
+
+    public static final FollowGraph EMPTY = new Builder().build();
+
+    // Followed users of each follower, ascending
+    private final int[] followingOffsets;
+    private final int[] following;
+
+    // Followers of each user, ascending
+    private final int[] followerOffsets;
+    private final int[] followers;
+
+    private FollowGraph(int[] followingOffsets, int[] following, int[] followerOffsets, int[] followers) {
+        this.followingOffsets = followingOffsets;
+        this.following = following;
+        this.followerOffsets = followerOffsets;
+        this.followers = followers;
+    }
+
+    public boolean contains(long followerId, long followedId) {
+        if (!inRange(followingOffsets, followerId)) {
+            return false;
+        }
+        int user = (int) followerId;
+        return Arrays.binarySearch(following, followingOffsets[user], followingOffsets[user + 1], (int) followedId) >= 0;
+    }
+
+    public int followingCount(long userId) {
+        return degree(followingOffsets, userId);
+    }
+
+    public int followerCount(long userId) {
+        return degree(followerOffsets, userId);
+    }
+
+    /**
+     * IDs of the users a user follows, ascending.
+     */
+    public int[] following(long userId) {
+        return range(followingOffsets, following, userId);
+    }
+
+    /**
+     * Pass the IDs of the users a user follows, ascending, to {@code action} without copying them.
+     */
+    public void forEachFollowing(long userId, IntConsumer action) {
+        if (!inRange(followingOffsets, userId)) {
+            return;
+        }
+        for (int i = followingOffsets[(int) userId]; i < followingOffsets[(int) userId + 1]; i++) {
+            action.accept(following[i]);
+        }
+    }
+
+    /**
+     * IDs of a user's followers, ascending.
+     */
+    public int[] followers(long userId) {
+        return range(followerOffsets, followers, userId);
+    }
+
+    /**
+     * One more than the highest user ID in the graph.
+     */
+    public int userIdBound() {
+        return followingOffsets.length - 1;
+    }
+
+    public int edgeCount() {
+        return following.length;
+    }
+
+    /**
+     * Approximate heap size of the graph in bytes.
+     */
+    public long estimatedSizeBytes() {
+        // Object header and length field of each of the 4 arrays
+        return 4L * (followingOffsets.length + following.length + followerOffsets.length + followers.length) + 4L * 16;
+    }
+
+    private static boolean inRange(int[] offsets, long userId) {
+        return userId >= 0 && userId < offsets.length - 1;
+    }
+
+    private static int degree(int[] offsets, long userId) {
+        if (!inRange(offsets, userId)) {
+            return 0;
+        }
+        return offsets[(int) userId + 1] - offsets[(int) userId];
+    }
+
+    private static int[] range(int[] offsets, int[] values, long userId) {
+        if (!inRange(offsets, userId)) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(values, offsets[(int) userId], offsets[(int) userId + 1]);
+    }
+
+    /**
+     * Collects follows in any order and builds the graph.
+     */
+    public static final class Builder {
+
+        private int[] followerIds = new int[1024];
+        private int[] followedIds = new int[1024];
+        private int count;
+        private int maxUserId;
+
+        public Builder add(long followerId, long followedId) {
+            if (count == followerIds.length) {
+                followerIds = Arrays.copyOf(followerIds, count * 2);
+                followedIds = Arrays.copyOf(followedIds, count * 2);
+            }
+            followerIds[count] = Math.toIntExact(followerId);
+            followedIds[count] = Math.toIntExact(followedId);
+            maxUserId = Math.max(maxUserId, Math.max(followerIds[count], followedIds[count]));
+            count++;
+            return this;
+        }
+
+        public FollowGraph build() {
+            int[] followingOffsets = offsets(followerIds);
+            int[] followerOffsets = offsets(followedIds);
+            return new FollowGraph(followingOffsets, group(followerIds, followedIds, followingOffsets),
+                    followerOffsets, group(followedIds, followerIds, followerOffsets));
+        }
+
+        // Start of each user's range (counting sort), plus the end of the last one
+        private int[] offsets(int[] keys) {
+            int[] offsets = new int[maxUserId + 2];
+            for (int i = 0; i < count; i++) {
+                offsets[keys[i] + 1]++;
+            }
+            for (int user = 0; user <= maxUserId; user++) {
+                offsets[user + 1] += offsets[user];
+            }
+            return offsets;
+        }
+
+        // Values grouped by key, each group ascending
+        private int[] group(int[] keys, int[] values, int[] offsets) {
+            int[] grouped = new int[count];
+            int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+            for (int i = 0; i < count; i++) {
+                grouped[next[keys[i]]++] = values[i];
+            }
+            for (int user = 0; user <= maxUserId; user++) {
+                Arrays.sort(grouped, offsets[user], offsets[user + 1]);
+            }
+            return grouped;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.parchelector.service;
+
+import com.parchelector.config.SchedulingConfig;
+import com.parchelector.repository.FollowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Service answering follow lookups (is following, follower and following counts, followed
+ * users) from an in-memory FollowGraph instead of the database. The graph is built at startup
+ * in one streaming pass; follows and unfollows committed afterwards are kept in small per-user
+ * overlays until the next rebuild. Until the first build finishes, lookups go to the database.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Service
+public class FollowGraphService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowGraphService.class);
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.NOT_BUILT);
+
+    // Changes since the last build, oldest first; guarded by this
+    private final List<Change> changes = new ArrayList<>();
+
+    private final AtomicLong changeSequence = new AtomicLong();
+
+    public boolean isFollowing(Long followerId, Long followedId) {
+        State current = state.get();
+        if (current.graph == null) {
+            return followRepository.existsByFollowerIdAndFollowedId(followerId, followedId);
+        }
+        return current.isFollowing(followerId, followedId);
+    }
+
+    public long countFollowers(Long userId) {
+        State current = state.get();
+        if (current.graph == null) {
+            return followRepository.countFollowersByUserId(userId);
+        }
+        return current.graph.followerCount(userId) + Delta.size(current.followerDeltas.get(userId));
+    }
+
+    public long countFollowing(Long userId) {
+        State current = state.get();
+        if (current.graph == null) {
+            return followRepository.countFollowingByUserId(userId);
+        }
+        return current.graph.followingCount(userId) + Delta.size(current.followingDeltas.get(userId));
+    }
+
+    /**
+     * The graph as of its last build, without the changes made since, or null until the
+     * first build finishes. For batch jobs walking the whole graph.
+     */
+    public FollowGraph getGraph() {
+        return state.get().graph;
+    }
+
+    /**
+     * IDs of the users a user follows, ascending.
+     */
+    public List<Long> getFollowedUserIds(Long userId) {
+        State current = state.get();
+        if (current.graph == null) {
+            List<Long> ids = new ArrayList<>(followRepository.findFollowedUserIds(userId));
+            ids.sort(null);
+            return ids;
+        }
+        return Delta.merge(current.graph.following(userId), current.followingDeltas.get(userId));
+    }
+
+    /**
+     * IDs of a user's followers, ascending.
+     */
+    public List<Long> getFollowerIds(Long userId) {
+        State current = state.get();
+        if (current.graph == null) {
+            List<Long> ids = new ArrayList<>(followRepository.findFollowerIds(userId));
+            ids.sort(null);
+            return ids;
+        }
+        return Delta.merge(current.graph.followers(userId), current.followerDeltas.get(userId));
+    }
+
+    /**
+     * Add a follow to the graph once the current transaction commits.
+     */
+    public void recordFollowAfterCommit(Long followerId, Long followedId) {
+        afterCommit(() -> apply(followerId, followedId, true));
+    }
+
+    /**
+     * Remove a follow from the graph once the current transaction commits.
+     */
+    public void recordUnfollowAfterCommit(Long followerId, Long followedId) {
+        afterCommit(() -> apply(followerId, followedId, false));
+    }
+
+    /**
+     * Rebuild the graph from the database in a single streaming pass.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        try {
+            long startSequence = changeSequence.get();
+            long startedAt = System.currentTimeMillis();
+            FollowGraph.Builder builder = new FollowGraph.Builder();
+            try (Stream<Object[]> rows = followRepository.streamAll()) {
+                rows.forEach(row -> builder.add((Long) row[0], (Long) row[1]));
+            }
+            FollowGraph graph = builder.build();
+
+            synchronized (this) {
+                // Changes committed while streaming may be missing from the graph: replay them
+                // (applying a change is idempotent)
+                changes.removeIf(change -> change.sequence <= startSequence);
+                State built = new State(graph);
+                for (Change change : changes) {
+                    built.apply(change.followerId, change.followedId, change.follows);
+                }
+                state.set(built);
+            }
+
+            logger.info("Built follow graph: {} follows, ~{} KB in {} ms",
+                    graph.edgeCount(), graph.estimatedSizeBytes() / 1024, System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            // Keep serving the previous graph
+            logger.warn("Failed to build follow graph", e);
+        }
+    }
+
+    /**
+     * Fold the overlays into the graph.
+     */
+    @Scheduled(fixedDelayString = "${app.follows.rebuild-interval-ms:600000}",
+               initialDelayString = "${app.follows.rebuild-interval-ms:600000}",
+               scheduler = SchedulingConfig.JOB_SCHEDULER)
+    @Transactional(readOnly = true)
+    public void rebuildIfChanged() {
+        boolean changed;
+        synchronized (this) {
+            changed = !changes.isEmpty();
+        }
+        if (changed) {
+            rebuild();
+        }
+    }
+
+    private synchronized void apply(long followerId, long followedId, boolean follows) {
+        changes.add(new Change(changeSequence.incrementAndGet(), followerId, followedId, follows));
+        State current = state.get();
+        if (current.graph != null) {
+            current.apply(followerId, followedId, follows);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * A graph with the overlays of the changes made since it was built.
+     */
+    private static final class State {
+
+        static final State NOT_BUILT = new State(null);
+
+        final FollowGraph graph;
+        final Map<Long, Delta> followingDeltas = new ConcurrentHashMap<>();
+        final Map<Long, Delta> followerDeltas = new ConcurrentHashMap<>();
+
+        State(FollowGraph graph) {
+            this.graph = graph;
+        }
+
+        boolean isFollowing(long followerId, long followedId) {
+            Delta delta = followingDeltas.get(followerId);
+            if (delta != null) {
+                if (Arrays.binarySearch(delta.added, (int) followedId) >= 0) {
+                    return true;
+                }
+                if (Arrays.binarySearch(delta.removed, (int) followedId) >= 0) {
+                    return false;
+                }
+            }
+            return graph.contains(followerId, followedId);
+        }
+
+        void apply(long followerId, long followedId, boolean follows) {
+            boolean inGraph = graph.contains(followerId, followedId);
+            followingDeltas.compute(followerId, (id, delta) -> Delta.with(delta, (int) followedId, follows, inGraph));
+            followerDeltas.compute(followedId, (id, delta) -> Delta.with(delta, (int) followerId, follows, inGraph));
+        }
+    }
+
+    /**
+     * Immutable difference between one user's adjacency in the graph and the current one:
+     * IDs added and IDs removed, both ascending.
+     */
+    private static final class Delta {
+
+        private static final int[] NONE = new int[0];
+
+        final int[] added;
+        final int[] removed;
+
+        private Delta(int[] added, int[] removed) {
+            this.added = added;
+            this.removed = removed;
+        }
+
+        static int size(Delta delta) {
+            return delta == null ? 0 : delta.added.length - delta.removed.length;
+        }
+
+        /**
+         * The delta after setting whether {@code id} is adjacent, or null if the user then
+         * matches the graph again.
+         */
+        static Delta with(Delta delta, int id, boolean adjacent, boolean inGraph) {
+            int[] added = without(delta == null ? NONE : delta.added, id);
+            int[] removed = without(delta == null ? NONE : delta.removed, id);
+            if (adjacent && !inGraph) {
+                added = with(added, id);
+            } else if (!adjacent && inGraph) {
+                removed = with(removed, id);
+            }
+            return added.length == 0 && removed.length == 0 ? null : new Delta(added, removed);
+        }
+
+        /**
+         * The graph's adjacency with the delta applied, ascending.
+         */
+        static List<Long> merge(int[] base, Delta delta) {
+            int[] added = delta == null ? NONE : delta.added;
+            int[] removed = delta == null ? NONE : delta.removed;
+            List<Long> merged = new ArrayList<>(base.length + added.length);
+            int a = 0;
+            for (int id : base) {
+                while (a < added.length && added[a] < id) {
+                    merged.add((long) added[a++]);
+                }
+                if (Arrays.binarySearch(removed, id) < 0) {
+                    merged.add((long) id);
+                }
+            }
+            while (a < added.length) {
+                merged.add((long) added[a++]);
+            }
+            return merged;
+        }
+
+        private static int[] with(int[] ids, int id) {
+            int position = -Arrays.binarySearch(ids, id) - 1;
+            int[] result = new int[ids.length + 1];
+            System.arraycopy(ids, 0, result, 0, position);
+            result[position] = id;
+            System.arraycopy(ids, position, result, position + 1, ids.length - position);
+            return result;
+        }
+
+        private static int[] without(int[] ids, int id) {
+            int position = Arrays.binarySearch(ids, id);
+            if (position < 0) {
+                return ids;
+            }
+            int[] result = new int[ids.length - 1];
+            System.arraycopy(ids, 0, result, 0, position);
+            System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+            return result;
+        }
+    }
+
+    private static final class Change {
+
+        final long sequence;
+        final long followerId;
+        final long followedId;
+        final boolean follows;
+
+        Change(long sequence, long followerId, long followedId, boolean follows) {
+            this.sequence = sequence;
+            this.followerId = followerId;
+            this.followedId = followedId;
+            this.follows = follows;
+        }
+    }
+}
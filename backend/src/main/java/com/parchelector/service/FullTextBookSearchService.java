@@ -0,0 +1,42 @@
+package com.parchelector.service;
+
+import com.parchelector.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Book search backed by PostgreSQL full-text search.
+ * Uses the generated search_vector columns on books and authors (GIN indexed),
+ * accent-insensitive Spanish/English stemming and ts_rank ordering.
+ * Active in every profile except 'test'.
+ * 
+ * @author Nicolas Arciniegas
+ */
+@Service
+@Profile("!test")
+public class FullTextBookSearchService implements IBookSearchService {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private static final String CURSOR_SORT = "relevance";
+
+    public List<BookCursor> searchBooks(String query, BookCursor after, int limit) {
+        // The score is kept as the exact rounded decimal the query sorted on
+        BigDecimal cursorScore = after != null ? after.getKeyAsDecimal() : null;
+        long cursorId = after != null ? after.getId() : 0L;
+
+        return bookRepository.searchByFullText(query, cursorScore, cursorId, limit).stream()
+                .map(row -> BookCursor.of(CURSOR_SORT, ((BigDecimal) row[1]).toPlainString(), ((Number) row[0]).longValue()))
+                .collect(Collectors.toList());
+    }
+
+    public String getCursorSort() {
+        return CURSOR_SORT;
+    }
+}
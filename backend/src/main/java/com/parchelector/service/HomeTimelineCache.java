@@ -0,0 +1,207 @@
+package com.parchelector.service;
+
+import com.parchelector.model.entity.TimelineItem.TimelineItemId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hot tier of the home timelines: the newest entries of recently read timelines, kept in
+ * memory so the first pages of a feed never reach timeline_items. Fan-out adds new entries
+ * to cached heads; following, unfollowing and removed items drop them. Least recently used
+ * heads are evicted (clock approximation) once more users than configured are cached.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Component
+public class HomeTimelineCache {
+
+    /**
+     * Timeline order: newest first, ties broken by item type and ID.
+     */
+    public static final Comparator<TimelineItemId> NEWEST_FIRST = Comparator
+            .comparing(TimelineItemId::getCreatedAt)
+            .thenComparing(TimelineItemId::getItemType)
+            .thenComparing(TimelineItemId::getItemId)
+            .reversed();
+
+    @Value("${app.feed.hot-users:10000}")
+    private int maxUsers;
+
+    @Value("${app.feed.hot-entries:200}")
+    private int maxEntries;
+
+    private final Map<Long, Head> heads = new ConcurrentHashMap<>();
+
+    // Every cached head once, oldest first; the eviction hand sweeps it
+    private final Queue<Head> clock = new ConcurrentLinkedQueue<>();
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Get the head of a user's timeline, creating an unloaded one if it is not cached.
+     * Load an unloaded head from the database before reading it: entries added while the
+     * load runs are kept, and if the head is invalidated meanwhile it is simply never
+     * served again.
+     */
+    public Head head(Long userId) {
+        Head head = heads.get(userId);
+        if (head == null) {
+            head = heads.computeIfAbsent(userId, id -> {
+                Head created = new Head(id);
+                clock.offer(created);
+                return created;
+            });
+            evictIfFull();
+        }
+        head.referenced = true;
+        return head;
+    }
+
+    /**
+     * Add an entry to the user's head, if it is cached.
+     */
+    public void add(Long userId, TimelineItemId entry) {
+        Head head = heads.get(userId);
+        if (head != null) {
+            head.add(entry);
+        }
+    }
+
+    public void invalidate(Long userId) {
+        heads.remove(userId);
+    }
+
+    /**
+     * Drop the user's head once the current transaction commits.
+     */
+    public void invalidateAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    heads.remove(userId);
+                }
+            });
+        } else {
+            heads.remove(userId);
+        }
+    }
+
+    /**
+     * Sweep the clock: recently used heads get a second chance, the others are evicted.
+     */
+    private void evictIfFull() {
+        while (heads.size() > maxUsers) {
+            Head candidate = clock.poll();
+            if (candidate == null) {
+                return;
+            }
+            if (candidate.referenced) {
+                candidate.referenced = false;
+                clock.offer(candidate);
+            } else {
+                heads.remove(candidate.userId, candidate);
+            }
+        }
+    }
+
+    /**
+     * The newest entries of one timeline, newest first.
+     */
+    public final class Head {
+
+        private final Long userId;
+        private final List<TimelineItemId> entries = new ArrayList<>();
+        // Whether the entries are the whole timeline
+        private boolean complete;
+        private boolean loaded;
+        private volatile boolean referenced;
+
+        private Head(Long userId) {
+            this.userId = userId;
+        }
+
+        public synchronized boolean isLoaded() {
+            return loaded;
+        }
+
+        /**
+         * Fill the head with the newest entries read from the database, merged with any
+         * entry added since the head was created. Ignored if the head is already loaded.
+         *
+         * @param complete whether the database has no older entries
+         */
+        public synchronized void load(List<TimelineItemId> newest, boolean complete) {
+            if (loaded) {
+                return;
+            }
+            List<TimelineItemId> added = new ArrayList<>(entries);
+            entries.clear();
+            entries.addAll(newest.subList(0, Math.min(newest.size(), maxEntries)));
+            this.complete = complete && newest.size() <= maxEntries;
+            loaded = true;
+            for (TimelineItemId entry : added) {
+                add(entry);
+            }
+        }
+
+        synchronized void add(TimelineItemId entry) {
+            int position = Collections.binarySearch(entries, entry, NEWEST_FIRST);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            // Older than every cached entry: part of the head only if the head is the whole timeline
+            if (loaded && position == entries.size() && !complete) {
+                return;
+            }
+            entries.add(position, entry);
+            if (entries.size() > maxEntries) {
+                entries.remove(entries.size() - 1);
+                complete = false;
+            }
+        }
+
+        /**
+         * Up to {@code count} entries after a position, or null if the head cannot tell:
+         * it is not loaded, or the timeline goes on past the cached entries.
+         *
+         * @param after position to start after, or null to start at the top
+         */
+        public synchronized List<TimelineItemId> page(TimelineItemId after, int count) {
+            if (!loaded) {
+                return null;
+            }
+            int from = 0;
+            if (after != null) {
+                int position = Collections.binarySearch(entries, after, NEWEST_FIRST);
+                from = position >= 0 ? position + 1 : -position - 1;
+            }
+            int to = Math.min(from + count, entries.size());
+            if (to - from < count && !complete) {
+                return null;
+            }
+            return new ArrayList<>(entries.subList(from, to));
+        }
+
+        /**
+         * Number of entries in the timeline, or -1 if only part of it is cached.
+         */
+        public synchronized int size() {
+            return loaded && complete ? entries.size() : -1;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.parchelector.service;
+
+import com.parchelector.model.entity.TimelineItem;
+import com.parchelector.model.entity.TimelineItem.TimelineItemId;
+import com.parchelector.repository.FollowRepository;
+import com.parchelector.repository.LibraryListRepository;
+import com.parchelector.repository.ReviewRepository;
+import com.parchelector.repository.TimelineItemRepository;
+import com.parchelector.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service that keeps every user's home timeline materialized in timeline_items (fan-out on
+ * write). When a user posts a review or a visible list, a background worker adds it to the
+ * timeline of each of their followers; following a user copies their latest items into the
+ * follower's timeline and unfollowing removes them. Reading a feed page is then one range
+ * read of the timeline, or none at all when the page is in the in-memory hot tier.
+ * Users who follow more accounts than the pull threshold get no timeline: their feed is
+ * read from the followed users' reviews and lists (fan-out on read) and merged.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Service
+public class HomeTimelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HomeTimelineService.class);
+
+    private static final int FANOUT_BATCH = 1000;
+
+    private static final int BUILD_BATCH = 1000;
+
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final String FOLLOWERS_PAGE =
+            "SELECT follower_id FROM follows WHERE followed_id = ? AND follower_id > ? ORDER BY follower_id LIMIT ?";
+
+    // Skipped if the follower unfollowed since the followers were read
+    private static final String INSERT_ENTRY =
+            "INSERT INTO timeline_items (user_id, created_at, item_type, item_id, author_id) SELECT ?, ?, ?, ?, ? " +
+            "WHERE EXISTS (SELECT 1 FROM follows WHERE follower_id = ? AND followed_id = ?) " +
+            "ON CONFLICT DO NOTHING";
+
+    private static final String DELETE_ITEM =
+            "DELETE FROM timeline_items WHERE item_type = ? AND item_id = ? RETURNING user_id";
+
+    @Autowired
+    private TimelineItemRepository timelineItemRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private LibraryListRepository libraryListRepository;
+
+    @Autowired
+    private HomeTimelineCache homeTimelineCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.feed.backfill-items:200}")
+    private int backfillItems;
+
+    @Value("${app.feed.fanout-threads:2}")
+    private int fanoutThreads;
+
+    @Value("${app.feed.fanout-queue-size:10000}")
+    private int fanoutQueueSize;
+
+    @Value("${app.feed.pull-following-threshold:500}")
+    private int pullFollowingThreshold;
+
+    private ThreadPoolExecutor fanoutExecutor;
+
+    // Users following more than pullFollowingThreshold accounts, whose feed is read on demand
+    private final Set<Long> pullReaders = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void startFanout() {
+        // When the queue is full the committing thread runs the task itself, which slows down the writers
+        fanoutExecutor = new ThreadPoolExecutor(fanoutThreads, fanoutThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fanoutQueueSize), new CustomizableThreadFactory("timeline-fanout-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void stopFanout() throws InterruptedException {
+        fanoutExecutor.shutdown();
+        if (!fanoutExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Timeline fan-out still running on shutdown, {} tasks dropped",
+                    fanoutExecutor.shutdownNow().size());
+        }
+    }
+
+    /**
+     * Get up to {@code count} entries of a user's timeline after a position, newest first.
+     *
+     * @param after position to start after, or null to start at the top
+     */
+    public List<TimelineItemId> getEntries(Long userId, TimelineItemId after, int count) {
+        if (pullReaders.contains(userId)) {
+            return readFollowed(userId, after, count);
+        }
+        HomeTimelineCache.Head head = homeTimelineCache.head(userId);
+        if (!head.isLoaded()) {
+            int size = homeTimelineCache.getMaxEntries();
+            List<TimelineItemId> newest = readPage(userId, null, size + 1);
+            head.load(newest, newest.size() <= size);
+        }
+
+        List<TimelineItemId> entries = head.page(after, count);
+        return entries != null ? entries : readPage(userId, after, count);
+    }
+
+    /**
+     * Number of entries in a user's timeline if it is known without counting them (the whole
+     * timeline is in the hot tier), otherwise null.
+     */
+    public Integer knownSize(Long userId) {
+        if (pullReaders.contains(userId)) {
+            return null;
+        }
+        int cached = homeTimelineCache.head(userId).size();
+        return cached >= 0 ? cached : null;
+    }
+
+    private List<TimelineItemId> readPage(Long userId, TimelineItemId after, int count) {
+        List<TimelineItem> items = after == null
+                ? timelineItemRepository.findPage(userId, FIRST_PAGE_CREATED_AT, TimelineItem.REVIEW, Long.MAX_VALUE,
+                        PageRequest.of(0, count))
+                : timelineItemRepository.findPage(userId, after.getCreatedAt(), after.getItemType(), after.getItemId(),
+                        PageRequest.of(0, count));
+        List<TimelineItemId> entries = new ArrayList<>(items.size());
+        for (TimelineItem item : items) {
+            entries.add(item.getId());
+        }
+        return entries;
+    }
+
+    /**
+     * Read up to {@code count} entries of the feed of a user without a timeline: the newest
+     * reviews and the newest lists of everyone they follow after the position, each read by
+     * the database with a bounded index scan per followed user, then merged.
+     */
+    private List<TimelineItemId> readFollowed(Long userId, TimelineItemId after, int count) {
+        LocalDateTime createdAt = after != null ? after.getCreatedAt() : FIRST_PAGE_CREATED_AT;
+        // At the cursor's time, reviews sort before lists: after a review come the older reviews
+        // and every list, after a list only the older lists
+        long reviewIdBound = Long.MAX_VALUE;
+        long listIdBound = Long.MAX_VALUE;
+        if (after != null && TimelineItem.REVIEW.equals(after.getItemType())) {
+            reviewIdBound = after.getItemId();
+        } else if (after != null) {
+            reviewIdBound = 0;
+            listIdBound = after.getItemId();
+        }
+
+        List<TimelineItemId> reviews = toEntries(userId, TimelineItem.REVIEW,
+                reviewRepository.findFollowedFeedPage(userId, createdAt, reviewIdBound, count));
+        List<TimelineItemId> lists = toEntries(userId, TimelineItem.LIST,
+                libraryListRepository.findFollowedFeedPage(userId, createdAt, listIdBound, count));
+        return mergeNewestFirst(List.of(reviews, lists), count);
+    }
+
+    private static List<TimelineItemId> toEntries(Long userId, String itemType, List<Object[]> rows) {
+        List<TimelineItemId> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            LocalDateTime createdAt = row[1] instanceof Timestamp
+                    ? ((Timestamp) row[1]).toLocalDateTime()
+                    : (LocalDateTime) row[1];
+            entries.add(new TimelineItemId(userId, createdAt, itemType, ((Number) row[0]).longValue()));
+        }
+        return entries;
+    }
+
+    /**
+     * The first {@code count} entries of the union of streams that are each newest first,
+     * keeping only the current entry of every stream in the queue.
+     */
+    static List<TimelineItemId> mergeNewestFirst(List<List<TimelineItemId>> streams, int count) {
+        PriorityQueue<StreamHead> queue = new PriorityQueue<>(Math.max(1, streams.size()),
+                (a, b) -> HomeTimelineCache.NEWEST_FIRST.compare(a.entry, b.entry));
+        for (List<TimelineItemId> stream : streams) {
+            Iterator<TimelineItemId> rest = stream.iterator();
+            if (rest.hasNext()) {
+                queue.add(new StreamHead(rest.next(), rest));
+            }
+        }
+
+        List<TimelineItemId> merged = new ArrayList<>(count);
+        while (merged.size() < count && !queue.isEmpty()) {
+            StreamHead head = queue.poll();
+            merged.add(head.entry);
+            if (head.rest.hasNext()) {
+                head.entry = head.rest.next();
+                queue.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static final class StreamHead {
+        private TimelineItemId entry;
+        private final Iterator<TimelineItemId> rest;
+
+        private StreamHead(TimelineItemId entry, Iterator<TimelineItemId> rest) {
+            this.entry = entry;
+            this.rest = rest;
+        }
+    }
+
+    /**
+     * Copy the latest items of a newly followed user into the follower's timeline,
+     * in the current transaction. A follower going over the pull threshold loses their
+     * timeline and is read on demand from then on.
+     */
+    public void recordFollow(Long followerId, Long followedId) {
+        if (pullReaders.contains(followerId)) {
+            return;
+        }
+        if (userRepository.findFollowingCountById(followerId).orElse(0) > pullFollowingThreshold) {
+            timelineItemRepository.deleteByUserId(followerId);
+            afterCommit(() -> {
+                pullReaders.add(followerId);
+                homeTimelineCache.invalidate(followerId);
+            });
+            return;
+        }
+        timelineItemRepository.backfill(followerId, followedId, backfillItems);
+        homeTimelineCache.invalidateAfterCommit(followerId);
+    }
+
+    /**
+     * Remove the items of an unfollowed user from the follower's timeline, in the current
+     * transaction. A pull reader dropping back to the threshold gets their timeline rebuilt.
+     */
+    public void recordUnfollow(Long followerId, Long followedId) {
+        if (pullReaders.contains(followerId)) {
+            if (userRepository.findFollowingCountById(followerId).orElse(0) <= pullFollowingThreshold) {
+                // Clears anything fanned out while the user was leaving the timelines
+                timelineItemRepository.deleteByUserId(followerId);
+                timelineItemRepository.buildForFollowers(followerId - 1, followerId);
+                afterCommit(() -> {
+                    pullReaders.remove(followerId);
+                    homeTimelineCache.invalidate(followerId);
+                });
+            }
+            return;
+        }
+        timelineItemRepository.deleteByUserIdAndAuthorId(followerId, followedId);
+        homeTimelineCache.invalidateAfterCommit(followerId);
+    }
+
+    /**
+     * Add a new item to the timelines of its author's followers, in the background once
+     * the current transaction commits.
+     */
+    public void publishAfterCommit(Long authorId, String itemType, Long itemId, LocalDateTime createdAt) {
+        // Same precision in timeline_items as in the cached entries
+        LocalDateTime position = createdAt.truncatedTo(ChronoUnit.MICROS);
+        afterCommit(() -> fanoutExecutor.execute(() -> fanOut(authorId, itemType, itemId, position)));
+    }
+
+    /**
+     * Remove an item from every timeline, in the background once the current transaction
+     * commits. Until then the feed skips it anyway, because it hides deleted reviews and
+     * private lists when loading the items.
+     */
+    public void removeAfterCommit(String itemType, Long itemId) {
+        afterCommit(() -> fanoutExecutor.execute(() -> remove(itemType, itemId)));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void fanOut(Long authorId, String itemType, Long itemId, LocalDateTime createdAt) {
+        try {
+            long afterFollowerId = 0;
+            List<Long> followers;
+            do {
+                followers = jdbcTemplate.queryForList(FOLLOWERS_PAGE, Long.class, authorId, afterFollowerId, FANOUT_BATCH);
+                if (followers.isEmpty()) {
+                    break;
+                }
+                List<Object[]> rows = new ArrayList<>(followers.size());
+                for (Long followerId : followers) {
+                    if (pullReaders.contains(followerId)) {
+                        continue;
+                    }
+                    rows.add(new Object[] {followerId, createdAt, itemType, itemId, authorId, followerId, authorId});
+                }
+                int[] inserted = jdbcTemplate.batchUpdate(INSERT_ENTRY, rows);
+                for (int i = 0; i < inserted.length; i++) {
+                    if (inserted[i] > 0) {
+                        Long followerId = (Long) rows.get(i)[0];
+                        homeTimelineCache.add(followerId, new TimelineItemId(followerId, createdAt, itemType, itemId));
+                    }
+                }
+                afterFollowerId = followers.get(followers.size() - 1);
+            } while (followers.size() == FANOUT_BATCH);
+        } catch (RuntimeException e) {
+            logger.error("Failed to add {} {} of user {} to the timelines of their followers",
+                    itemType, itemId, authorId, e);
+        }
+    }
+
+    private void remove(String itemType, Long itemId) {
+        try {
+            for (Long userId : jdbcTemplate.queryForList(DELETE_ITEM, Long.class, itemType, itemId)) {
+                homeTimelineCache.invalidate(userId);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to remove {} {} from the timelines", itemType, itemId, e);
+        }
+    }
+
+    /**
+     * Find the pull readers, then build every timeline from the follows when the table is
+     * still empty (first start with timelines), one transaction per batch of followers.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildTimelinesIfMissing() {
+        pullReaders.addAll(followRepository.findFollowerIdsFollowingMoreThan(pullFollowingThreshold));
+        if (!pullReaders.isEmpty()) {
+            logger.info("{} users follow more than {} accounts, their feeds are read on demand",
+                    pullReaders.size(), pullFollowingThreshold);
+        }
+
+        Long maxFollowerId = followRepository.findMaxFollowerId();
+        if (maxFollowerId == null || timelineItemRepository.existsAny()) {
+            return;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long built = 0;
+        for (long afterId = 0; afterId < maxFollowerId; afterId += BUILD_BATCH) {
+            long from = afterId;
+            Integer inserted = transactionTemplate.execute(status ->
+                    timelineItemRepository.buildForFollowers(from, from + BUILD_BATCH));
+            built += inserted != null ? inserted : 0;
+        }
+        for (Long userId : pullReaders) {
+            Integer deleted = transactionTemplate.execute(status -> timelineItemRepository.deleteByUserId(userId));
+            built -= deleted != null ? deleted : 0;
+        }
+        logger.info("Built home timelines with {} entries", built);
+    }
+}
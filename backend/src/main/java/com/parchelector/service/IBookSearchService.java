@@ -0,0 +1,28 @@
+package com.parchelector.service;
+
+import java.util.List;
+
+/**
+ * Interface for book search backends.
+ * Allows switching between PostgreSQL full-text search (FullTextBookSearchService)
+ * and a portable LIKE-based fallback (LikeBookSearchService) used with H2.
+ * 
+ * @author Nicolas Arciniegas
+ */
+public interface IBookSearchService {
+
+    /**
+     * Find books whose title, description or author match the query.
+     * 
+     * @param query free-text search query
+     * @param after cursor of the last book of the previous page, or null for the first page
+     * @param limit maximum number of results
+     * @return one cursor per matching book, in result order; the last one resumes the search
+     */
+    List<BookCursor> searchBooks(String query, BookCursor after, int limit);
+
+    /**
+     * Sort mode stored in the cursors of this backend.
+     */
+    String getCursorSort();
+}
@@ -0,0 +1,40 @@
+package com.parchelector.service;
+
+import com.parchelector.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Portable book search using case-insensitive LIKE matching.
+ * Active only in 'test' profile, where the database is H2.
+ * 
+ * @author Nicolas Arciniegas
+ */
+@Service
+@Profile("test")
+public class LikeBookSearchService implements IBookSearchService {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private static final String CURSOR_SORT = "title";
+
+    public List<BookCursor> searchBooks(String query, BookCursor after, int limit) {
+        return bookRepository.searchByTitleOrAuthor(
+                        query,
+                        after != null ? after.getKey() : null,
+                        after != null ? after.getId() : null,
+                        PageRequest.of(0, limit)).stream()
+                .map(row -> BookCursor.of(CURSOR_SORT, row[1], (Long) row[0]))
+                .collect(Collectors.toList());
+    }
+
+    public String getCursorSort() {
+        return CURSOR_SORT;
+    }
+}
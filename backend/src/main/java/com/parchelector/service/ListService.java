@@ -5,14 +5,22 @@ import com.parchelector.dto.request.CreateListRequest;
 import com.parchelector.dto.request.UpdateListRequest;
 import com.parchelector.dto.response.ListResponse;
 import com.parchelector.dto.response.ListResponse.BookInList;
+import com.parchelector.dto.response.ListSummaryResponse;
 import com.parchelector.model.entity.*;
 import com.parchelector.repository.*;
+import com.parchelector.repository.LibraryListRepository.ListSummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -30,7 +38,7 @@ public class ListService {
     private ListBookRepository listBookRepository;
 
     @Autowired
-    private FollowRepository followRepository;
+    private FollowGraphService followGraphService;
 
     @Autowired
     private ListLikeRepository listLikeRepository;
@@ -41,6 +49,20 @@ public class ListService {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private HomeTimelineService homeTimelineService;
+
+    @Autowired
+    private FeedStreamService feedStreamService;
+
+    private static final String PRIVATE = "PRIVATE";
+
+    private static final int DEFAULT_BOOK_PAGE_SIZE = 50;
+
+    private static final int MAX_BOOK_PAGE_SIZE = 100;
+
+    private static final int COVERS_PER_LIST = 4;
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     /**
@@ -58,7 +80,11 @@ public class ListService {
         list.setVisibility(request.getVisibility());
 
         LibraryList savedList = libraryListRepository.save(list);
-        return mapToListResponse(savedList);
+        if (!PRIVATE.equals(savedList.getVisibility())) {
+            homeTimelineService.publishAfterCommit(userId, TimelineItem.LIST, savedList.getId(), savedList.getCreatedAt());
+            feedStreamService.publishAfterCommit(userId, TimelineItem.LIST, savedList.getId(), savedList.getCreatedAt());
+        }
+        return mapToListResponse(savedList, DEFAULT_BOOK_PAGE_SIZE, Integer.MIN_VALUE);
     }
 
     /**
@@ -79,12 +105,20 @@ public class ListService {
         if (request.getDescription() != null) {
             list.setDescription(request.getDescription());
         }
+        boolean wasPrivate = PRIVATE.equals(list.getVisibility());
         if (request.getVisibility() != null) {
             list.setVisibility(request.getVisibility());
         }
 
         LibraryList updatedList = libraryListRepository.save(list);
-        return mapToListResponse(updatedList);
+        // Lists show up in the followers' feeds only while they are not private
+        boolean isPrivate = PRIVATE.equals(updatedList.getVisibility());
+        if (wasPrivate && !isPrivate) {
+            homeTimelineService.publishAfterCommit(userId, TimelineItem.LIST, listId, updatedList.getCreatedAt());
+        } else if (!wasPrivate && isPrivate) {
+            homeTimelineService.removeAfterCommit(TimelineItem.LIST, listId);
+        }
+        return mapToListResponse(updatedList, DEFAULT_BOOK_PAGE_SIZE, Integer.MIN_VALUE);
     }
 
     /**
@@ -100,13 +134,19 @@ public class ListService {
         }
 
         libraryListRepository.delete(list);
+        homeTimelineService.removeAfterCommit(TimelineItem.LIST, listId);
     }
 
     /**
-     * Get list details by ID.
+     * Get list details by ID, with one page of its books in list order.
      */
     @Transactional(readOnly = true)
-    public ListResponse getListById(Long listId, Long currentUserId) {
+    public ListResponse getListById(Long listId, Long currentUserId, int limit, String cursor) {
+        if (limit < 1 || limit > MAX_BOOK_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_BOOK_PAGE_SIZE);
+        }
+        int afterPosition = decodeCursor(cursor);
+
         LibraryList list = libraryListRepository.findById(listId)
                 .orElseThrow(() -> new IllegalArgumentException("List not found"));
 
@@ -115,82 +155,107 @@ public class ListService {
             throw new IllegalArgumentException("You don't have permission to view this list");
         }
 
-        return mapToListResponse(list);
+        return mapToListResponse(list, limit, afterPosition);
     }
 
     /**
-     * Add a book to a reading list.
+     * Add a book to a reading list. Idempotent: adding a book that is already in the list
+     * keeps its position and note.
+     * @return true if the book was not in the list yet
      */
     @Transactional
-    public void addBookToList(Long userId, Long listId, AddBookToListRequest request) {
-        LibraryList list = libraryListRepository.findById(listId)
-                .orElseThrow(() -> new IllegalArgumentException("List not found"));
-
-        if (!list.getUser().getId().equals(userId)) {
-            throw new IllegalArgumentException("You don't have permission to modify this list");
+    public boolean addBookToList(Long userId, Long listId, AddBookToListRequest request) {
+        Long bookId = request.getBookId();
+        int position = request.getPosition() != null ? request.getPosition() : 1;
+        if (listBookRepository.insertIfAbsent(userId, listId, bookId, position, request.getNote()) > 0) {
+            return true;
         }
 
-        Book book = bookRepository.findById(request.getBookId())
-                .orElseThrow(() -> new IllegalArgumentException("Book not found"));
-
-        // Check if book is already in the list
-        ListBook.ListBookId id = new ListBook.ListBookId(listId, request.getBookId());
-        if (listBookRepository.existsById(id)) {
-            throw new IllegalArgumentException("Book is already in this list");
+        // Nothing inserted: find out whether the request was invalid or the book was already there
+        checkListOwner(userId, listId);
+        if (!bookRepository.existsById(bookId)) {
+            throw new IllegalArgumentException("Book not found");
         }
-
-        ListBook listBook = new ListBook();
-        listBook.setId(id);
-        listBook.setList(list);
-        listBook.setBook(book);
-        listBook.setPosition(request.getPosition() != null ? request.getPosition() : 1);
-        listBook.setNote(request.getNote());
-
-        listBookRepository.save(listBook);
+        return false;
     }
 
     /**
-     * Remove a book from a reading list.
+     * Remove a book from a reading list. Idempotent: removing a book that is not in the
+     * list changes nothing.
+     * @return true if the book was in the list until now
      */
     @Transactional
-    public void removeBookFromList(Long userId, Long listId, Long bookId) {
+    public boolean removeBookFromList(Long userId, Long listId, Long bookId) {
+        if (listBookRepository.deleteFromUserList(userId, listId, bookId) > 0) {
+            return true;
+        }
+        checkListOwner(userId, listId);
+        return false;
+    }
+
+    /**
+     * Fail unless the list exists and belongs to the user.
+     */
+    private void checkListOwner(Long userId, Long listId) {
         LibraryList list = libraryListRepository.findById(listId)
                 .orElseThrow(() -> new IllegalArgumentException("List not found"));
 
         if (!list.getUser().getId().equals(userId)) {
             throw new IllegalArgumentException("You don't have permission to modify this list");
         }
-
-        ListBook.ListBookId id = new ListBook.ListBookId(listId, bookId);
-        ListBook listBook = listBookRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Book not found in this list"));
-
-        listBookRepository.delete(listBook);
     }
 
     /**
-     * Get public lists for a user.
+     * Get the lists of a user visible to the current user, as summaries: counts and the first
+     * covers of every list, in two queries however many lists and books there are.
      */
-    public List<ListResponse> getUserPublicLists(Long userId, Long currentUserId) {
+    public List<ListSummaryResponse> getUserPublicLists(Long userId, Long currentUserId) {
         // Check if current user follows the target user
         boolean isFollower = false;
         if (currentUserId != null) {
-            isFollower = followRepository.existsByFollowerIdAndFollowedId(currentUserId, userId);
+            isFollower = followGraphService.isFollowing(currentUserId, userId);
+        }
+
+        List<ListSummary> lists = libraryListRepository.findPublicSummariesByUserId(userId, isFollower);
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+        List<Long> listIds = lists.stream().map(ListSummary::getId).collect(Collectors.toList());
+        Map<Long, List<String>> covers = new HashMap<>();
+        for (Object[] row : listBookRepository.findFirstCovers(listIds, COVERS_PER_LIST)) {
+            covers.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>()).add((String) row[1]);
         }
 
-        List<LibraryList> lists = libraryListRepository.findPublicListsByUserId(userId, isFollower);
-        
         return lists.stream()
-                .map(this::mapToListResponse)
+                .map(list -> new ListSummaryResponse(
+                        list.getId(),
+                        list.getName(),
+                        list.getDescription(),
+                        list.getVisibility(),
+                        list.getUserId(),
+                        list.getUsername(),
+                        list.getCreatedAt().format(DATE_FORMATTER),
+                        list.getUpdatedAt().format(DATE_FORMATTER),
+                        list.getBookCount().intValue(),
+                        list.getLikeCount().intValue(),
+                        covers.getOrDefault(list.getId(), List.of())
+                ))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Map LibraryList entity to ListResponse DTO.
+     * Map LibraryList entity to ListResponse DTO, with the page of its books after a position.
      */
-    private ListResponse mapToListResponse(LibraryList list) {
-        List<ListBook> listBooks = listBookRepository.findByListIdWithBooks(list.getId());
-        int bookCount = listBooks.size();
+    private ListResponse mapToListResponse(LibraryList list, int limit, int afterPosition) {
+        List<ListBook> listBooks = listBookRepository.findPage(list.getId(), afterPosition, PageRequest.of(0, limit + 1));
+        boolean hasMore = listBooks.size() > limit;
+        if (hasMore) {
+            listBooks = listBooks.subList(0, limit);
+        }
+        // A first page that holds the whole list is its count
+        int bookCount = afterPosition == Integer.MIN_VALUE && !hasMore
+                ? listBooks.size()
+                : libraryListRepository.countBooksByListId(list.getId());
         int likeCount = listLikeRepository.countByListId(list.getId());
 
         List<BookInList> books = listBooks.stream()
@@ -210,6 +275,7 @@ public class ListService {
                     );
                 })
                 .collect(Collectors.toList());
+        String nextCursor = hasMore ? encodeCursor(listBooks.get(listBooks.size() - 1).getPosition()) : null;
 
         return new ListResponse(
                 list.getId(),
@@ -222,7 +288,26 @@ public class ListService {
                 list.getUpdatedAt().format(DATE_FORMATTER),
                 bookCount,
                 likeCount,
-                books
+                books,
+                nextCursor,
+                hasMore
         );
     }
+
+    private static String encodeCursor(Integer position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String token) {
+        if (token == null || token.isBlank()) {
+            return Integer.MIN_VALUE;
+        }
+        try {
+            return Integer.parseInt(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            // Also covers malformed Base64
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
 }
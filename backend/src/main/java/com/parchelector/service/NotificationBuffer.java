@@ -0,0 +1,343 @@
+package com.parchelector.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parchelector.model.entity.Notification;
+import com.parchelector.repository.NotificationRepository;
+import com.parchelector.repository.ReviewRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind buffer for notifications. Events are only recorded in memory by the request
+ * that causes them, grouped by kind and subject (all likes of one review, all follows of
+ * one user), and written by a scheduled flush in one transaction of batched statements.
+ * A group joins the unread notification of the same subject if its user has one, so a
+ * viral review yields one "12 people liked your review" row instead of twelve; the merged
+ * row is written anew, which keeps notifications in ID order newest first. When the buffer
+ * is full new events are dropped: a request never waits for notifications.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Component
+public class NotificationBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationBuffer.class);
+
+    // Most recent people kept in a notification's payload
+    static final int MAX_ACTORS = 3;
+
+    // Skipped if the notification was read since it was loaded
+    private static final String DELETE_UNREAD = "DELETE FROM notifications WHERE id = ? AND is_read = false";
+
+    private static final String INSERT =
+            "INSERT INTO notifications (user_id, type, payload, is_read, created_at) VALUES (?, ?, CAST(? AS jsonb), false, ?)";
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private UnreadNotificationCounter unreadNotificationCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.notifications.max-buffered:50000}")
+    private int maxBuffered;
+
+    private final Map<GroupKey, Set<Long>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    private final Object flushLock = new Object();
+
+    /**
+     * Record that a user did something to a subject: liked or commented a review (subject:
+     * the review) or followed a user (subject: the followed user).
+     */
+    public void record(String type, Long subjectId, Long actorId) {
+        if (buffered.get() >= maxBuffered) {
+            logger.warn("Notification buffer full, {} of {} by user {} dropped", type, subjectId, actorId);
+            return;
+        }
+        pending.compute(new GroupKey(type, subjectId), (key, actors) -> {
+            Set<Long> updated = actors != null ? actors : new LinkedHashSet<>();
+            // Re-added at the end: actors stay in order of their latest event
+            if (!updated.remove(actorId)) {
+                buffered.incrementAndGet();
+            }
+            updated.add(actorId);
+            return updated;
+        });
+    }
+
+    /**
+     * Number of distinct buffered events not yet taken by a flush.
+     */
+    public int size() {
+        return buffered.get();
+    }
+
+    /**
+     * Write every buffered event. If the write fails the events go back into the buffer and
+     * are retried by the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.flush-interval-ms:2000}",
+               initialDelayString = "${app.notifications.flush-interval-ms:2000}")
+    public void flush() {
+        synchronized (flushLock) {
+            Map<GroupKey, Set<Long>> batch = new HashMap<>();
+            for (GroupKey key : pending.keySet()) {
+                // Removal is atomic with record's compute, so no event is lost in between
+                Set<Long> actors = pending.remove(key);
+                if (actors != null) {
+                    batch.put(key, actors);
+                    buffered.addAndGet(-actors.size());
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                batch.forEach((key, actors) -> actors.forEach(actorId -> record(key.type, key.subjectId, actorId)));
+                logger.error("Failed to write {} buffered notifications, will retry", batch.size(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (size() > 0) {
+            logger.warn("{} buffered notifications could not be written on shutdown", size());
+        }
+    }
+
+    private void write(Map<GroupKey, Set<Long>> batch) {
+        Map<Long, Long> reviewAuthors = findReviewAuthors(batch.keySet());
+
+        // Recipient of each group, without the recipient's own actions
+        List<Group> groups = new ArrayList<>();
+        batch.forEach((key, actors) -> {
+            Long userId = Notification.NEW_FOLLOWER.equals(key.type) ? key.subjectId : reviewAuthors.get(key.subjectId);
+            if (userId == null) {
+                // Review deleted since
+                return;
+            }
+            List<Long> others = new ArrayList<>(actors);
+            others.remove(userId);
+            if (!others.isEmpty()) {
+                groups.add(new Group(userId, key, others));
+            }
+        });
+        if (groups.isEmpty()) {
+            return;
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Map<GroupKey, Map<Long, Notification>> unread = findUnread(groups);
+            List<Object[]> deletes = new ArrayList<>();
+            List<Notification> merged = new ArrayList<>();
+            for (Group group : groups) {
+                Notification previous = unread.getOrDefault(group.key, Map.of()).get(group.userId);
+                if (previous != null) {
+                    deletes.add(new Object[] {previous.getId()});
+                }
+                merged.add(previous);
+            }
+
+            int[] deleted = jdbcTemplate.batchUpdate(DELETE_UNREAD, deletes);
+            Map<Long, Integer> deltas = new HashMap<>();
+            List<Object[]> inserts = new ArrayList<>();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int next = 0;
+            for (int i = 0; i < groups.size(); i++) {
+                Group group = groups.get(i);
+                // Only merge into a notification still unread when deleted
+                Payload previous = null;
+                if (merged.get(i) != null && deleted[next++] > 0) {
+                    previous = readPayload(merged.get(i));
+                } else {
+                    deltas.merge(group.userId, 1, Integer::sum);
+                }
+                Payload payload = merge(previous, group);
+                inserts.add(new Object[] {group.userId, group.key.type, writePayload(payload), now});
+            }
+            jdbcTemplate.batchUpdate(INSERT, inserts);
+            deltas.forEach(unreadNotificationCounter::adjustAfterCommit);
+        });
+    }
+
+    private Map<Long, Long> findReviewAuthors(Set<GroupKey> keys) {
+        Set<Long> reviewIds = new HashSet<>();
+        for (GroupKey key : keys) {
+            if (!Notification.NEW_FOLLOWER.equals(key.type)) {
+                reviewIds.add(key.subjectId);
+            }
+        }
+        Map<Long, Long> authors = new HashMap<>();
+        if (!reviewIds.isEmpty()) {
+            for (Object[] row : reviewRepository.findAuthorIds(reviewIds)) {
+                authors.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        return authors;
+    }
+
+    /**
+     * The unread notifications the groups merge into: group key -> user ID -> notification.
+     */
+    private Map<GroupKey, Map<Long, Notification>> findUnread(List<Group> groups) {
+        Set<Long> userIds = new HashSet<>();
+        Set<String> types = new HashSet<>();
+        for (Group group : groups) {
+            userIds.add(group.userId);
+            types.add(group.key.type);
+        }
+        Map<GroupKey, Map<Long, Notification>> unread = new HashMap<>();
+        for (Notification notification : notificationRepository.findUnread(userIds, types)) {
+            GroupKey key = new GroupKey(notification.getType(), subjectOf(notification));
+            Map<Long, Notification> byUser = unread.computeIfAbsent(key, k -> new HashMap<>());
+            // Several unread rows of one subject only exist if written elsewhere: keep the newest
+            byUser.merge(notification.getUserId(), notification, (a, b) -> a.getId() > b.getId() ? a : b);
+        }
+        return unread;
+    }
+
+    private Long subjectOf(Notification notification) {
+        // The subject of a follow is its recipient
+        return Notification.NEW_FOLLOWER.equals(notification.getType())
+                ? notification.getUserId()
+                : readPayload(notification).getSubjectId();
+    }
+
+    /**
+     * Add a group's people to a notification's payload: newest first, people already in the
+     * payload counted once.
+     */
+    static Payload merge(Payload previous, Group group) {
+        List<Long> actorIds = new ArrayList<>(MAX_ACTORS);
+        for (int i = group.actorIds.size() - 1; i >= 0 && actorIds.size() < MAX_ACTORS; i--) {
+            actorIds.add(group.actorIds.get(i));
+        }
+        int count = group.actorIds.size();
+        if (previous != null) {
+            for (Long actorId : previous.getActorIds()) {
+                if (group.actorIds.contains(actorId)) {
+                    count--;
+                } else if (actorIds.size() < MAX_ACTORS) {
+                    actorIds.add(actorId);
+                }
+            }
+            count += previous.getCount();
+        }
+        Long subjectId = Notification.NEW_FOLLOWER.equals(group.key.type) ? null : group.key.subjectId;
+        return new Payload(subjectId, count, actorIds);
+    }
+
+    private Payload readPayload(Notification notification) {
+        try {
+            return objectMapper.readValue(notification.getPayload(), Payload.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid payload of notification " + notification.getId(), e);
+        }
+    }
+
+    private String writePayload(Payload payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * JSON payload of a notification: what it is about (none for follows), how many people
+     * took part and who did most recently.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Payload {
+        private Long subjectId;
+        private int count;
+        private List<Long> actorIds;
+    }
+
+    static final class GroupKey {
+
+        final String type;
+        final Long subjectId;
+
+        GroupKey(String type, Long subjectId) {
+            this.type = type;
+            this.subjectId = subjectId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof GroupKey other && type.equals(other.type) && Objects.equals(subjectId, other.subjectId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + Objects.hashCode(subjectId);
+        }
+    }
+
+    /**
+     * Buffered events of one subject and their recipient, people in order of their latest event.
+     */
+    static final class Group {
+
+        final Long userId;
+        final GroupKey key;
+        final List<Long> actorIds;
+
+        Group(Long userId, String type, Long subjectId, List<Long> actorIds) {
+            this(userId, new GroupKey(type, subjectId), actorIds);
+        }
+
+        Group(Long userId, GroupKey key, List<Long> actorIds) {
+            this.userId = userId;
+            this.key = key;
+            this.actorIds = actorIds;
+        }
+    }
+}
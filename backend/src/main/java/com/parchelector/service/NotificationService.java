@@ -0,0 +1,193 @@
+package com.parchelector.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parchelector.dto.response.NotificationListResponse;
+import com.parchelector.dto.response.NotificationListResponse.Actor;
+import com.parchelector.dto.response.NotificationListResponse.NotificationItem;
+import com.parchelector.model.entity.Notification;
+import com.parchelector.model.entity.User;
+import com.parchelector.repository.NotificationRepository;
+import com.parchelector.repository.UserRepository;
+import com.parchelector.service.NotificationBuffer.Payload;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service for notifications of likes, comments and follows. Events are handed to the
+ * NotificationBuffer, which coalesces and writes them in the background, so the request
+ * that likes, comments or follows never waits for them. Unread counts come from the
+ * in-memory UnreadNotificationCounter.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Service
+public class NotificationService {
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationBuffer notificationBuffer;
+
+    @Autowired
+    private UnreadNotificationCounter unreadNotificationCounter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Notify the author of a review that a user liked it.
+     */
+    public void reviewLiked(Long userId, Long reviewId) {
+        afterCommit(() -> notificationBuffer.record(Notification.REVIEW_LIKED, reviewId, userId));
+    }
+
+    /**
+     * Notify the author of a review that a user commented on it.
+     */
+    public void reviewCommented(Long userId, Long reviewId) {
+        afterCommit(() -> notificationBuffer.record(Notification.REVIEW_COMMENTED, reviewId, userId));
+    }
+
+    /**
+     * Notify a user that someone followed them.
+     */
+    public void userFollowed(Long followerId, Long followedId) {
+        afterCommit(() -> notificationBuffer.record(Notification.NEW_FOLLOWER, followedId, followerId));
+    }
+
+    /**
+     * Get one page of a user's notifications, newest first, with the people of all of them
+     * loaded in one query.
+     */
+    public NotificationListResponse getNotifications(Long userId, int limit, String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long beforeId = decodeCursor(cursor);
+
+        List<Notification> rows = notificationRepository.findPage(userId, beforeId, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<Payload> payloads = new ArrayList<>(rows.size());
+        Set<Long> actorIds = new HashSet<>();
+        for (Notification row : rows) {
+            Payload payload = readPayload(row);
+            payloads.add(payload);
+            actorIds.addAll(payload.getActorIds());
+        }
+        Map<Long, User> actors = new HashMap<>();
+        for (User user : userRepository.findAllById(actorIds)) {
+            actors.put(user.getId(), user);
+        }
+
+        List<NotificationItem> items = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Notification row = rows.get(i);
+            Payload payload = payloads.get(i);
+            List<Actor> rowActors = new ArrayList<>(payload.getActorIds().size());
+            for (Long actorId : payload.getActorIds()) {
+                User actor = actors.get(actorId);
+                // Users deleted since are left out; the count still includes them
+                if (actor != null) {
+                    rowActors.add(new Actor(actor.getId(), actor.getUsername(), actor.getAvatarUrl()));
+                }
+            }
+            items.add(new NotificationItem(row.getId(), row.getType(), payload.getSubjectId(), payload.getCount(),
+                    rowActors, row.getIsRead(), row.getCreatedAt()));
+        }
+        String nextCursor = hasMore ? encodeCursor(rows.get(rows.size() - 1).getId()) : null;
+        return new NotificationListResponse(items, limit, nextCursor, hasMore);
+    }
+
+    public long getUnreadCount(Long userId) {
+        return unreadNotificationCounter.get(userId);
+    }
+
+    /**
+     * Mark one of a user's notifications as read. Idempotent.
+     * @return true if the notification was unread until now
+     */
+    @Transactional
+    public boolean markRead(Long userId, Long notificationId) {
+        if (notificationRepository.markRead(notificationId, userId) > 0) {
+            unreadNotificationCounter.adjustAfterCommit(userId, -1);
+            return true;
+        }
+        if (!notificationRepository.existsByIdAndUserId(notificationId, userId)) {
+            throw new IllegalArgumentException("Notification not found");
+        }
+        return false;
+    }
+
+    /**
+     * Mark all of a user's notifications as read.
+     * @return number of notifications that were unread
+     */
+    @Transactional
+    public int markAllRead(Long userId) {
+        int marked = notificationRepository.markAllRead(userId);
+        unreadNotificationCounter.adjustAfterCommit(userId, -marked);
+        return marked;
+    }
+
+    private Payload readPayload(Notification notification) {
+        try {
+            return objectMapper.readValue(notification.getPayload(), Payload.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid payload of notification " + notification.getId(), e);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String encodeCursor(Long notificationId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(notificationId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String token) {
+        if (token == null || token.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            // Also covers malformed Base64
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.parchelector.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor for the reviews of a book.
+ * Holds the sort mode plus the sort key and ID of the last review of a page,
+ * so the next page can seek past it instead of using OFFSET.
+ * 
+ * @author Nicolas Arciniegas
+ */
+public final class ReviewCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sort;
+    private final long id;
+    private final String key;
+
+    private ReviewCursor(String sort, long id, String key) {
+        this.sort = sort;
+        this.id = id;
+        this.key = key;
+    }
+
+    /**
+     * Cursor positioned after the given review.
+     * 
+     * @param sort sort mode the cursor belongs to
+     * @param key sort key of the review (creation time, rating or like count)
+     * @param id review ID, the tie-breaker
+     */
+    public static ReviewCursor of(String sort, Object key, long id) {
+        return new ReviewCursor(sort, id, key.toString());
+    }
+
+    /**
+     * Decode a cursor token, or return null when there is none.
+     */
+    public static ReviewCursor decode(String token, String expectedSort) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split("\\|", 3);
+            if (parts.length < 3 || !parts[0].equals(expectedSort)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            ReviewCursor cursor = new ReviewCursor(parts[0], Long.parseLong(parts[1]), parts[2]);
+            // Reject keys that do not parse for the sort before they reach a query
+            if (cursor.sort.equals("newest")) {
+                cursor.getKeyAsDateTime();
+            } else if (cursor.sort.equals("highest")) {
+                cursor.getKeyAsDecimal();
+            } else {
+                cursor.getKeyAsInteger();
+            }
+            return cursor;
+        } catch (RuntimeException e) {
+            // Also covers malformed Base64, numbers and dates
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String value = sort + SEPARATOR + id + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public LocalDateTime getKeyAsDateTime() {
+        return LocalDateTime.parse(key);
+    }
+
+    public BigDecimal getKeyAsDecimal() {
+        return new BigDecimal(key);
+    }
+
+    public Integer getKeyAsInteger() {
+        return Integer.valueOf(key);
+    }
+}
@@ -1,30 +1,47 @@
 package com.parchelector.service;
 
+import com.parchelector.config.SchedulingConfig;
 import com.parchelector.dto.request.CreateCommentRequest;
 import com.parchelector.dto.response.CommentResponse;
 import com.parchelector.model.entity.Review;
 import com.parchelector.model.entity.ReviewComment;
-import com.parchelector.model.entity.ReviewLike;
 import com.parchelector.model.entity.User;
 import com.parchelector.repository.ReviewCommentRepository;
 import com.parchelector.repository.ReviewLikeRepository;
 import com.parchelector.repository.ReviewRepository;
 import com.parchelector.repository.UserRepository;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * Service for review interactions (likes, comments).
+ * Also maintains the denormalized comment counter of each review, changed in the same
+ * transaction as the comment so both commit or roll back together. Likes and their
+ * counter are written in batches by ReviewLikeBuffer. Likes and comments notify the
+ * review's author through NotificationService.
  * 
  * @author Nicolas Arciniegas
  */
 @Service
 public class ReviewInteractionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReviewInteractionService.class);
+
+    public static final int MAX_LIKE_STATUS_IDS = 200;
+
     @Autowired
     private ReviewLikeRepository reviewLikeRepository;
 
@@ -37,51 +54,50 @@ public class ReviewInteractionService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ReviewLikeBuffer reviewLikeBuffer;
+
+    @Autowired
+    private NotificationService notificationService;
+
     /**
-     * Like a review.
+     * Like a review. The like is buffered and written by the next flush of the like buffer.
+     * Idempotent: liking a review again changes nothing.
+     * @return true if the review was not liked yet
      */
-    @Transactional
-    public void likeReview(Long userId, Long reviewId) {
-        // Validate review exists and is not deleted
-        Review review = reviewRepository.findById(reviewId)
-                .orElseThrow(() -> new IllegalArgumentException("Review not found"));
-        
-        if (review.getIsDeleted()) {
-            throw new IllegalArgumentException("Cannot like a deleted review");
+    public boolean likeReview(Long userId, Long reviewId) {
+        Boolean liked = reviewLikeBuffer.getPendingState(reviewId, userId);
+        if (liked == null) {
+            // Validate review exists and is not deleted, and whether it is liked, in one query
+            List<Object[]> state = reviewRepository.findLikeState(reviewId, userId);
+            if (state.isEmpty()) {
+                throw new IllegalArgumentException("Review not found");
+            }
+            if ((Boolean) state.get(0)[0]) {
+                throw new IllegalArgumentException("Cannot like a deleted review");
+            }
+            liked = (Boolean) state.get(0)[1];
         }
 
-        // Check if already liked
-        if (reviewLikeRepository.existsByReviewIdAndUserId(reviewId, userId)) {
-            throw new IllegalArgumentException("You have already liked this review");
+        if (liked) {
+            return false;
         }
-
-        // Create like
-        ReviewLike reviewLike = new ReviewLike();
-        ReviewLike.ReviewLikeId id = new ReviewLike.ReviewLikeId();
-        id.setReviewId(reviewId);
-        id.setUserId(userId);
-        reviewLike.setId(id);
-
-        // Set relationships (needed for @MapsId)
-        reviewLike.setReview(review);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        reviewLike.setUser(user);
-
-        reviewLikeRepository.save(reviewLike);
+        reviewLikeBuffer.like(reviewId, userId);
+        notificationService.reviewLiked(userId, reviewId);
+        return true;
     }
 
     /**
-     * Unlike a review.
+     * Unlike a review. The removal is buffered like likes are.
+     * Idempotent: unliking a review that is not liked changes nothing.
+     * @return true if the review was liked until now
      */
-    @Transactional
-    public void unlikeReview(Long userId, Long reviewId) {
-        // Check if like exists
-        if (!reviewLikeRepository.existsByReviewIdAndUserId(reviewId, userId)) {
-            throw new IllegalArgumentException("You have not liked this review");
+    public boolean unlikeReview(Long userId, Long reviewId) {
+        if (!hasLikedReview(userId, reviewId)) {
+            return false;
         }
-
-        reviewLikeRepository.deleteByReviewIdAndUserId(reviewId, userId);
+        reviewLikeBuffer.unlike(reviewId, userId);
+        return true;
     }
 
     /**
@@ -108,6 +124,8 @@ public class ReviewInteractionService {
         comment.setIsDeleted(false);
 
         comment = reviewCommentRepository.save(comment);
+        reviewRepository.adjustCommentCount(reviewId, 1);
+        notificationService.reviewCommented(userId, reviewId);
 
         return mapToCommentResponse(comment);
     }
@@ -147,13 +165,75 @@ public class ReviewInteractionService {
 
         comment.setIsDeleted(true);
         reviewCommentRepository.save(comment);
+        reviewRepository.adjustCommentCount(comment.getReview().getId(), -1);
     }
 
     /**
      * Check if user has liked a review.
      */
     public boolean hasLikedReview(Long userId, Long reviewId) {
-        return reviewLikeRepository.existsByReviewIdAndUserId(reviewId, userId);
+        // Buffered toggles win over the table, so users read back their own likes
+        Boolean liked = reviewLikeBuffer.getPendingState(reviewId, userId);
+        return liked != null ? liked : reviewLikeRepository.existsByReviewIdAndUserId(reviewId, userId);
+    }
+
+    /**
+     * Check which of the given reviews the user has liked, with one query for all of them.
+     * Ids of reviews that do not exist map to false.
+     * @return review id -> liked, in the order of the given ids
+     */
+    public Map<Long, Boolean> getLikeStatuses(Long userId, Collection<Long> reviewIds) {
+        Map<Long, Boolean> statuses = new LinkedHashMap<>();
+        List<Long> unbuffered = new ArrayList<>();
+        for (Long reviewId : reviewIds) {
+            if (statuses.containsKey(reviewId)) {
+                continue;
+            }
+            Boolean liked = reviewLikeBuffer.getPendingState(reviewId, userId);
+            statuses.put(reviewId, liked != null && liked);
+            if (liked == null) {
+                unbuffered.add(reviewId);
+            }
+        }
+        if (statuses.size() > MAX_LIKE_STATUS_IDS) {
+            throw new IllegalArgumentException("Cannot check more than " + MAX_LIKE_STATUS_IDS + " reviews at once");
+        }
+
+        if (!unbuffered.isEmpty()) {
+            for (Long reviewId : reviewLikeRepository.findLikedReviewIds(userId, unbuffered)) {
+                statuses.put(reviewId, true);
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Repair the counters on startup when their totals no longer match the source tables,
+     * e.g. on first start after the columns were introduced or after manual data changes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcileCountersIfDrifted() {
+        if (reviewRepository.sumLikeCounts() != reviewLikeRepository.count()
+                || reviewRepository.sumCommentCounts() != reviewCommentRepository.countNotDeleted()) {
+            int reviews = reviewRepository.rebuildInteractionCounts();
+            logger.info("Reconciled like and comment counters for {} reviews", reviews);
+        }
+    }
+
+    /**
+     * Recompute every review's counters from review_likes and review_comments.
+     * Also catches drifts that cancel out in the totals checked at startup.
+     */
+    @Scheduled(fixedDelayString = "${app.review-counters.repair-interval-ms:86400000}",
+               initialDelayString = "${app.review-counters.repair-interval-ms:86400000}",
+               scheduler = SchedulingConfig.JOB_SCHEDULER)
+    @Transactional
+    public void repairCounters() {
+        int reviews = reviewRepository.rebuildInteractionCounts();
+        if (reviews > 0) {
+            logger.warn("Repaired like and comment counters for {} reviews", reviews);
+        }
     }
 
     /**
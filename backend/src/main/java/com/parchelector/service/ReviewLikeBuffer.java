@@ -0,0 +1,254 @@
+package com.parchelector.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind buffer for review likes. Like and unlike toggles are kept in memory, the
+ * last toggle of a user on a review replacing any earlier one, and written to review_likes
+ * in periodic batches together with the reviews' like counters, one transaction per flush.
+ * A popular review therefore costs one counter update per flush instead of one short
+ * transaction per like. Buffered toggles stay visible to getPendingState until their flush
+ * commits, so a user always reads back their own likes. A full buffer starts a flush on a
+ * thread of its own: a request never waits for the write.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Component
+public class ReviewLikeBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewLikeBuffer.class);
+
+    private static final int STRIPES = 16;
+
+    // Likes of reviews deleted, or by users removed, since the toggle are dropped
+    private static final String INSERT_LIKE =
+            "INSERT INTO review_likes (review_id, user_id, created_at) SELECT ?, ?, CURRENT_TIMESTAMP " +
+            "WHERE EXISTS (SELECT 1 FROM reviews WHERE id = ? AND is_deleted = false) " +
+            "AND EXISTS (SELECT 1 FROM users WHERE id = ?) " +
+            "ON CONFLICT DO NOTHING";
+
+    private static final String DELETE_LIKE = "DELETE FROM review_likes WHERE review_id = ? AND user_id = ?";
+
+    private static final String ADJUST_LIKE_COUNT = "UPDATE reviews SET like_count = like_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.likes.max-buffered:10000}")
+    private int maxBuffered;
+
+    // Striped by user, so the likes pouring into one popular review spread over all stripes
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    private final Object flushLock = new Object();
+
+    // Runs the flushes started by a full buffer, away from the request threads
+    private ExecutorService flushExecutor;
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    // Toggles taken by the running flush, still visible to readers until it commits
+    private volatile Map<Long, Boolean> flushing = Map.of();
+
+    public ReviewLikeBuffer() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        flushExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("like-flush-"));
+    }
+
+    public void like(Long reviewId, Long userId) {
+        record(reviewId, userId, true);
+    }
+
+    public void unlike(Long reviewId, Long userId) {
+        record(reviewId, userId, false);
+    }
+
+    /**
+     * The user's buffered like state for a review, or null if no toggle is waiting to be written.
+     */
+    public Boolean getPendingState(Long reviewId, Long userId) {
+        long key = key(reviewId, userId);
+        Boolean liked = stripeOf(key).get(key);
+        return liked != null ? liked : flushing.get(key);
+    }
+
+    /**
+     * Number of buffered toggles not yet taken by a flush.
+     */
+    public int size() {
+        return buffered.get();
+    }
+
+    private void record(Long reviewId, Long userId, boolean liked) {
+        long key = key(reviewId, userId);
+        if (stripeOf(key).put(key, liked) && buffered.incrementAndGet() >= maxBuffered
+                && flushRequested.compareAndSet(false, true)) {
+            // Full: one flush at a time is requested; toggles recorded until it runs still go in
+            try {
+                flushExecutor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: flushOnShutdown writes what is left
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Write every buffered toggle. If the write fails the toggles go back into the buffer,
+     * behind any newer toggle recorded meanwhile, and are retried by the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.likes.flush-interval-ms:1000}",
+               initialDelayString = "${app.likes.flush-interval-ms:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            // Toggles recorded from here on are not in this batch, so they may request another flush
+            flushRequested.set(false);
+            // Published before draining, so a toggle is always either in a stripe or here
+            Map<Long, Boolean> batch = new ConcurrentHashMap<>();
+            flushing = batch;
+            for (Stripe stripe : stripes) {
+                buffered.addAndGet(-stripe.drainTo(batch));
+            }
+            if (batch.isEmpty()) {
+                flushing = Map.of();
+                return;
+            }
+
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                for (Map.Entry<Long, Boolean> toggle : batch.entrySet()) {
+                    if (stripeOf(toggle.getKey()).putIfAbsent(toggle.getKey(), toggle.getValue())) {
+                        buffered.incrementAndGet();
+                    }
+                }
+                logger.error("Failed to write {} buffered review likes, will retry", batch.size(), e);
+            } finally {
+                flushing = Map.of();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+        if (size() > 0) {
+            logger.warn("{} buffered review likes could not be written on shutdown", size());
+        }
+    }
+
+    private void write(Map<Long, Boolean> batch) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        // Key order is review order, so counter rows are locked in a consistent order
+        for (Map.Entry<Long, Boolean> toggle : new TreeMap<>(batch).entrySet()) {
+            long reviewId = toggle.getKey() >>> 32;
+            long userId = toggle.getKey() & 0xFFFFFFFFL;
+            if (toggle.getValue()) {
+                inserts.add(new Object[] {reviewId, userId, reviewId, userId});
+            } else {
+                deletes.add(new Object[] {reviewId, userId});
+            }
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Count only the rows that changed: liking twice or unliking a missing like is a no-op
+            Map<Long, Integer> deltas = new TreeMap<>();
+            int[] inserted = jdbcTemplate.batchUpdate(INSERT_LIKE, inserts);
+            for (int i = 0; i < inserted.length; i++) {
+                if (inserted[i] > 0) {
+                    deltas.merge((Long) inserts.get(i)[0], 1, Integer::sum);
+                }
+            }
+            int[] deleted = jdbcTemplate.batchUpdate(DELETE_LIKE, deletes);
+            for (int i = 0; i < deleted.length; i++) {
+                if (deleted[i] > 0) {
+                    deltas.merge((Long) deletes.get(i)[0], -1, Integer::sum);
+                }
+            }
+
+            List<Object[]> adjustments = new ArrayList<>();
+            deltas.forEach((reviewId, delta) -> {
+                if (delta != 0) {
+                    adjustments.add(new Object[] {delta, reviewId});
+                }
+            });
+            jdbcTemplate.batchUpdate(ADJUST_LIKE_COUNT, adjustments);
+        });
+    }
+
+    /**
+     * Review and user ids are SERIAL (32-bit) columns, so both fit in one long.
+     */
+    private static long key(Long reviewId, Long userId) {
+        return (reviewId << 32) | userId;
+    }
+
+    private Stripe stripeOf(long key) {
+        return stripes[(int) (key & 0xFFFFFFFFL) % STRIPES];
+    }
+
+    private static final class Stripe {
+
+        private final Map<Long, Boolean> toggles = new HashMap<>();
+
+        /**
+         * @return true if no toggle was buffered for the key yet
+         */
+        synchronized boolean put(long key, boolean liked) {
+            return toggles.put(key, liked) == null;
+        }
+
+        synchronized boolean putIfAbsent(long key, boolean liked) {
+            return toggles.putIfAbsent(key, liked) == null;
+        }
+
+        synchronized Boolean get(long key) {
+            return toggles.get(key);
+        }
+
+        synchronized int drainTo(Map<Long, Boolean> batch) {
+            int drained = toggles.size();
+            batch.putAll(toggles);
+            toggles.clear();
+            return drained;
+        }
+    }
+}
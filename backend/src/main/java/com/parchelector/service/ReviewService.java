@@ -5,17 +5,33 @@ import com.parchelector.dto.request.UpdateReviewRequest;
 import com.parchelector.dto.response.BookReviewsResponse;
 import com.parchelector.dto.response.ReviewResponse;
 import com.parchelector.model.entity.Book;
+import com.parchelector.model.entity.BookRatingStats;
 import com.parchelector.model.entity.Review;
+import com.parchelector.model.entity.TimelineItem;
 import com.parchelector.model.entity.User;
 import com.parchelector.repository.BookRepository;
 import com.parchelector.repository.ReviewRepository;
+import com.parchelector.repository.ReviewRepository.ReviewSummary;
 import com.parchelector.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,6 +43,8 @@ import java.util.stream.Collectors;
 @Service
 public class ReviewService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReviewService.class);
+
     @Autowired
     private ReviewRepository reviewRepository;
 
@@ -36,6 +54,33 @@ public class ReviewService {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private BookRatingStatsService bookRatingStatsService;
+
+    @Autowired
+    private BookPopularityService bookPopularityService;
+
+    @Autowired
+    private BookReviewPageCache bookReviewPageCache;
+
+    @Autowired
+    private ReviewInteractionService reviewInteractionService;
+
+    @Autowired
+    private HomeTimelineService homeTimelineService;
+
+    @Autowired
+    private FeedStreamService feedStreamService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private static final int EXCERPT_BACKFILL_BATCH = 500;
+
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     /**
@@ -64,6 +109,11 @@ public class ReviewService {
         review.setIsDeleted(false);
 
         Review savedReview = reviewRepository.save(review);
+        bookRatingStatsService.recordReview(book.getId(), savedReview.getRating(), savedReview.getCreatedAt());
+        bookPopularityService.recordReview(book.getId());
+        bookReviewPageCache.invalidateAfterCommit(book.getId());
+        homeTimelineService.publishAfterCommit(userId, TimelineItem.REVIEW, savedReview.getId(), savedReview.getCreatedAt());
+        feedStreamService.publishAfterCommit(userId, TimelineItem.REVIEW, savedReview.getId(), savedReview.getCreatedAt());
         return mapToReviewResponse(savedReview);
     }
 
@@ -84,6 +134,7 @@ public class ReviewService {
         }
 
         if (request.getRating() != null) {
+            bookRatingStatsService.replaceRating(review.getBook().getId(), review.getRating(), request.getRating());
             review.setRating(request.getRating());
         }
         if (request.getTitle() != null) {
@@ -94,6 +145,7 @@ public class ReviewService {
         }
 
         Review updatedReview = reviewRepository.save(review);
+        bookReviewPageCache.invalidateAfterCommit(review.getBook().getId());
         return mapToReviewResponse(updatedReview);
     }
 
@@ -109,33 +161,181 @@ public class ReviewService {
             throw new IllegalArgumentException("You don't have permission to delete this review");
         }
 
+        if (review.getIsDeleted()) {
+            throw new IllegalArgumentException("Review is already deleted");
+        }
+
         review.setIsDeleted(true);
         reviewRepository.save(review);
+        bookRatingStatsService.removeReview(review.getBook().getId(), review.getRating());
+        bookPopularityService.removeReview(review.getBook().getId());
+        bookReviewPageCache.invalidateAfterCommit(review.getBook().getId());
+        homeTimelineService.removeAfterCommit(TimelineItem.REVIEW, reviewId);
     }
 
     /**
-     * Get all reviews for a book with aggregated rating data.
+     * Get one page of a book's reviews with aggregated rating data. Reviews carry their
+     * excerpt instead of the body, which is read from the review itself.
+     * First pages are cut from a short-lived cache of the largest page.
+     * @param sort Options: "newest", "highest", "most_liked"
+     * @param stars Only reviews in this star bucket (1-5), or null for all
+     * @param userId User whose likes are flagged on the reviews, or null for none
      */
     @Transactional(readOnly = true)
-    public BookReviewsResponse getBookReviews(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new IllegalArgumentException("Book not found"));
+    public BookReviewsResponse getBookReviews(Long bookId, String sort, Integer stars, String cursor, int limit,
+                                              Long userId) {
+        if (!sort.equals("newest") && !sort.equals("highest") && !sort.equals("most_liked")) {
+            throw new IllegalArgumentException("Invalid sort parameter. Must be 'newest', 'highest', or 'most_liked'");
+        }
+        if (stars != null && (stars < 1 || stars > 5)) {
+            throw new IllegalArgumentException("Stars must be between 1 and 5");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
 
-        List<Review> reviews = reviewRepository.findByBookIdOrderByCreatedAtDesc(bookId);
-        Double averageRating = reviewRepository.getAverageRatingByBookId(bookId);
-        int totalReviews = reviewRepository.countByBookId(bookId);
+        ReviewCursor after = ReviewCursor.decode(cursor, sort);
+        BookReviewPageCache.Slot slot = null;
+        if (after == null) {
+            slot = bookReviewPageCache.slot(bookId, sort + ":" + stars);
+            BookReviewPageCache.FirstPage cached = slot.get();
+            if (cached != null) {
+                return withLikedByMe(cached.slice(limit), userId);
+            }
+        }
 
-        List<ReviewResponse> reviewResponses = reviews.stream()
-                .map(this::mapToReviewResponse)
-                .collect(Collectors.toList());
+        // Header: the book and its rating aggregate in one query
+        List<Object[]> header = bookRepository.findWithRatingStats(bookId);
+        if (header.isEmpty()) {
+            throw new IllegalArgumentException("Book not found");
+        }
+        Book book = (Book) header.get(0)[0];
+        BookRatingStats stats = header.get(0)[1] != null
+                ? (BookRatingStats) header.get(0)[1]
+                : new BookRatingStats(bookId);
+
+        // Star buckets use the boundaries of BookRatingStats: N stars is [N - 0.5, N + 0.5)
+        BigDecimal minRating = stars != null && stars > 1 ? BigDecimal.valueOf(stars - 0.5) : null;
+        BigDecimal maxRating = stars != null && stars < 5 ? BigDecimal.valueOf(stars + 0.5) : null;
 
-        return new BookReviewsResponse(
+        // Fetch one extra row to know whether another page exists.
+        // The first page seeks past a sentinel that sorts before every review.
+        // The first page is loaded at the largest size, so that every page size can be cut from it.
+        long cursorId = after != null ? after.getId() : Long.MAX_VALUE;
+        int pageSize = after != null ? limit : MAX_PAGE_SIZE;
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ReviewSummary> reviews;
+        switch (sort) {
+            case "highest":
+                reviews = reviewRepository.findBookReviewsByHighest(bookId, minRating, maxRating,
+                        after != null ? after.getKeyAsDecimal() : BigDecimal.TEN, cursorId, pageable);
+                break;
+            case "most_liked":
+                reviews = reviewRepository.findBookReviewsByMostLiked(bookId, minRating, maxRating,
+                        after != null ? after.getKeyAsInteger() : Integer.MAX_VALUE, cursorId, pageable);
+                break;
+            default: // newest
+                reviews = reviewRepository.findBookReviewsByNewest(bookId, minRating, maxRating,
+                        after != null ? after.getKeyAsDateTime() : FIRST_PAGE_CREATED_AT, cursorId, pageable);
+        }
+
+        boolean hasMore = reviews.size() > pageSize;
+        if (hasMore) {
+            reviews = reviews.subList(0, pageSize);
+        }
+
+        List<ReviewResponse> reviewResponses = new ArrayList<>(reviews.size());
+        List<String> cursors = new ArrayList<>(reviews.size());
+        for (ReviewSummary review : reviews) {
+            reviewResponses.add(mapToReviewResponse(review));
+            cursors.add(cursorAfter(review, sort));
+        }
+
+        BookReviewsResponse response = new BookReviewsResponse(
                 bookId,
                 book.getTitle(),
-                averageRating != null ? averageRating : 0.0,
-                totalReviews,
-                reviewResponses
+                stats.getAverageRating(),
+                stats.getRatingCount(),
+                stats.getFiveStar(),
+                stats.getFourStar(),
+                stats.getThreeStar(),
+                stats.getTwoStar(),
+                stats.getOneStar(),
+                reviewResponses,
+                hasMore ? cursors.get(cursors.size() - 1) : null,
+                hasMore
         );
+        if (slot == null) {
+            return withLikedByMe(response, userId);
+        }
+        BookReviewPageCache.FirstPage firstPage = new BookReviewPageCache.FirstPage(response, cursors);
+        slot.put(firstPage);
+        return withLikedByMe(firstPage.slice(limit), userId);
+    }
+
+    /**
+     * Cursor of the page that follows a review.
+     */
+    private static String cursorAfter(ReviewSummary review, String sort) {
+        Object key = sort.equals("highest") ? review.getRating()
+                : sort.equals("most_liked") ? review.getLikeCount() : review.getCreatedAt();
+        return ReviewCursor.of(sort, key, review.getId()).encode();
+    }
+
+    /**
+     * Copy of a page with the user's likes flagged. Pages may be shared through the
+     * first-page cache, so they never carry flags of a user themselves.
+     */
+    private BookReviewsResponse withLikedByMe(BookReviewsResponse page, Long userId) {
+        if (userId == null || page.getReviews().isEmpty()) {
+            return page;
+        }
+
+        List<ReviewResponse> reviews = new ArrayList<>(page.getReviews().size());
+        for (ReviewResponse review : page.getReviews()) {
+            ReviewResponse copy = new ReviewResponse();
+            BeanUtils.copyProperties(review, copy);
+            reviews.add(copy);
+        }
+        applyLikedByMe(reviews, userId);
+
+        BookReviewsResponse copy = new BookReviewsResponse();
+        BeanUtils.copyProperties(page, copy);
+        copy.setReviews(reviews);
+        return copy;
+    }
+
+    /**
+     * Fill in whether the user liked each review, with one query for the whole list.
+     */
+    private void applyLikedByMe(List<ReviewResponse> reviews, Long userId) {
+        if (userId == null || reviews.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Boolean> liked = reviewInteractionService.getLikeStatuses(userId,
+                reviews.stream().map(ReviewResponse::getId).collect(Collectors.toList()));
+        for (ReviewResponse review : reviews) {
+            review.setLikedByMe(liked.get(review.getId()));
+        }
+    }
+
+    /**
+     * Get one review with its full body.
+     * @param userId User whose like is flagged on the review, or null for none
+     */
+    @Transactional(readOnly = true)
+    public ReviewResponse getReview(Long reviewId, Long userId) {
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new IllegalArgumentException("Review not found"));
+
+        if (review.getIsDeleted()) {
+            throw new IllegalArgumentException("Review not found");
+        }
+
+        ReviewResponse response = mapToReviewResponse(review);
+        applyLikedByMe(List.of(response), userId);
+        return response;
     }
 
     /**
@@ -150,27 +350,27 @@ public class ReviewService {
     }
 
     /**
-     * Get all public reviews by a user.
+     * Get all public reviews by a user, with excerpts instead of bodies.
+     * @param viewerId User whose likes are flagged on the reviews, or null for none
      */
-    public List<ReviewResponse> getUserReviews(Long userId) {
+    public List<ReviewResponse> getUserReviews(Long userId, Long viewerId) {
         // Validate user exists
         userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        List<Review> reviews = reviewRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        List<ReviewSummary> reviews = reviewRepository.findSummariesByUserId(userId, Pageable.unpaged());
 
-        return reviews.stream()
+        List<ReviewResponse> responses = reviews.stream()
                 .map(this::mapToReviewResponse)
                 .collect(Collectors.toList());
+        applyLikedByMe(responses, viewerId);
+        return responses;
     }
 
     /**
      * Map Review entity to ReviewResponse DTO.
      */
     private ReviewResponse mapToReviewResponse(Review review) {
-        int likes = reviewRepository.countLikesByReviewId(review.getId());
-        int comments = reviewRepository.countCommentsByReviewId(review.getId());
-
         return new ReviewResponse(
                 review.getId(),
                 review.getBook().getId(),
@@ -182,10 +382,66 @@ public class ReviewService {
                 review.getRating() != null ? review.getRating().doubleValue() : 0.0,
                 review.getTitle(),
                 review.getBody(),
+                review.getExcerpt(),
                 review.getCreatedAt().format(DATE_FORMATTER),
                 review.getUpdatedAt().format(DATE_FORMATTER),
-                likes,
-                comments
+                review.getLikeCount(),
+                review.getCommentCount(),
+                null
         );
     }
+
+    /**
+     * Map a review summary to ReviewResponse DTO, without the body.
+     */
+    private ReviewResponse mapToReviewResponse(ReviewSummary review) {
+        return new ReviewResponse(
+                review.getId(),
+                review.getBookId(),
+                review.getBookTitle(),
+                review.getBookCover(),
+                review.getUserId(),
+                review.getUsername(),
+                review.getUserAvatar(),
+                review.getRating() != null ? review.getRating().doubleValue() : 0.0,
+                review.getTitle(),
+                null,
+                review.getExcerpt(),
+                review.getCreatedAt().format(DATE_FORMATTER),
+                review.getUpdatedAt().format(DATE_FORMATTER),
+                review.getLikeCount(),
+                review.getCommentCount(),
+                null
+        );
+    }
+
+    /**
+     * Fill in the excerpt of reviews written before excerpts were stored, one transaction
+     * per batch. Reviews saved since then get theirs from Review.setBody.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillExcerpts() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+        int filled = 0;
+        List<Object[]> batch;
+        do {
+            batch = reviewRepository.findBodiesWithoutExcerpt(afterId, PageRequest.of(0, EXCERPT_BACKFILL_BATCH));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Object[]> rows = batch;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Object[] row : rows) {
+                    reviewRepository.setExcerpt((Long) row[0], Review.excerptOf((String) row[1]));
+                }
+            });
+            filled += batch.size();
+            afterId = (Long) batch.get(batch.size() - 1)[0];
+        } while (batch.size() == EXCERPT_BACKFILL_BATCH);
+
+        if (filled > 0) {
+            logger.info("Stored excerpts for {} reviews", filled);
+        }
+    }
 }
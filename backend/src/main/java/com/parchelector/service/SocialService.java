@@ -1,22 +1,39 @@
 package com.parchelector.service;
 
+import com.parchelector.config.SchedulingConfig;
 import com.parchelector.dto.request.FollowAuthorRequest;
 import com.parchelector.dto.request.FollowUserRequest;
 import com.parchelector.dto.response.FeedResponse;
 import com.parchelector.dto.response.FeedResponse.FeedItem;
 import com.parchelector.dto.response.FeedResponse.ReviewData;
 import com.parchelector.dto.response.FeedResponse.ListData;
+import com.parchelector.dto.response.FollowListResponse;
+import com.parchelector.dto.response.FollowListResponse.FollowUser;
 import com.parchelector.dto.response.FollowResponse;
 import com.parchelector.dto.response.UserFollowStatsResponse;
 import com.parchelector.model.entity.*;
 import com.parchelector.repository.*;
+import com.parchelector.model.entity.TimelineItem.TimelineItemId;
+import com.parchelector.repository.FollowRepository.FollowUserSummary;
+import com.parchelector.repository.LibraryListRepository.ListSummary;
+import com.parchelector.repository.ReviewRepository.ReviewSummary;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +44,8 @@ import java.util.stream.Collectors;
 @Service
 public class SocialService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SocialService.class);
+
     @Autowired
     private FollowRepository followRepository;
 
@@ -46,95 +65,124 @@ public class SocialService {
     private LibraryListRepository libraryListRepository;
 
     @Autowired
-    private ListLikeRepository listLikeRepository;
+    private HomeTimelineService homeTimelineService;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private UserSuggestionService userSuggestionService;
+
+    private static final int MAX_FEED_PAGE_SIZE = 50;
+
+    private static final int MAX_FOLLOW_PAGE_SIZE = 100;
 
     /**
-     * Follow a user.
+     * Follow a user. Idempotent: following a user again leaves the existing follow as is.
      */
     @Transactional
     public FollowResponse followUser(Long followerId, FollowUserRequest request) {
         Long followedId = request.getUserId();
 
-        // Validate users exist
-        User follower = userRepository.findById(followerId)
-                .orElseThrow(() -> new IllegalArgumentException("Follower user not found"));
-        User followed = userRepository.findById(followedId)
-                .orElseThrow(() -> new IllegalArgumentException("User to follow not found"));
-
         // Cannot follow yourself
         if (followerId.equals(followedId)) {
             throw new IllegalArgumentException("You cannot follow yourself");
         }
 
-        // Check if already following
-        if (followRepository.existsByFollowerIdAndFollowedId(followerId, followedId)) {
-            throw new IllegalArgumentException("You are already following this user");
+        // Insert, skipped if the follow exists or the user does not; concurrent duplicates never fail
+        LocalDateTime followedAt = LocalDateTime.now();
+        boolean inserted = followRepository.insertIfAbsent(followerId, followedId, followedAt) > 0;
+        if (inserted) {
+            adjustFollowCounts(followerId, followedId, 1);
+            homeTimelineService.recordFollow(followerId, followedId);
+            followGraphService.recordFollowAfterCommit(followerId, followedId);
+            notificationService.userFollowed(followerId, followedId);
+            userSuggestionService.markStaleAfterCommit(followerId);
         }
 
-        // Create follow relationship
-        Follow follow = new Follow();
-        follow.setFollowerId(followerId);
-        follow.setFollowedId(followedId);
-        follow = followRepository.save(follow);
+        Map<Long, String> usernames = userRepository.findAllById(List.of(followerId, followedId)).stream()
+                .collect(Collectors.toMap(User::getId, User::getUsername));
+        if (!usernames.containsKey(followedId)) {
+            throw new IllegalArgumentException("User to follow not found");
+        }
+        if (!inserted) {
+            followedAt = followRepository.findByFollowerIdAndFollowedId(followerId, followedId)
+                    .map(Follow::getCreatedAt)
+                    .orElse(followedAt);
+        }
 
         return new FollowResponse(
                 followerId,
-                follower.getUsername(),
+                usernames.get(followerId),
                 followedId,
-                followed.getUsername(),
-                follow.getCreatedAt()
+                usernames.get(followedId),
+                followedAt
         );
     }
 
     /**
-     * Unfollow a user.
+     * Unfollow a user. Idempotent: unfollowing a user that is not followed changes nothing.
+     * @return true if the user was followed until now
      */
     @Transactional
-    public void unfollowUser(Long followerId, Long followedId) {
-        // Validate relationship exists
-        if (!followRepository.existsByFollowerIdAndFollowedId(followerId, followedId)) {
-            throw new IllegalArgumentException("You are not following this user");
+    public boolean unfollowUser(Long followerId, Long followedId) {
+        if (followRepository.deleteByFollowerIdAndFollowedId(followerId, followedId) == 0) {
+            return false;
         }
+        adjustFollowCounts(followerId, followedId, -1);
+        homeTimelineService.recordUnfollow(followerId, followedId);
+        followGraphService.recordUnfollowAfterCommit(followerId, followedId);
+        userSuggestionService.markStaleAfterCommit(followerId);
+        return true;
+    }
 
-        followRepository.deleteByFollowerIdAndFollowedId(followerId, followedId);
+    /**
+     * Change the counters of both users of a follow. The two rows are updated in ID order,
+     * so opposite follows between the same users cannot deadlock.
+     */
+    private void adjustFollowCounts(Long followerId, Long followedId, int delta) {
+        if (followerId < followedId) {
+            userRepository.adjustFollowingCount(followerId, delta);
+            userRepository.adjustFollowersCount(followedId, delta);
+        } else {
+            userRepository.adjustFollowersCount(followedId, delta);
+            userRepository.adjustFollowingCount(followerId, delta);
+        }
     }
 
     /**
-     * Follow an author.
+     * Follow an author. Idempotent like following a user.
+     * @return true if the author was not followed yet
      */
     @Transactional
-    public void followAuthor(Long userId, FollowAuthorRequest request) {
+    public boolean followAuthor(Long userId, FollowAuthorRequest request) {
         Long authorId = request.getAuthorId();
 
-        // Validate user and author exist
-        userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        authorRepository.findById(authorId)
-                .orElseThrow(() -> new IllegalArgumentException("Author not found"));
-
-        // Check if already following
-        if (authorFollowRepository.existsByUserIdAndAuthorId(userId, authorId)) {
-            throw new IllegalArgumentException("You are already following this author");
+        if (authorFollowRepository.insertIfAbsent(userId, authorId) > 0) {
+            authorRepository.adjustFollowerCount(authorId, 1);
+            return true;
         }
-
-        // Create author follow relationship
-        AuthorFollow authorFollow = new AuthorFollow();
-        authorFollow.setUserId(userId);
-        authorFollow.setAuthorId(authorId);
-        authorFollowRepository.save(authorFollow);
+        // Nothing inserted: either already followed or there is no such author
+        if (!authorRepository.existsById(authorId)) {
+            throw new IllegalArgumentException("Author not found");
+        }
+        return false;
     }
 
     /**
-     * Unfollow an author.
+     * Unfollow an author. Idempotent like unfollowing a user.
+     * @return true if the author was followed until now
      */
     @Transactional
-    public void unfollowAuthor(Long userId, Long authorId) {
-        // Validate relationship exists
-        if (!authorFollowRepository.existsByUserIdAndAuthorId(userId, authorId)) {
-            throw new IllegalArgumentException("You are not following this author");
+    public boolean unfollowAuthor(Long userId, Long authorId) {
+        if (authorFollowRepository.deleteByUserIdAndAuthorId(userId, authorId) == 0) {
+            return false;
         }
-
-        authorFollowRepository.deleteByUserIdAndAuthorId(userId, authorId);
+        authorRepository.adjustFollowerCount(authorId, -1);
+        return true;
     }
 
     /**
@@ -145,13 +193,13 @@ public class SocialService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        long followersCount = followRepository.countFollowersByUserId(userId);
-        long followingCount = followRepository.countFollowingByUserId(userId);
+        long followersCount = user.getFollowersCount();
+        long followingCount = user.getFollowingCount();
         
         // Check if current user is following this user
         Boolean isFollowing = null;
         if (currentUserId != null && !currentUserId.equals(userId)) {
-            isFollowing = followRepository.existsByFollowerIdAndFollowedId(currentUserId, userId);
+            isFollowing = followGraphService.isFollowing(currentUserId, userId);
         }
 
         return new UserFollowStatsResponse(
@@ -167,7 +215,108 @@ public class SocialService {
      * Check if a user is following another user.
      */
     public boolean isFollowing(Long followerId, Long followedId) {
-        return followRepository.existsByFollowerIdAndFollowedId(followerId, followedId);
+        return followGraphService.isFollowing(followerId, followedId);
+    }
+
+    /**
+     * Get one page of a user's followers, in user ID order.
+     */
+    public FollowListResponse getFollowers(Long userId, Long currentUserId, int limit, String cursor) {
+        return getFollowList(userId, currentUserId, limit, cursor, true);
+    }
+
+    /**
+     * Get one page of the users a user follows, in user ID order.
+     */
+    public FollowListResponse getFollowing(Long userId, Long currentUserId, int limit, String cursor) {
+        return getFollowList(userId, currentUserId, limit, cursor, false);
+    }
+
+    /**
+     * Seek past the cursor on the follows index of the requested direction and load the users
+     * in the same query, so every page costs the same however many follows the user has.
+     * Whether the current user follows each of them comes from the follow graph.
+     */
+    private FollowListResponse getFollowList(Long userId, Long currentUserId, int limit, String cursor,
+                                             boolean followers) {
+        if (limit < 1 || limit > MAX_FOLLOW_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_FOLLOW_PAGE_SIZE);
+        }
+        long afterId = decodeUserCursor(cursor);
+
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<FollowUserSummary> rows = followers
+                ? followRepository.findFollowersPage(userId, afterId, page)
+                : followRepository.findFollowingPage(userId, afterId, page);
+        // An empty page is the only one that needs to tell a missing user apart
+        if (rows.isEmpty() && !userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found");
+        }
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<FollowUser> users = new ArrayList<>(rows.size());
+        for (FollowUserSummary row : rows) {
+            Boolean isFollowedByMe = currentUserId == null || currentUserId.equals(row.getId())
+                    ? null
+                    : followGraphService.isFollowing(currentUserId, row.getId());
+            users.add(new FollowUser(row.getId(), row.getUsername(), row.getAvatarUrl(), isFollowedByMe));
+        }
+        String nextCursor = hasMore ? encodeUserCursor(rows.get(rows.size() - 1).getId()) : null;
+        return new FollowListResponse(users, limit, nextCursor, hasMore);
+    }
+
+    /**
+     * Repair the follow counters on startup when their totals no longer match the source
+     * tables, e.g. on first start after the columns were introduced or after users were deleted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcileFollowCountersIfDrifted() {
+        long follows = followRepository.count();
+        if (userRepository.sumFollowersCounts() != follows || userRepository.sumFollowingCounts() != follows) {
+            int users = userRepository.rebuildFollowCounts();
+            logger.info("Reconciled follow counters for {} users", users);
+        }
+        if (authorRepository.sumFollowerCounts() != authorFollowRepository.count()) {
+            int authors = authorRepository.rebuildFollowerCounts();
+            logger.info("Reconciled follower counters for {} authors", authors);
+        }
+    }
+
+    /**
+     * Recompute every user's and author's follow counters from follows and author_follows.
+     * Also catches drifts that cancel out in the totals checked at startup.
+     */
+    @Scheduled(fixedDelayString = "${app.follow-counters.repair-interval-ms:86400000}",
+               initialDelayString = "${app.follow-counters.repair-interval-ms:86400000}",
+               scheduler = SchedulingConfig.JOB_SCHEDULER)
+    @Transactional
+    public void repairFollowCounters() {
+        int users = userRepository.rebuildFollowCounts();
+        int authors = authorRepository.rebuildFollowerCounts();
+        if (users > 0 || authors > 0) {
+            logger.warn("Repaired follow counters for {} users and {} authors", users, authors);
+        }
+    }
+
+    private static String encodeUserCursor(Long userId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(userId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeUserCursor(String token) {
+        if (token == null || token.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            // Also covers malformed Base64
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
     /**
@@ -178,88 +327,118 @@ public class SocialService {
     }
 
     /**
-     * Get social feed with recent activity from followed users.
+     * Get one page of the social feed: recent reviews and visible lists of followed users,
+     * newest first. The page is a range read of the user's materialized timeline (or, for
+     * users following many accounts, a merge of their followed users' newest items), and its
+     * items are loaded with one query per item type.
      */
-    public FeedResponse getFeed(Long userId, Integer limit, Integer offset) {
-        // Get list of followed user IDs
-        List<Long> followedUserIds = followRepository.findFollowedUserIds(userId);
-        
-        if (followedUserIds.isEmpty()) {
-            return new FeedResponse(new ArrayList<>(), 0, limit, offset, false);
+    public FeedResponse getFeed(Long userId, int limit, String cursor) {
+        if (limit < 1 || limit > MAX_FEED_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_FEED_PAGE_SIZE);
         }
+        TimelineItemId after = FeedCursor.decode(cursor);
 
-        // Fetch reviews from followed users
-        List<Review> reviews = reviewRepository.findByUserIdsOrderByCreatedAtDesc(followedUserIds);
-        
-        // Fetch lists from followed users
-        List<LibraryList> lists = libraryListRepository.findByUserIdsOrderByCreatedAtDesc(followedUserIds);
-
-        // Convert to feed items
-        List<FeedItem> feedItems = new ArrayList<>();
-
-        // Add reviews to feed
-        for (Review review : reviews) {
-            FeedItem item = new FeedItem();
-            item.setType("REVIEW");
-            item.setUserId(review.getUser().getId());
-            item.setUsername(review.getUser().getUsername());
-            item.setUserAvatar(review.getUser().getAvatarUrl());
-            item.setCreatedAt(review.getCreatedAt());
-
-            ReviewData reviewData = new ReviewData();
-            reviewData.setReviewId(review.getId());
-            reviewData.setBookId(review.getBook().getId());
-            reviewData.setBookTitle(review.getBook().getTitle());
-            reviewData.setBookCover(review.getBook().getCoverUrl());
-            reviewData.setRating(review.getRating().doubleValue());
-            reviewData.setTitle(review.getTitle());
-            reviewData.setBody(review.getBody());
-            reviewData.setLikes(reviewRepository.countLikesByReviewId(review.getId()));
-            reviewData.setComments(reviewRepository.countCommentsByReviewId(review.getId()));
-
-            item.setReview(reviewData);
-            feedItems.add(item);
+        List<TimelineItemId> entries = homeTimelineService.getEntries(userId, after, limit + 1);
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = entries.subList(0, limit);
         }
+        String nextCursor = hasMore ? FeedCursor.encode(entries.get(entries.size() - 1)) : null;
 
-        // Add lists to feed
-        for (LibraryList list : lists) {
-            // Skip private lists or followers-only lists if needed
-            if ("PRIVATE".equals(list.getVisibility())) {
-                continue;
+        List<FeedItem> items = loadFeedItems(entries);
+        // The feed is never counted: the total is only known when it is all in memory or on this page
+        Integer total = homeTimelineService.knownSize(userId);
+        if (total == null && after == null && !hasMore) {
+            total = items.size();
+        }
+        return new FeedResponse(items, total, limit, nextCursor, hasMore);
+    }
+
+    /**
+     * Load the items of timeline entries, in entry order. Entries of deleted reviews and of
+     * lists made private are skipped: they leave the timelines in the background.
+     */
+    List<FeedItem> loadFeedItems(List<TimelineItemId> entries) {
+        List<Long> reviewIds = new ArrayList<>();
+        List<Long> listIds = new ArrayList<>();
+        for (TimelineItemId entry : entries) {
+            if (TimelineItem.REVIEW.equals(entry.getItemType())) {
+                reviewIds.add(entry.getItemId());
+            } else {
+                listIds.add(entry.getItemId());
             }
+        }
 
-            User listUser = list.getUser();
-            if (listUser == null) continue;
-
-            FeedItem item = new FeedItem();
-            item.setType("LIST");
-            item.setUserId(listUser.getId());
-            item.setUsername(listUser.getUsername());
-            item.setUserAvatar(listUser.getAvatarUrl());
-            item.setCreatedAt(list.getCreatedAt());
-
-            ListData listData = new ListData();
-            listData.setListId(list.getId());
-            listData.setName(list.getName());
-            listData.setDescription(list.getDescription());
-            listData.setVisibility(list.getVisibility());
-            listData.setBookCount(libraryListRepository.countBooksByListId(list.getId()));
-            listData.setLikes(listLikeRepository.countByListId(list.getId()));
-
-            item.setList(listData);
-            feedItems.add(item);
+        Map<Long, ReviewSummary> reviews = new HashMap<>();
+        if (!reviewIds.isEmpty()) {
+            for (ReviewSummary review : reviewRepository.findSummariesByIds(reviewIds)) {
+                reviews.put(review.getId(), review);
+            }
+        }
+        Map<Long, ListSummary> lists = new HashMap<>();
+        if (!listIds.isEmpty()) {
+            for (ListSummary list : libraryListRepository.findSummariesByIds(listIds)) {
+                lists.put(list.getId(), list);
+            }
         }
 
-        // Sort all feed items by createdAt descending
-        feedItems.sort(Comparator.comparing(FeedItem::getCreatedAt).reversed());
+        List<FeedItem> feedItems = new ArrayList<>(entries.size());
+        for (TimelineItemId entry : entries) {
+            if (TimelineItem.REVIEW.equals(entry.getItemType())) {
+                ReviewSummary review = reviews.get(entry.getItemId());
+                if (review != null) {
+                    feedItems.add(mapToFeedItem(review));
+                }
+            } else {
+                ListSummary list = lists.get(entry.getItemId());
+                if (list != null) {
+                    feedItems.add(mapToFeedItem(list));
+                }
+            }
+        }
+        return feedItems;
+    }
 
-        // Apply pagination
-        int total = feedItems.size();
-        int start = Math.min(offset, total);
-        int end = Math.min(offset + limit, total);
-        List<FeedItem> paginatedItems = feedItems.subList(start, end);
-        boolean hasMore = end < total;
+    private FeedItem mapToFeedItem(ReviewSummary review) {
+        FeedItem item = new FeedItem();
+        item.setType(TimelineItem.REVIEW);
+        item.setUserId(review.getUserId());
+        item.setUsername(review.getUsername());
+        item.setUserAvatar(review.getUserAvatar());
+        item.setCreatedAt(review.getCreatedAt());
+
+        ReviewData reviewData = new ReviewData();
+        reviewData.setReviewId(review.getId());
+        reviewData.setBookId(review.getBookId());
+        reviewData.setBookTitle(review.getBookTitle());
+        reviewData.setBookCover(review.getBookCover());
+        reviewData.setRating(review.getRating().doubleValue());
+        reviewData.setTitle(review.getTitle());
+        reviewData.setExcerpt(review.getExcerpt());
+        reviewData.setLikes(review.getLikeCount());
+        reviewData.setComments(review.getCommentCount());
+
+        item.setReview(reviewData);
+        return item;
+    }
 
-        return new FeedResponse(paginatedItems, total, limit, offset, hasMore);
+    private FeedItem mapToFeedItem(ListSummary list) {
+        FeedItem item = new FeedItem();
+        item.setType(TimelineItem.LIST);
+        item.setUserId(list.getUserId());
+        item.setUsername(list.getUsername());
+        item.setUserAvatar(list.getUserAvatar());
+        item.setCreatedAt(list.getCreatedAt());
+
+        ListData listData = new ListData();
+        listData.setListId(list.getId());
+        listData.setName(list.getName());
+        listData.setDescription(list.getDescription());
+        listData.setVisibility(list.getVisibility());
+        listData.setBookCount(list.getBookCount().intValue());
+        listData.setLikes(list.getLikeCount().intValue());
+
+        item.setList(listData);
+        return item;
     }
 }
@@ -0,0 +1,227 @@
+package com.parchelector.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Ranks "who to follow" suggestions for one user at a time: the users followed by the users
+ * they follow (friends of friends), scored by how many of the people they follow also
+ * follow the candidate, how many books both have on a shelf and how many authors both
+ * follow. Only the candidates with the most mutual follows are scored on books and authors.
+ * Not thread-safe: the batch job uses one ranker per worker, which keeps a counter per user
+ * ID and reuses it for every user it ranks.
+ *
+ * @author Nicolas Arciniegas
+ */
+public final class SuggestionRanker {
+
+    /**
+     * Counts the items (books, authors) a user shares with each of a few candidates.
+     */
+    public interface SharedItems {
+
+        /**
+         * @return the number of shared items of each candidate, in candidate order
+         */
+        int[] count(long userId, int[] candidateIds);
+
+        static SharedItems of(UserItemSets sets) {
+            return (userId, candidateIds) -> {
+                int[] counts = new int[candidateIds.length];
+                for (int i = 0; i < candidateIds.length; i++) {
+                    counts[i] = sets.sharedCount(userId, candidateIds[i]);
+                }
+                return counts;
+            };
+        }
+    }
+
+    public static final class Settings {
+
+        final int maxSuggestions;
+        final int candidatePool;
+        final int maxFanout;
+        final double mutualFollowWeight;
+        final double bookWeight;
+        final double authorWeight;
+
+        /**
+         * @param maxSuggestions suggestions kept per user
+         * @param candidatePool candidates with the most mutual follows scored on books and authors
+         * @param maxFanout followed users following more accounts than this are not walked
+         */
+        public Settings(int maxSuggestions, int candidatePool, int maxFanout,
+                        double mutualFollowWeight, double bookWeight, double authorWeight) {
+            this.maxSuggestions = maxSuggestions;
+            this.candidatePool = Math.max(candidatePool, maxSuggestions);
+            this.maxFanout = maxFanout;
+            this.mutualFollowWeight = mutualFollowWeight;
+            this.bookWeight = bookWeight;
+            this.authorWeight = authorWeight;
+        }
+    }
+
+    public static final class Suggestion {
+
+        private final long userId;
+        private final int mutualFollows;
+        private final int sharedBooks;
+        private final int sharedAuthors;
+        private final double score;
+
+        public Suggestion(long userId, int mutualFollows, int sharedBooks, int sharedAuthors, double score) {
+            this.userId = userId;
+            this.mutualFollows = mutualFollows;
+            this.sharedBooks = sharedBooks;
+            this.sharedAuthors = sharedAuthors;
+            this.score = score;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public int getMutualFollows() {
+            return mutualFollows;
+        }
+
+        public int getSharedBooks() {
+            return sharedBooks;
+        }
+
+        public int getSharedAuthors() {
+            return sharedAuthors;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    // Best first: score, then mutual follows, then lower ID
+    private static final Comparator<Suggestion> RANKING = Comparator.comparingDouble(Suggestion::getScore).reversed()
+            .thenComparing(Comparator.comparingInt(Suggestion::getMutualFollows).reversed())
+            .thenComparingLong(Suggestion::getUserId);
+
+    private final FollowGraph graph;
+    private final SharedItems books;
+    private final SharedItems authors;
+    private final Settings settings;
+
+    // Mutual follows per candidate ID, back to 0 after every user
+    private final int[] mutual;
+    private int[] touched = new int[1024];
+    private int touchedCount;
+    private final IntConsumer mutualCounter = this::countMutual;
+
+    // Min-heap of the best candidates: mutual follows in the high half, inverted ID in the low half
+    private final long[] pool;
+
+    public SuggestionRanker(FollowGraph graph, SharedItems books, SharedItems authors, Settings settings) {
+        this.graph = graph;
+        this.books = books;
+        this.authors = authors;
+        this.settings = settings;
+        this.mutual = new int[graph.userIdBound()];
+        this.pool = new long[settings.candidatePool];
+    }
+
+    /**
+     * Rank the suggestions of a user, best first.
+     *
+     * @param following IDs of the users the user follows, ascending
+     */
+    public List<Suggestion> rank(long userId, int[] following) {
+        touchedCount = 0;
+        for (int followed : following) {
+            if (graph.followingCount(followed) <= settings.maxFanout) {
+                graph.forEachFollowing(followed, mutualCounter);
+            }
+        }
+
+        int poolSize = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int candidate = touched[i];
+            long key = ((long) mutual[candidate] << 32) | (~candidate & 0xFFFFFFFFL);
+            mutual[candidate] = 0;
+            if (candidate == userId || Arrays.binarySearch(following, candidate) >= 0) {
+                continue;
+            }
+            if (poolSize < pool.length) {
+                pool[poolSize] = key;
+                siftUp(pool, poolSize++);
+            } else if (key > pool[0]) {
+                pool[0] = key;
+                siftDown(pool, poolSize);
+            }
+        }
+        if (poolSize == 0) {
+            return List.of();
+        }
+
+        int[] candidateIds = new int[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            candidateIds[i] = ~(int) pool[i];
+        }
+        int[] sharedBooks = books.count(userId, candidateIds);
+        int[] sharedAuthors = authors.count(userId, candidateIds);
+
+        List<Suggestion> suggestions = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            int mutualFollows = (int) (pool[i] >>> 32);
+            double score = settings.mutualFollowWeight * mutualFollows
+                    + settings.bookWeight * sharedBooks[i]
+                    + settings.authorWeight * sharedAuthors[i];
+            suggestions.add(new Suggestion(candidateIds[i], mutualFollows, sharedBooks[i], sharedAuthors[i], score));
+        }
+        suggestions.sort(RANKING);
+        return suggestions.size() > settings.maxSuggestions
+                ? suggestions.subList(0, settings.maxSuggestions)
+                : suggestions;
+    }
+
+    private void countMutual(int candidate) {
+        if (mutual[candidate]++ == 0) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = candidate;
+        }
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (key <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+}
@@ -0,0 +1,185 @@
+package com.parchelector.service;
+
+import com.parchelector.config.SchedulingConfig;
+import com.parchelector.dto.response.BookResponse;
+import com.parchelector.model.entity.Book;
+import com.parchelector.model.entity.BookRatingStats;
+import com.parchelector.repository.BookRatingStatsRepository;
+import com.parchelector.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service that ranks trending books.
+ * Scores are exponentially decayed counts of recent reviews, reading status changes,
+ * favorites and list additions. The ranking is recomputed in the background and served
+ * from an immutable in-memory snapshot, so reads never touch the database.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookRatingStatsRepository bookRatingStatsRepository;
+
+    @Value("${app.trending.half-life-hours:72}")
+    private double halfLifeHours;
+
+    @Value("${app.trending.window-days:30}")
+    private int windowDays;
+
+    @Value("${app.trending.snapshot-size:100}")
+    private int snapshotSize;
+
+    @Value("${app.trending.weight.review:3.0}")
+    private double reviewWeight;
+
+    @Value("${app.trending.weight.reading-status:2.0}")
+    private double readingStatusWeight;
+
+    @Value("${app.trending.weight.favorite:2.0}")
+    private double favoriteWeight;
+
+    @Value("${app.trending.weight.list:1.0}")
+    private double listWeight;
+
+    // Immutable ranked entries, swapped whole on refresh
+    private final AtomicReference<List<BookResponse>> snapshot = new AtomicReference<>(Collections.emptyList());
+
+    /**
+     * Get the top trending books from the current snapshot.
+     * Returns fresh copies so callers may fill in user-specific fields.
+     */
+    public List<BookResponse> getTrendingBooks(int limit) {
+        List<BookResponse> ranked = snapshot.get();
+        int size = Math.min(Math.max(limit, 0), ranked.size());
+
+        List<BookResponse> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BookResponse entry = ranked.get(i);
+            result.add(new BookResponse(
+                    entry.getId(),
+                    entry.getTitle(),
+                    entry.getAuthor(),
+                    entry.getRating(),
+                    entry.getCover(),
+                    null,
+                    entry.getReviewCount(),
+                    null
+            ));
+        }
+        return result;
+    }
+
+    /**
+     * Recompute the ranking and atomically swap in the new snapshot.
+     * Runs once at startup and then on a fixed delay.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.trending.refresh-interval-ms:300000}",
+               initialDelayString = "${app.trending.refresh-interval-ms:300000}",
+               scheduler = SchedulingConfig.JOB_SCHEDULER)
+    @Transactional(readOnly = true)
+    public void refresh() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Set<Long> rankedIds = new LinkedHashSet<>();
+
+            List<Object[]> scores = bookRepository.findTrendingScores(
+                    now,
+                    now.minusDays(windowDays),
+                    halfLifeHours,
+                    reviewWeight,
+                    readingStatusWeight,
+                    favoriteWeight,
+                    listWeight,
+                    snapshotSize
+            );
+            for (Object[] row : scores) {
+                rankedIds.add(((Number) row[0]).longValue());
+            }
+
+            // Pad quiet periods with the all-time most reviewed books
+            if (rankedIds.size() < snapshotSize) {
+                List<Long> fallback = bookRatingStatsRepository.findMostReviewedBookIds(
+                        PageRequest.of(0, snapshotSize));
+                for (Long bookId : fallback) {
+                    if (rankedIds.size() >= snapshotSize) {
+                        break;
+                    }
+                    rankedIds.add(bookId);
+                }
+            }
+
+            snapshot.set(buildEntries(new ArrayList<>(rankedIds)));
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot
+            logger.warn("Failed to refresh trending books", e);
+        }
+    }
+
+    /**
+     * Build the shared, user-independent response entries in ranking order.
+     */
+    private List<BookResponse> buildEntries(List<Long> rankedIds) {
+        if (rankedIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Book> books = bookRepository.findAllById(rankedIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Map<Long, BookRatingStats> ratings = bookRatingStatsRepository.findAllById(rankedIds).stream()
+                .collect(Collectors.toMap(BookRatingStats::getBookId, Function.identity()));
+
+        List<BookResponse> entries = new ArrayList<>(rankedIds.size());
+        for (Long bookId : rankedIds) {
+            Book book = books.get(bookId);
+            if (book == null) {
+                continue;
+            }
+
+            String authorName = book.getAuthors().stream()
+                    .findFirst()
+                    .map(author -> author.getName())
+                    .orElse("Unknown Author");
+            BookRatingStats rating = ratings.get(bookId);
+
+            entries.add(new BookResponse(
+                    book.getId(),
+                    book.getTitle(),
+                    authorName,
+                    rating != null ? rating.getAverageRating() : 0.0,
+                    book.getCoverUrl(),
+                    null,
+                    rating != null ? rating.getRatingCount() : 0,
+                    null
+            ));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+}
@@ -0,0 +1,98 @@
+package com.parchelector.service;
+
+import com.parchelector.config.SchedulingConfig;
+import com.parchelector.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory number of unread notifications of every user that has any. Loaded at startup
+ * in one grouped count, then kept current by the changes to the notifications table, each
+ * applied once its transaction commits. Until the first load finishes, counts come from
+ * the database.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Component
+public class UnreadNotificationCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadNotificationCounter.class);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    // Users with no unread notification have no entry
+    private final Map<Long, Integer> counts = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    public long get(Long userId) {
+        if (!loaded) {
+            return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        }
+        return counts.getOrDefault(userId, 0);
+    }
+
+    /**
+     * Change a user's count once the current transaction commits.
+     */
+    public void adjustAfterCommit(Long userId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjust(userId, delta);
+                }
+            });
+        } else {
+            adjust(userId, delta);
+        }
+    }
+
+    private void adjust(Long userId, int delta) {
+        counts.compute(userId, (id, count) -> {
+            int updated = (count == null ? 0 : count) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+
+    /**
+     * Recount every user's unread notifications. Changes committed while counting may be
+     * counted twice or missed until the next recount.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.notifications.recount-interval-ms:86400000}",
+               initialDelayString = "${app.notifications.recount-interval-ms:86400000}",
+               scheduler = SchedulingConfig.JOB_SCHEDULER)
+    @Transactional(readOnly = true)
+    public void reload() {
+        try {
+            List<Object[]> rows = notificationRepository.countUnreadByUser();
+            Map<Long, Integer> recounted = new ConcurrentHashMap<>(Math.max(16, rows.size() * 2));
+            for (Object[] row : rows) {
+                recounted.put((Long) row[0], ((Long) row[1]).intValue());
+            }
+            counts.keySet().retainAll(recounted.keySet());
+            counts.putAll(recounted);
+            loaded = true;
+            logger.info("Loaded unread notification counts of {} users", recounted.size());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to load unread notification counts", e);
+        }
+    }
+}
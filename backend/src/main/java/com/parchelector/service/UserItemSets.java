@@ -0,0 +1,126 @@
+package com.parchelector.service;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sets of item IDs (books, authors) per user, stored like the FollowGraph: the
+ * items of user {@code u} are {@code items[offsets[u] .. offsets[u + 1])}, ascending. Every
+ * membership costs 4 bytes, and counting the items two users share is a merge of two ranges.
+ *
+ * @author Nicolas Arciniegas
+ */
+public final class UserItemSets {
+
+    public static final UserItemSets EMPTY = new Builder().build();
+
+    private final int[] offsets;
+    private final int[] items;
+
+    private UserItemSets(int[] offsets, int[] items) {
+        this.offsets = offsets;
+        this.items = items;
+    }
+
+    public int size(long userId) {
+        if (!inRange(userId)) {
+            return 0;
+        }
+        return offsets[(int) userId + 1] - offsets[(int) userId];
+    }
+
+    /**
+     * Number of items both users have.
+     */
+    public int sharedCount(long userId, long otherUserId) {
+        if (!inRange(userId) || !inRange(otherUserId)) {
+            return 0;
+        }
+        int a = offsets[(int) userId];
+        int aEnd = offsets[(int) userId + 1];
+        int b = offsets[(int) otherUserId];
+        int bEnd = offsets[(int) otherUserId + 1];
+        int shared = 0;
+        while (a < aEnd && b < bEnd) {
+            if (items[a] < items[b]) {
+                a++;
+            } else if (items[a] > items[b]) {
+                b++;
+            } else {
+                shared++;
+                a++;
+                b++;
+            }
+        }
+        return shared;
+    }
+
+    public int entryCount() {
+        return items.length;
+    }
+
+    /**
+     * Approximate heap size in bytes.
+     */
+    public long estimatedSizeBytes() {
+        return 4L * (offsets.length + items.length) + 2L * 16;
+    }
+
+    private boolean inRange(long userId) {
+        return userId >= 0 && userId < offsets.length - 1;
+    }
+
+    /**
+     * Collects (user, item) pairs in any order and builds the sets. Duplicate pairs are kept
+     * once.
+     */
+    public static final class Builder {
+
+        private int[] userIds = new int[1024];
+        private int[] itemIds = new int[1024];
+        private int count;
+        private int maxUserId;
+
+        public Builder add(long userId, long itemId) {
+            if (count == userIds.length) {
+                userIds = Arrays.copyOf(userIds, count * 2);
+                itemIds = Arrays.copyOf(itemIds, count * 2);
+            }
+            userIds[count] = Math.toIntExact(userId);
+            itemIds[count] = Math.toIntExact(itemId);
+            maxUserId = Math.max(maxUserId, userIds[count]);
+            count++;
+            return this;
+        }
+
+        public UserItemSets build() {
+            // Start of each user's range (counting sort), plus the end of the last one
+            int[] offsets = new int[maxUserId + 2];
+            for (int i = 0; i < count; i++) {
+                offsets[userIds[i] + 1]++;
+            }
+            for (int user = 0; user <= maxUserId; user++) {
+                offsets[user + 1] += offsets[user];
+            }
+            int[] grouped = new int[count];
+            int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+            for (int i = 0; i < count; i++) {
+                grouped[next[userIds[i]]++] = itemIds[i];
+            }
+
+            // Sort each range and squeeze out duplicates
+            int[] compacted = new int[offsets.length];
+            int size = 0;
+            for (int user = 0; user <= maxUserId; user++) {
+                Arrays.sort(grouped, offsets[user], offsets[user + 1]);
+                compacted[user] = size;
+                for (int i = offsets[user]; i < offsets[user + 1]; i++) {
+                    if (i == offsets[user] || grouped[i] != grouped[size - 1]) {
+                        grouped[size++] = grouped[i];
+                    }
+                }
+            }
+            compacted[maxUserId + 1] = size;
+            return new UserItemSets(compacted, size == count ? grouped : Arrays.copyOf(grouped, size));
+        }
+    }
+}
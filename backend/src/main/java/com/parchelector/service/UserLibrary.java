@@ -0,0 +1,156 @@
+package com.parchelector.service;
+
+import com.parchelector.model.entity.ReadingStatus;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of one user's library: the shelf (reading status) and favorite flag
+ * of every book the user has saved, kept in an open-addressing table of primitive book ids
+ * so flags for any list of books are answered in O(1) each without touching the database.
+ * Updates return a new snapshot, so readers never need a lock.
+ *
+ * @author Nicolas Arciniegas
+ */
+public final class UserLibrary {
+
+    public static final UserLibrary EMPTY = new UserLibrary(0);
+
+    private static final ReadingStatus.ReadingStatusEnum[] STATUSES = ReadingStatus.ReadingStatusEnum.values();
+
+    // Low bits hold the shelf as ordinal + 1 (0 = none), the next bit the favorite flag
+    private static final int STATUS_MASK = 0b011;
+    private static final int FAVORITE = 0b100;
+
+    // Book ids start at 1, so 0 marks an empty slot
+    private final long[] bookIds;
+    private final byte[] flags;
+    private int size;
+
+    private UserLibrary(int expectedBooks) {
+        int capacity = 2;
+        while (capacity < expectedBooks * 2) {
+            capacity <<= 1;
+        }
+        this.bookIds = new long[capacity];
+        this.flags = new byte[capacity];
+    }
+
+    /**
+     * The user's shelf for a book, or null if the book is on none.
+     */
+    public ReadingStatus.ReadingStatusEnum getStatus(Long bookId) {
+        int status = flagsOf(bookId) & STATUS_MASK;
+        return status == 0 ? null : STATUSES[status - 1];
+    }
+
+    public boolean isFavorite(Long bookId) {
+        return (flagsOf(bookId) & FAVORITE) != 0;
+    }
+
+    /**
+     * Number of books on any shelf or in favorites.
+     */
+    public int size() {
+        return size;
+    }
+
+    public UserLibrary withStatus(Long bookId, ReadingStatus.ReadingStatusEnum status) {
+        int shelf = status == null ? 0 : status.ordinal() + 1;
+        return withFlags(bookId, (flagsOf(bookId) & ~STATUS_MASK) | shelf);
+    }
+
+    public UserLibrary withFavorite(Long bookId, boolean favorite) {
+        int current = flagsOf(bookId);
+        return withFlags(bookId, favorite ? current | FAVORITE : current & ~FAVORITE);
+    }
+
+    private UserLibrary withFlags(long bookId, int updated) {
+        if (updated == flagsOf(bookId)) {
+            return this;
+        }
+        UserLibrary copy = new UserLibrary(size + 1);
+        for (int i = 0; i < bookIds.length; i++) {
+            if (bookIds[i] != 0 && bookIds[i] != bookId) {
+                copy.put(bookIds[i], flags[i]);
+            }
+        }
+        if (updated != 0) {
+            copy.put(bookId, updated);
+        }
+        return copy;
+    }
+
+    private int flagsOf(Long bookId) {
+        if (bookId == null || size == 0) {
+            return 0;
+        }
+        int slot = slotOf(bookId);
+        return bookIds[slot] == bookId ? flags[slot] : 0;
+    }
+
+    /**
+     * Slot holding the book, or the empty slot where it would go (linear probing).
+     */
+    private int slotOf(long bookId) {
+        int mask = bookIds.length - 1;
+        int slot = (int) ((bookId * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while (bookIds[slot] != 0 && bookIds[slot] != bookId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Merge flags into a book's slot. Only used while a snapshot is being built.
+     */
+    private void put(long bookId, int bits) {
+        int slot = slotOf(bookId);
+        if (bookIds[slot] == 0) {
+            bookIds[slot] = bookId;
+            size++;
+        }
+        flags[slot] |= (byte) bits;
+    }
+
+    /**
+     * Collects the rows of a user's library, then sizes the table once.
+     */
+    public static class Builder {
+
+        private long[] bookIds = new long[16];
+        private byte[] flags = new byte[16];
+        private int count;
+
+        public Builder addStatus(long bookId, ReadingStatus.ReadingStatusEnum status) {
+            return add(bookId, status.ordinal() + 1);
+        }
+
+        public Builder addFavorite(long bookId) {
+            return add(bookId, FAVORITE);
+        }
+
+        private Builder add(long bookId, int bits) {
+            if (count == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, count * 2);
+                flags = Arrays.copyOf(flags, count * 2);
+            }
+            bookIds[count] = bookId;
+            flags[count] = (byte) bits;
+            count++;
+            return this;
+        }
+
+        public UserLibrary build() {
+            if (count == 0) {
+                return EMPTY;
+            }
+            // A book on a shelf and in favorites appears twice; put() merges the flags
+            UserLibrary library = new UserLibrary(count);
+            for (int i = 0; i < count; i++) {
+                library.put(bookIds[i], flags[i]);
+            }
+            return library;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.parchelector.service;
+
+import com.parchelector.model.entity.ReadingStatus;
+import com.parchelector.repository.ReadingStatusRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.UnaryOperator;
+
+/**
+ * Service that keeps a bounded cache of per-user library snapshots (shelves and favorites),
+ * so book lists can show the user's flags without querying reading_status or favorite_books.
+ * A library is loaded with one query on first use and then updated write-through, after
+ * the transaction that changed it commits. Least recently used libraries are evicted
+ * (clock approximation) once the cache holds more users than configured.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Service
+public class UserLibraryService {
+
+    @Autowired
+    private ReadingStatusRepository readingStatusRepository;
+
+    @Value("${app.library.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${app.library.max-age-minutes:30}")
+    private long maxAgeMinutes;
+
+    private final Map<Long, CachedLibrary> libraries = new ConcurrentHashMap<>();
+
+    // Every cached library once, oldest first; the eviction hand sweeps it
+    private final Queue<CachedLibrary> clock = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Get the user's library, loading it if it is not cached.
+     * Libraries older than the max age are reloaded, which repairs any change made
+     * outside this service (e.g. directly in the database).
+     */
+    public UserLibrary getLibrary(Long userId) {
+        CachedLibrary cached = libraries.get(userId);
+        if (cached == null) {
+            // Only the empty entry is created inside the map; the query runs outside it
+            CachedLibrary created = new CachedLibrary(userId);
+            cached = libraries.putIfAbsent(userId, created);
+            if (cached == null) {
+                cached = created;
+                clock.offer(created);
+                evictIfFull();
+            }
+        }
+        cached.referenced = true;
+        return cached.get();
+    }
+
+    /**
+     * Put a book on one of the user's shelves.
+     */
+    public void recordStatus(Long userId, Long bookId, ReadingStatus.ReadingStatusEnum status) {
+        updateAfterCommit(userId, library -> library.withStatus(bookId, status));
+    }
+
+    /**
+     * Put several books on the user's shelves.
+     */
+    public void recordStatuses(Long userId, Map<Long, ReadingStatus.ReadingStatusEnum> statuses) {
+        updateAfterCommit(userId, library -> {
+            UserLibrary updated = library;
+            for (Map.Entry<Long, ReadingStatus.ReadingStatusEnum> entry : statuses.entrySet()) {
+                updated = updated.withStatus(entry.getKey(), entry.getValue());
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Add a book to, or remove it from, the user's favorites.
+     */
+    public void recordFavorite(Long userId, Long bookId, boolean favorite) {
+        updateAfterCommit(userId, library -> library.withFavorite(bookId, favorite));
+    }
+
+    /**
+     * Apply an update to the cached library, if any, once the current transaction commits.
+     * Updates are idempotent, so applying one to a library loaded after the commit is harmless.
+     */
+    private void updateAfterCommit(Long userId, UnaryOperator<UserLibrary> update) {
+        Runnable apply = () -> {
+            CachedLibrary cached = libraries.get(userId);
+            if (cached != null) {
+                cached.update(update);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private UserLibrary load(Long userId) {
+        UserLibrary.Builder builder = new UserLibrary.Builder();
+        for (Object[] row : readingStatusRepository.findLibraryEntries(userId)) {
+            long bookId = ((Number) row[0]).longValue();
+            if (row[1] != null) {
+                builder.addStatus(bookId, ReadingStatus.ReadingStatusEnum.valueOf(row[1].toString()));
+            } else {
+                builder.addFavorite(bookId);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Sweep the clock: recently used libraries get a second chance, the others are evicted.
+     */
+    private void evictIfFull() {
+        while (libraries.size() > cacheSize) {
+            CachedLibrary candidate = clock.poll();
+            if (candidate == null) {
+                return;
+            }
+            if (candidate.referenced) {
+                candidate.referenced = false;
+                clock.offer(candidate);
+            } else {
+                libraries.remove(candidate.userId, candidate);
+            }
+        }
+    }
+
+    private boolean isExpired(long loadedAt) {
+        return System.nanoTime() - loadedAt > maxAgeMinutes * 60_000_000_000L;
+    }
+
+    /**
+     * A user's library. The first reader to find it missing or expired loads it; others wait
+     * for a first load, or keep reading the expired library while it reloads. Updates made
+     * while a load runs are applied to its result, so none is lost.
+     */
+    private final class CachedLibrary {
+
+        private final Long userId;
+        private volatile boolean referenced;
+
+        // Guarded by this
+        private UserLibrary library;
+        private long loadedAt;
+        private CompletableFuture<UserLibrary> loading;
+        private List<UnaryOperator<UserLibrary>> updatesWhileLoading;
+
+        private CachedLibrary(Long userId) {
+            this.userId = userId;
+        }
+
+        UserLibrary get() {
+            CompletableFuture<UserLibrary> pending;
+            synchronized (this) {
+                if (library != null && (loading != null || !isExpired(loadedAt))) {
+                    return library;
+                }
+                if (loading != null) {
+                    pending = loading;
+                } else {
+                    loading = new CompletableFuture<>();
+                    updatesWhileLoading = new ArrayList<>();
+                    pending = null;
+                }
+            }
+            if (pending != null) {
+                try {
+                    return pending.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+            return reload();
+        }
+
+        private UserLibrary reload() {
+            UserLibrary loaded;
+            CompletableFuture<UserLibrary> done;
+            try {
+                loaded = load(userId);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    done = loading;
+                    loading = null;
+                    updatesWhileLoading = null;
+                }
+                done.completeExceptionally(e);
+                throw e;
+            }
+            synchronized (this) {
+                for (UnaryOperator<UserLibrary> update : updatesWhileLoading) {
+                    loaded = update.apply(loaded);
+                }
+                library = loaded;
+                loadedAt = System.nanoTime();
+                done = loading;
+                loading = null;
+                updatesWhileLoading = null;
+            }
+            done.complete(loaded);
+            return loaded;
+        }
+
+        synchronized void update(UnaryOperator<UserLibrary> update) {
+            if (library != null) {
+                library = update.apply(library);
+            }
+            if (updatesWhileLoading != null) {
+                updatesWhileLoading.add(update);
+            }
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.parchelector.dto.response.UserProfileResponse;
 import com.parchelector.model.entity.ReadingStatus;
 import com.parchelector.model.entity.Review;
 import com.parchelector.model.entity.User;
-import com.parchelector.repository.FollowRepository;
 import com.parchelector.repository.ReadingStatusRepository;
 import com.parchelector.repository.ReviewRepository;
 import com.parchelector.repository.UserRepository;
@@ -27,9 +26,6 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired
-    private FollowRepository followRepository;
-
     @Autowired
     private ReadingStatusRepository readingStatusRepository;
 
@@ -45,8 +41,8 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         // Get follower and following counts
-        long followers = followRepository.countFollowersByUserId(userId);
-        long following = followRepository.countFollowingByUserId(userId);
+        long followers = user.getFollowersCount();
+        long following = user.getFollowingCount();
 
         // Get user's books with reading status
         List<ReadingStatus> readingStatuses = readingStatusRepository.findByUserIdWithBooks(userId);
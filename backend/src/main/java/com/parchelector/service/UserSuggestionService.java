@@ -0,0 +1,382 @@
+package com.parchelector.service;
+
+import com.parchelector.config.SchedulingConfig;
+import com.parchelector.dto.response.UserSuggestionResponse;
+import com.parchelector.repository.AuthorFollowRepository;
+import com.parchelector.repository.ReadingStatusRepository;
+import com.parchelector.repository.UserSuggestionRepository;
+import com.parchelector.repository.UserSuggestionRepository.SuggestionSummary;
+import com.parchelector.service.SuggestionRanker.Suggestion;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Service for "who to follow" suggestions. A batch job ranks the friends of friends of every
+ * user with a SuggestionRanker over the in-memory follow graph and the books and followed
+ * authors of all users, in parallel over ranges of user IDs, and stores the best ones of each
+ * user in user_suggestions, so serving them is one primary key range read. Users who follow
+ * or unfollow someone are ranked again on their own shortly after, with the books and
+ * authors they share counted in the database.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Service
+public class UserSuggestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSuggestionService.class);
+
+    private static final String DELETE_RANGE = "DELETE FROM user_suggestions WHERE user_id >= ? AND user_id < ?";
+
+    private static final String DELETE_USER = "DELETE FROM user_suggestions WHERE user_id = ?";
+
+    private static final String INSERT =
+            "INSERT INTO user_suggestions (user_id, position, suggested_user_id, score, mutual_follows, " +
+            "shared_books, shared_authors, computed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private UserSuggestionRepository userSuggestionRepository;
+
+    @Autowired
+    private ReadingStatusRepository readingStatusRepository;
+
+    @Autowired
+    private AuthorFollowRepository authorFollowRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.suggestions.max-suggestions:20}")
+    private int maxSuggestions;
+
+    @Value("${app.suggestions.candidate-pool:200}")
+    private int candidatePool;
+
+    @Value("${app.suggestions.max-fanout:1000}")
+    private int maxFanout;
+
+    @Value("${app.suggestions.weight.mutual-follow:1.0}")
+    private double mutualFollowWeight;
+
+    @Value("${app.suggestions.weight.book:0.2}")
+    private double bookWeight;
+
+    @Value("${app.suggestions.weight.author:0.5}")
+    private double authorWeight;
+
+    @Value("${app.suggestions.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.suggestions.partition-size:5000}")
+    private int partitionSize;
+
+    @Value("${app.suggestions.refresh-batch-size:500}")
+    private int refreshBatchSize;
+
+    private SuggestionRanker.Settings settings;
+
+    // Runs the batch job, which takes minutes, away from the scheduler pool
+    private ExecutorService jobExecutor;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Users whose follows changed since their suggestions were ranked
+    private final Set<Long> staleUsers = ConcurrentHashMap.newKeySet();
+
+    // Ranker of the refresh and the graph it walks; refreshStale only, which never overlaps itself
+    private SuggestionRanker refreshRanker;
+    private FollowGraph refreshGraph;
+
+    @PostConstruct
+    public void start() {
+        settings = new SuggestionRanker.Settings(maxSuggestions, candidatePool, maxFanout,
+                mutualFollowWeight, bookWeight, authorWeight);
+        jobExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("user-suggestions-"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Get a user's suggestions, best first, leaving out the users followed since they were ranked.
+     */
+    public List<UserSuggestionResponse> getSuggestions(Long userId, int limit) {
+        if (limit < 1 || limit > maxSuggestions) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxSuggestions);
+        }
+        List<SuggestionSummary> rows = userSuggestionRepository.findByUserId(userId, PageRequest.of(0, maxSuggestions));
+        List<UserSuggestionResponse> suggestions = new ArrayList<>(limit);
+        for (SuggestionSummary row : rows) {
+            if (suggestions.size() == limit) {
+                break;
+            }
+            if (!followGraphService.isFollowing(userId, row.getUserId())) {
+                suggestions.add(new UserSuggestionResponse(row.getUserId(), row.getUsername(), row.getAvatarUrl(),
+                        row.getMutualFollows(), row.getSharedBooks(), row.getSharedAuthors()));
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Rank a user's suggestions again once the current transaction commits, after a follow or unfollow.
+     */
+    public void markStaleAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    staleUsers.add(userId);
+                }
+            });
+        } else {
+            staleUsers.add(userId);
+        }
+    }
+
+    int staleCount() {
+        return staleUsers.size();
+    }
+
+    /**
+     * Start the batch job on its own thread, unless it is running.
+     */
+    @Scheduled(fixedDelayString = "${app.suggestions.rebuild-interval-ms:86400000}",
+               initialDelayString = "${app.suggestions.rebuild-initial-delay-ms:600000}")
+    public void scheduleRebuild() {
+        if (!rebuilding.get()) {
+            jobExecutor.execute(this::rebuildAll);
+        }
+    }
+
+    /**
+     * Rank every user who follows someone and replace all stored suggestions, one range of
+     * user IDs per transaction.
+     */
+    public void rebuildAll() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            // Fold in the latest follows first; the ones made while the job runs leave their
+            // followers stale, and these are ranked again after it
+            followGraphService.rebuildIfChanged();
+            FollowGraph graph = followGraphService.getGraph();
+            if (graph == null) {
+                logger.info("Follow graph not built yet, user suggestions not ranked");
+                return;
+            }
+
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            UserItemSets books = readOnly.execute(status -> load(readingStatusRepository.streamUserBooks()));
+            UserItemSets authors = readOnly.execute(status -> load(authorFollowRepository.streamAll()));
+            long loadedAt = System.currentTimeMillis();
+
+            ThreadLocal<SuggestionRanker> rankers = ThreadLocal.withInitial(() -> new SuggestionRanker(
+                    graph, SuggestionRanker.SharedItems.of(books), SuggestionRanker.SharedItems.of(authors), settings));
+            AtomicLong written = new AtomicLong();
+            ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            try {
+                pool.invoke(new RankRange(graph, rankers, LocalDateTime.now(), written, 0, graph.userIdBound()));
+            } finally {
+                pool.shutdown();
+            }
+
+            logger.info("Ranked user suggestions: {} users, {} suggestions; loaded {} books and {} author follows in {} ms, ranked and written in {} ms",
+                    graph.userIdBound(), written.get(), books.entryCount(), authors.entryCount(),
+                    loadedAt - startedAt, System.currentTimeMillis() - loadedAt);
+        } catch (RuntimeException e) {
+            // Partitions written before the failure keep their new suggestions, the rest their old ones
+            logger.warn("Failed to rank user suggestions", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Rank again the users whose follows changed, up to a batch per run. Waits while the
+     * batch job runs, which would overwrite them.
+     */
+    @Scheduled(fixedDelayString = "${app.suggestions.refresh-interval-ms:60000}",
+               initialDelayString = "${app.suggestions.refresh-interval-ms:60000}",
+               scheduler = SchedulingConfig.JOB_SCHEDULER)
+    public void refreshStale() {
+        FollowGraph graph = followGraphService.getGraph();
+        if (graph == null || rebuilding.get() || staleUsers.isEmpty()) {
+            return;
+        }
+        if (graph != refreshGraph) {
+            refreshRanker = new SuggestionRanker(graph, this::countSharedBooks, this::countSharedAuthors, settings);
+            refreshGraph = graph;
+        }
+
+        LocalDateTime computedAt = LocalDateTime.now();
+        int refreshed = 0;
+        Iterator<Long> stale = staleUsers.iterator();
+        while (stale.hasNext() && refreshed < refreshBatchSize) {
+            Long userId = stale.next();
+            stale.remove();
+            try {
+                refresh(userId, computedAt);
+                refreshed++;
+            } catch (RuntimeException e) {
+                // Try again on the next run
+                staleUsers.add(userId);
+                logger.warn("Failed to refresh suggestions of user {}", userId, e);
+                return;
+            }
+        }
+    }
+
+    private void refresh(Long userId, LocalDateTime computedAt) {
+        // The user's own follows include the ones made since the graph was built
+        int[] following = followGraphService.getFollowedUserIds(userId).stream()
+                .mapToInt(Math::toIntExact)
+                .toArray();
+        List<Suggestion> suggestions = following.length == 0 ? List.of() : refreshRanker.rank(userId, following);
+        List<Object[]> rows = new ArrayList<>(suggestions.size());
+        addRows(rows, userId, suggestions, computedAt);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_USER, userId);
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT, rows);
+            }
+        });
+    }
+
+    private int[] countSharedBooks(long userId, int[] candidateIds) {
+        return inCandidateOrder(readingStatusRepository.countSharedBooks(userId, toLongs(candidateIds)), candidateIds);
+    }
+
+    private int[] countSharedAuthors(long userId, int[] candidateIds) {
+        return inCandidateOrder(authorFollowRepository.countSharedAuthors(userId, toLongs(candidateIds)), candidateIds);
+    }
+
+    private static List<Long> toLongs(int[] ids) {
+        List<Long> longs = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            longs.add((long) id);
+        }
+        return longs;
+    }
+
+    // Counts by candidate ID, 0 for the candidates missing from the rows
+    private static int[] inCandidateOrder(List<Object[]> rows, int[] candidateIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        int[] ordered = new int[candidateIds.length];
+        for (int i = 0; i < candidateIds.length; i++) {
+            ordered[i] = counts.getOrDefault((long) candidateIds[i], 0);
+        }
+        return ordered;
+    }
+
+    private static UserItemSets load(Stream<Object[]> rows) {
+        UserItemSets.Builder builder = new UserItemSets.Builder();
+        try (rows) {
+            rows.forEach(row -> builder.add((Long) row[0], (Long) row[1]));
+        }
+        return builder.build();
+    }
+
+    private static void addRows(List<Object[]> rows, long userId, List<Suggestion> suggestions, LocalDateTime computedAt) {
+        Timestamp timestamp = Timestamp.valueOf(computedAt);
+        for (int position = 0; position < suggestions.size(); position++) {
+            Suggestion suggestion = suggestions.get(position);
+            rows.add(new Object[] {userId, position, suggestion.getUserId(), suggestion.getScore(),
+                    suggestion.getMutualFollows(), suggestion.getSharedBooks(), suggestion.getSharedAuthors(), timestamp});
+        }
+    }
+
+    /**
+     * Ranks the users of an ID range, split in halves down to partitionSize users, and
+     * replaces their suggestions in one transaction per partition.
+     */
+    private final class RankRange extends RecursiveAction {
+
+        private final FollowGraph graph;
+        private final ThreadLocal<SuggestionRanker> rankers;
+        private final LocalDateTime computedAt;
+        private final AtomicLong written;
+        private final int from;
+        private final int to;
+
+        RankRange(FollowGraph graph, ThreadLocal<SuggestionRanker> rankers, LocalDateTime computedAt,
+                  AtomicLong written, int from, int to) {
+            this.graph = graph;
+            this.rankers = rankers;
+            this.computedAt = computedAt;
+            this.written = written;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > partitionSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RankRange(graph, rankers, computedAt, written, from, middle),
+                        new RankRange(graph, rankers, computedAt, written, middle, to));
+                return;
+            }
+
+            SuggestionRanker ranker = rankers.get();
+            List<Object[]> rows = new ArrayList<>();
+            for (int userId = from; userId < to; userId++) {
+                if (graph.followingCount(userId) > 0) {
+                    addRows(rows, userId, ranker.rank(userId, graph.following(userId)), computedAt);
+                }
+            }
+            // Also clears the users who follow no one any more
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.update(DELETE_RANGE, from, to);
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT, rows);
+                }
+            });
+            written.addAndGet(rows.size());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.parchelector.service.catalog;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of a catalog import run.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Data
+@NoArgsConstructor
+public class CatalogImportResult {
+    private long resumedFrom; // Records skipped because a previous run already imported them
+    private long read;        // Records read in this run, rejected ones included
+    private long inserted;
+    private long updated;
+    private long rejected;
+    private long elapsedMillis;
+
+    /**
+     * Records read per second in this run.
+     */
+    public long getThroughput() {
+        return elapsedMillis > 0 ? read * 1000 / elapsedMillis : read;
+    }
+}
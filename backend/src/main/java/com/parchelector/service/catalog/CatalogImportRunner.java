@@ -0,0 +1,34 @@
+package com.parchelector.service.catalog;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Imports the catalog named by app.import.file at startup, e.g.
+ * java -jar app.jar --app.import.file=/data/catalog.jsonl.gz
+ * It runs before the application is ready, so the startup rebuilds of the suggestion
+ * index, trending snapshot and popularity counters already see the imported books.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Component
+@ConditionalOnProperty(name = "app.import.file")
+public class CatalogImportRunner implements ApplicationRunner {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Value("${app.import.file}")
+    private String file;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        catalogImportService.importCatalog(Path.of(file));
+    }
+}
@@ -0,0 +1,240 @@
+package com.parchelector.service.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Service that imports a catalog dump (CSV or JSONL) into books, authors and genres.
+ * The file is streamed and written in batches, so memory does not grow with its size.
+ * After each committed batch a checkpoint is saved next to the file; a failed or
+ * interrupted import started again on the same file resumes after the last checkpoint.
+ * Books are matched by ISBN-13, so re-importing a record updates the book instead of
+ * duplicating it.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private static final int LOGGED_REJECTIONS = 20;
+
+    @Autowired
+    private CatalogWriter catalogWriter;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.import.progress-interval-ms:10000}")
+    private long progressIntervalMs;
+
+    /**
+     * Import a catalog file, resuming from its checkpoint if a previous run did not finish.
+     */
+    public CatalogImportResult importCatalog(Path file) throws IOException {
+        Path checkpoint = file.resolveSibling(file.getFileName() + ".checkpoint");
+        String fingerprint = Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+
+        CatalogImportResult result = new CatalogImportResult();
+        result.setResumedFrom(readCheckpoint(checkpoint, fingerprint));
+
+        catalogWriter.loadIndexes();
+        logger.info("Importing catalog {} ({} authors and {} genres already known){}", file,
+                catalogWriter.getAuthorCount(), catalogWriter.getGenreCount(),
+                result.getResumedFrom() > 0 ? ", resuming after record " + result.getResumedFrom() : "");
+
+        long startedAt = System.nanoTime();
+        long reportedAt = startedAt;
+        try (CatalogReader reader = CatalogReader.open(file)) {
+            long position = reader.skip(result.getResumedFrom());
+            // Keyed by ISBN-13: a book repeated within a batch keeps its last record
+            Map<String, CatalogRecord> batch = new LinkedHashMap<>();
+
+            while (true) {
+                CatalogRecord record;
+                try {
+                    record = reader.next();
+                } catch (IllegalArgumentException e) {
+                    position++;
+                    result.setRead(result.getRead() + 1);
+                    reject(result, position, e.getMessage());
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+                position++;
+                result.setRead(result.getRead() + 1);
+
+                String problem = normalize(record);
+                if (problem != null) {
+                    reject(result, position, problem);
+                    continue;
+                }
+                batch.put(record.getIsbn13(), record);
+
+                if (batch.size() >= batchSize) {
+                    flush(batch, result);
+                    writeCheckpoint(checkpoint, fingerprint, position);
+                    long now = System.nanoTime();
+                    if (now - reportedAt >= progressIntervalMs * 1_000_000) {
+                        reportedAt = now;
+                        result.setElapsedMillis((now - startedAt) / 1_000_000);
+                        logProgress("Catalog import progress", result);
+                    }
+                }
+            }
+            flush(batch, result);
+        }
+
+        Files.deleteIfExists(checkpoint);
+        result.setElapsedMillis((System.nanoTime() - startedAt) / 1_000_000);
+        logProgress("Catalog import finished", result);
+        return result;
+    }
+
+    private void flush(Map<String, CatalogRecord> batch, CatalogImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        CatalogWriter.BatchResult written = catalogWriter.write(batch.values());
+        result.setInserted(result.getInserted() + written.getInserted());
+        result.setUpdated(result.getUpdated() + written.getUpdated());
+        batch.clear();
+    }
+
+    private void reject(CatalogImportResult result, long position, String problem) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getRejected() <= LOGGED_REJECTIONS) {
+            logger.warn("Rejected catalog record {}: {}", position, problem);
+        } else if (result.getRejected() == LOGGED_REJECTIONS + 1) {
+            logger.warn("More records rejected; only the total will be reported");
+        }
+    }
+
+    private void logProgress(String message, CatalogImportResult result) {
+        logger.info("{}: {} records read, {} books inserted, {} updated, {} rejected ({} records/s)",
+                message, result.getRead(), result.getInserted(), result.getUpdated(),
+                result.getRejected(), result.getThroughput());
+    }
+
+    /**
+     * Clean up a record in place.
+     * @return why the record cannot be imported, or null if it can
+     */
+    String normalize(CatalogRecord record) {
+        if (record.getTitle() == null || record.getTitle().isBlank()) {
+            return "missing title";
+        }
+        record.setTitle(record.getTitle().trim());
+
+        String isbn10 = record.getIsbn10() != null
+                ? record.getIsbn10().replaceAll("[^0-9Xx]", "").toUpperCase() : null;
+        record.setIsbn10(isValidIsbn10(isbn10) ? isbn10 : null);
+
+        String isbn13 = record.getIsbn13() != null ? record.getIsbn13().replaceAll("[^0-9]", "") : "";
+        if (isbn13.isEmpty() && record.getIsbn10() != null) {
+            isbn13 = isbn10ToIsbn13(record.getIsbn10());
+        }
+        if (!isValidIsbn13(isbn13)) {
+            return isbn13.isEmpty() ? "missing ISBN" : "invalid ISBN-13 " + record.getIsbn13();
+        }
+        record.setIsbn13(isbn13);
+
+        record.setAuthors(cleanNames(record.getAuthors()));
+        record.setGenres(cleanNames(record.getGenres()));
+        return null;
+    }
+
+    private static List<String> cleanNames(List<String> names) {
+        if (names == null) {
+            return new ArrayList<>();
+        }
+        return names.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    static boolean isValidIsbn13(String isbn) {
+        if (isbn == null || !isbn.matches("\\d{13}")) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            sum += (isbn.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return sum % 10 == 0;
+    }
+
+    static boolean isValidIsbn10(String isbn) {
+        if (isbn == null || !isbn.matches("\\d{9}[\\dX]")) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = isbn.charAt(i);
+            sum += (c == 'X' ? 10 : c - '0') * (10 - i);
+        }
+        return sum % 11 == 0;
+    }
+
+    static String isbn10ToIsbn13(String isbn10) {
+        String digits = "978" + isbn10.substring(0, 9);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+
+    /**
+     * Records already imported from this exact file, or 0 if there is no matching checkpoint.
+     */
+    private long readCheckpoint(Path checkpoint, String fingerprint) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpoint)) {
+            properties.load(reader);
+        }
+        if (!fingerprint.equals(properties.getProperty("fingerprint"))) {
+            logger.warn("Ignoring checkpoint {}: the catalog file changed since it was written", checkpoint);
+            return 0;
+        }
+        return Long.parseLong(properties.getProperty("records", "0"));
+    }
+
+    private void writeCheckpoint(Path checkpoint, String fingerprint, long records) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("fingerprint", fingerprint);
+        properties.setProperty("records", Long.toString(records));
+
+        // Write then rename, so a crash never leaves a half-written checkpoint
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary)) {
+            properties.store(writer, "Catalog import checkpoint");
+        }
+        Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,72 @@
+package com.parchelector.service.catalog;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming reader of a catalog dump: records are parsed one at a time, so memory use
+ * does not depend on the size of the file.
+ *
+ * @author Nicolas Arciniegas
+ */
+public interface CatalogReader extends Closeable {
+
+    /**
+     * Read the next record, or null at the end of the file.
+     * @throws IllegalArgumentException if the record is malformed; the reader is left
+     *         positioned after it, so reading can continue
+     */
+    CatalogRecord next() throws IOException;
+
+    /**
+     * Move past records that were already imported.
+     * @return the number of records skipped, less than requested if the file ended
+     */
+    default long skip(long records) throws IOException {
+        long skipped = 0;
+        while (skipped < records) {
+            try {
+                if (next() == null) {
+                    break;
+                }
+            } catch (IllegalArgumentException e) {
+                // Malformed records count as consumed, as they did when first read
+            }
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * Open a dump by its extension: .csv or .jsonl / .ndjson, optionally gzip compressed (.gz).
+     */
+    static CatalogReader open(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        InputStream input = Files.newInputStream(file);
+        if (name.endsWith(".gz")) {
+            input = new GZIPInputStream(input, 1 << 16);
+            name = name.substring(0, name.length() - 3);
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+
+        try {
+            if (name.endsWith(".csv")) {
+                return new CsvCatalogReader(reader);
+            }
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+                return new JsonLinesCatalogReader(reader);
+            }
+            throw new IllegalArgumentException("Unsupported catalog format: " + file.getFileName());
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+}
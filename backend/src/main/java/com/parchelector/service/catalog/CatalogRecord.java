@@ -0,0 +1,33 @@
+package com.parchelector.service.catalog;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One book of a catalog dump. JSONL objects and CSV headers use the snake_case field names
+ * (isbn13, published_year, cover_url, ...); in CSV, authors and genres are separated by '|'.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class CatalogRecord {
+    private String isbn13;
+    private String isbn10;
+    private String title;
+    private String description;
+    private Integer publishedYear;
+    private String coverUrl;
+    private String language;
+    private Integer pageCount;
+    private List<String> authors = new ArrayList<>();
+    private List<String> genres = new ArrayList<>();
+}
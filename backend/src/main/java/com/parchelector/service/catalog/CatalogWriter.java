@@ -0,0 +1,280 @@
+package com.parchelector.service.catalog;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes batches of catalog records to PostgreSQL with JDBC batch statements, one
+ * transaction per batch. Books are upserted by isbn13; authors and genres are resolved
+ * through in-memory name indexes, so each new name is inserted once and existing ones
+ * never need a lookup query. Not thread-safe: one import runs at a time.
+ *
+ * @author Nicolas Arciniegas
+ */
+@Component
+public class CatalogWriter {
+
+    private static final String INSERT_BOOK =
+            "INSERT INTO books (id, title, description, isbn10, isbn13, published_year, cover_url, " +
+            "language, page_count, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    // Fields missing from the dump keep their current value
+    private static final String UPDATE_BOOK =
+            "UPDATE books SET title = ?, description = COALESCE(?, description), isbn10 = COALESCE(?, isbn10), " +
+            "published_year = COALESCE(?, published_year), cover_url = COALESCE(?, cover_url), " +
+            "language = COALESCE(?, language), page_count = COALESCE(?, page_count), " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final int[] INSERT_BOOK_TYPES = {
+            Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER
+    };
+
+    private static final int[] UPDATE_BOOK_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER,
+            Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.BIGINT
+    };
+
+    private static final String INSERT_AUTHOR =
+            "INSERT INTO authors (id, name, created_at, updated_at) VALUES (?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    private static final String INSERT_GENRE = "INSERT INTO genres (id, name) VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Normalized name -> id of every author and genre in the database
+    private final Map<String, Long> authorIds = new HashMap<>();
+    private final Map<String, Long> genreIds = new HashMap<>();
+
+    /**
+     * Load the author and genre indexes. Call once before writing the first batch.
+     */
+    public void loadIndexes() {
+        authorIds.clear();
+        genreIds.clear();
+
+        // Stream the rows instead of buffering the whole table in the driver
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(10_000);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            streaming.query("SELECT id, name FROM authors ORDER BY id",
+                    rs -> { authorIds.putIfAbsent(nameKey(rs.getString(2)), rs.getLong(1)); });
+            streaming.query("SELECT id, name FROM genres",
+                    rs -> { genreIds.putIfAbsent(nameKey(rs.getString(2)), rs.getLong(1)); });
+        });
+    }
+
+    public int getAuthorCount() {
+        return authorIds.size();
+    }
+
+    public int getGenreCount() {
+        return genreIds.size();
+    }
+
+    /**
+     * Upsert a batch of valid records with distinct isbn13 values in one transaction.
+     * @return the number of books inserted and updated
+     */
+    public BatchResult write(Collection<CatalogRecord> records) {
+        Map<String, Long> newAuthors = new LinkedHashMap<>();
+        Map<String, Long> newGenres = new LinkedHashMap<>();
+
+        BatchResult result = new TransactionTemplate(transactionManager)
+                .execute(status -> writeBatch(records, newAuthors, newGenres));
+
+        // Only names whose rows were committed may be reused by later batches
+        authorIds.putAll(newAuthors);
+        genreIds.putAll(newGenres);
+        return result;
+    }
+
+    private BatchResult writeBatch(Collection<CatalogRecord> records,
+                                   Map<String, Long> newAuthors, Map<String, Long> newGenres) {
+        Map<String, Long> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT isbn13, id FROM books WHERE isbn13 = ANY(?)",
+                rs -> { existing.put(rs.getString(1), rs.getLong(2)); },
+                (Object) records.stream().map(CatalogRecord::getIsbn13).toArray(String[]::new));
+
+        int insertCount = records.size() - existing.size();
+        List<Long> newBookIds = allocateIds("books", insertCount);
+        List<Object[]> inserts = new ArrayList<>(insertCount);
+        List<Object[]> updates = new ArrayList<>(existing.size());
+        List<Long> relinkedAuthors = new ArrayList<>();
+        List<Long> relinkedGenres = new ArrayList<>();
+        Map<Long, CatalogRecord> recordsById = new LinkedHashMap<>();
+
+        for (CatalogRecord record : records) {
+            Long bookId = existing.get(record.getIsbn13());
+            Object[] fields = {
+                    truncate(record.getTitle(), 255), record.getDescription(), truncate(record.getIsbn10(), 10),
+                    record.getPublishedYear(), truncate(record.getCoverUrl(), 512),
+                    truncate(record.getLanguage(), 10), record.getPageCount()
+            };
+            if (bookId == null) {
+                bookId = newBookIds.get(inserts.size());
+                inserts.add(new Object[] {bookId, fields[0], fields[1], fields[2], record.getIsbn13(),
+                        fields[3], fields[4], fields[5], fields[6]});
+            } else {
+                Object[] update = new Object[fields.length + 1];
+                System.arraycopy(fields, 0, update, 0, fields.length);
+                update[fields.length] = bookId;
+                updates.add(update);
+                if (!record.getAuthors().isEmpty()) {
+                    relinkedAuthors.add(bookId);
+                }
+                if (!record.getGenres().isEmpty()) {
+                    relinkedGenres.add(bookId);
+                }
+            }
+            recordsById.put(bookId, record);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_BOOK, inserts, INSERT_BOOK_TYPES);
+        jdbcTemplate.batchUpdate(UPDATE_BOOK, updates, UPDATE_BOOK_TYPES);
+
+        // Updated books that list authors or genres have those links replaced
+        if (!relinkedAuthors.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM book_authors WHERE book_id = ANY(?)",
+                    (Object) relinkedAuthors.toArray(new Long[0]));
+        }
+        if (!relinkedGenres.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM book_genres WHERE book_id = ANY(?)",
+                    (Object) relinkedGenres.toArray(new Long[0]));
+        }
+        writeLinks(recordsById, newAuthors, newGenres);
+        return new BatchResult(inserts.size(), updates.size());
+    }
+
+    /**
+     * Link books to their authors and genres, inserting the names not seen before.
+     */
+    private void writeLinks(Map<Long, CatalogRecord> recordsById,
+                            Map<String, Long> newAuthors, Map<String, Long> newGenres) {
+        Map<String, String> missingAuthors = new LinkedHashMap<>();
+        Map<String, String> missingGenres = new LinkedHashMap<>();
+        for (CatalogRecord record : recordsById.values()) {
+            collectMissing(record.getAuthors(), authorIds, missingAuthors);
+            collectMissing(record.getGenres(), genreIds, missingGenres);
+        }
+        insertNames("authors", INSERT_AUTHOR, missingAuthors, 255, newAuthors);
+        insertNames("genres", INSERT_GENRE, missingGenres, 64, newGenres);
+
+        List<Object[]> authorLinks = new ArrayList<>();
+        List<Object[]> genreLinks = new ArrayList<>();
+        for (Map.Entry<Long, CatalogRecord> entry : recordsById.entrySet()) {
+            int position = 1;
+            for (Long authorId : resolve(entry.getValue().getAuthors(), authorIds, newAuthors)) {
+                authorLinks.add(new Object[] {entry.getKey(), authorId, position++});
+            }
+            for (Long genreId : resolve(entry.getValue().getGenres(), genreIds, newGenres)) {
+                genreLinks.add(new Object[] {entry.getKey(), genreId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO book_authors (book_id, author_id, position) VALUES (?, ?, ?)",
+                authorLinks, new int[] {Types.BIGINT, Types.BIGINT, Types.INTEGER});
+        jdbcTemplate.batchUpdate("INSERT INTO book_genres (book_id, genre_id) VALUES (?, ?)",
+                genreLinks, new int[] {Types.BIGINT, Types.BIGINT});
+    }
+
+    private void collectMissing(List<String> names, Map<String, Long> ids, Map<String, String> missing) {
+        for (String name : names) {
+            String key = nameKey(name);
+            if (!ids.containsKey(key)) {
+                // The first spelling seen of a name is the one stored
+                missing.putIfAbsent(key, name.trim());
+            }
+        }
+    }
+
+    private void insertNames(String table, String sql, Map<String, String> names, int maxLength,
+                             Map<String, Long> inserted) {
+        List<Long> ids = allocateIds(table, names.size());
+        List<Object[]> rows = new ArrayList<>(names.size());
+        for (Map.Entry<String, String> name : names.entrySet()) {
+            Long id = ids.get(rows.size());
+            inserted.put(name.getKey(), id);
+            rows.add(new Object[] {id, truncate(name.getValue(), maxLength)});
+        }
+        jdbcTemplate.batchUpdate(sql, rows, new int[] {Types.BIGINT, Types.VARCHAR});
+    }
+
+    /**
+     * Ids of the distinct names, in order, from the committed index or this batch's inserts.
+     */
+    private Collection<Long> resolve(List<String> names, Map<String, Long> ids, Map<String, Long> batchIds) {
+        Set<Long> resolved = new LinkedHashSet<>();
+        for (String name : names) {
+            String key = nameKey(name);
+            Long id = ids.get(key);
+            resolved.add(id != null ? id : batchIds.get(key));
+        }
+        return resolved;
+    }
+
+    /**
+     * Reserve ids from the table's sequence in one round trip, so rows can be linked
+     * before they are inserted and inserts can be batched.
+     */
+    private List<Long> allocateIds(String table, int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)",
+                Long.class, table, count);
+    }
+
+    static String nameKey(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    /**
+     * Number of books inserted and updated by one batch.
+     */
+    public static class BatchResult {
+
+        private final int inserted;
+        private final int updated;
+
+        public BatchResult(int inserted, int updated) {
+            this.inserted = inserted;
+            this.updated = updated;
+        }
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.parchelector.service.catalog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a CSV catalog (RFC 4180: quoted fields may contain commas, doubled quotes and
+ * line breaks). The first row is a header naming the columns; columns may come in any
+ * order and unknown ones are ignored. Authors and genres hold several values separated by '|'.
+ *
+ * @author Nicolas Arciniegas
+ */
+public class CsvCatalogReader implements CatalogReader {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long row = 1;
+
+    public CsvCatalogReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRow();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV catalog is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title") || !(columns.containsKey("isbn13") || columns.containsKey("isbn10"))) {
+            throw new IllegalArgumentException("CSV header must name a title column and an isbn13 or isbn10 column");
+        }
+    }
+
+    @Override
+    public CatalogRecord next() throws IOException {
+        List<String> fields = readRow();
+        if (fields == null) {
+            return null;
+        }
+        row++;
+        if (fields.size() != columns.size()) {
+            throw new IllegalArgumentException("Row " + row + " has " + fields.size() +
+                    " fields, expected " + columns.size());
+        }
+
+        CatalogRecord record = new CatalogRecord();
+        record.setIsbn13(text(fields, "isbn13"));
+        record.setIsbn10(text(fields, "isbn10"));
+        record.setTitle(text(fields, "title"));
+        record.setDescription(text(fields, "description"));
+        record.setPublishedYear(number(fields, "published_year"));
+        record.setCoverUrl(text(fields, "cover_url"));
+        record.setLanguage(text(fields, "language"));
+        record.setPageCount(number(fields, "page_count"));
+        record.setAuthors(list(fields, "authors"));
+        record.setGenres(list(fields, "genres"));
+        return record;
+    }
+
+    private String text(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private Integer number(List<String> fields, String column) {
+        String value = text(fields, column);
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Row " + row + ": " + column + " is not a number: " + value);
+        }
+    }
+
+    private List<String> list(List<String> fields, String column) {
+        String value = text(fields, column);
+        if (value == null) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(value.split("\\|"))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Read the fields of the next row, or null at the end of the file.
+     */
+    private List<String> readRow() throws IOException {
+        int c = reader.read();
+        while (c == '\r' || c == '\n') {
+            c = reader.read();
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    c = reader.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
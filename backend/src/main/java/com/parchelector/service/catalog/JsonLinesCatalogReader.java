@@ -0,0 +1,66 @@
+package com.parchelector.service.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads a catalog with one JSON object per line. Blank lines are ignored.
+ *
+ * @author Nicolas Arciniegas
+ */
+public class JsonLinesCatalogReader implements CatalogReader {
+
+    private static final ObjectReader RECORD_READER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+            .readerFor(CatalogRecord.class);
+
+    private final BufferedReader reader;
+    private long line;
+
+    public JsonLinesCatalogReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public CatalogRecord next() throws IOException {
+        String json = nextLine();
+        if (json == null) {
+            return null;
+        }
+        try {
+            return RECORD_READER.readValue(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON at line " + line + ": " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public long skip(long records) throws IOException {
+        // Records are whole lines, so there is no need to parse them
+        long skipped = 0;
+        while (skipped < records && nextLine() != null) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    private String nextLine() throws IOException {
+        String json;
+        do {
+            json = reader.readLine();
+            line++;
+        } while (json != null && json.isBlank());
+        return json;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,131 @@
+package com.parchelector.repository;
+
+import com.parchelector.model.entity.Book;
+import com.parchelector.model.entity.Review;
+import com.parchelector.model.entity.ReviewComment;
+import com.parchelector.model.entity.ReviewLike;
+import com.parchelector.model.entity.User;
+import com.parchelector.repository.ReviewRepository.ReviewSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the book page and review counter queries of ReviewRepository, against an in-memory database.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("ReviewRepository Tests")
+class ReviewRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private User reader;
+    private Review review;
+
+    @BeforeEach
+    void setUp() {
+        reader = user("reader");
+        Book book = new Book();
+        book.setTitle("Cien años de soledad");
+        entityManager.persist(book);
+
+        review = new Review();
+        review.setUser(user("author"));
+        review.setBook(book);
+        review.setRating(new BigDecimal("4.5"));
+        review.setCreatedAt(LocalDateTime.of(2025, 11, 1, 12, 0));
+        review.setUpdatedAt(review.getCreatedAt());
+        entityManager.persist(review);
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("hash");
+        return entityManager.persist(user);
+    }
+
+    private void comment(boolean deleted) {
+        ReviewComment comment = new ReviewComment();
+        comment.setReview(review);
+        comment.setUser(reader);
+        comment.setBody("Great read");
+        comment.setIsDeleted(deleted);
+        entityManager.persist(comment);
+    }
+
+    private Review reload() {
+        entityManager.clear();
+        return entityManager.find(Review.class, review.getId());
+    }
+
+    @Test
+    @DisplayName("Should page a book's reviews as summaries, without the body")
+    void findBookReviewsByNewest_ReturnsSummaries() {
+        review.setBody("Una novela inolvidable");
+        review.setExcerpt("Una novela…");
+        entityManager.flush();
+
+        List<ReviewSummary> page = reviewRepository.findBookReviewsByNewest(review.getBook().getId(), null, null,
+                LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE, PageRequest.of(0, 2));
+
+        assertEquals(1, page.size());
+        assertEquals(review.getId(), page.get(0).getId());
+        assertEquals("author", page.get(0).getUsername());
+        assertEquals("Una novela…", page.get(0).getExcerpt());
+        assertTrue(reviewRepository.findBookReviewsByNewest(review.getBook().getId(), null, null,
+                review.getCreatedAt(), review.getId(), PageRequest.of(0, 2)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should move the comment counter by the given delta")
+    void adjustCommentCount_AppliesDelta() {
+        reviewRepository.adjustCommentCount(review.getId(), 1);
+        reviewRepository.adjustCommentCount(review.getId(), 1);
+        reviewRepository.adjustCommentCount(review.getId(), -1);
+
+        assertEquals(1, reload().getCommentCount());
+        assertEquals(1, reviewRepository.sumCommentCounts());
+    }
+
+    @Test
+    @DisplayName("Should rebuild only the drifted counters from likes and non-deleted comments")
+    void rebuildInteractionCounts_RepairsDrift() {
+        comment(false);
+        comment(false);
+        comment(true);
+        ReviewLike like = new ReviewLike();
+        like.setId(new ReviewLike.ReviewLikeId(review.getId(), reader.getId()));
+        like.setReview(review);
+        like.setUser(reader);
+        entityManager.persist(like);
+        // The counter missed one of the comments
+        reviewRepository.adjustCommentCount(review.getId(), 1);
+        entityManager.flush();
+
+        assertEquals(1, reviewRepository.rebuildInteractionCounts());
+
+        Review repaired = reload();
+        assertEquals(1, repaired.getLikeCount());
+        assertEquals(2, repaired.getCommentCount());
+        // Nothing left to repair
+        assertEquals(0, reviewRepository.rebuildInteractionCounts());
+    }
+}
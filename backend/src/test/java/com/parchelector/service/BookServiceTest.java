@@ -2,7 +2,9 @@ package com.parchelector.service;
 
 import com.parchelector.dto.request.FavoriteBookRequest;
 import com.parchelector.dto.request.ReadingStatusRequest;
+import com.parchelector.dto.response.BookPageResponse;
 import com.parchelector.dto.response.BookResponse;
+import com.parchelector.dto.response.ReadingStatusBatchResponse;
 import com.parchelector.model.entity.*;
 import com.parchelector.repository.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,8 +15,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
 import java.util.*;
@@ -37,7 +37,7 @@ class BookServiceTest {
     private ReadingStatusRepository readingStatusRepository;
 
     @Mock
-    private ReviewRepository reviewRepository;
+    private BookRatingStatsRepository bookRatingStatsRepository;
 
     @Mock
     private UserRepository userRepository;
@@ -45,6 +45,18 @@ class BookServiceTest {
     @Mock
     private FavoriteBookRepository favoriteBookRepository;
 
+    @Mock
+    private TrendingService trendingService;
+
+    @Mock
+    private IBookSearchService bookSearchService;
+
+    @Mock
+    private BookPopularityService bookPopularityService;
+
+    @Mock
+    private UserLibraryService userLibraryService;
+
     @InjectMocks
     private BookService bookService;
 
@@ -71,6 +83,25 @@ class BookServiceTest {
         testBook.setTitle("Test Book");
         testBook.setCoverUrl("http://example.com/cover.jpg");
         testBook.setAuthors(new HashSet<>(Collections.singletonList(testAuthor)));
+
+        lenient().when(userLibraryService.getLibrary(anyLong())).thenReturn(UserLibrary.EMPTY);
+    }
+
+    private List<Object[]> rows(Book book, Object sortKey) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {book, sortKey});
+        return rows;
+    }
+
+    private BookCursor hit(Long bookId, double score) {
+        return BookCursor.of("relevance", score, bookId);
+    }
+
+    private BookRatingStats ratingStats(Long bookId, double average, int count) {
+        BookRatingStats stats = new BookRatingStats(bookId);
+        stats.setAverageRating(average);
+        stats.setRatingCount(count);
+        return stats;
     }
 
     @Nested
@@ -81,11 +112,9 @@ class BookServiceTest {
         @DisplayName("Should return list of trending books")
         void shouldReturnTrendingBooks() {
             // Arrange
-            List<Book> books = Arrays.asList(testBook);
-            Page<Book> bookPage = new PageImpl<>(books);
-            
-            when(bookRepository.findAll(any(Pageable.class))).thenReturn(bookPage);
-            when(reviewRepository.getAverageRatingByBookId(testBook.getId())).thenReturn(4.5);
+            BookResponse trending = new BookResponse(1L, "Test Book", "Test Author", 4.5,
+                    "http://example.com/cover.jpg", null, 2, null);
+            when(trendingService.getTrendingBooks(10)).thenReturn(new ArrayList<>(List.of(trending)));
 
             // Act
             List<BookResponse> result = bookService.getTrendingBooks(1L, 10);
@@ -96,14 +125,14 @@ class BookServiceTest {
             assertEquals("Test Book", result.get(0).getTitle());
             assertEquals("Test Author", result.get(0).getAuthor());
             assertEquals(4.5, result.get(0).getRating());
+            verifyNoInteractions(bookRepository);
         }
 
         @Test
         @DisplayName("Should return empty list when no books exist")
         void shouldReturnEmptyListWhenNoBooks() {
             // Arrange
-            Page<Book> emptyPage = new PageImpl<>(Collections.emptyList());
-            when(bookRepository.findAll(any(Pageable.class))).thenReturn(emptyPage);
+            when(trendingService.getTrendingBooks(10)).thenReturn(new ArrayList<>());
 
             // Act
             List<BookResponse> result = bookService.getTrendingBooks(1L, 10);
@@ -111,23 +140,29 @@ class BookServiceTest {
             // Assert
             assertNotNull(result);
             assertTrue(result.isEmpty());
+            verifyNoInteractions(readingStatusRepository);
         }
 
         @Test
-        @DisplayName("Should return 0 rating when no reviews exist")
-        void shouldReturnZeroRatingWhenNoReviews() {
+        @DisplayName("Should fill in the user's reading status")
+        void shouldFillInReadingStatus() {
             // Arrange
-            List<Book> books = Arrays.asList(testBook);
-            Page<Book> bookPage = new PageImpl<>(books);
-            
-            when(bookRepository.findAll(any(Pageable.class))).thenReturn(bookPage);
-            when(reviewRepository.getAverageRatingByBookId(testBook.getId())).thenReturn(null);
+            BookResponse trending = new BookResponse(1L, "Test Book", "Test Author", 4.5,
+                    "http://example.com/cover.jpg", null, 2, null);
+            UserLibrary library = new UserLibrary.Builder()
+                    .addStatus(1L, ReadingStatus.ReadingStatusEnum.READ)
+                    .addFavorite(1L)
+                    .build();
+
+            when(trendingService.getTrendingBooks(10)).thenReturn(new ArrayList<>(List.of(trending)));
+            when(userLibraryService.getLibrary(1L)).thenReturn(library);
 
             // Act
             List<BookResponse> result = bookService.getTrendingBooks(1L, 10);
 
             // Assert
-            assertEquals(0.0, result.get(0).getRating());
+            assertEquals("leido", result.get(0).getStatus());
+            assertTrue(result.get(0).getFavorite());
         }
     }
 
@@ -141,31 +176,110 @@ class BookServiceTest {
             // Arrange
             List<Book> books = Arrays.asList(testBook);
             
-            when(bookRepository.searchByTitleOrAuthor(eq("Test"), any(Pageable.class)))
-                    .thenReturn(books);
-            when(reviewRepository.getAverageRatingByBookId(testBook.getId())).thenReturn(4.0);
+            when(bookSearchService.searchBooks("Test", null, 11)).thenReturn(List.of(hit(1L, 0.5)));
+            when(bookRepository.findAllById(List.of(1L))).thenReturn(books);
+            when(bookRatingStatsRepository.findAllById(anyCollection()))
+                    .thenReturn(List.of(ratingStats(1L, 4.0, 2)));
 
             // Act
-            List<BookResponse> result = bookService.searchBooks("Test", 1L, 10);
+            BookPageResponse page = bookService.searchBooks("Test", 1L, null, 10);
+            List<BookResponse> result = page.getItems();
 
             // Assert
             assertNotNull(result);
             assertEquals(1, result.size());
             assertEquals("Test Book", result.get(0).getTitle());
+            assertFalse(page.getHasMore());
+            assertNull(page.getNextCursor());
+        }
+
+        @Test
+        @DisplayName("Should return 0 rating when no reviews exist")
+        void shouldReturnZeroRatingWhenNoReviews() {
+            // Arrange
+            when(bookSearchService.searchBooks("Test", null, 11)).thenReturn(List.of(hit(1L, 0.5)));
+            when(bookRepository.findAllById(List.of(1L))).thenReturn(Arrays.asList(testBook));
+            when(bookRatingStatsRepository.findAllById(anyCollection())).thenReturn(Collections.emptyList());
+
+            // Act
+            List<BookResponse> result = bookService.searchBooks("Test", 1L, null, 10).getItems();
+
+            // Assert
+            assertEquals(0.0, result.get(0).getRating());
+            assertEquals(0, result.get(0).getReviewCount());
         }
 
         @Test
         @DisplayName("Should return empty list for no matches")
         void shouldReturnEmptyListForNoMatches() {
             // Arrange
-            when(bookRepository.searchByTitleOrAuthor(eq("NonExistent"), any(Pageable.class)))
-                    .thenReturn(Collections.emptyList());
+            when(bookSearchService.searchBooks("NonExistent", null, 11)).thenReturn(Collections.emptyList());
+
+            // Act
+            List<BookResponse> result = bookService.searchBooks("NonExistent", 1L, null, 10).getItems();
+
+            // Assert
+            assertTrue(result.isEmpty());
+            verify(bookRepository, never()).findAllById(anyCollection());
+        }
+
+        @Test
+        @DisplayName("Should keep search relevance order")
+        void shouldKeepRelevanceOrder() {
+            // Arrange
+            Book otherBook = new Book();
+            otherBook.setId(2L);
+            otherBook.setTitle("Other Book");
+
+            when(bookSearchService.searchBooks("Book", null, 11)).thenReturn(List.of(hit(2L, 0.9), hit(1L, 0.4)));
+            when(bookRepository.findAllById(List.of(2L, 1L))).thenReturn(Arrays.asList(testBook, otherBook));
+            when(bookRatingStatsRepository.findAllById(anyCollection())).thenReturn(Collections.emptyList());
 
             // Act
-            List<BookResponse> result = bookService.searchBooks("NonExistent", 1L, 10);
+            List<BookResponse> result = bookService.searchBooks("Book", 1L, null, 10).getItems();
+
+            // Assert
+            assertEquals(2L, result.get(0).getId());
+            assertEquals(1L, result.get(1).getId());
+        }
+
+        @Test
+        @DisplayName("Should return empty list for blank query")
+        void shouldReturnEmptyListForBlankQuery() {
+            // Act
+            List<BookResponse> result = bookService.searchBooks("   ", 1L, null, 10).getItems();
 
             // Assert
             assertTrue(result.isEmpty());
+            verifyNoInteractions(bookSearchService);
+        }
+
+        @Test
+        @DisplayName("Should return a cursor that resumes after the last hit")
+        void shouldPageWithCursor() {
+            // Arrange
+            when(bookSearchService.getCursorSort()).thenReturn("relevance");
+            when(bookSearchService.searchBooks("Test", null, 2)).thenReturn(List.of(hit(1L, 0.9), hit(2L, 0.4)));
+            when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(testBook));
+
+            // Act
+            BookPageResponse first = bookService.searchBooks("Test", 1L, null, 1);
+            bookService.searchBooks("Test", 1L, first.getNextCursor(), 1);
+
+            // Assert
+            assertTrue(first.getHasMore());
+            assertEquals(1, first.getItems().size());
+            verify(bookSearchService).searchBooks(eq("Test"),
+                    argThat(after -> after != null && after.getId() == 1L && after.getKeyAsDouble() == 0.9), eq(2));
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed cursor")
+        void shouldRejectMalformedCursor() {
+            when(bookSearchService.getCursorSort()).thenReturn("relevance");
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> bookService.searchBooks("Test", 1L, "not-a-cursor", 10));
         }
     }
 
@@ -190,6 +304,7 @@ class BookServiceTest {
 
             // Assert
             verify(readingStatusRepository).save(any(ReadingStatus.class));
+            verify(bookPopularityService).recordReadingStatus(1L);
         }
 
         @Test
@@ -215,6 +330,8 @@ class BookServiceTest {
 
             // Assert
             verify(readingStatusRepository).save(existingStatus);
+            verify(bookPopularityService, never()).recordReadingStatus(anyLong());
+            verify(userLibraryService).recordStatus(1L, 1L, ReadingStatus.ReadingStatusEnum.READ);
             assertEquals(ReadingStatus.ReadingStatusEnum.READ, existingStatus.getStatus());
         }
 
@@ -267,6 +384,111 @@ class BookServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("updateReadingStatuses tests")
+    class UpdateReadingStatusesTests {
+
+        @Test
+        @DisplayName("Should create and update statuses with bulk lookups")
+        void shouldCreateAndUpdateInBulk() {
+            // Arrange
+            ReadingStatus existingStatus = new ReadingStatus();
+            existingStatus.setId(10L);
+            existingStatus.setUser(testUser);
+            existingStatus.setBook(testBook);
+            existingStatus.setStatus(ReadingStatus.ReadingStatusEnum.READING);
+
+            Book newBook = new Book();
+            newBook.setId(2L);
+
+            List<ReadingStatusRequest> requests = List.of(
+                    new ReadingStatusRequest(1L, "READ"),
+                    new ReadingStatusRequest(2L, "WANT_TO_READ"));
+
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+            when(bookRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+            when(readingStatusRepository.findByUserIdAndBookIdIn(eq(1L), anyCollection()))
+                    .thenReturn(List.of(existingStatus));
+            when(bookRepository.getReferenceById(2L)).thenReturn(newBook);
+
+            // Act
+            ReadingStatusBatchResponse result = bookService.updateReadingStatuses(1L, requests);
+
+            // Assert
+            assertEquals(1, result.getCreated());
+            assertEquals(1, result.getUpdated());
+            assertEquals(ReadingStatus.ReadingStatusEnum.READ, existingStatus.getStatus());
+            assertEquals(100, existingStatus.getProgressPercent());
+            verify(readingStatusRepository).saveAll(argThat(saved -> {
+                List<ReadingStatus> list = new ArrayList<>();
+                saved.forEach(list::add);
+                return list.size() == 1 && list.get(0).getBook() == newBook
+                        && list.get(0).getStatus() == ReadingStatus.ReadingStatusEnum.WANT_TO_READ;
+            }));
+            verify(bookPopularityService).recordReadingStatuses(List.of(2L));
+            verify(userLibraryService).recordStatuses(eq(1L), eq(Map.of(
+                    1L, ReadingStatus.ReadingStatusEnum.READ, 2L, ReadingStatus.ReadingStatusEnum.WANT_TO_READ)));
+            verify(readingStatusRepository, never()).findByUserIdAndBookId(anyLong(), anyLong());
+            verify(bookRepository, never()).findById(anyLong());
+        }
+
+        @Test
+        @DisplayName("Should keep the last entry for a repeated book")
+        void shouldKeepLastEntryForRepeatedBook() {
+            // Arrange
+            List<ReadingStatusRequest> requests = List.of(
+                    new ReadingStatusRequest(1L, "READING"),
+                    new ReadingStatusRequest(1L, "READ"));
+
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+            when(bookRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+            when(readingStatusRepository.findByUserIdAndBookIdIn(eq(1L), anyCollection()))
+                    .thenReturn(Collections.emptyList());
+            when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
+
+            // Act
+            ReadingStatusBatchResponse result = bookService.updateReadingStatuses(1L, requests);
+
+            // Assert
+            assertEquals(1, result.getCreated());
+            assertEquals(0, result.getUpdated());
+            verify(readingStatusRepository).saveAll(argThat(saved -> {
+                ReadingStatus status = saved.iterator().next();
+                return status.getStatus() == ReadingStatus.ReadingStatusEnum.READ && status.getStartedAt() != null;
+            }));
+        }
+
+        @Test
+        @DisplayName("Should reject the whole batch when a book does not exist")
+        void shouldRejectUnknownBook() {
+            // Arrange
+            List<ReadingStatusRequest> requests = List.of(
+                    new ReadingStatusRequest(1L, "READ"),
+                    new ReadingStatusRequest(999L, "READ"));
+
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+            when(bookRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+
+            // Act & Assert
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> bookService.updateReadingStatuses(1L, requests));
+            assertEquals("Book not found: 999", error.getMessage());
+            verify(readingStatusRepository, never()).saveAll(any());
+        }
+
+        @Test
+        @DisplayName("Should reject an invalid status before touching the database")
+        void shouldRejectInvalidStatus() {
+            // Arrange
+            List<ReadingStatusRequest> requests = List.of(new ReadingStatusRequest(1L, "INVALID_STATUS"));
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class,
+                    () -> bookService.updateReadingStatuses(1L, requests));
+            verifyNoInteractions(userRepository, readingStatusRepository);
+        }
+    }
+
     @Nested
     @DisplayName("addFavorite tests")
     class AddFavoriteTests {
@@ -278,27 +500,44 @@ class BookServiceTest {
             FavoriteBookRequest request = new FavoriteBookRequest();
             request.setBookId(1L);
 
-            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-            when(favoriteBookRepository.existsByUserIdAndBookId(1L, 1L)).thenReturn(false);
+            when(favoriteBookRepository.insertIfAbsent(1L, 1L)).thenReturn(1);
 
             // Act
-            bookService.addFavorite(1L, request);
+            boolean added = bookService.addFavorite(1L, request);
 
             // Assert
-            verify(favoriteBookRepository).save(any(FavoriteBook.class));
+            assertTrue(added);
+            verify(userLibraryService).recordFavorite(1L, 1L, true);
+            verifyNoInteractions(bookRepository);
         }
 
         @Test
-        @DisplayName("Should throw exception when book is already in favorites")
-        void shouldThrowExceptionWhenAlreadyFavorite() {
+        @DisplayName("Should change nothing when book is already in favorites")
+        void shouldChangeNothingWhenAlreadyFavorite() {
             // Arrange
             FavoriteBookRequest request = new FavoriteBookRequest();
             request.setBookId(1L);
 
-            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-            when(favoriteBookRepository.existsByUserIdAndBookId(1L, 1L)).thenReturn(true);
+            when(favoriteBookRepository.insertIfAbsent(1L, 1L)).thenReturn(0);
+            when(bookRepository.existsById(1L)).thenReturn(true);
+
+            // Act
+            boolean added = bookService.addFavorite(1L, request);
+
+            // Assert
+            assertFalse(added);
+            verifyNoInteractions(userLibraryService);
+        }
+
+        @Test
+        @DisplayName("Should throw exception when book does not exist")
+        void shouldThrowExceptionWhenBookNotFound() {
+            // Arrange
+            FavoriteBookRequest request = new FavoriteBookRequest();
+            request.setBookId(99L);
+
+            when(favoriteBookRepository.insertIfAbsent(1L, 99L)).thenReturn(0);
+            when(bookRepository.existsById(99L)).thenReturn(false);
 
             // Act & Assert
             assertThrows(IllegalArgumentException.class, 
@@ -314,24 +553,28 @@ class BookServiceTest {
         @DisplayName("Should remove book from favorites")
         void shouldRemoveBookFromFavorites() {
             // Arrange
-            when(favoriteBookRepository.existsByUserIdAndBookId(1L, 1L)).thenReturn(true);
+            when(favoriteBookRepository.deleteByUserIdAndBookId(1L, 1L)).thenReturn(1);
 
             // Act
-            bookService.removeFavorite(1L, 1L);
+            boolean removed = bookService.removeFavorite(1L, 1L);
 
             // Assert
-            verify(favoriteBookRepository).deleteByUserIdAndBookId(1L, 1L);
+            assertTrue(removed);
+            verify(userLibraryService).recordFavorite(1L, 1L, false);
         }
 
         @Test
-        @DisplayName("Should throw exception when book is not in favorites")
-        void shouldThrowExceptionWhenNotInFavorites() {
+        @DisplayName("Should change nothing when book is not in favorites")
+        void shouldChangeNothingWhenNotInFavorites() {
             // Arrange
-            when(favoriteBookRepository.existsByUserIdAndBookId(1L, 1L)).thenReturn(false);
+            when(favoriteBookRepository.deleteByUserIdAndBookId(1L, 1L)).thenReturn(0);
 
-            // Act & Assert
-            assertThrows(IllegalArgumentException.class, 
-                    () -> bookService.removeFavorite(1L, 1L));
+            // Act
+            boolean removed = bookService.removeFavorite(1L, 1L);
+
+            // Assert
+            assertFalse(removed);
+            verifyNoInteractions(userLibraryService);
         }
     }
 
@@ -344,20 +587,20 @@ class BookServiceTest {
         void shouldThrowExceptionForInvalidSortBy() {
             // Act & Assert
             assertThrows(IllegalArgumentException.class, 
-                    () -> bookService.filterAndSortBooks(1L, null, null, null, "invalid", 10));
+                    () -> bookService.filterAndSortBooks(1L, null, null, null, "invalid", null, 10));
         }
 
         @Test
         @DisplayName("Should filter books by rating")
         void shouldFilterBooksByRating() {
             // Arrange
-            List<Book> books = Arrays.asList(testBook);
-            when(bookRepository.findBooksFilteredAndSortedByRating(any(), any(), any(), any(Pageable.class)))
-                    .thenReturn(books);
-            when(reviewRepository.getAverageRatingByBookId(testBook.getId())).thenReturn(4.5);
+            when(bookRepository.findBooksFilteredAndSortedByRating(any(), any(), any(), any(), any(), any(Pageable.class)))
+                    .thenReturn(rows(testBook, 4.5));
+            when(bookRatingStatsRepository.findAllById(anyCollection()))
+                    .thenReturn(List.of(ratingStats(1L, 4.5, 2)));
 
             // Act
-            List<BookResponse> result = bookService.filterAndSortBooks(1L, null, null, null, "rating", 10);
+            List<BookResponse> result = bookService.filterAndSortBooks(1L, null, null, null, "rating", null, 10).getItems();
 
             // Assert
             assertNotNull(result);
@@ -368,13 +611,13 @@ class BookServiceTest {
         @DisplayName("Should filter books by newest")
         void shouldFilterBooksByNewest() {
             // Arrange
-            List<Book> books = Arrays.asList(testBook);
-            when(bookRepository.findBooksFilteredAndSortedByNewest(any(), any(), any(), any(Pageable.class)))
-                    .thenReturn(books);
-            when(reviewRepository.getAverageRatingByBookId(testBook.getId())).thenReturn(4.0);
+            when(bookRepository.findBooksFilteredAndSortedByNewest(any(), any(), any(), any(), any(), any(Pageable.class)))
+                    .thenReturn(rows(testBook, 2001));
+            when(bookRatingStatsRepository.findAllById(anyCollection()))
+                    .thenReturn(List.of(ratingStats(1L, 4.0, 2)));
 
             // Act
-            List<BookResponse> result = bookService.filterAndSortBooks(1L, null, null, null, "newest", 10);
+            List<BookResponse> result = bookService.filterAndSortBooks(1L, null, null, null, "newest", null, 10).getItems();
 
             // Assert
             assertNotNull(result);
@@ -385,18 +628,135 @@ class BookServiceTest {
         @DisplayName("Should filter books by popularity")
         void shouldFilterBooksByPopularity() {
             // Arrange
-            List<Book> books = Arrays.asList(testBook);
-            when(bookRepository.findBooksFilteredAndSortedByPopularity(any(), any(), any(), any(Pageable.class)))
-                    .thenReturn(books);
-            when(reviewRepository.getAverageRatingByBookId(testBook.getId())).thenReturn(4.0);
+            when(bookRepository.findBooksFilteredAndSortedByPopularity(any(), any(), any(), any(), any(), any(Pageable.class)))
+                    .thenReturn(rows(testBook, 3));
+            when(bookRatingStatsRepository.findAllById(anyCollection()))
+                    .thenReturn(List.of(ratingStats(1L, 4.0, 2)));
 
             // Act
-            List<BookResponse> result = bookService.filterAndSortBooks(1L, null, null, null, "popular", 10);
+            List<BookResponse> result = bookService.filterAndSortBooks(1L, null, null, null, "popular", null, 10).getItems();
 
             // Assert
             assertNotNull(result);
             assertEquals(1, result.size());
         }
+
+        @Test
+        @DisplayName("Should sort a genre by popularity with the joined genre query")
+        void shouldFilterGenreByPopularityWithJoin() {
+            // Arrange
+            when(bookRepository.findBooksInGenreSortedByPopularity(eq("Fiction"), any(), any(), any(), any(), any(Pageable.class)))
+                    .thenReturn(rows(testBook, 3));
+
+            // Act
+            List<BookResponse> result = bookService.filterAndSortBooks(1L, "Fiction", null, null, "popular", null, 10).getItems();
+
+            // Assert
+            assertEquals(1, result.size());
+            verify(bookRepository, never()).findBooksFilteredAndSortedByPopularity(any(), any(), any(), any(), any(), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should resolve ratings and statuses for the whole page in one query each")
+        void shouldEnrichWholePageWithSingleQueries() {
+            // Arrange
+            Book secondBook = new Book();
+            secondBook.setId(2L);
+            secondBook.setTitle("Second Book");
+            secondBook.setAuthors(new HashSet<>(Collections.singletonList(testAuthor)));
+
+            UserLibrary library = new UserLibrary.Builder()
+                    .addStatus(2L, ReadingStatus.ReadingStatusEnum.READING)
+                    .build();
+
+            List<Object[]> page = new ArrayList<>(rows(testBook, 2001));
+            page.add(new Object[] {secondBook, 1999});
+            when(bookRepository.findBooksFilteredAndSortedByNewest(any(), any(), any(), any(), any(), any(Pageable.class)))
+                    .thenReturn(page);
+            when(bookRatingStatsRepository.findAllById(anyCollection()))
+                    .thenReturn(List.of(ratingStats(1L, 4.5, 2), ratingStats(2L, 3.0, 1)));
+            when(userLibraryService.getLibrary(1L)).thenReturn(library);
+
+            // Act
+            List<BookResponse> result = bookService.filterAndSortBooks(1L, null, null, null, "newest", null, 10).getItems();
+
+            // Assert
+            assertEquals(2, result.size());
+            assertEquals(4.5, result.get(0).getRating());
+            assertEquals(2, result.get(0).getReviewCount());
+            assertNull(result.get(0).getStatus());
+            assertEquals(3.0, result.get(1).getRating());
+            assertEquals("leyendo", result.get(1).getStatus());
+            assertFalse(result.get(1).getFavorite());
+            verify(bookRatingStatsRepository, times(1)).findAllById(anyCollection());
+            verifyNoInteractions(readingStatusRepository, favoriteBookRepository);
+        }
+
+        @Test
+        @DisplayName("Should return next cursor when more books exist")
+        void shouldReturnNextCursorWhenMoreBooksExist() {
+            // Arrange
+            Book secondBook = new Book();
+            secondBook.setId(2L);
+            secondBook.setTitle("Second Book");
+
+            List<Object[]> page = new ArrayList<>(rows(testBook, 4.5));
+            page.add(new Object[] {secondBook, 4.0});
+            when(bookRepository.findBooksFilteredAndSortedByRating(any(), any(), any(), isNull(), isNull(), any(Pageable.class)))
+                    .thenReturn(page);
+
+            // Act
+            BookPageResponse result = bookService.filterAndSortBooks(1L, null, null, null, "rating", null, 1);
+
+            // Assert
+            assertEquals(1, result.getItems().size());
+            assertTrue(result.getHasMore());
+            assertNotNull(result.getNextCursor());
+            verify(bookRepository).findBooksFilteredAndSortedByRating(any(), any(), any(), isNull(), isNull(),
+                    argThat(pageable -> pageable.getPageNumber() == 0 && pageable.getPageSize() == 2));
+        }
+
+        @Test
+        @DisplayName("Should seek past the cursor instead of skipping rows")
+        void shouldSeekPastCursor() {
+            // Arrange
+            String cursor = BookCursor.of("newest", 1999, 7L).encode();
+            when(bookRepository.findBooksFilteredAndSortedByNewest(any(), any(), any(), eq(1999), eq(7L), any(Pageable.class)))
+                    .thenReturn(rows(testBook, 1990));
+
+            // Act
+            BookPageResponse result = bookService.filterAndSortBooks(1L, null, null, null, "newest", cursor, 10);
+
+            // Assert
+            assertEquals(1, result.getItems().size());
+            assertFalse(result.getHasMore());
+            assertNull(result.getNextCursor());
+            verify(bookRepository).findBooksFilteredAndSortedByNewest(any(), any(), any(), eq(1999), eq(7L),
+                    argThat(pageable -> pageable.getOffset() == 0));
+        }
+
+        @Test
+        @DisplayName("Should reject a cursor from another sort mode")
+        void shouldRejectCursorFromAnotherSort() {
+            String cursor = BookCursor.of("newest", 1999, 7L).encode();
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> bookService.filterAndSortBooks(1L, null, null, null, "rating", cursor, 10));
+        }
+
+        @Test
+        @DisplayName("Should reject a cursor whose key does not parse for its sort mode")
+        void shouldRejectTamperedCursorKey() {
+            String rating = BookCursor.of("rating", "high", 7L).encode();
+            String newest = BookCursor.of("newest", "1999.5", 7L).encode();
+            String infinite = BookCursor.of("rating", "Infinity", 7L).encode();
+
+            for (String[] cursor : new String[][] {{"rating", rating}, {"newest", newest}, {"rating", infinite}}) {
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                        () -> bookService.filterAndSortBooks(1L, null, null, null, cursor[0], cursor[1], 10));
+                assertEquals("Invalid cursor", exception.getMessage());
+            }
+            verifyNoInteractions(bookRepository);
+        }
     }
 }
-
@@ -0,0 +1,115 @@
+package com.parchelector.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookSuggestionIndex.
+ */
+@DisplayName("BookSuggestionIndex Tests")
+class BookSuggestionIndexTest {
+
+    private BookSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSuggestionIndex.Builder(2)
+                .add(1L, "Cien años de soledad", "Gabriel García Márquez",
+                        List.of("Gabriel García Márquez", "García Márquez, Gabriel"), List.of("0307474720", "9780307474728"), 50)
+                .add(2L, "El amor en los tiempos del cólera", "Gabriel García Márquez",
+                        List.of("Gabriel García Márquez"), Collections.emptyList(), 30)
+                .add(3L, "Rayuela", "Julio Cortázar", List.of("Julio Cortázar"), Collections.emptyList(), 40)
+                .add(4L, "Ficciones", null, Collections.emptyList(), Collections.emptyList(), 0)
+                .build();
+    }
+
+    private List<Long> ids(String query, int limit) {
+        return index.search(query, limit).stream()
+                .map(BookSuggestionIndex.Suggestion::getBookId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Should match word prefixes ignoring case and accents")
+    void shouldMatchPrefixesIgnoringAccents() {
+        assertEquals(List.of(1L), ids("ANOS sol", 10));
+        assertEquals(List.of(2L), ids("colera", 10));
+        assertEquals(List.of(3L), ids("cortaz", 10));
+    }
+
+    @Test
+    @DisplayName("Should order matches by popularity")
+    void shouldOrderByPopularity() {
+        assertEquals(List.of(1L, 2L), ids("garcia", 10));
+        assertEquals(List.of(1L), ids("garcia", 1));
+    }
+
+    @Test
+    @DisplayName("Should require every query word to match")
+    void shouldRequireEveryWord() {
+        assertEquals(List.of(2L), ids("marquez amor", 10));
+        assertTrue(ids("rayuela amor", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should respect the result limit")
+    void shouldRespectLimit() {
+        assertEquals(List.of(1L, 3L), ids("c", 2));
+        assertEquals(List.of(1L, 3L, 2L), ids("c", 10));
+    }
+
+    @Test
+    @DisplayName("Should serve prefixes matching many words from precomputed results")
+    void shouldServeWidePrefixes() {
+        BookSuggestionIndex.Builder builder = new BookSuggestionIndex.Builder(3);
+        for (int i = 0; i < 500; i++) {
+            builder.add(i, "Word" + i, null, Collections.emptyList(), Collections.emptyList(), i);
+        }
+        BookSuggestionIndex wide = builder.build();
+
+        List<Long> top = wide.search("wor", 3).stream()
+                .map(BookSuggestionIndex.Suggestion::getBookId)
+                .collect(Collectors.toList());
+        List<Long> beyondPrecomputed = wide.search("w", 5).stream()
+                .map(BookSuggestionIndex.Suggestion::getBookId)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(499L, 498L, 497L), top);
+        assertEquals(List.of(499L, 498L, 497L, 496L, 495L), beyondPrecomputed);
+        assertEquals(List.of(429L, 428L, 427L), wide.search("word42", 3).stream()
+                .map(BookSuggestionIndex.Suggestion::getBookId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Should match ISBNs typed with separators")
+    void shouldMatchIsbn() {
+        assertEquals(List.of(1L), ids("978-0-307", 10));
+        assertEquals(List.of(1L), ids("0307474720", 10));
+    }
+
+    @Test
+    @DisplayName("Should return display fields")
+    void shouldReturnDisplayFields() {
+        BookSuggestionIndex.Suggestion suggestion = index.search("rayu", 1).get(0);
+
+        assertEquals("Rayuela", suggestion.getTitle());
+        assertEquals("Julio Cortázar", suggestion.getAuthor());
+        assertEquals("", index.search("ficc", 1).get(0).getAuthor());
+    }
+
+    @Test
+    @DisplayName("Should return empty list for blank or unknown queries")
+    void shouldReturnEmptyForNoMatches() {
+        assertTrue(ids("  ", 10).isEmpty());
+        assertTrue(ids("zz", 10).isEmpty());
+        assertTrue(BookSuggestionIndex.EMPTY.search("a", 10).isEmpty());
+    }
+}
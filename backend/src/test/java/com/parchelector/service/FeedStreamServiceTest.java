@@ -0,0 +1,207 @@
+package com.parchelector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parchelector.dto.response.FeedResponse.FeedItem;
+import com.parchelector.model.entity.TimelineItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FeedStreamService. Emitters are mocks and the stream workers run only when
+ * the test says so.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FeedStreamService Tests")
+class FeedStreamServiceTest {
+
+    @Mock
+    private FollowGraphService followGraphService;
+
+    @Mock
+    private SocialService socialService;
+
+    private final List<SseEmitter> emitters = new ArrayList<>();
+
+    // Tasks handed to the stream workers, run by runTasks()
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private FeedStreamService feedStreamService;
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 11, 22, 20, 0);
+
+    @BeforeEach
+    void setUp() {
+        feedStreamService = new FeedStreamService() {
+            @Override
+            SseEmitter createEmitter() {
+                SseEmitter emitter = mock(SseEmitter.class);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(feedStreamService, "followGraphService", followGraphService);
+        ReflectionTestUtils.setField(feedStreamService, "socialService", socialService);
+        ReflectionTestUtils.setField(feedStreamService, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(feedStreamService, "bufferSize", 50);
+        ReflectionTestUtils.setField(feedStreamService, "maxStreamsPerUser", 5);
+        ReflectionTestUtils.setField(feedStreamService, "maxStreams", 100);
+        ReflectionTestUtils.setField(feedStreamService, "streamExecutor",
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+                    @Override
+                    public void execute(Runnable task) {
+                        tasks.add(task);
+                    }
+                });
+        lenient().when(socialService.loadFeedItems(anyList())).thenReturn(List.of(new FeedItem()));
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    // Runs the task just handed over, leaving earlier ones (a pending drain) waiting
+    private void runLastTask() {
+        tasks.remove(tasks.size() - 1).run();
+    }
+
+    private void publish(Long authorId, Long reviewId) {
+        feedStreamService.publishAfterCommit(authorId, TimelineItem.REVIEW, reviewId, CREATED_AT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean isSubscribed(Long userId) {
+        Map<Long, ?> subscribers = (Map<Long, ?>) ReflectionTestUtils.getField(feedStreamService, "subscribers");
+        return subscribers.containsKey(userId);
+    }
+
+    @Test
+    @DisplayName("Should close a stream whose buffer is full")
+    void publish_FullBufferClosesStream() {
+        SseEmitter emitter = feedStreamService.subscribe(1L);
+        when(followGraphService.countFollowers(2L)).thenReturn(1L);
+        when(followGraphService.getFollowerIds(2L)).thenReturn(List.of(1L));
+
+        // The client reads nothing: the worker that would write the stream never runs
+        for (long reviewId = 1; reviewId <= 50; reviewId++) {
+            publish(2L, reviewId);
+            runLastTask();
+        }
+        verify(emitter, never()).complete();
+        assertEquals(1, tasks.size());
+
+        publish(2L, 51L);
+        runLastTask();
+
+        verify(emitter).complete();
+        assertFalse(isSubscribed(1L));
+    }
+
+    @Test
+    @DisplayName("Should close the oldest stream of a user opening more than the maximum")
+    void subscribe_EvictsOldest() {
+        for (int i = 0; i < 6; i++) {
+            feedStreamService.subscribe(1L);
+        }
+
+        verify(emitters.get(0)).complete();
+        for (SseEmitter emitter : emitters.subList(1, 6)) {
+            verify(emitter, never()).complete();
+        }
+        assertTrue(isSubscribed(1L));
+    }
+
+    @Test
+    @DisplayName("Should refuse new streams past the global maximum until one closes")
+    void subscribe_GlobalLimit() throws IOException {
+        ReflectionTestUtils.setField(feedStreamService, "maxStreams", 2);
+        SseEmitter first = feedStreamService.subscribe(1L);
+        feedStreamService.subscribe(2L);
+
+        assertThrows(IllegalStateException.class, () -> feedStreamService.subscribe(3L));
+        assertFalse(isSubscribed(3L));
+
+        doThrow(new IOException("Broken pipe")).when(first).send(anySet());
+        feedStreamService.sendHeartbeats();
+        runTasks();
+
+        feedStreamService.subscribe(3L);
+        assertTrue(isSubscribed(3L));
+    }
+
+    @Test
+    @DisplayName("Should skip heartbeats while a stream is being written")
+    void sendHeartbeats_SkippedWhileDraining() throws IOException {
+        SseEmitter emitter = feedStreamService.subscribe(1L);
+
+        feedStreamService.sendHeartbeats();
+        feedStreamService.sendHeartbeats();
+        assertEquals(1, tasks.size());
+        runTasks();
+        verify(emitter, times(1)).send(anySet());
+
+        feedStreamService.sendHeartbeats();
+        runTasks();
+        verify(emitter, times(2)).send(anySet());
+    }
+
+    @Test
+    @DisplayName("Should push items only to the author's followers with an open stream")
+    void publish_OnlyConnectedFollowers() throws IOException {
+        SseEmitter follower = feedStreamService.subscribe(1L);
+        SseEmitter stranger = feedStreamService.subscribe(3L);
+
+        // Few followers: walks them (4 has no stream)
+        when(followGraphService.countFollowers(2L)).thenReturn(2L);
+        when(followGraphService.getFollowerIds(2L)).thenReturn(List.of(1L, 4L));
+        publish(2L, 10L);
+        runTasks();
+
+        // Many followers: walks the open streams instead
+        when(followGraphService.countFollowers(5L)).thenReturn(1000L);
+        when(followGraphService.isFollowing(1L, 5L)).thenReturn(true);
+        when(followGraphService.isFollowing(3L, 5L)).thenReturn(false);
+        publish(5L, 11L);
+        runTasks();
+
+        verify(follower, times(2)).send(anySet());
+        verify(stranger, never()).send(anySet());
+    }
+
+    @Test
+    @DisplayName("Should drop a stream whose send fails")
+    void drain_FailedSendRemovesStream() throws IOException {
+        SseEmitter emitter = feedStreamService.subscribe(1L);
+        doThrow(new IOException("Broken pipe")).when(emitter).send(anySet());
+
+        feedStreamService.sendHeartbeats();
+        runTasks();
+
+        verify(emitter).complete();
+        assertFalse(isSubscribed(1L));
+
+        // Nothing is offered to it any more
+        feedStreamService.sendHeartbeats();
+        assertTrue(tasks.isEmpty());
+    }
+}
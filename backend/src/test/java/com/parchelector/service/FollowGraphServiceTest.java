@@ -0,0 +1,76 @@
+package com.parchelector.service;
+
+import com.parchelector.repository.FollowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FollowGraph and FollowGraphService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FollowGraphService Tests")
+class FollowGraphServiceTest {
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @InjectMocks
+    private FollowGraphService followGraphService;
+
+    @BeforeEach
+    void setUp() {
+        // 1 follows 2, 3 and 5; 2 follows 1; 4 follows 3
+        when(followRepository.streamAll()).thenReturn(Stream.of(
+                new Object[] {1L, 5L}, new Object[] {2L, 1L}, new Object[] {1L, 2L},
+                new Object[] {4L, 3L}, new Object[] {1L, 3L}));
+        followGraphService.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should answer lookups from the built graph")
+    void shouldAnswerFromGraph() {
+        assertTrue(followGraphService.isFollowing(1L, 3L));
+        assertFalse(followGraphService.isFollowing(3L, 1L));
+        assertFalse(followGraphService.isFollowing(99L, 1L));
+        assertEquals(3, followGraphService.countFollowing(1L));
+        assertEquals(2, followGraphService.countFollowers(3L));
+        assertEquals(0, followGraphService.countFollowers(99L));
+        assertEquals(List.of(2L, 3L, 5L), followGraphService.getFollowedUserIds(1L));
+        assertEquals(List.of(1L, 4L), followGraphService.getFollowerIds(3L));
+
+        verify(followRepository, never()).existsByFollowerIdAndFollowedId(anyLong(), anyLong());
+        verify(followRepository, never()).countFollowersByUserId(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should apply follows and unfollows on top of the graph")
+    void shouldApplyChanges() {
+        followGraphService.recordFollowAfterCommit(1L, 4L);
+        followGraphService.recordUnfollowAfterCommit(1L, 3L);
+        followGraphService.recordFollowAfterCommit(1L, 4L);
+        followGraphService.recordFollowAfterCommit(6L, 1L);
+
+        assertTrue(followGraphService.isFollowing(1L, 4L));
+        assertFalse(followGraphService.isFollowing(1L, 3L));
+        assertEquals(List.of(2L, 4L, 5L), followGraphService.getFollowedUserIds(1L));
+        assertEquals(3, followGraphService.countFollowing(1L));
+        assertEquals(List.of(4L), followGraphService.getFollowerIds(3L));
+        assertEquals(List.of(2L, 6L), followGraphService.getFollowerIds(1L));
+
+        // Undoing a change leaves the user as in the graph
+        followGraphService.recordFollowAfterCommit(1L, 3L);
+        assertEquals(List.of(2L, 3L, 4L, 5L), followGraphService.getFollowedUserIds(1L));
+        assertEquals(2, followGraphService.countFollowers(3L));
+    }
+}
@@ -0,0 +1,100 @@
+package com.parchelector.service;
+
+import com.parchelector.model.entity.TimelineItem;
+import com.parchelector.model.entity.TimelineItem.TimelineItemId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HomeTimelineCache.
+ */
+@DisplayName("HomeTimelineCache Tests")
+class HomeTimelineCacheTest {
+
+    private HomeTimelineCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new HomeTimelineCache();
+        ReflectionTestUtils.setField(cache, "maxUsers", 100);
+        ReflectionTestUtils.setField(cache, "maxEntries", 3);
+    }
+
+    private static TimelineItemId entry(int minute, long reviewId) {
+        return new TimelineItemId(1L, LocalDateTime.of(2025, 1, 1, 0, minute), TimelineItem.REVIEW, reviewId);
+    }
+
+    private static List<Long> ids(List<TimelineItemId> entries) {
+        return entries.stream().map(TimelineItemId::getItemId).toList();
+    }
+
+    @Test
+    @DisplayName("Should page a complete timeline and keep entries added while loading")
+    void shouldMergeEntriesAddedWhileLoading() {
+        HomeTimelineCache.Head head = cache.head(1L);
+        // Fanned out after the head was created, before the database read finished
+        cache.add(1L, entry(30, 3L));
+        assertNull(head.page(null, 2));
+
+        head.load(List.of(entry(20, 2L), entry(10, 1L)), true);
+
+        assertEquals(List.of(3L, 2L), ids(head.page(null, 2)));
+        assertEquals(List.of(1L), ids(head.page(entry(20, 2L), 2)));
+        assertEquals(3, head.size());
+    }
+
+    @Test
+    @DisplayName("Should not answer past the cached entries of a longer timeline")
+    void shouldFallBackPastCachedEntries() {
+        HomeTimelineCache.Head head = cache.head(1L);
+        head.load(List.of(entry(40, 4L), entry(30, 3L), entry(20, 2L), entry(10, 1L)), false);
+
+        assertEquals(List.of(4L, 3L), ids(head.page(null, 2)));
+        assertNull(head.page(entry(30, 3L), 2));
+        assertEquals(-1, head.size());
+
+        // New entries push the oldest cached entry out; entries older than the head are not cached
+        cache.add(1L, entry(50, 5L));
+        cache.add(1L, entry(5, 9L));
+        assertEquals(List.of(5L, 4L, 3L), ids(head.page(null, 3)));
+    }
+
+    @Test
+    @DisplayName("Should drop a head when it is invalidated")
+    void shouldDropInvalidatedHead() {
+        HomeTimelineCache.Head head = cache.head(1L);
+        head.load(List.of(entry(10, 1L)), true);
+
+        cache.invalidate(1L);
+
+        assertNotSame(head, cache.head(1L));
+        assertFalse(cache.head(1L).isLoaded());
+    }
+
+    @Test
+    @DisplayName("Should order and seek entries at the microsecond precision of the database")
+    void shouldTruncateToMicroseconds() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 0, 30, 0, 123_456_789);
+        TimelineItemId fannedOut = new TimelineItemId(1L, createdAt, TimelineItem.REVIEW, 3L);
+        // The same entry read back from timeline_items, and a cursor taken from it
+        TimelineItemId stored = new TimelineItemId(1L, createdAt.withNano(123_456_000), TimelineItem.REVIEW, 3L);
+        TimelineItemId cursor = FeedCursor.decode(FeedCursor.encode(stored));
+
+        assertEquals(stored, fannedOut);
+        assertEquals(stored.getCreatedAt(), cursor.getCreatedAt());
+
+        HomeTimelineCache.Head head = cache.head(1L);
+        head.load(List.of(stored, entry(10, 1L)), true);
+        cache.add(1L, fannedOut);
+
+        assertEquals(2, head.size());
+        assertEquals(List.of(1L), ids(head.page(cursor, 2)));
+    }
+}
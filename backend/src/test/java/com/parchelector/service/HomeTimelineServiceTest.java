@@ -0,0 +1,43 @@
+package com.parchelector.service;
+
+import com.parchelector.model.entity.TimelineItem;
+import com.parchelector.model.entity.TimelineItem.TimelineItemId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the feed merge of HomeTimelineService.
+ */
+@DisplayName("HomeTimelineService Tests")
+class HomeTimelineServiceTest {
+
+    private static TimelineItemId entry(int minute, String itemType, long itemId) {
+        return new TimelineItemId(1L, LocalDateTime.of(2025, 1, 1, 0, minute), itemType, itemId);
+    }
+
+    @Test
+    @DisplayName("Should merge streams newest first and stop at the count")
+    void shouldMergeStreamsNewestFirst() {
+        List<TimelineItemId> reviews = List.of(
+                entry(40, TimelineItem.REVIEW, 4L), entry(20, TimelineItem.REVIEW, 2L), entry(10, TimelineItem.REVIEW, 1L));
+        List<TimelineItemId> lists = List.of(
+                entry(30, TimelineItem.LIST, 3L), entry(20, TimelineItem.LIST, 9L));
+
+        List<TimelineItemId> merged = HomeTimelineService.mergeNewestFirst(List.of(reviews, lists), 4);
+
+        // At the same time, reviews come before lists
+        assertEquals(List.of(entry(40, TimelineItem.REVIEW, 4L), entry(30, TimelineItem.LIST, 3L),
+                entry(20, TimelineItem.REVIEW, 2L), entry(20, TimelineItem.LIST, 9L)), merged);
+    }
+
+    @Test
+    @DisplayName("Should merge empty streams into an empty page")
+    void shouldMergeEmptyStreams() {
+        assertTrue(HomeTimelineService.mergeNewestFirst(List.of(List.of(), List.of()), 10).isEmpty());
+    }
+}
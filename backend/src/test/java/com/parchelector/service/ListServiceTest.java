@@ -0,0 +1,148 @@
+package com.parchelector.service;
+
+import com.parchelector.dto.response.ListResponse;
+import com.parchelector.dto.response.ListSummaryResponse;
+import com.parchelector.model.entity.Book;
+import com.parchelector.model.entity.LibraryList;
+import com.parchelector.model.entity.ListBook;
+import com.parchelector.model.entity.User;
+import com.parchelector.repository.LibraryListRepository;
+import com.parchelector.repository.LibraryListRepository.ListSummary;
+import com.parchelector.repository.ListBookRepository;
+import com.parchelector.repository.ListLikeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ListService summaries and book pages.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ListService Tests")
+class ListServiceTest {
+
+    @Mock
+    private LibraryListRepository libraryListRepository;
+
+    @Mock
+    private ListBookRepository listBookRepository;
+
+    @Mock
+    private ListLikeRepository listLikeRepository;
+
+    @Mock
+    private FollowGraphService followGraphService;
+
+    @InjectMocks
+    private ListService listService;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 11, 20, 10, 0);
+
+    private LibraryList list(Long id) {
+        User owner = new User();
+        owner.setId(1L);
+        owner.setUsername("owner");
+        LibraryList list = new LibraryList();
+        list.setId(id);
+        list.setUser(owner);
+        list.setName("Favoritas");
+        list.setVisibility("PUBLIC");
+        list.setCreatedAt(NOW);
+        list.setUpdatedAt(NOW);
+        return list;
+    }
+
+    private ListBook listBook(Long bookId, int position) {
+        Book book = new Book();
+        book.setId(bookId);
+        book.setTitle("Book " + bookId);
+        ListBook listBook = new ListBook();
+        listBook.setBook(book);
+        listBook.setPosition(position);
+        listBook.setAddedAt(NOW);
+        return listBook;
+    }
+
+    private ListSummary summary(Long id, long bookCount) {
+        ListSummary summary = mock(ListSummary.class);
+        when(summary.getId()).thenReturn(id);
+        when(summary.getCreatedAt()).thenReturn(NOW);
+        when(summary.getUpdatedAt()).thenReturn(NOW);
+        when(summary.getBookCount()).thenReturn(bookCount);
+        when(summary.getLikeCount()).thenReturn(0L);
+        return summary;
+    }
+
+    @Test
+    @DisplayName("Should summarize a user's lists with their first covers, without loading books")
+    void getUserPublicLists_ReturnsSummaries() {
+        when(followGraphService.isFollowing(2L, 1L)).thenReturn(true);
+        ListSummary first = summary(10L, 6L);
+        ListSummary second = summary(11L, 0L);
+        when(libraryListRepository.findPublicSummariesByUserId(1L, true)).thenReturn(List.of(first, second));
+        when(listBookRepository.findFirstCovers(List.of(10L, 11L), 4)).thenReturn(List.of(
+                new Object[] {10L, "a.jpg"}, new Object[] {10L, "b.jpg"}));
+
+        List<ListSummaryResponse> lists = listService.getUserPublicLists(1L, 2L);
+
+        assertEquals(2, lists.size());
+        assertEquals(List.of("a.jpg", "b.jpg"), lists.get(0).getCoverUrls());
+        assertEquals(6, lists.get(0).getBookCount());
+        assertEquals(List.of(), lists.get(1).getCoverUrls());
+        verify(listBookRepository, never()).findPage(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should page a list's books by position")
+    void getListById_PagesBooks() {
+        when(libraryListRepository.findById(10L)).thenReturn(Optional.of(list(10L)));
+        when(listBookRepository.findPage(10L, Integer.MIN_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(List.of(listBook(5L, 1), listBook(6L, 2), listBook(7L, 3)));
+        when(libraryListRepository.countBooksByListId(10L)).thenReturn(3);
+
+        ListResponse firstPage = listService.getListById(10L, 1L, 2, null);
+
+        assertEquals(2, firstPage.getBooks().size());
+        assertTrue(firstPage.getHasMore());
+        assertEquals(3, firstPage.getBookCount());
+
+        when(listBookRepository.findPage(10L, 2, PageRequest.of(0, 3))).thenReturn(List.of(listBook(7L, 3)));
+
+        ListResponse secondPage = listService.getListById(10L, 1L, 2, firstPage.getNextCursor());
+
+        assertEquals(7L, secondPage.getBooks().get(0).getBookId());
+        assertFalse(secondPage.getHasMore());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should count the books of a list that fits in the first page without a query")
+    void getListById_SmallListSkipsCount() {
+        when(libraryListRepository.findById(10L)).thenReturn(Optional.of(list(10L)));
+        when(listBookRepository.findPage(eq(10L), eq(Integer.MIN_VALUE), any())).thenReturn(List.of(listBook(5L, 1)));
+
+        ListResponse list = listService.getListById(10L, 1L, 50, null);
+
+        assertEquals(1, list.getBookCount());
+        verify(libraryListRepository, never()).countBooksByListId(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid limits and cursors")
+    void getListById_InvalidPage() {
+        assertThrows(IllegalArgumentException.class, () -> listService.getListById(10L, 1L, 101, null));
+        assertThrows(IllegalArgumentException.class, () -> listService.getListById(10L, 1L, 20, "not a cursor!"));
+    }
+}
@@ -0,0 +1,177 @@
+package com.parchelector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parchelector.model.entity.Notification;
+import com.parchelector.repository.NotificationRepository;
+import com.parchelector.repository.ReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NotificationBuffer.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NotificationBuffer Tests")
+class NotificationBufferTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private UnreadNotificationCounter unreadNotificationCounter;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private NotificationBuffer buffer;
+
+    // Rows of every INSERT batch, user ID, type and payload joined
+    private final List<String> inserts = new ArrayList<>();
+    private final List<Object> deletes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(buffer, "maxBuffered", 100);
+        // Review 7 is by user 1, review 8 by user 2
+        lenient().when(reviewRepository.findAuthorIds(anyCollection()))
+                .thenReturn(List.of(new Object[] {7L, 1L}, new Object[] {8L, 2L}));
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            List<Object[]> rows = invocation.getArgument(1);
+            for (Object[] row : rows) {
+                if (sql.startsWith("INSERT")) {
+                    inserts.add(row[0] + "," + row[1] + "," + row[2]);
+                } else {
+                    deletes.add(row[0]);
+                }
+            }
+            int[] counts = new int[rows.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+    }
+
+    private Notification unread(Long id, Long userId, String type, String payload) {
+        return new Notification(id, userId, type, payload, false, LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Should write one notification per subject, most recent people first")
+    void flush_CoalescesBySubject() {
+        buffer.record(Notification.REVIEW_LIKED, 7L, 3L);
+        buffer.record(Notification.REVIEW_LIKED, 7L, 4L);
+        buffer.record(Notification.REVIEW_LIKED, 7L, 5L);
+        buffer.record(Notification.REVIEW_LIKED, 7L, 3L);
+        buffer.record(Notification.REVIEW_LIKED, 7L, 6L);
+
+        assertEquals(4, buffer.size());
+
+        buffer.flush();
+
+        assertEquals(List.of("1,REVIEW_LIKED,{\"subjectId\":7,\"count\":4,\"actorIds\":[6,3,5]}"), inserts);
+        verify(unreadNotificationCounter).adjustAfterCommit(1L, 1);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Should not notify users of their own actions nor of deleted reviews")
+    void flush_SkipsOwnActionsAndDeletedReviews() {
+        buffer.record(Notification.REVIEW_LIKED, 7L, 1L);
+        buffer.record(Notification.REVIEW_COMMENTED, 9L, 3L);
+        buffer.record(Notification.NEW_FOLLOWER, 2L, 3L);
+
+        buffer.flush();
+
+        assertEquals(List.of("2,NEW_FOLLOWER,{\"subjectId\":null,\"count\":1,\"actorIds\":[3]}"), inserts);
+    }
+
+    @Test
+    @DisplayName("Should merge into the unread notification of the same subject")
+    void flush_MergesIntoUnread() {
+        when(notificationRepository.findUnread(anyCollection(), anyCollection())).thenReturn(List.of(
+                unread(40L, 1L, Notification.REVIEW_LIKED, "{\"subjectId\":7,\"count\":10,\"actorIds\":[9,4,8]}"),
+                unread(41L, 1L, Notification.REVIEW_LIKED, "{\"subjectId\":12,\"count\":2,\"actorIds\":[5,6]}")));
+        buffer.record(Notification.REVIEW_LIKED, 7L, 4L);
+        buffer.record(Notification.REVIEW_LIKED, 7L, 5L);
+
+        buffer.flush();
+
+        assertEquals(List.of(40L), deletes);
+        assertEquals(List.of("1,REVIEW_LIKED,{\"subjectId\":7,\"count\":11,\"actorIds\":[5,4,9]}"), inserts);
+        // Replaced an unread notification: the unread count stays the same
+        verify(unreadNotificationCounter, never()).adjustAfterCommit(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should start a new notification when the unread one was read meanwhile")
+    void flush_ReadMeanwhileStartsNew() {
+        when(notificationRepository.findUnread(anyCollection(), anyCollection())).thenReturn(List.of(
+                unread(40L, 2L, Notification.NEW_FOLLOWER, "{\"subjectId\":null,\"count\":3,\"actorIds\":[9,4,8]}")));
+        doReturn(new int[] {0}).when(jdbcTemplate).batchUpdate(startsWith("DELETE"), anyList());
+        buffer.record(Notification.NEW_FOLLOWER, 2L, 5L);
+
+        buffer.flush();
+
+        assertEquals(List.of("2,NEW_FOLLOWER,{\"subjectId\":null,\"count\":1,\"actorIds\":[5]}"), inserts);
+        verify(unreadNotificationCounter).adjustAfterCommit(2L, 1);
+    }
+
+    @Test
+    @DisplayName("Should put events back when the write fails")
+    void flush_FailureKeepsEvents() {
+        buffer.record(Notification.REVIEW_LIKED, 7L, 3L);
+        buffer.record(Notification.REVIEW_COMMENTED, 8L, 3L);
+        doThrow(new DataAccessResourceFailureException("connection lost"))
+                .when(jdbcTemplate).batchUpdate(startsWith("INSERT"), anyList());
+
+        buffer.flush();
+
+        assertEquals(2, buffer.size());
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(unreadNotificationCounter);
+    }
+
+    @Test
+    @DisplayName("Should drop new events while the buffer is full")
+    void record_DropsWhenFull() {
+        ReflectionTestUtils.setField(buffer, "maxBuffered", 2);
+
+        buffer.record(Notification.REVIEW_LIKED, 7L, 3L);
+        buffer.record(Notification.REVIEW_LIKED, 7L, 4L);
+        buffer.record(Notification.REVIEW_LIKED, 7L, 5L);
+
+        assertEquals(2, buffer.size());
+        verifyNoInteractions(jdbcTemplate);
+        buffer.flush();
+        assertEquals(List.of("1,REVIEW_LIKED,{\"subjectId\":7,\"count\":2,\"actorIds\":[4,3]}"), inserts);
+    }
+}
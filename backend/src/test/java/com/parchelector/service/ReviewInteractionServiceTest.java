@@ -0,0 +1,175 @@
+package com.parchelector.service;
+
+import com.parchelector.dto.request.CreateCommentRequest;
+import com.parchelector.model.entity.Review;
+import com.parchelector.model.entity.ReviewComment;
+import com.parchelector.model.entity.User;
+import com.parchelector.repository.ReviewCommentRepository;
+import com.parchelector.repository.ReviewLikeRepository;
+import com.parchelector.repository.ReviewRepository;
+import com.parchelector.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReviewInteractionService comment counters.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReviewInteractionService Tests")
+class ReviewInteractionServiceTest {
+
+    @Mock
+    private ReviewLikeRepository reviewLikeRepository;
+
+    @Mock
+    private ReviewCommentRepository reviewCommentRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ReviewLikeBuffer reviewLikeBuffer;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @InjectMocks
+    private ReviewInteractionService reviewInteractionService;
+
+    private Review review;
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        review = new Review();
+        review.setId(10L);
+        review.setIsDeleted(false);
+
+        author = new User();
+        author.setId(1L);
+        author.setUsername("commenter");
+    }
+
+    private ReviewComment comment(Long id, boolean deleted) {
+        ReviewComment comment = new ReviewComment();
+        comment.setId(id);
+        comment.setReview(review);
+        comment.setUser(author);
+        comment.setBody("Great read");
+        comment.setIsDeleted(deleted);
+        return comment;
+    }
+
+    @Nested
+    @DisplayName("Comment Counter Tests")
+    class CommentCounterTests {
+
+        @Test
+        @DisplayName("Should add one to the review's comment counter with the new comment")
+        void addComment_IncrementsCounter() {
+            when(reviewRepository.findById(10L)).thenReturn(Optional.of(review));
+            when(userRepository.findById(1L)).thenReturn(Optional.of(author));
+            when(reviewCommentRepository.save(any(ReviewComment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            reviewInteractionService.addComment(1L, 10L, new CreateCommentRequest("Great read"));
+
+            verify(reviewRepository).adjustCommentCount(10L, 1);
+            verify(notificationService).reviewCommented(1L, 10L);
+        }
+
+        @Test
+        @DisplayName("Should leave the counter alone when commenting on a deleted review")
+        void addComment_DeletedReview() {
+            review.setIsDeleted(true);
+            when(reviewRepository.findById(10L)).thenReturn(Optional.of(review));
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> reviewInteractionService.addComment(1L, 10L, new CreateCommentRequest("Late")));
+
+            verify(reviewRepository, never()).adjustCommentCount(anyLong(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should take one from the review's comment counter when a comment is deleted")
+        void deleteComment_DecrementsCounter() {
+            ReviewComment comment = comment(20L, false);
+            when(reviewCommentRepository.findById(20L)).thenReturn(Optional.of(comment));
+
+            reviewInteractionService.deleteComment(1L, 20L);
+
+            assertTrue(comment.getIsDeleted());
+            verify(reviewRepository).adjustCommentCount(10L, -1);
+        }
+
+        @Test
+        @DisplayName("Should not count a comment twice or delete another user's comment")
+        void deleteComment_Rejected() {
+            when(reviewCommentRepository.findById(20L)).thenReturn(Optional.of(comment(20L, true)));
+            when(reviewCommentRepository.findById(21L)).thenReturn(Optional.of(comment(21L, false)));
+
+            assertThrows(IllegalArgumentException.class, () -> reviewInteractionService.deleteComment(1L, 20L));
+            assertThrows(IllegalArgumentException.class, () -> reviewInteractionService.deleteComment(2L, 21L));
+
+            verify(reviewRepository, never()).adjustCommentCount(anyLong(), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("Counter Reconciliation Tests")
+    class ReconciliationTests {
+
+        @Test
+        @DisplayName("Should rebuild the counters when the comment total drifted")
+        void reconcileCountersIfDrifted_CommentDrift() {
+            when(reviewRepository.sumLikeCounts()).thenReturn(7L);
+            when(reviewLikeRepository.count()).thenReturn(7L);
+            when(reviewRepository.sumCommentCounts()).thenReturn(5L);
+            when(reviewCommentRepository.countNotDeleted()).thenReturn(4L);
+            when(reviewRepository.rebuildInteractionCounts()).thenReturn(1);
+
+            reviewInteractionService.reconcileCountersIfDrifted();
+
+            verify(reviewRepository).rebuildInteractionCounts();
+        }
+
+        @Test
+        @DisplayName("Should rebuild the counters when the like total drifted, without counting comments")
+        void reconcileCountersIfDrifted_LikeDrift() {
+            when(reviewRepository.sumLikeCounts()).thenReturn(6L);
+            when(reviewLikeRepository.count()).thenReturn(7L);
+
+            reviewInteractionService.reconcileCountersIfDrifted();
+
+            verify(reviewRepository).rebuildInteractionCounts();
+            verify(reviewCommentRepository, never()).countNotDeleted();
+        }
+
+        @Test
+        @DisplayName("Should skip the rebuild when the totals match")
+        void reconcileCountersIfDrifted_NoDrift() {
+            when(reviewRepository.sumLikeCounts()).thenReturn(7L);
+            when(reviewLikeRepository.count()).thenReturn(7L);
+            when(reviewRepository.sumCommentCounts()).thenReturn(4L);
+            when(reviewCommentRepository.countNotDeleted()).thenReturn(4L);
+
+            reviewInteractionService.reconcileCountersIfDrifted();
+
+            verify(reviewRepository, never()).rebuildInteractionCounts();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.parchelector.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReviewLikeBuffer.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReviewLikeBuffer Tests")
+class ReviewLikeBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ReviewLikeBuffer buffer;
+
+    // Statement prefix -> rows of every batch sent with it
+    private final List<String> statements = new ArrayList<>();
+    private final List<List<Object[]>> batches = new ArrayList<>();
+
+    // Flushes started by a full buffer, run by the test
+    private final List<Runnable> flushes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(buffer, "maxBuffered", 100);
+        ReflectionTestUtils.setField(buffer, "flushExecutor",
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+                    @Override
+                    public void execute(Runnable task) {
+                        flushes.add(task);
+                    }
+                });
+        // Every row changes something unless a test says otherwise
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            record(invocation.getArgument(0), rows);
+            int[] counts = new int[rows.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+    }
+
+    private void record(String sql, List<Object[]> rows) {
+        statements.add(sql.substring(0, 6));
+        batches.add(new ArrayList<>(rows));
+    }
+
+    private List<String> rowsOf(String statement) {
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < statements.size(); i++) {
+            if (statements.get(i).equals(statement)) {
+                for (Object[] row : batches.get(i)) {
+                    rows.add(Arrays.stream(row).map(String::valueOf).collect(Collectors.joining(",")));
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    @DisplayName("Should keep only the last toggle of a user on a review")
+    void toggles_Collapse() {
+        buffer.like(7L, 1L);
+        buffer.unlike(7L, 1L);
+        buffer.like(7L, 1L);
+        buffer.unlike(7L, 1L);
+
+        assertEquals(Boolean.FALSE, buffer.getPendingState(7L, 1L));
+        assertEquals(1, buffer.size());
+
+        buffer.flush();
+
+        assertEquals(List.of(), rowsOf("INSERT"));
+        assertEquals(List.of("7,1"), rowsOf("DELETE"));
+        assertEquals(List.of("-1,7"), rowsOf("UPDATE"));
+        assertNull(buffer.getPendingState(7L, 1L));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Should keep buffered toggles visible until their flush commits")
+    void pendingState_VisibleDuringFlush() {
+        buffer.like(7L, 1L);
+        List<Boolean> seenDuringWrite = new ArrayList<>();
+        doAnswer(invocation -> {
+            seenDuringWrite.add(buffer.getPendingState(7L, 1L));
+            return new int[] {1};
+        }).when(jdbcTemplate).batchUpdate(startsWith("INSERT"), anyList());
+
+        buffer.flush();
+
+        assertEquals(List.of(true), seenDuringWrite);
+        assertNull(buffer.getPendingState(7L, 1L));
+    }
+
+    @Test
+    @DisplayName("Should adjust like counters by the rows actually inserted and deleted")
+    void flush_AdjustsCountersByChangedRows() {
+        buffer.like(8L, 2L);
+        buffer.like(7L, 1L);
+        buffer.like(7L, 2L);
+        buffer.unlike(9L, 3L);
+        // The like of user 2 on review 7 already existed
+        doAnswer(invocation -> {
+            record(invocation.getArgument(0), invocation.getArgument(1));
+            return new int[] {1, 0, 1};
+        }).when(jdbcTemplate).batchUpdate(startsWith("INSERT"), anyList());
+
+        buffer.flush();
+
+        assertEquals(List.of("7,1,7,1", "7,2,7,2", "8,2,8,2"), rowsOf("INSERT"));
+        assertEquals(List.of("9,3"), rowsOf("DELETE"));
+        assertEquals(List.of("1,7", "1,8", "-1,9"), rowsOf("UPDATE"));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should put toggles back behind newer ones when the write fails")
+    void flush_FailureKeepsToggles() {
+        buffer.like(7L, 1L);
+        buffer.like(8L, 1L);
+        doAnswer(invocation -> {
+            // Recorded while the failing flush runs
+            buffer.unlike(7L, 1L);
+            throw new DataAccessResourceFailureException("connection lost");
+        }).when(jdbcTemplate).batchUpdate(startsWith("INSERT"), anyList());
+
+        buffer.flush();
+
+        assertEquals(Boolean.FALSE, buffer.getPendingState(7L, 1L));
+        assertEquals(Boolean.TRUE, buffer.getPendingState(8L, 1L));
+        assertEquals(2, buffer.size());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Should start one background flush once the buffer is full, without writing on the caller")
+    void record_RequestsFlushWhenFull() {
+        ReflectionTestUtils.setField(buffer, "maxBuffered", 2);
+
+        buffer.like(7L, 1L);
+        assertTrue(flushes.isEmpty());
+
+        buffer.like(7L, 2L);
+        buffer.like(7L, 3L);
+
+        verifyNoInteractions(jdbcTemplate);
+        assertEquals(1, flushes.size());
+
+        flushes.remove(0).run();
+
+        assertEquals(List.of("7,1,7,1", "7,2,7,2", "7,3,7,3"), rowsOf("INSERT"));
+        assertEquals(0, buffer.size());
+
+        // Once that flush ran, filling up again requests the next one
+        buffer.like(8L, 1L);
+        buffer.like(8L, 2L);
+        assertEquals(1, flushes.size());
+    }
+}
@@ -0,0 +1,313 @@
+package com.parchelector.service;
+
+import com.parchelector.dto.request.CreateReviewRequest;
+import com.parchelector.dto.response.BookReviewsResponse;
+import com.parchelector.dto.response.ReviewResponse;
+import com.parchelector.model.entity.Book;
+import com.parchelector.model.entity.BookRatingStats;
+import com.parchelector.model.entity.Review;
+import com.parchelector.model.entity.User;
+import com.parchelector.repository.BookRepository;
+import com.parchelector.repository.ReviewRepository;
+import com.parchelector.repository.ReviewRepository.ReviewSummary;
+import com.parchelector.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReviewService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReviewService Tests")
+class ReviewServiceTest {
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookRatingStatsService bookRatingStatsService;
+
+    @Mock
+    private BookPopularityService bookPopularityService;
+
+    @Mock
+    private ReviewInteractionService reviewInteractionService;
+
+    @Mock
+    private HomeTimelineService homeTimelineService;
+
+    @Mock
+    private FeedStreamService feedStreamService;
+
+    @Spy
+    private BookReviewPageCache bookReviewPageCache = new BookReviewPageCache();
+
+    @InjectMocks
+    private ReviewService reviewService;
+
+    private Book testBook;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bookReviewPageCache, "maxBytes", 1_000_000L);
+        ReflectionTestUtils.setField(bookReviewPageCache, "ttlSeconds", 60L);
+
+        testBook = new Book();
+        testBook.setId(1L);
+        testBook.setTitle("Test Book");
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+
+        BookRatingStats stats = new BookRatingStats(1L);
+        stats.addRating(new BigDecimal("5.0"));
+        stats.addRating(new BigDecimal("4.0"));
+        stats.addRating(new BigDecimal("4.5"));
+        List<Object[]> header = new ArrayList<>();
+        header.add(new Object[] {testBook, stats});
+        lenient().when(bookRepository.findWithRatingStats(1L)).thenReturn(header);
+    }
+
+    private ReviewSummary review(long id, String rating, int likes) {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 0, 0).minusMinutes(id);
+        return new ReviewSummary() {
+            public Long getId() { return id; }
+            public Long getBookId() { return 1L; }
+            public String getBookTitle() { return testBook.getTitle(); }
+            public String getBookCover() { return null; }
+            public Long getUserId() { return testUser.getId(); }
+            public String getUsername() { return testUser.getUsername(); }
+            public String getUserAvatar() { return null; }
+            public BigDecimal getRating() { return new BigDecimal(rating); }
+            public String getTitle() { return null; }
+            public String getExcerpt() { return "Review " + id + "…"; }
+            public LocalDateTime getCreatedAt() { return createdAt; }
+            public LocalDateTime getUpdatedAt() { return createdAt; }
+            public Integer getLikeCount() { return likes; }
+            public Integer getCommentCount() { return 0; }
+        };
+    }
+
+    @Nested
+    @DisplayName("Get Book Reviews Tests")
+    class GetBookReviewsTests {
+
+        @Test
+        @DisplayName("Should return a page with the rating header and a cursor to the next page")
+        void getBookReviews_FirstPage() {
+            // Arrange: limit 2, three matching reviews
+            when(reviewRepository.findBookReviewsByMostLiked(eq(1L), isNull(), isNull(),
+                    eq(Integer.MAX_VALUE), eq(Long.MAX_VALUE), any(Pageable.class)))
+                    .thenReturn(List.of(review(3L, "4.0", 9), review(1L, "5.0", 4), review(2L, "4.5", 4)));
+            when(reviewRepository.findBookReviewsByMostLiked(eq(1L), isNull(), isNull(),
+                    eq(4), eq(1L), any(Pageable.class)))
+                    .thenReturn(List.of(review(2L, "4.5", 4)));
+
+            // Act
+            BookReviewsResponse first = reviewService.getBookReviews(1L, "most_liked", null, null, 2, null);
+            BookReviewsResponse second = reviewService.getBookReviews(1L, "most_liked", null, first.getNextCursor(), 2, null);
+
+            // Assert
+            assertEquals("Test Book", first.getBookTitle());
+            assertEquals(3, first.getTotalReviews());
+            assertEquals(2, first.getFiveStarReviews());
+            assertEquals(1, first.getFourStarReviews());
+            assertEquals(List.of(3L, 1L), first.getReviews().stream().map(r -> r.getId()).toList());
+            assertTrue(first.getHasMore());
+
+            assertEquals(List.of(2L), second.getReviews().stream().map(r -> r.getId()).toList());
+            assertFalse(second.getHasMore());
+            assertNull(second.getNextCursor());
+        }
+
+        @Test
+        @DisplayName("Should filter by the star bucket boundaries")
+        void getBookReviews_StarFilter() {
+            when(reviewRepository.findBookReviewsByHighest(anyLong(), any(), any(), any(), anyLong(), any(Pageable.class)))
+                    .thenReturn(Collections.emptyList());
+
+            reviewService.getBookReviews(1L, "highest", 5, null, 20, null);
+            reviewService.getBookReviews(1L, "highest", 3, null, 20, null);
+            reviewService.getBookReviews(1L, "highest", 1, null, 20, null);
+
+            verify(reviewRepository).findBookReviewsByHighest(eq(1L), eq(new BigDecimal("4.5")), isNull(),
+                    eq(BigDecimal.TEN), eq(Long.MAX_VALUE), any(Pageable.class));
+            verify(reviewRepository).findBookReviewsByHighest(eq(1L), eq(new BigDecimal("2.5")), eq(new BigDecimal("3.5")),
+                    eq(BigDecimal.TEN), eq(Long.MAX_VALUE), any(Pageable.class));
+            verify(reviewRepository).findBookReviewsByHighest(eq(1L), isNull(), eq(new BigDecimal("1.5")),
+                    eq(BigDecimal.TEN), eq(Long.MAX_VALUE), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should serve the first page from the cache until the book's reviews change")
+        void getBookReviews_CachedFirstPage() {
+            when(reviewRepository.findBookReviewsByNewest(anyLong(), any(), any(), any(), anyLong(), any(Pageable.class)))
+                    .thenReturn(List.of(review(1L, "5.0", 0)));
+
+            BookReviewsResponse first = reviewService.getBookReviews(1L, "newest", null, null, 20, null);
+            BookReviewsResponse cached = reviewService.getBookReviews(1L, "newest", null, null, 20, null);
+            reviewService.getBookReviews(1L, "newest", null, null, 5, null);
+            reviewService.getBookReviews(1L, "newest", 5, null, 20, null);
+
+            assertSame(first, cached);
+            verify(reviewRepository, times(2)).findBookReviewsByNewest(anyLong(), any(), any(), any(), anyLong(), any(Pageable.class));
+
+            // No transaction here, so the invalidation applies immediately
+            bookReviewPageCache.invalidateAfterCommit(1L);
+            reviewService.getBookReviews(1L, "newest", null, null, 20, null);
+
+            verify(reviewRepository, times(3)).findBookReviewsByNewest(anyLong(), any(), any(), any(), anyLong(), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should flag the user's likes on a copy of the cached page")
+        void getBookReviews_LikedByMe() {
+            when(reviewRepository.findBookReviewsByNewest(anyLong(), any(), any(), any(), anyLong(), any(Pageable.class)))
+                    .thenReturn(List.of(review(1L, "5.0", 1), review(2L, "4.0", 0)));
+            when(reviewInteractionService.getLikeStatuses(eq(7L), eq(List.of(1L, 2L))))
+                    .thenReturn(Map.of(1L, true, 2L, false));
+
+            BookReviewsResponse anonymous = reviewService.getBookReviews(1L, "newest", null, null, 20, null);
+            BookReviewsResponse mine = reviewService.getBookReviews(1L, "newest", null, null, 20, 7L);
+
+            assertEquals(List.of(true, false), mine.getReviews().stream().map(r -> r.getLikedByMe()).toList());
+            assertEquals(anonymous.getTotalReviews(), mine.getTotalReviews());
+            // The cached page is shared by every user and stays unflagged
+            assertNull(anonymous.getReviews().get(0).getLikedByMe());
+            assertSame(anonymous, bookReviewPageCache.slot(1L, "newest:null").get().slice(20));
+            verify(reviewRepository, times(1)).findBookReviewsByNewest(anyLong(), any(), any(), any(), anyLong(), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should cut every page size from the largest first page, with excerpts only")
+        void getBookReviews_SlicedFirstPage() {
+            List<ReviewSummary> reviews = List.of(review(1L, "5.0", 0), review(2L, "4.0", 0), review(3L, "3.0", 0));
+            when(reviewRepository.findBookReviewsByNewest(anyLong(), any(), any(), any(), anyLong(), any(Pageable.class)))
+                    .thenReturn(reviews);
+
+            BookReviewsResponse two = reviewService.getBookReviews(1L, "newest", null, null, 2, null);
+            BookReviewsResponse one = reviewService.getBookReviews(1L, "newest", null, null, 1, null);
+            BookReviewsResponse all = reviewService.getBookReviews(1L, "newest", null, null, 50, null);
+
+            verify(reviewRepository, times(1)).findBookReviewsByNewest(eq(1L), isNull(), isNull(), any(),
+                    eq(Long.MAX_VALUE), eq(PageRequest.of(0, 51)));
+            assertEquals(List.of(1L, 2L), two.getReviews().stream().map(r -> r.getId()).toList());
+            assertTrue(two.getHasMore());
+            assertEquals(ReviewCursor.of("newest", reviews.get(1).getCreatedAt(), 2L).encode(), two.getNextCursor());
+            assertEquals(List.of(1L), one.getReviews().stream().map(r -> r.getId()).toList());
+            assertEquals(ReviewCursor.of("newest", reviews.get(0).getCreatedAt(), 1L).encode(), one.getNextCursor());
+            assertEquals(3, all.getReviews().size());
+            assertFalse(all.getHasMore());
+            assertNull(all.getNextCursor());
+            for (ReviewResponse review : all.getReviews()) {
+                assertNull(review.getBody());
+                assertEquals("Review " + review.getId() + "…", review.getExcerpt());
+            }
+        }
+
+        @Test
+        @DisplayName("Should serve first pages uncached once the cache is full")
+        void getBookReviews_CacheFull() {
+            ReflectionTestUtils.setField(bookReviewPageCache, "maxBytes", 100L);
+            when(reviewRepository.findBookReviewsByNewest(anyLong(), any(), any(), any(), anyLong(), any(Pageable.class)))
+                    .thenReturn(List.of(review(1L, "5.0", 0)));
+
+            reviewService.getBookReviews(1L, "newest", null, null, 20, null);
+            reviewService.getBookReviews(1L, "newest", null, null, 20, null);
+
+            verify(reviewRepository, times(2)).findBookReviewsByNewest(anyLong(), any(), any(), any(), anyLong(), any(Pageable.class));
+            assertEquals(0, bookReviewPageCache.estimatedSizeBytes());
+        }
+
+        @Test
+        @DisplayName("Should reject invalid parameters")
+        void getBookReviews_InvalidParameters() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> reviewService.getBookReviews(1L, "oldest", null, null, 20, null));
+            assertThrows(IllegalArgumentException.class,
+                    () -> reviewService.getBookReviews(1L, "newest", 6, null, 20, null));
+            assertThrows(IllegalArgumentException.class,
+                    () -> reviewService.getBookReviews(1L, "newest", null, null, 51, null));
+            assertThrows(IllegalArgumentException.class,
+                    () -> reviewService.getBookReviews(1L, "newest", null, "bm90LWEtY3Vyc29y", 20, null));
+            verifyNoInteractions(reviewRepository);
+        }
+
+        @Test
+        @DisplayName("Should fail when the book does not exist")
+        void getBookReviews_BookNotFound() {
+            when(bookRepository.findWithRatingStats(99L)).thenReturn(Collections.emptyList());
+
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> reviewService.getBookReviews(99L, "newest", null, null, 20, null));
+            assertEquals("Book not found", exception.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Review Excerpt Tests")
+    class ReviewExcerptTests {
+
+        @Test
+        @DisplayName("Should store a bounded excerpt cut at a word boundary")
+        void createReview_StoresExcerpt() {
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+            when(reviewRepository.findByUserIdAndBookId(1L, 1L)).thenReturn(Optional.empty());
+            when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> {
+                Review saved = invocation.getArgument(0);
+                saved.setId(10L);
+                saved.setCreatedAt(LocalDateTime.now());
+                saved.setUpdatedAt(saved.getCreatedAt());
+                return saved;
+            });
+            CreateReviewRequest request = new CreateReviewRequest();
+            request.setBookId(1L);
+            request.setRating(new BigDecimal("4.0"));
+            request.setBody("palabra ".repeat(100));
+
+            ReviewResponse response = reviewService.createReview(1L, request);
+
+            assertEquals(800, response.getBody().length());
+            assertTrue(response.getExcerpt().length() <= Review.EXCERPT_LENGTH);
+            assertTrue(response.getExcerpt().endsWith("palabra\u2026"));
+        }
+
+        @Test
+        @DisplayName("Should keep short bodies whole")
+        void excerptOf_ShortBody() {
+            assertEquals("Corta", Review.excerptOf("Corta"));
+            assertNull(Review.excerptOf(null));
+        }
+    }
+}
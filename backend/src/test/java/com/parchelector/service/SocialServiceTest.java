@@ -0,0 +1,287 @@
+package com.parchelector.service;
+
+import com.parchelector.dto.request.FollowAuthorRequest;
+import com.parchelector.dto.request.FollowUserRequest;
+import com.parchelector.dto.response.FollowListResponse;
+import com.parchelector.model.entity.Follow;
+import com.parchelector.model.entity.User;
+import com.parchelector.repository.AuthorFollowRepository;
+import com.parchelector.repository.AuthorRepository;
+import com.parchelector.repository.FollowRepository;
+import com.parchelector.repository.FollowRepository.FollowUserSummary;
+import com.parchelector.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SocialService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SocialService Tests")
+class SocialServiceTest {
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private AuthorFollowRepository authorFollowRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private HomeTimelineService homeTimelineService;
+
+    @Mock
+    private FollowGraphService followGraphService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private UserSuggestionService userSuggestionService;
+
+    @InjectMocks
+    private SocialService socialService;
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        return user;
+    }
+
+    private static FollowUserSummary summary(Long id) {
+        return new FollowUserSummary() {
+            public Long getId() { return id; }
+            public String getUsername() { return "user" + id; }
+            public String getAvatarUrl() { return null; }
+        };
+    }
+
+    private static List<FollowUserSummary> summaries(Long... ids) {
+        return List.of(ids).stream().map(SocialServiceTest::summary).collect(Collectors.toList());
+    }
+
+    private static List<Long> userIds(FollowListResponse page) {
+        return page.getUsers().stream().map(FollowListResponse.FollowUser::getUserId).collect(Collectors.toList());
+    }
+
+    @Nested
+    @DisplayName("Follow Counter Tests")
+    class FollowCounterTests {
+
+        @Test
+        @DisplayName("Should add one to both counters of a new follow, lower user ID first")
+        void followUser_IncrementsCounters() {
+            when(followRepository.insertIfAbsent(eq(3L), eq(2L), any(LocalDateTime.class))).thenReturn(1);
+            when(userRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(user(3L), user(2L)));
+
+            socialService.followUser(3L, new FollowUserRequest(2L));
+
+            InOrder order = inOrder(userRepository);
+            order.verify(userRepository).adjustFollowersCount(2L, 1);
+            order.verify(userRepository).adjustFollowingCount(3L, 1);
+        }
+
+        @Test
+        @DisplayName("Should take one from both counters when unfollowing")
+        void unfollowUser_DecrementsCounters() {
+            when(followRepository.deleteByFollowerIdAndFollowedId(1L, 2L)).thenReturn(1);
+
+            assertTrue(socialService.unfollowUser(1L, 2L));
+
+            InOrder order = inOrder(userRepository);
+            order.verify(userRepository).adjustFollowingCount(1L, -1);
+            order.verify(userRepository).adjustFollowersCount(2L, -1);
+        }
+
+        @Test
+        @DisplayName("Should leave the counters alone on repeated follows and unfollows")
+        void repeatedFollows_LeaveCounters() {
+            LocalDateTime followedAt = LocalDateTime.of(2025, 11, 1, 12, 0);
+            Follow follow = new Follow();
+            follow.setCreatedAt(followedAt);
+            when(followRepository.insertIfAbsent(eq(1L), eq(2L), any(LocalDateTime.class))).thenReturn(0);
+            when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(user(1L), user(2L)));
+            when(followRepository.findByFollowerIdAndFollowedId(1L, 2L)).thenReturn(Optional.of(follow));
+            when(followRepository.deleteByFollowerIdAndFollowedId(1L, 5L)).thenReturn(0);
+            when(authorFollowRepository.insertIfAbsent(1L, 7L)).thenReturn(0);
+            when(authorRepository.existsById(7L)).thenReturn(true);
+            when(authorFollowRepository.deleteByUserIdAndAuthorId(1L, 8L)).thenReturn(0);
+
+            assertEquals(followedAt, socialService.followUser(1L, new FollowUserRequest(2L)).getCreatedAt());
+            assertFalse(socialService.unfollowUser(1L, 5L));
+            assertFalse(socialService.followAuthor(1L, new FollowAuthorRequest(7L)));
+            assertFalse(socialService.unfollowAuthor(1L, 8L));
+
+            verify(userRepository, never()).adjustFollowersCount(anyLong(), anyInt());
+            verify(userRepository, never()).adjustFollowingCount(anyLong(), anyInt());
+            verify(authorRepository, never()).adjustFollowerCount(anyLong(), anyInt());
+            verifyNoInteractions(homeTimelineService, userSuggestionService);
+        }
+
+        @Test
+        @DisplayName("Should reject following yourself without touching the counters")
+        void followUser_Self() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> socialService.followUser(1L, new FollowUserRequest(1L)));
+
+            verifyNoInteractions(followRepository, userRepository);
+        }
+
+        @Test
+        @DisplayName("Should move an author's follower counter on follow and unfollow")
+        void followAuthor_AdjustsCounter() {
+            when(authorFollowRepository.insertIfAbsent(1L, 7L)).thenReturn(1);
+            when(authorFollowRepository.deleteByUserIdAndAuthorId(1L, 7L)).thenReturn(1);
+
+            assertTrue(socialService.followAuthor(1L, new FollowAuthorRequest(7L)));
+            assertTrue(socialService.unfollowAuthor(1L, 7L));
+
+            verify(authorRepository).adjustFollowerCount(7L, 1);
+            verify(authorRepository).adjustFollowerCount(7L, -1);
+        }
+
+        @Test
+        @DisplayName("Should rebuild only the counters whose totals drifted from the follows")
+        void reconcileFollowCountersIfDrifted_RepairsDrift() {
+            // A user's followers count is one short; author counters match
+            when(followRepository.count()).thenReturn(10L);
+            when(userRepository.sumFollowersCounts()).thenReturn(9L);
+            when(authorRepository.sumFollowerCounts()).thenReturn(4L);
+            when(authorFollowRepository.count()).thenReturn(4L);
+            when(userRepository.rebuildFollowCounts()).thenReturn(1);
+
+            socialService.reconcileFollowCountersIfDrifted();
+
+            verify(userRepository).rebuildFollowCounts();
+            verify(authorRepository, never()).rebuildFollowerCounts();
+        }
+
+        @Test
+        @DisplayName("Should skip the rebuild when the counters match the follows")
+        void reconcileFollowCountersIfDrifted_NoDrift() {
+            when(followRepository.count()).thenReturn(10L);
+            when(userRepository.sumFollowersCounts()).thenReturn(10L);
+            when(userRepository.sumFollowingCounts()).thenReturn(10L);
+            when(authorRepository.sumFollowerCounts()).thenReturn(4L);
+            when(authorFollowRepository.count()).thenReturn(4L);
+
+            socialService.reconcileFollowCountersIfDrifted();
+
+            verify(userRepository, never()).rebuildFollowCounts();
+            verify(authorRepository, never()).rebuildFollowerCounts();
+        }
+
+        @Test
+        @DisplayName("Should recompute every counter on the scheduled repair")
+        void repairFollowCounters_RebuildsAll() {
+            socialService.repairFollowCounters();
+
+            verify(userRepository).rebuildFollowCounts();
+            verify(authorRepository).rebuildFollowerCounts();
+        }
+    }
+
+    @Nested
+    @DisplayName("Follow List Tests")
+    class FollowListTests {
+
+        @Test
+        @DisplayName("Should continue a page of followers after the cursor of the previous one")
+        void getFollowers_CursorRoundTrip() {
+            when(followRepository.findFollowersPage(1L, 0L, PageRequest.of(0, 3))).thenReturn(summaries(4L, 6L, 9L));
+            when(followRepository.findFollowersPage(1L, 6L, PageRequest.of(0, 3))).thenReturn(summaries(9L));
+
+            FollowListResponse first = socialService.getFollowers(1L, null, 2, null);
+            FollowListResponse second = socialService.getFollowers(1L, null, 2, first.getNextCursor());
+
+            assertEquals(List.of(4L, 6L), userIds(first));
+            assertTrue(first.getHasMore());
+            assertNotNull(first.getNextCursor());
+            assertEquals(List.of(9L), userIds(second));
+        }
+
+        @Test
+        @DisplayName("Should end on a page without a next cursor")
+        void getFollowing_LastPage() {
+            when(followRepository.findFollowingPage(1L, 0L, PageRequest.of(0, 21))).thenReturn(summaries(2L, 3L));
+
+            FollowListResponse page = socialService.getFollowing(1L, null, 20, null);
+
+            assertEquals(List.of(2L, 3L), userIds(page));
+            assertFalse(page.getHasMore());
+            assertNull(page.getNextCursor());
+            verify(userRepository, never()).existsById(anyLong());
+        }
+
+        @Test
+        @DisplayName("Should tell an empty page from a missing user")
+        void getFollowers_MissingUser() {
+            when(followRepository.findFollowersPage(eq(1L), anyLong(), any())).thenReturn(List.of());
+            when(followRepository.findFollowersPage(eq(2L), anyLong(), any())).thenReturn(List.of());
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(userRepository.existsById(2L)).thenReturn(false);
+
+            assertTrue(socialService.getFollowers(1L, null, 20, null).getUsers().isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> socialService.getFollowers(2L, null, 20, null));
+        }
+
+        @Test
+        @DisplayName("Should reject malformed cursors and limits out of bounds")
+        void getFollowers_InvalidPage() {
+            assertThrows(IllegalArgumentException.class, () -> socialService.getFollowers(1L, null, 20, "not a cursor!"));
+            // Valid Base64 that is not a user ID
+            assertThrows(IllegalArgumentException.class, () -> socialService.getFollowers(1L, null, 20, "YWJj"));
+            assertThrows(IllegalArgumentException.class, () -> socialService.getFollowers(1L, null, 0, null));
+            assertThrows(IllegalArgumentException.class, () -> socialService.getFollowing(1L, null, 101, null));
+
+            verifyNoInteractions(followRepository);
+        }
+
+        @Test
+        @DisplayName("Should accept the largest page size")
+        void getFollowing_MaxLimit() {
+            when(followRepository.findFollowingPage(1L, 0L, PageRequest.of(0, 101))).thenReturn(summaries(2L));
+
+            assertEquals(100, socialService.getFollowing(1L, null, 100, null).getLimit());
+        }
+
+        @Test
+        @DisplayName("Should mark the listed users the current user follows, from the follow graph")
+        void getFollowers_IsFollowedByMe() {
+            when(followRepository.findFollowersPage(eq(1L), eq(0L), any())).thenReturn(summaries(2L, 3L, 5L));
+            when(followGraphService.isFollowing(5L, 2L)).thenReturn(true);
+            when(followGraphService.isFollowing(5L, 3L)).thenReturn(false);
+
+            List<FollowListResponse.FollowUser> users = socialService.getFollowers(1L, 5L, 20, null).getUsers();
+
+            assertTrue(users.get(0).getIsFollowedByMe());
+            assertFalse(users.get(1).getIsFollowedByMe());
+            // Not asked about the current user, nor for anonymous readers
+            assertNull(users.get(2).getIsFollowedByMe());
+            assertNull(socialService.getFollowers(1L, null, 20, null).getUsers().get(0).getIsFollowedByMe());
+            verify(followGraphService, never()).isFollowing(5L, 5L);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.parchelector.service;
+
+import com.parchelector.model.entity.ReadingStatus.ReadingStatusEnum;
+import com.parchelector.repository.ReadingStatusRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserLibraryService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserLibraryService Tests")
+class UserLibraryServiceTest {
+
+    @Mock
+    private ReadingStatusRepository readingStatusRepository;
+
+    @InjectMocks
+    private UserLibraryService userLibraryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userLibraryService, "cacheSize", 100);
+        ReflectionTestUtils.setField(userLibraryService, "maxAgeMinutes", 30L);
+    }
+
+    private static List<Object[]> entries(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    @Test
+    @DisplayName("Should load a library once and apply later updates in memory")
+    void getLibrary_LoadsOnce() {
+        when(readingStatusRepository.findLibraryEntries(1L)).thenReturn(entries(new Object[] {10L, "READ"}));
+
+        assertEquals(ReadingStatusEnum.READ, userLibraryService.getLibrary(1L).getStatus(10L));
+        userLibraryService.recordFavorite(1L, 10L, true);
+        // Not cached: nothing to update
+        userLibraryService.recordFavorite(2L, 10L, true);
+
+        assertTrue(userLibraryService.getLibrary(1L).isFavorite(10L));
+        verify(readingStatusRepository, times(1)).findLibraryEntries(1L);
+        verifyNoMoreInteractions(readingStatusRepository);
+    }
+
+    @Test
+    @DisplayName("Should keep an update committed while the library loads")
+    void getLibrary_UpdateDuringLoad() {
+        when(readingStatusRepository.findLibraryEntries(1L)).thenAnswer(invocation -> {
+            // Committed after the query read its rows
+            userLibraryService.recordStatus(1L, 11L, ReadingStatusEnum.READING);
+            return entries(new Object[] {10L, null});
+        });
+
+        UserLibrary library = userLibraryService.getLibrary(1L);
+
+        assertTrue(library.isFavorite(10L));
+        assertEquals(ReadingStatusEnum.READING, library.getStatus(11L));
+        assertSame(library, userLibraryService.getLibrary(1L));
+    }
+
+    @Test
+    @DisplayName("Should serve the expired library while it reloads, and retry a failed load")
+    void getLibrary_Reload() {
+        ReflectionTestUtils.setField(userLibraryService, "maxAgeMinutes", 0L);
+        List<UserLibrary> readDuringReload = new ArrayList<>();
+        when(readingStatusRepository.findLibraryEntries(1L))
+                .thenReturn(entries(new Object[] {10L, "READ"}))
+                .thenAnswer(invocation -> {
+                    readDuringReload.add(userLibraryService.getLibrary(1L));
+                    return entries(new Object[] {10L, "WANT_TO_READ"});
+                })
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(entries());
+
+        UserLibrary first = userLibraryService.getLibrary(1L);
+        assertEquals(ReadingStatusEnum.WANT_TO_READ, userLibraryService.getLibrary(1L).getStatus(10L));
+        assertThrows(IllegalStateException.class, () -> userLibraryService.getLibrary(1L));
+
+        assertEquals(List.of(first), readDuringReload);
+        assertEquals(0, userLibraryService.getLibrary(1L).size());
+    }
+}
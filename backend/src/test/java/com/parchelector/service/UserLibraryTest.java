@@ -0,0 +1,77 @@
+package com.parchelector.service;
+
+import com.parchelector.model.entity.ReadingStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UserLibrary.
+ */
+@DisplayName("UserLibrary Tests")
+class UserLibraryTest {
+
+    @Test
+    @DisplayName("Should merge shelf and favorite rows of the same book")
+    void shouldMergeRowsOfSameBook() {
+        UserLibrary library = new UserLibrary.Builder()
+                .addStatus(1L, ReadingStatus.ReadingStatusEnum.READING)
+                .addFavorite(1L)
+                .addFavorite(2L)
+                .build();
+
+        assertEquals(2, library.size());
+        assertEquals(ReadingStatus.ReadingStatusEnum.READING, library.getStatus(1L));
+        assertTrue(library.isFavorite(1L));
+        assertNull(library.getStatus(2L));
+        assertTrue(library.isFavorite(2L));
+        assertNull(library.getStatus(3L));
+        assertFalse(library.isFavorite(3L));
+        assertFalse(library.isFavorite(null));
+    }
+
+    @Test
+    @DisplayName("Should return updated copies and leave the original untouched")
+    void shouldCopyOnWrite() {
+        UserLibrary original = new UserLibrary.Builder()
+                .addStatus(1L, ReadingStatus.ReadingStatusEnum.WANT_TO_READ)
+                .build();
+
+        UserLibrary updated = original
+                .withStatus(1L, ReadingStatus.ReadingStatusEnum.READ)
+                .withFavorite(2L, true);
+
+        assertEquals(ReadingStatus.ReadingStatusEnum.WANT_TO_READ, original.getStatus(1L));
+        assertFalse(original.isFavorite(2L));
+        assertEquals(ReadingStatus.ReadingStatusEnum.READ, updated.getStatus(1L));
+        assertTrue(updated.isFavorite(2L));
+        assertSame(updated, updated.withFavorite(2L, true));
+    }
+
+    @Test
+    @DisplayName("Should drop a book once it has no flags left")
+    void shouldDropEmptyBooks() {
+        UserLibrary library = UserLibrary.EMPTY.withFavorite(5L, true).withFavorite(5L, false);
+
+        assertEquals(0, library.size());
+        assertFalse(library.isFavorite(5L));
+        assertEquals(0, UserLibrary.EMPTY.size());
+    }
+
+    @Test
+    @DisplayName("Should find every book of a large library")
+    void shouldHandleLargeLibraries() {
+        UserLibrary.Builder builder = new UserLibrary.Builder();
+        for (long bookId = 1; bookId <= 5_000; bookId++) {
+            builder.addStatus(bookId * 31, ReadingStatus.ReadingStatusEnum.values()[(int) (bookId % 3)]);
+        }
+        UserLibrary library = builder.build();
+
+        assertEquals(5_000, library.size());
+        for (long bookId = 1; bookId <= 5_000; bookId++) {
+            assertEquals(ReadingStatus.ReadingStatusEnum.values()[(int) (bookId % 3)], library.getStatus(bookId * 31));
+            assertNull(library.getStatus(bookId * 31 + 1));
+        }
+    }
+}
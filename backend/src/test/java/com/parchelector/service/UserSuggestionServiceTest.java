@@ -0,0 +1,199 @@
+package com.parchelector.service;
+
+import com.parchelector.dto.response.UserSuggestionResponse;
+import com.parchelector.repository.AuthorFollowRepository;
+import com.parchelector.repository.ReadingStatusRepository;
+import com.parchelector.repository.UserSuggestionRepository;
+import com.parchelector.repository.UserSuggestionRepository.SuggestionSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SuggestionRanker and UserSuggestionService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserSuggestionService Tests")
+class UserSuggestionServiceTest {
+
+    @Mock
+    private FollowGraphService followGraphService;
+
+    @Mock
+    private UserSuggestionRepository userSuggestionRepository;
+
+    @Mock
+    private ReadingStatusRepository readingStatusRepository;
+
+    @Mock
+    private AuthorFollowRepository authorFollowRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private UserSuggestionService userSuggestionService;
+
+    private static final SuggestionRanker.Settings SETTINGS = new SuggestionRanker.Settings(20, 200, 1000, 1.0, 0.2, 0.5);
+
+    // 1 follows 2 and 3; 2 follows 1, 4 and 5; 3 follows 4 and 6; 4 follows 1
+    private final FollowGraph graph = new FollowGraph.Builder()
+            .add(1, 2).add(1, 3)
+            .add(2, 1).add(2, 4).add(2, 5)
+            .add(3, 4).add(3, 6)
+            .add(4, 1)
+            .build();
+
+    // Rows of every INSERT batch, user ID and suggested user ID joined
+    private final List<String> inserts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userSuggestionService, "maxSuggestions", 20);
+        ReflectionTestUtils.setField(userSuggestionService, "candidatePool", 200);
+        ReflectionTestUtils.setField(userSuggestionService, "maxFanout", 1000);
+        ReflectionTestUtils.setField(userSuggestionService, "mutualFollowWeight", 1.0);
+        ReflectionTestUtils.setField(userSuggestionService, "bookWeight", 0.2);
+        ReflectionTestUtils.setField(userSuggestionService, "authorWeight", 0.5);
+        ReflectionTestUtils.setField(userSuggestionService, "parallelism", 2);
+        ReflectionTestUtils.setField(userSuggestionService, "partitionSize", 2);
+        ReflectionTestUtils.setField(userSuggestionService, "refreshBatchSize", 500);
+        userSuggestionService.start();
+
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            synchronized (inserts) {
+                for (Object[] row : rows) {
+                    inserts.add(row[0] + ">" + row[2]);
+                }
+            }
+            return new int[rows.size()];
+        });
+    }
+
+    private static SuggestionRanker ranker(FollowGraph graph, UserItemSets books, UserItemSets authors,
+                                           SuggestionRanker.Settings settings) {
+        return new SuggestionRanker(graph, SuggestionRanker.SharedItems.of(books),
+                SuggestionRanker.SharedItems.of(authors), settings);
+    }
+
+    private static List<Long> ids(List<SuggestionRanker.Suggestion> suggestions) {
+        return suggestions.stream().map(SuggestionRanker.Suggestion::getUserId).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Should rank friends of friends by mutual follows, then shared books and authors")
+    void rank_ScoresFriendsOfFriends() {
+        // User 1 shares two books with 6 and one author with 5
+        UserItemSets books = new UserItemSets.Builder().add(1, 10).add(1, 11).add(6, 11).add(6, 10).add(6, 10).build();
+        UserItemSets authors = new UserItemSets.Builder().add(1, 7).add(5, 7).build();
+        SuggestionRanker ranker = ranker(graph, books, authors, SETTINGS);
+
+        List<SuggestionRanker.Suggestion> suggestions = ranker.rank(1, graph.following(1));
+
+        // Neither user 1 nor the users it follows are suggested
+        assertEquals(List.of(4L, 5L, 6L), ids(suggestions));
+        assertEquals(2, suggestions.get(0).getMutualFollows());
+        assertEquals(1, suggestions.get(1).getSharedAuthors());
+        assertEquals(2, suggestions.get(2).getSharedBooks());
+        assertEquals(1.4, suggestions.get(2).getScore(), 1e-9);
+
+        // The ranker is reused: counts from the previous user are gone
+        assertEquals(List.of(2L, 3L), ids(ranker.rank(4, graph.following(4))));
+    }
+
+    @Test
+    @DisplayName("Should keep the candidates with the most mutual follows and skip users following too many")
+    void rank_PoolAndFanout() {
+        UserItemSets books = new UserItemSets.Builder().add(1, 10).add(5, 10).build();
+
+        // Pool of 1: only user 4 (two mutual follows) is scored, though 5 shares a book
+        SuggestionRanker.Settings smallPool = new SuggestionRanker.Settings(1, 1, 1000, 1.0, 5.0, 0.5);
+        assertEquals(List.of(4L), ids(ranker(graph, books, UserItemSets.EMPTY, smallPool).rank(1, graph.following(1))));
+
+        // User 2 follows 3 accounts, more than the fanout of 2: only user 3's follows are candidates
+        SuggestionRanker.Settings lowFanout = new SuggestionRanker.Settings(20, 200, 2, 1.0, 0.2, 0.5);
+        assertEquals(List.of(4L, 6L), ids(ranker(graph, books, UserItemSets.EMPTY, lowFanout).rank(1, graph.following(1))));
+    }
+
+    @Test
+    @DisplayName("Should rank every user in parallel and replace each partition's suggestions")
+    void rebuildAll_WritesEveryPartition() {
+        when(followGraphService.getGraph()).thenReturn(graph);
+        when(readingStatusRepository.streamUserBooks()).thenReturn(Stream.of(
+                new Object[] {1L, 10L}, new Object[] {6L, 10L}));
+        when(authorFollowRepository.streamAll()).thenReturn(Stream.empty());
+
+        userSuggestionService.rebuildAll();
+
+        verify(followGraphService).rebuildIfChanged();
+        // User IDs 0 to 6 in ranges of at most 2
+        verify(jdbcTemplate, times(4)).update(startsWith("DELETE"), anyInt(), anyInt());
+        verify(jdbcTemplate).update(startsWith("DELETE"), eq(0), eq(1));
+        verify(jdbcTemplate).update(startsWith("DELETE"), eq(5), eq(7));
+        assertEquals(List.of("1>4", "1>5", "1>6", "2>3", "3>1", "4>2", "4>3"),
+                inserts.stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Should rank again the users whose follows changed, with counts from the database")
+    void refreshStale_RanksChangedUsers() {
+        when(followGraphService.getGraph()).thenReturn(graph);
+        // Since the graph was built, user 1 unfollowed 3
+        when(followGraphService.getFollowedUserIds(1L)).thenReturn(List.of(2L));
+        when(readingStatusRepository.countSharedBooks(eq(1L), anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[] {5, 3L}));
+        when(authorFollowRepository.countSharedAuthors(eq(1L), anyCollection())).thenReturn(List.of());
+
+        userSuggestionService.markStaleAfterCommit(1L);
+        userSuggestionService.refreshStale();
+
+        verify(jdbcTemplate).update(startsWith("DELETE"), eq(1L));
+        assertEquals(List.of("1>5", "1>4"), inserts);
+        assertEquals(0, userSuggestionService.staleCount());
+    }
+
+    @Test
+    @DisplayName("Should leave out users followed since the suggestions were ranked")
+    void getSuggestions_SkipsFollowed() {
+        when(userSuggestionRepository.findByUserId(eq(1L), any())).thenReturn(List.of(
+                summary(4L), summary(6L), summary(5L)));
+        when(followGraphService.isFollowing(1L, 4L)).thenReturn(true);
+
+        List<UserSuggestionResponse> suggestions = userSuggestionService.getSuggestions(1L, 1);
+
+        assertEquals(1, suggestions.size());
+        assertEquals(6L, suggestions.get(0).getUserId());
+        assertThrows(IllegalArgumentException.class, () -> userSuggestionService.getSuggestions(1L, 21));
+    }
+
+    private static SuggestionSummary summary(Long userId) {
+        return new SuggestionSummary() {
+            public Long getUserId() { return userId; }
+            public String getUsername() { return "user" + userId; }
+            public String getAvatarUrl() { return null; }
+            public Integer getMutualFollows() { return 1; }
+            public Integer getSharedBooks() { return 0; }
+            public Integer getSharedAuthors() { return 0; }
+        };
+    }
+}
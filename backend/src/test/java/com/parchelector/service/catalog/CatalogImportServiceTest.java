@@ -0,0 +1,143 @@
+package com.parchelector.service.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CatalogImportService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CatalogImportService Tests")
+class CatalogImportServiceTest {
+
+    @Mock
+    private CatalogWriter catalogWriter;
+
+    @InjectMocks
+    private CatalogImportService catalogImportService;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalogImportService, "batchSize", 2);
+        ReflectionTestUtils.setField(catalogImportService, "progressIntervalMs", 60_000L);
+    }
+
+    private List<String> isbns(Collection<CatalogRecord> records) {
+        return records.stream().map(CatalogRecord::getIsbn13).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Should normalize ISBNs and names")
+    void shouldNormalizeRecords() {
+        CatalogRecord record = new CatalogRecord();
+        record.setTitle("  Cien años de soledad ");
+        record.setIsbn10("0-307-47472-0");
+        record.setAuthors(new ArrayList<>(Arrays.asList(" Gabriel García Márquez ", null, " ")));
+        record.setGenres(null);
+
+        assertNull(catalogImportService.normalize(record));
+        assertEquals("Cien años de soledad", record.getTitle());
+        assertEquals("9780307474728", record.getIsbn13());
+        assertEquals("0307474720", record.getIsbn10());
+        assertEquals(List.of("Gabriel García Márquez"), record.getAuthors());
+        assertTrue(record.getGenres().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject records without title or with an invalid ISBN")
+    void shouldRejectInvalidRecords() {
+        CatalogRecord untitled = new CatalogRecord();
+        untitled.setIsbn13("9780307474728");
+        CatalogRecord badChecksum = new CatalogRecord();
+        badChecksum.setTitle("Rayuela");
+        badChecksum.setIsbn13("978-0-307-47472-9");
+        CatalogRecord noIsbn = new CatalogRecord();
+        noIsbn.setTitle("Rayuela");
+
+        assertEquals("missing title", catalogImportService.normalize(untitled));
+        assertTrue(catalogImportService.normalize(badChecksum).startsWith("invalid ISBN-13"));
+        assertEquals("missing ISBN", catalogImportService.normalize(noIsbn));
+    }
+
+    @Test
+    @DisplayName("Should write in batches, keep the last of repeated ISBNs and count rejections")
+    void shouldWriteInBatches() throws IOException {
+        Path file = Files.writeString(directory.resolve("catalog.jsonl"),
+                "{\"isbn13\":\"9780307474728\",\"title\":\"First\"}\n" +
+                "{\"isbn13\":\"978-0-307-47472-8\",\"title\":\"First again\"}\n" +
+                "{\"title\":\"No ISBN\"}\n" +
+                "{\"isbn13\":\"9788437604572\",\"title\":\"Rayuela\"}\n" +
+                "{\"isbn13\":\"9780060883287\",\"title\":\"Third\"}\n");
+        List<List<String>> batches = new ArrayList<>();
+        List<String> titles = new ArrayList<>();
+        when(catalogWriter.write(anyCollection())).thenAnswer(invocation -> {
+            Collection<CatalogRecord> records = invocation.getArgument(0);
+            batches.add(isbns(records));
+            records.forEach(record -> titles.add(record.getTitle()));
+            return new CatalogWriter.BatchResult(records.size(), 0);
+        });
+
+        CatalogImportResult result = catalogImportService.importCatalog(file);
+
+        assertEquals(List.of(List.of("9780307474728", "9788437604572"), List.of("9780060883287")), batches);
+        assertEquals("First again", titles.get(0));
+        assertEquals(5, result.getRead());
+        assertEquals(3, result.getInserted());
+        assertEquals(1, result.getRejected());
+        assertFalse(Files.exists(directory.resolve("catalog.jsonl.checkpoint")));
+        verify(catalogWriter).loadIndexes();
+    }
+
+    @Test
+    @DisplayName("Should resume after the checkpoint of a failed import")
+    void shouldResumeFromCheckpoint() throws IOException {
+        Path file = Files.writeString(directory.resolve("catalog.jsonl"),
+                "{\"isbn13\":\"9780307474728\",\"title\":\"A\"}\n" +
+                "{\"isbn13\":\"9788437604572\",\"title\":\"B\"}\n" +
+                "{\"isbn13\":\"9780060883287\",\"title\":\"C\"}\n" +
+                "{\"isbn13\":\"9780140449136\",\"title\":\"D\"}\n");
+        when(catalogWriter.write(anyCollection()))
+                .thenReturn(new CatalogWriter.BatchResult(2, 0))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        assertThrows(IllegalStateException.class, () -> catalogImportService.importCatalog(file));
+        assertTrue(Files.readString(directory.resolve("catalog.jsonl.checkpoint")).contains("records=2"));
+
+        reset(catalogWriter);
+        List<String> written = new ArrayList<>();
+        when(catalogWriter.write(anyCollection())).thenAnswer(invocation -> {
+            written.addAll(isbns(invocation.getArgument(0)));
+            return new CatalogWriter.BatchResult(2, 0);
+        });
+
+        CatalogImportResult result = catalogImportService.importCatalog(file);
+
+        assertEquals(2, result.getResumedFrom());
+        assertEquals(2, result.getRead());
+        assertEquals(List.of("9780060883287", "9780140449136"), written);
+        assertFalse(Files.exists(directory.resolve("catalog.jsonl.checkpoint")));
+    }
+}
@@ -0,0 +1,100 @@
+package com.parchelector.service.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CSV and JSONL catalog readers.
+ */
+@DisplayName("CatalogReader Tests")
+class CatalogReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should parse quoted CSV fields with commas, quotes and line breaks")
+    void shouldParseQuotedCsvFields() throws IOException {
+        Path file = directory.resolve("catalog.csv");
+        Files.writeString(file, "isbn13,title,authors,published_year\r\n" +
+                "9780307474728,\"Cien años, de soledad\",Gabriel García Márquez|  ,1967\r\n" +
+                "9788437604572,\"Rayuela \"\"la novela\"\"\nsegunda línea\",Julio Cortázar,\r\n");
+
+        try (CatalogReader reader = CatalogReader.open(file)) {
+            CatalogRecord first = reader.next();
+            CatalogRecord second = reader.next();
+
+            assertEquals("Cien años, de soledad", first.getTitle());
+            assertEquals(List.of("Gabriel García Márquez"), first.getAuthors());
+            assertEquals(1967, first.getPublishedYear());
+            assertEquals("Rayuela \"la novela\"\nsegunda línea", second.getTitle());
+            assertNull(second.getPublishedYear());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed CSV row and keep reading")
+    void shouldContinueAfterMalformedCsvRow() throws IOException {
+        Path file = directory.resolve("catalog.csv");
+        Files.writeString(file, "isbn13,title\n9780307474728\n9788437604572,Rayuela\n");
+
+        try (CatalogReader reader = CatalogReader.open(file)) {
+            assertThrows(IllegalArgumentException.class, reader::next);
+            assertEquals("Rayuela", reader.next().getTitle());
+        }
+    }
+
+    @Test
+    @DisplayName("Should read gzip compressed JSON lines")
+    void shouldReadGzipJsonLines() throws IOException {
+        Path file = directory.resolve("catalog.jsonl.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(("{\"isbn13\":\"9780307474728\",\"title\":\"Cien años de soledad\",\"genres\":\"Novela\"," +
+                    "\"page_count\":471,\"unknown\":true}\n\n" +
+                    "{broken\n" +
+                    "{\"isbn13\":\"9788437604572\",\"title\":\"Rayuela\"}\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (CatalogReader reader = CatalogReader.open(file)) {
+            CatalogRecord first = reader.next();
+            assertEquals(List.of("Novela"), first.getGenres());
+            assertEquals(471, first.getPageCount());
+            assertThrows(IllegalArgumentException.class, reader::next);
+            assertEquals("Rayuela", reader.next().getTitle());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip already imported records")
+    void shouldSkipRecords() throws IOException {
+        Path file = directory.resolve("catalog.jsonl");
+        Files.writeString(file, "{\"title\":\"A\"}\n{\"title\":\"B\"}\n{\"title\":\"C\"}\n");
+
+        try (CatalogReader reader = CatalogReader.open(file)) {
+            assertEquals(2, reader.skip(2));
+            assertEquals("C", reader.next().getTitle());
+            assertEquals(0, reader.skip(5));
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse unknown formats")
+    void shouldRefuseUnknownFormats() throws IOException {
+        Path file = Files.writeString(directory.resolve("catalog.xml"), "<books/>");
+
+        assertThrows(IllegalArgumentException.class, () -> CatalogReader.open(file));
+    }
+}
@@ -5,6 +5,7 @@ import type {
   ApiResponse,
   Book,
   BookFilterParams,
+  BookPage,
 } from '../../../shared/types/types'
 import type { Ref } from 'vue'
 
@@ -55,13 +56,13 @@ export const useSearchBooks = (
         return []
       }
 
-      const response = await apiClient.get<ApiResponse<Book[]>>(
+      const response = await apiClient.get<ApiResponse<BookPage>>(
         `/books/search`,
         {
           params: { query: queryValue, limit: limitValue },
         }
       )
-      return response.data.data
+      return response.data.data.items
     },
     enabled: () => {
       const queryValue = typeof query === 'string' ? query : query.value
@@ -75,13 +76,13 @@ export const useFilterBooks = (params: Ref<BookFilterParams>) => {
   return useQuery({
     queryKey: booksKeys.filter(params.value),
     queryFn: async () => {
-      const response = await apiClient.get<ApiResponse<Book[]>>(
+      const response = await apiClient.get<ApiResponse<BookPage>>(
         `/books/filter`,
         {
           params: params.value,
         }
       )
-      return response.data.data
+      return response.data.data.items
     },
   })
 }
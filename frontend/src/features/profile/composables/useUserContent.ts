@@ -1,7 +1,7 @@
 // Composables for User Content endpoints (lists and reviews)
 import { useQuery } from '@tanstack/vue-query'
 import { apiClient } from '../../../shared/api/apiClient'
-import type { ApiResponse, ReadList, Review } from '../../../shared/types/types'
+import type { ApiResponse, ReadListSummary, Review } from '../../../shared/types/types'
 
 // ============= Query Keys =============
 export const userContentKeys = {
@@ -14,7 +14,7 @@ export const useUserLists = (userId: number) => {
   return useQuery({
     queryKey: userContentKeys.lists(userId),
     queryFn: async () => {
-      const response = await apiClient.get<ApiResponse<ReadList[]>>(
+      const response = await apiClient.get<ApiResponse<ReadListSummary[]>>(
         `/users/${userId}/lists`
       )
       return response.data.data
@@ -11,6 +11,7 @@ import { reviewsKeys } from './useReviews'
 // ============= Query Keys =============
 export const reviewInteractionsKeys = {
   likeStatus: (reviewId: number) => ['reviewLike', reviewId] as const,
+  likeStatuses: (reviewIds: number[]) => ['reviewLikes', reviewIds] as const,
   comments: (reviewId: number) => ['reviewComments', reviewId] as const,
 }
 
@@ -30,6 +31,7 @@ export const useLikeReview = () => {
       queryClient.invalidateQueries({
         queryKey: reviewInteractionsKeys.likeStatus(reviewId),
       })
+      queryClient.invalidateQueries({ queryKey: ['reviewLikes'] })
       queryClient.invalidateQueries({ queryKey: reviewsKeys.all })
     },
   })
@@ -51,6 +53,7 @@ export const useUnlikeReview = () => {
       queryClient.invalidateQueries({
         queryKey: reviewInteractionsKeys.likeStatus(reviewId),
       })
+      queryClient.invalidateQueries({ queryKey: ['reviewLikes'] })
       queryClient.invalidateQueries({ queryKey: reviewsKeys.all })
     },
   })
@@ -69,6 +72,22 @@ export const useLikeStatus = (reviewId: number) => {
   })
 }
 
+// ============= Get Like Statuses =============
+// One request for many reviews, e.g. every review shown on a page
+export const useLikeStatuses = (reviewIds: number[]) => {
+  return useQuery({
+    queryKey: reviewInteractionsKeys.likeStatuses(reviewIds),
+    queryFn: async () => {
+      const response = await apiClient.get<ApiResponse<Record<number, boolean>>>(
+        '/reviews/likes/status',
+        { params: { ids: reviewIds.join(',') } }
+      )
+      return response.data.data
+    },
+    enabled: reviewIds.length > 0,
+  })
+}
+
 // ============= Get Review Comments =============
 export const useReviewComments = (reviewId: number) => {
   return useQuery({
@@ -15,6 +15,8 @@ export const reviewsKeys = {
   book: (bookId: number) => [...reviewsKeys.all, 'book', bookId] as const,
   myReview: (bookId: number) =>
     [...reviewsKeys.all, 'myReview', bookId] as const,
+  detail: (reviewId: number) =>
+    [...reviewsKeys.all, 'detail', reviewId] as const,
 }
 
 // ============= Get Book Reviews =============
@@ -30,6 +32,19 @@ export const useBookReviews = (bookId: number) => {
   })
 }
 
+// ============= Get Review (full body) =============
+export const useReview = (reviewId: number) => {
+  return useQuery({
+    queryKey: reviewsKeys.detail(reviewId),
+    queryFn: async () => {
+      const response = await apiClient.get<ApiResponse<Review>>(
+        `/reviews/${reviewId}`
+      )
+      return response.data.data
+    },
+  })
+}
+
 // ============= Get My Review for a Book =============
 export const useMyReview = (bookId: number) => {
   return useQuery({
@@ -16,26 +16,26 @@ export const useFeed = (limit: Ref<number> | number = 20) => {
 
   return useInfiniteQuery({
     queryKey: feedKeys.list({ limit: limitValue }),
-    queryFn: async ({ pageParam = 0 }) => {
+    queryFn: async ({ pageParam }) => {
       const response = await apiClient.get<ApiResponse<FeedResponse>>(
         '/social/feed',
         {
           params: {
             limit: limitValue,
-            offset: pageParam,
+            cursor: pageParam ?? undefined,
           },
         }
       )
       return response.data.data
     },
     getNextPageParam: (lastPage) => {
-      // If there are more items, return the next offset
-      if (lastPage.hasMore) {
-        return lastPage.offset + lastPage.limit
+      // If there are more items, continue after the last one
+      if (lastPage.hasMore && lastPage.nextCursor) {
+        return lastPage.nextCursor
       }
       // No more pages
       return undefined
     },
-    initialPageParam: 0,
+    initialPageParam: null as string | null,
   })
 }
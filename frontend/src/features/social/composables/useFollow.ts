@@ -1,11 +1,12 @@
 // Composables for Social Follow endpoints
-import { useQuery, useMutation, useQueryClient } from '@tanstack/vue-query'
+import { useQuery, useInfiniteQuery, useMutation, useQueryClient } from '@tanstack/vue-query'
 import { apiClient } from '../../../shared/api/apiClient'
 import type {
   ApiResponse,
   FollowUserRequest,
   FollowAuthorRequest,
   FollowUserResponse,
+  FollowListResponse,
   UserStats,
 } from '../../../shared/types/types'
 
@@ -14,6 +15,9 @@ export const followKeys = {
   userStats: (userId: number) => ['userStats', userId] as const,
   userStatus: (userId: number) => ['followUserStatus', userId] as const,
   authorStatus: (authorId: number) => ['followAuthorStatus', authorId] as const,
+  lists: ['followList'] as const,
+  list: (userId: number, direction: 'followers' | 'following') =>
+    [...followKeys.lists, userId, direction] as const,
 }
 
 // ============= Follow User =============
@@ -36,6 +40,7 @@ export const useFollowUser = () => {
       queryClient.invalidateQueries({
         queryKey: followKeys.userStatus(variables.userId),
       })
+      queryClient.invalidateQueries({ queryKey: followKeys.lists })
       queryClient.invalidateQueries({ queryKey: ['profile'] })
     },
   })
@@ -60,6 +65,7 @@ export const useUnfollowUser = () => {
       queryClient.invalidateQueries({
         queryKey: followKeys.userStatus(userId),
       })
+      queryClient.invalidateQueries({ queryKey: followKeys.lists })
       queryClient.invalidateQueries({ queryKey: ['profile'] })
     },
   })
@@ -119,6 +125,38 @@ export const useUserStats = (userId: number) => {
   })
 }
 
+// ============= Get Followers / Following with Infinite Scroll =============
+const useFollowList = (
+  userId: number,
+  direction: 'followers' | 'following',
+  limit = 20
+) => {
+  return useInfiniteQuery({
+    queryKey: followKeys.list(userId, direction),
+    queryFn: async ({ pageParam }) => {
+      const response = await apiClient.get<ApiResponse<FollowListResponse>>(
+        `/social/users/${userId}/${direction}`,
+        {
+          params: {
+            limit,
+            cursor: pageParam ?? undefined,
+          },
+        }
+      )
+      return response.data.data
+    },
+    getNextPageParam: (lastPage) =>
+      lastPage.hasMore && lastPage.nextCursor ? lastPage.nextCursor : undefined,
+    initialPageParam: null as string | null,
+  })
+}
+
+export const useFollowers = (userId: number, limit = 20) =>
+  useFollowList(userId, 'followers', limit)
+
+export const useFollowing = (userId: number, limit = 20) =>
+  useFollowList(userId, 'following', limit)
+
 // ============= Get Follow User Status =============
 export const useFollowUserStatus = (userId: number) => {
   return useQuery({
@@ -75,6 +75,7 @@ export interface Book {
   rating: number
   cover: string
   status: string | null
+  favorite?: boolean
   averageRating?: number
   coverUrl?: string
   readingStatus?: ReadingStatus
@@ -92,9 +93,16 @@ export interface BookFilterParams {
   minYear?: number
   maxYear?: number
   sortBy?: 'popular' | 'rating' | 'newest' | 'oldest'
+  cursor?: string
   limit?: number
 }
 
+export interface BookPage {
+  items: Book[]
+  nextCursor: string | null
+  hasMore: boolean
+}
+
 export interface FavoriteRequest {
   bookId: number
 }
@@ -126,6 +134,23 @@ export interface ReadList {
   bookCount: number
   likeCount: number
   books: ListBook[]
+  nextCursor: string | null
+  hasMore: boolean
+}
+
+// A list in a user's collection: the first covers instead of its books
+export interface ReadListSummary {
+  id: number
+  name: string
+  description: string
+  visibility: ListVisibility
+  userId: number
+  username: string
+  createdAt: string
+  updatedAt: string
+  bookCount: number
+  likeCount: number
+  coverUrls: string[]
 }
 
 export interface ListBook {
@@ -169,10 +194,12 @@ export interface Review {
   rating: number
   title: string
   body: string
+  excerpt: string
   createdAt: string
   updatedAt: string
   likes: number
   comments: number
+  likedByMe?: boolean
 }
 
 export interface BookReviewsResponse {
@@ -180,7 +207,14 @@ export interface BookReviewsResponse {
   bookTitle: string
   averageRating: number
   totalReviews: number
+  fiveStarReviews: number
+  fourStarReviews: number
+  threeStarReviews: number
+  twoStarReviews: number
+  oneStarReviews: number
   reviews: Review[]
+  nextCursor: string | null
+  hasMore: boolean
 }
 
 export interface AddCommentRequest {
@@ -214,16 +248,30 @@ export interface FollowUserResponse {
   createdAt: string
 }
 
+export interface FollowListUser {
+  userId: number
+  username: string
+  avatarUrl: string | null
+  isFollowedByMe: boolean | null
+}
+
+export interface FollowListResponse {
+  users: FollowListUser[]
+  limit: number
+  nextCursor: string | null
+  hasMore: boolean
+}
+
 export interface FeedParams {
   limit?: number
-  offset?: number
+  cursor?: string
 }
 
 export interface FeedResponse {
   items: FeedItem[]
-  total: number
+  total: number | null
   limit: number
-  offset: number
+  nextCursor: string | null
   hasMore: boolean
 }
 
@@ -244,7 +292,7 @@ export interface FeedReview {
   bookCover: string
   rating: number
   title: string
-  body: string
+  excerpt: string
   likes: number
   comments: number
 }